@@ -2,6 +2,7 @@ package io.zephyr.api;
 
 import io.zephyr.kernel.Module;
 import io.zephyr.kernel.VolatileStorage;
+import io.zephyr.kernel.metrics.ModuleUsage;
 import java.util.List;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -27,6 +28,15 @@ public interface ModuleContext extends VolatileStorage {
    */
   List<Module> getModules(Predicate<Module> filter);
 
+  /**
+   * @return the current module's CPU, allocations and task latencies, or null if it has no thread
+   *     (it's a kernel module, or hasn't been started)
+   */
+  ModuleUsage getUsage();
+
+  /** @return the usage of every plugin that has been started */
+  List<ModuleUsage> getModuleUsage();
+
   /** */
   ModuleTracker trackModules(Predicate<Module> filter);
 
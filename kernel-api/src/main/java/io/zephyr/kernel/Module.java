@@ -35,6 +35,35 @@ public interface Module extends Comparable<Module>, Originator {
     }
   }
 
+  /**
+   * when a module's activator runs. Eager modules are activated as soon as they're started; lazy
+   * modules are resolved and have their classpath prepared, but are only activated the first time
+   * another module uses them (by looking up services or linking against their classes).
+   *
+   * <p>Only modules that declare a lazy module as a dependency can use it: a lazy module's services
+   * don't exist until its activator registers them, so a lookup from a module that doesn't depend
+   * on it won't find them or activate it
+   */
+  enum Activation {
+    Eager,
+    Lazy;
+
+    public static Activation parse(@NonNull String value) {
+      val normalized = value.trim().toLowerCase();
+      switch (normalized) {
+        case "eager":
+          return Activation.Eager;
+        case "lazy":
+          return Activation.Lazy;
+      }
+      throw new IllegalArgumentException(
+          "value '"
+              + value
+              + "' is not a valid activation policy.  Must be ['eager', 'lazy']"
+              + " (case-insensitive)");
+    }
+  }
+
   ModuleClasspath getModuleClasspath();
 
   int getOrder();
@@ -44,6 +73,11 @@ public interface Module extends Comparable<Module>, Originator {
 
   Type getType();
 
+  /** @return this module's activation policy */
+  default Activation getActivation() {
+    return Activation.Eager;
+  }
+
   Path getModuleDirectory();
 
   Assembly getAssembly();
@@ -0,0 +1,7 @@
+package io.zephyr.kernel.concurrency;
+
+/**
+ * marks a {@link Task} that spends most of its time waiting on I/O (downloads, copies, unpacking).
+ * Worker pools may admit these through a separate concurrency limit from CPU-bound tasks
+ */
+public interface IoBound {}
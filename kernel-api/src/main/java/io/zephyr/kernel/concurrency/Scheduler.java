@@ -1,5 +1,6 @@
 package io.zephyr.kernel.concurrency;
 
+import io.zephyr.kernel.metrics.KernelMetrics;
 import java.util.concurrent.ExecutorService;
 
 public interface Scheduler<K> {
@@ -7,4 +8,17 @@ public interface Scheduler<K> {
   ExecutorService getKernelExecutor();
 
   TaskTracker<K> submit(Process<K> process);
+
+  /**
+   * publish the scheduler's pool metrics (e.g. pool sizes and admission limits)
+   *
+   * @param metrics the kernel's metrics
+   */
+  default void exportMetrics(KernelMetrics metrics) {}
+
+  /** start (or restart) the scheduler's pools. Called each time the kernel starts */
+  default void start() {}
+
+  /** release the threads the scheduler's pools own. Called each time the kernel stops */
+  default void stop() {}
 }
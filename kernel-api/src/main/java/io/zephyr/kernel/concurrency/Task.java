@@ -6,6 +6,7 @@ import io.sunshower.gyre.Pair;
 import io.sunshower.gyre.Scope;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
@@ -43,6 +44,25 @@ public abstract class Task {
   public static final class TaskValue {
     final Object value;
     final String name;
+
+    /**
+     * if non-null, the task isn't finished until this completes--its dependents are released then,
+     * and no scheduler thread waits for it in the meantime
+     */
+    final CompletionStage<?> completion;
+
+    public TaskValue(Object value, String name) {
+      this(value, name, null);
+    }
+
+    /**
+     * @param completion completes when the task's work does
+     * @param name the name of the value
+     * @return a value for a task whose work finishes asynchronously
+     */
+    public static TaskValue completingWhen(CompletionStage<?> completion, String name) {
+      return new TaskValue(null, name, completion);
+    }
   }
 
   public String toString() {
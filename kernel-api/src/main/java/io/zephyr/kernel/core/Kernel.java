@@ -9,6 +9,8 @@ import io.zephyr.kernel.concurrency.Scheduler;
 import io.zephyr.kernel.events.EventSource;
 import io.zephyr.kernel.memento.Caretaker;
 import io.zephyr.kernel.memento.Originator;
+import io.zephyr.kernel.metrics.KernelMetrics;
+import io.zephyr.kernel.metrics.ModuleUsage;
 import java.nio.file.FileSystem;
 import java.util.List;
 
@@ -40,5 +42,11 @@ public interface Kernel extends EventSource, Originator, Caretaker {
 
   Scheduler<String> getScheduler();
 
+  /** @return this kernel's metrics */
+  KernelMetrics getMetrics();
+
+  /** @return the usage of every plugin that has been started */
+  List<ModuleUsage> getModuleUsage();
+
   ModuleContext createContext(Module module, VolatileStorage delegate);
 }
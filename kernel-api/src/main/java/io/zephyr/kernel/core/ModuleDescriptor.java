@@ -3,6 +3,7 @@ package io.zephyr.kernel.core;
 import io.zephyr.kernel.Coordinate;
 import io.zephyr.kernel.Dependency;
 import io.zephyr.kernel.Module;
+import io.zephyr.kernel.Module.Activation;
 import io.zephyr.kernel.Module.Type;
 import java.io.File;
 import java.net.URL;
@@ -40,6 +41,11 @@ public class ModuleDescriptor {
   @NonNull private final List<PathSpecification> exports;
   /** an optional description for this module */
   private final String description;
+  /**
+   * whether this module is activated when it's started or when it's first used by a module that
+   * depends on it
+   */
+  @NonNull private final Module.Activation activation;
 
   public ModuleDescriptor(
       URL location,
@@ -50,6 +56,19 @@ public class ModuleDescriptor {
       List<Dependency> dependencies,
       List<PathSpecification> exports,
       String description) {
+    this(location, order, file, type, coord, dependencies, exports, description, Activation.Eager);
+  }
+
+  public ModuleDescriptor(
+      URL location,
+      int order,
+      File file,
+      Type type,
+      Coordinate coord,
+      List<Dependency> dependencies,
+      List<PathSpecification> exports,
+      String description,
+      Activation activation) {
     this.type = type;
     this.order = order;
     this.source = location;
@@ -58,6 +77,7 @@ public class ModuleDescriptor {
     this.exports = exports;
     this.description = description;
     this.dependencies = dependencies;
+    this.activation = activation;
   }
 
   public static final class Attributes {
@@ -85,5 +105,8 @@ public class ModuleDescriptor {
 
     /** corresponds to ModuleDescriptor.exports */
     public static final String EXPORTS = "exports";
+
+    /** corresponds to ModuleDescriptor.activation */
+    public static final String ACTIVATION = "activation";
   }
 }
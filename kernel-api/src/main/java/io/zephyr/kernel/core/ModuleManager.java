@@ -8,7 +8,9 @@ import io.zephyr.kernel.module.ModuleInstallationGroup;
 import io.zephyr.kernel.module.ModuleInstallationStatusGroup;
 import io.zephyr.kernel.module.ModuleLifecycleChangeGroup;
 import io.zephyr.kernel.module.ModuleLifecycleStatusGroup;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 
 public interface ModuleManager extends KernelMember {
 
@@ -22,7 +24,30 @@ public interface ModuleManager extends KernelMember {
 
   ModuleClasspathManager getModuleLoader();
 
+  /**
+   * activate a lazily-activated module that has been started but not yet used, blocking until its
+   * activator has run. Does nothing for any other module
+   *
+   * @param coordinate the module to activate
+   */
+  default void activateDeferred(Coordinate coordinate) {}
+
   List<Module> getModules();
 
   List<Module> getModules(Lifecycle.State resolved);
+
+  /**
+   * @param filter the filter to apply. Implementations should answer {@link
+   *     io.zephyr.kernel.module.ModulePredicates} filters without testing every module
+   * @return the modules matching the filter
+   */
+  default List<Module> getModules(Predicate<Module> filter) {
+    final List<Module> result = new ArrayList<>();
+    for (final Module module : getModules()) {
+      if (filter.test(module)) {
+        result.add(module);
+      }
+    }
+    return result;
+  }
 }
@@ -81,17 +81,31 @@ public class AbstractEventSource implements EventSource {
   @Override
   @SuppressWarnings("unchecked")
   public <T> void dispatchEvent(EventType type, Event<T> event) {
+    for (val listener : takeListeners(type)) {
+      ((EventListener) listener).onEvent(type, event);
+    }
+  }
+
+  /**
+   * take the listeners an event of a type is to be delivered to, so that they're called outside the
+   * listener lock. Listeners registered with {@link EventListener.Options#REMOVE_AFTER_DISPATCH}
+   * are removed as they're taken
+   *
+   * @param type the event's type
+   * @return the listeners, in delivery order
+   */
+  protected List<EventListener<?>> takeListeners(EventType type) {
+    val result = new ArrayList<EventListener<?>>();
     synchronized (listeners) {
       val entryIter = listeners.entrySet().iterator();
       while (entryIter.hasNext()) {
         val listeners = entryIter.next();
-        val key = listeners.getKey();
-        if (key.get(type.getId())) {
+        if (listeners.getKey().get(type.getId())) {
           val ls = listeners.getValue();
           val iter = ls.iterator();
           while (iter.hasNext()) {
             val next = iter.next();
-            next.listener.onEvent(type, (Event) event);
+            result.add(next.listener);
             if (EventListener.Options.isSet(
                 next.flags, EventListener.Options.REMOVE_AFTER_DISPATCH)) {
               iter.remove();
@@ -103,6 +117,7 @@ public class AbstractEventSource implements EventSource {
         }
       }
     }
+    return result;
   }
 
   @AllArgsConstructor
@@ -0,0 +1,55 @@
+package io.zephyr.kernel.jfr;
+
+import io.zephyr.kernel.events.Event;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import lombok.val;
+
+/** an asynchronous kernel event was delivered to its listeners */
+@Name("io.zephyr.EventDispatch")
+@Label("Event Dispatch")
+@Category({"Zephyr", "Events"})
+@Description("An asynchronous kernel event was delivered to its listeners")
+@StackTrace(false)
+public final class EventDispatchEvent extends jdk.jfr.Event {
+
+  @Label("Event Type")
+  String eventType;
+
+  @Label("Module")
+  @Description("The module the event is about, if any")
+  String module;
+
+  @Label("Queued")
+  @Description("How long the event waited to be dispatched")
+  @Timespan
+  long queued;
+
+  /** @return a started event */
+  public static EventDispatchEvent start() {
+    val event = new EventDispatchEvent();
+    event.begin();
+    return event;
+  }
+
+  /**
+   * end the dispatch, and record it if a recording wants it
+   *
+   * @param eventType the type of the event
+   * @param event the event. Its target is recorded if it's a module
+   * @param queued how long (in nanoseconds) the event waited to be dispatched
+   */
+  public void complete(Object eventType, Event<?> event, long queued) {
+    end();
+    if (shouldCommit()) {
+      this.eventType = String.valueOf(eventType);
+      this.module = event == null ? null : ZephyrEvents.coordinate(event.getTarget());
+      this.queued = queued;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package io.zephyr.kernel.jfr;
+
+import io.zephyr.kernel.Coordinate;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.val;
+
+/** a module's class space was defined: its loader and classpath were created and linked */
+@Name("io.zephyr.ModuleDefinition")
+@Label("Module Definition")
+@Category({"Zephyr", "Modules"})
+@Description("A module's class loader and classpath were defined and linked")
+@StackTrace(false)
+public final class ModuleDefinitionEvent extends jdk.jfr.Event {
+
+  @Label("Module")
+  String module;
+
+  @Label("Cached")
+  @Description("True if the module was already loaded and only relinked")
+  boolean cached;
+
+  /** @return a started event */
+  public static ModuleDefinitionEvent start() {
+    val event = new ModuleDefinitionEvent();
+    event.begin();
+    return event;
+  }
+
+  /**
+   * end the definition, and record it if a recording wants it
+   *
+   * @param module the module's coordinate
+   * @param cached true if the module was already loaded
+   */
+  public void complete(Coordinate module, boolean cached) {
+    end();
+    if (shouldCommit()) {
+      this.module = module == null ? null : module.toCanonicalForm();
+      this.cached = cached;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package io.zephyr.kernel.jfr;
+
+import io.zephyr.kernel.Coordinate;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.val;
+
+/** a single phase (download, scan, transfer, unpack, install...) of a module installation */
+@Name("io.zephyr.ModuleInstallPhase")
+@Label("Module Install Phase")
+@Category({"Zephyr", "Modules"})
+@Description("A phase of a module installation")
+@StackTrace(false)
+public final class ModuleInstallPhaseEvent extends jdk.jfr.Event {
+
+  @Label("Phase")
+  String phase;
+
+  @Label("Location")
+  @Description("Where the module is being installed from")
+  String location;
+
+  @Label("Module")
+  @Description("The module's coordinate, once it's known")
+  String module;
+
+  /**
+   * @param phase the name of the phase
+   * @return a started event
+   */
+  public static ModuleInstallPhaseEvent start(String phase) {
+    val event = new ModuleInstallPhaseEvent();
+    event.phase = phase;
+    event.begin();
+    return event;
+  }
+
+  /**
+   * end the phase, and record it if a recording wants it
+   *
+   * @param location where the module is being installed from. May be null
+   * @param module the module's coordinate. May be null
+   */
+  public void complete(Object location, Coordinate module) {
+    end();
+    if (shouldCommit()) {
+      this.location = location == null ? null : location.toString();
+      this.module = module == null ? null : module.toCanonicalForm();
+      commit();
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package io.zephyr.kernel.jfr;
+
+import io.zephyr.kernel.Lifecycle;
+import io.zephyr.kernel.Module;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import lombok.val;
+
+/** a module moved from one lifecycle state to another */
+@Name("io.zephyr.ModuleStateChange")
+@Label("Module State Change")
+@Category({"Zephyr", "Modules"})
+@Description("A module's lifecycle state changed")
+@StackTrace(false)
+public final class ModuleStateChangeEvent extends jdk.jfr.Event {
+
+  @Label("Module")
+  String module;
+
+  @Label("Previous State")
+  String previousState;
+
+  @Label("State")
+  String state;
+
+  @Label("Time in Previous State")
+  @Timespan
+  long timeInPreviousState;
+
+  /**
+   * record a state change. A no-op unless a recording has this event enabled
+   *
+   * @param module the module
+   * @param previous the state it left (null if it had none)
+   * @param current the state it entered
+   * @param timeInPrevious how long (in nanoseconds) it was in the previous state
+   */
+  public static void record(
+      Module module, Lifecycle.State previous, Lifecycle.State current, long timeInPrevious) {
+    val event = new ModuleStateChangeEvent();
+    if (event.isEnabled()) {
+      event.module = ZephyrEvents.coordinate(module);
+      event.previousState = previous == null ? null : previous.name();
+      event.state = current == null ? null : current.name();
+      event.timeInPreviousState = timeInPrevious;
+      event.commit();
+    }
+  }
+}
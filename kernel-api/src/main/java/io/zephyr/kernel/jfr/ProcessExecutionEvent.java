@@ -0,0 +1,52 @@
+package io.zephyr.kernel.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.val;
+
+/** a kernel process (a graph of tasks) ran */
+@Name("io.zephyr.ProcessExecution")
+@Label("Process Execution")
+@Category({"Zephyr", "Scheduler"})
+@Description("A kernel process ran, stage by stage")
+@StackTrace(false)
+public final class ProcessExecutionEvent extends jdk.jfr.Event {
+
+  @Label("Process")
+  String process;
+
+  @Label("Stages")
+  int stages;
+
+  @Label("Failed")
+  boolean failed;
+
+  /**
+   * @param process the process's name
+   * @return a started event
+   */
+  public static ProcessExecutionEvent start(String process) {
+    val event = new ProcessExecutionEvent();
+    event.process = process;
+    event.begin();
+    return event;
+  }
+
+  /**
+   * end the process, and record it if a recording wants it
+   *
+   * @param stages the number of stages that ran
+   * @param failed true if the process failed
+   */
+  public void complete(int stages, boolean failed) {
+    end();
+    if (shouldCommit()) {
+      this.stages = stages;
+      this.failed = failed;
+      commit();
+    }
+  }
+}
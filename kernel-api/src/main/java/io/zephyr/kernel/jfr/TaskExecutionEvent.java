@@ -0,0 +1,75 @@
+package io.zephyr.kernel.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import lombok.val;
+
+/**
+ * a task in a kernel process ran. For tasks that complete asynchronously (plugin activation), the
+ * event ends when their work does, and is committed on the thread that observed that
+ */
+@Name("io.zephyr.TaskExecution")
+@Label("Task Execution")
+@Category({"Zephyr", "Scheduler"})
+@Description("A task of a kernel process ran")
+@StackTrace(false)
+public final class TaskExecutionEvent extends jdk.jfr.Event {
+
+  @Label("Task")
+  String task;
+
+  @Label("Task Type")
+  String taskType;
+
+  @Label("Stage")
+  int stage;
+
+  @Label("Worker")
+  String worker;
+
+  @Label("Queued")
+  @Description("How long the task waited for a worker")
+  @Timespan
+  long queued;
+
+  @Label("Failed")
+  boolean failed;
+
+  /**
+   * @param task the task's name
+   * @param taskType the task's class
+   * @param stage the stage the task is running in
+   * @return a started event. Its fields are only filled in if a recording wants it: the worker has
+   *     to be read now, and most tasks run with no recording at all
+   */
+  public static TaskExecutionEvent start(String task, Class<?> taskType, int stage) {
+    val event = new TaskExecutionEvent();
+    if (event.isEnabled()) {
+      event.task = task;
+      event.taskType = taskType.getName();
+      event.stage = stage;
+      event.worker = Thread.currentThread().getName();
+    }
+    event.begin();
+    return event;
+  }
+
+  /**
+   * end the task, and record it if a recording wants it
+   *
+   * @param queued how long (in nanoseconds) the task waited for a worker
+   * @param failed true if the task failed
+   */
+  public void complete(long queued, boolean failed) {
+    end();
+    if (shouldCommit()) {
+      this.queued = queued;
+      this.failed = failed;
+      commit();
+    }
+  }
+}
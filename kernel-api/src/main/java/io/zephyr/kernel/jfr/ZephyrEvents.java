@@ -0,0 +1,73 @@
+package io.zephyr.kernel.jfr;
+
+import io.zephyr.kernel.Module;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import lombok.val;
+
+/**
+ * the kernel's Flight Recorder events. Every event is a no-op unless a recording enables it.
+ *
+ * <p>{@link #PROFILE} enables all of them. To see kernel work next to GC and I/O, start a recording
+ * with both it and the JDK's default profile, e.g. <code>
+ * -XX:StartFlightRecording:settings=default,settings=zephyr.jfc</code> (extract it with {@link
+ * #getProfile()})
+ */
+public final class ZephyrEvents {
+
+  /** the classpath location of the bundled profile */
+  public static final String PROFILE = "/io/zephyr/kernel/jfr/zephyr.jfc";
+
+  /** every event type the kernel records */
+  public static final List<Class<? extends jdk.jfr.Event>> EVENTS =
+      Collections.unmodifiableList(
+          Arrays.asList(
+              ModuleStateChangeEvent.class,
+              ModuleInstallPhaseEvent.class,
+              ModuleDefinitionEvent.class,
+              ProcessExecutionEvent.class,
+              TaskExecutionEvent.class,
+              EventDispatchEvent.class));
+
+  private ZephyrEvents() {}
+
+  /**
+   * register every event, so that recordings started before the kernel does any work still list
+   * them
+   */
+  public static void register() {
+    for (val event : EVENTS) {
+      FlightRecorder.register(event);
+    }
+  }
+
+  /**
+   * @return the bundled profile
+   * @throws IOException if it can't be read
+   * @throws ParseException if it's malformed
+   */
+  public static Configuration getProfile() throws IOException, ParseException {
+    val stream = ZephyrEvents.class.getResourceAsStream(PROFILE);
+    if (stream == null) {
+      throw new IOException("Error: no profile at " + PROFILE);
+    }
+    try (val reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+      return Configuration.create(reader);
+    }
+  }
+
+  static String coordinate(Object target) {
+    if (target instanceof Module) {
+      val coordinate = ((Module) target).getCoordinate();
+      return coordinate == null ? null : coordinate.toCanonicalForm();
+    }
+    return null;
+  }
+}
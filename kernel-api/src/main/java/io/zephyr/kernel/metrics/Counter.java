@@ -0,0 +1,16 @@
+package io.zephyr.kernel.metrics;
+
+/** a monotonically increasing count. Safe to update from any thread without locking */
+public interface Counter extends Metric {
+
+  /** add one */
+  default void increment() {
+    add(1);
+  }
+
+  /** @param delta the amount to add. Must not be negative */
+  void add(long delta);
+
+  /** @return the current count */
+  long getCount();
+}
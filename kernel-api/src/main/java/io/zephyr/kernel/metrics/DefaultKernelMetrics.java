@@ -0,0 +1,134 @@
+package io.zephyr.kernel.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import lombok.NonNull;
+import lombok.val;
+
+/** in-memory metrics: {@link LongAdder} counters and {@link LogLinearHistogram} histograms */
+public class DefaultKernelMetrics implements KernelMetrics {
+
+  private final ConcurrentMap<String, Metric> metrics;
+  private final List<Listener> listeners;
+
+  public DefaultKernelMetrics() {
+    metrics = new ConcurrentHashMap<>();
+    listeners = new CopyOnWriteArrayList<>();
+  }
+
+  @Override
+  public Counter counter(@NonNull String name) {
+    return get(name, Counter.class, DefaultCounter::new);
+  }
+
+  @Override
+  public Histogram histogram(@NonNull String name) {
+    return get(name, Histogram.class, LogLinearHistogram::new);
+  }
+
+  @Override
+  public Gauge gauge(@NonNull String name, @NonNull LongSupplier value) {
+    return get(name, Gauge.class, n -> new DefaultGauge(n, value));
+  }
+
+  @Override
+  public boolean remove(@NonNull String name) {
+    val removed = metrics.remove(name);
+    if (removed == null) {
+      return false;
+    }
+    for (val listener : listeners) {
+      listener.onRemoved(removed);
+    }
+    return true;
+  }
+
+  @Override
+  public Collection<Metric> getMetrics() {
+    return Collections.unmodifiableCollection(metrics.values());
+  }
+
+  @Override
+  public void addListener(@NonNull Listener listener) {
+    listeners.add(listener);
+    for (val metric : metrics.values()) {
+      listener.onCreated(metric);
+    }
+  }
+
+  @Override
+  public void removeListener(@NonNull Listener listener) {
+    listeners.remove(listener);
+  }
+
+  private <T extends Metric> T get(String name, Class<T> type, Function<String, T> factory) {
+    var existing = metrics.get(name);
+    if (existing == null) {
+      val created = factory.apply(name);
+      existing = metrics.putIfAbsent(name, created);
+      if (existing == null) {
+        for (val listener : listeners) {
+          listener.onCreated(created);
+        }
+        return created;
+      }
+    }
+    if (!type.isInstance(existing)) {
+      throw new IllegalArgumentException(
+          "Error: metric '" + name + "' is not a " + type.getSimpleName());
+    }
+    return type.cast(existing);
+  }
+
+  static final class DefaultCounter implements Counter {
+    private final String name;
+    private final LongAdder count;
+
+    DefaultCounter(String name) {
+      this.name = name;
+      this.count = new LongAdder();
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public void add(long delta) {
+      count.add(delta);
+    }
+
+    @Override
+    public long getCount() {
+      return count.sum();
+    }
+  }
+
+  static final class DefaultGauge implements Gauge {
+    private final String name;
+    private final LongSupplier value;
+
+    DefaultGauge(String name, LongSupplier value) {
+      this.name = name;
+      this.value = value;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public long getValue() {
+      return value.getAsLong();
+    }
+  }
+}
@@ -0,0 +1,8 @@
+package io.zephyr.kernel.metrics;
+
+/** a value sampled when it's read */
+public interface Gauge extends Metric {
+
+  /** @return the current value */
+  long getValue();
+}
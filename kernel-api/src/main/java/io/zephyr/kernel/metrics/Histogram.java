@@ -0,0 +1,36 @@
+package io.zephyr.kernel.metrics;
+
+/**
+ * the distribution of a non-negative value (typically a latency in nanoseconds). Safe to update
+ * from any thread without locking
+ */
+public interface Histogram extends Metric {
+
+  /** @param value the value to record. Negative values are recorded as 0 */
+  void record(long value);
+
+  /** @return a consistent-enough view of the distribution so far */
+  Snapshot snapshot();
+
+  /** a histogram's distribution at a point in time */
+  interface Snapshot {
+
+    /** @return the number of values recorded */
+    long getCount();
+
+    /** @return the smallest value recorded, or 0 if there are none */
+    long getMin();
+
+    /** @return the largest value recorded, or 0 if there are none */
+    long getMax();
+
+    /** @return the mean of the values recorded, or 0 if there are none */
+    double getMean();
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the value at that percentile, or 0 if there are none
+     */
+    long getValueAtPercentile(double percentile);
+  }
+}
@@ -0,0 +1,82 @@
+package io.zephyr.kernel.metrics;
+
+import java.util.Collection;
+import java.util.ServiceLoader;
+import java.util.function.LongSupplier;
+import lombok.val;
+
+/**
+ * the kernel's metrics. Metrics are created on first use and live as long as the kernel (or until
+ * they're removed); asking for the same name twice returns the same metric.
+ *
+ * <p>Implementations are located with {@link ServiceLoader}; {@link DefaultKernelMetrics} is used
+ * if there are none
+ */
+public interface KernelMetrics {
+
+  /**
+   * @param name the counter's name
+   * @return the counter with that name, created if necessary
+   * @throws IllegalArgumentException if a metric of another type has that name
+   */
+  Counter counter(String name);
+
+  /**
+   * @param name the histogram's name
+   * @return the histogram with that name, created if necessary
+   * @throws IllegalArgumentException if a metric of another type has that name
+   */
+  Histogram histogram(String name);
+
+  /**
+   * @param name the gauge's name
+   * @param value samples the gauge
+   * @return the gauge with that name. If it already exists, <code>value</code> is ignored
+   * @throws IllegalArgumentException if a metric of another type has that name
+   */
+  Gauge gauge(String name, LongSupplier value);
+
+  /**
+   * remove a metric--e.g. one that tracked something that's gone. Asking for the name again creates
+   * a new metric
+   *
+   * @param name the metric's name
+   * @return true if there was such a metric
+   */
+  boolean remove(String name);
+
+  /** @return every metric created so far */
+  Collection<Metric> getMetrics();
+
+  /**
+   * @param listener notified of every metric created (or removed) from now on, and, immediately, of
+   *     every metric that already exists
+   */
+  void addListener(Listener listener);
+
+  /** @param listener the listener to remove */
+  void removeListener(Listener listener);
+
+  /** notified when metrics are created and removed */
+  @FunctionalInterface
+  interface Listener {
+    void onCreated(Metric metric);
+
+    /** @param metric the metric that was removed */
+    default void onRemoved(Metric metric) {}
+  }
+
+  /**
+   * @param loaders the class loaders to search for an implementation, in order
+   * @return the first implementation found, or a {@link DefaultKernelMetrics}
+   */
+  static KernelMetrics load(ClassLoader... loaders) {
+    for (val classloader : loaders) {
+      val loader = ServiceLoader.load(KernelMetrics.class, classloader).iterator();
+      if (loader.hasNext()) {
+        return loader.next();
+      }
+    }
+    return new DefaultKernelMetrics();
+  }
+}
@@ -0,0 +1,139 @@
+package io.zephyr.kernel.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.val;
+
+/**
+ * an HDR-style histogram: values below <code>2 * SUB_BUCKETS</code> are counted exactly, and every
+ * power-of-two range above that is split into <code>SUB_BUCKETS</code> linear buckets--so a
+ * percentile is never off by more than about 3%, over the whole range of <code>long</code>, in a
+ * fixed 15KB. Recording is a handful of atomic adds
+ */
+public final class LogLinearHistogram implements Histogram {
+
+  /** log2 of the number of buckets each power of two is split into */
+  static final int PRECISION = 5;
+
+  static final int SUB_BUCKETS = 1 << PRECISION;
+
+  static final int BUCKETS = bucketOf(Long.MAX_VALUE) + 1;
+
+  private final String name;
+  private final AtomicLongArray counts;
+  private final LongAdder count;
+  private final LongAdder sum;
+  private final AtomicLong min;
+  private final AtomicLong max;
+
+  public LogLinearHistogram(String name) {
+    this.name = name;
+    this.counts = new AtomicLongArray(BUCKETS);
+    this.count = new LongAdder();
+    this.sum = new LongAdder();
+    this.min = new AtomicLong(Long.MAX_VALUE);
+    this.max = new AtomicLong(Long.MIN_VALUE);
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public void record(long value) {
+    val v = Math.max(0, value);
+    counts.incrementAndGet(bucketOf(v));
+    count.increment();
+    sum.add(v);
+    long current;
+    while (v < (current = min.get()) && !min.compareAndSet(current, v)) {
+      Thread.onSpinWait();
+    }
+    while (v > (current = max.get()) && !max.compareAndSet(current, v)) {
+      Thread.onSpinWait();
+    }
+  }
+
+  @Override
+  public Snapshot snapshot() {
+    val buckets = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets[i] = counts.get(i);
+      total += buckets[i];
+    }
+    return new LogLinearSnapshot(buckets, total, sum.sum(), min.get(), max.get());
+  }
+
+  static int bucketOf(long value) {
+    if (value < 2 * SUB_BUCKETS) {
+      return (int) value;
+    }
+    val shift = 63 - Long.numberOfLeadingZeros(value) - PRECISION;
+    return shift * SUB_BUCKETS + (int) (value >>> shift);
+  }
+
+  /** @return the largest value that falls into the bucket */
+  static long highestValueIn(int bucket) {
+    if (bucket < 2 * SUB_BUCKETS) {
+      return bucket;
+    }
+    val shift = bucket / SUB_BUCKETS - 1;
+    val lowest = (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+
+  static final class LogLinearSnapshot implements Snapshot {
+    private final long[] buckets;
+    private final long count;
+    private final long sum;
+    private final long min;
+    private final long max;
+
+    LogLinearSnapshot(long[] buckets, long count, long sum, long min, long max) {
+      this.buckets = buckets;
+      this.count = count;
+      this.sum = sum;
+      this.min = count == 0 ? 0 : min;
+      this.max = count == 0 ? 0 : max;
+    }
+
+    @Override
+    public long getCount() {
+      return count;
+    }
+
+    @Override
+    public long getMin() {
+      return min;
+    }
+
+    @Override
+    public long getMax() {
+      return max;
+    }
+
+    @Override
+    public double getMean() {
+      return count == 0 ? 0 : (double) sum / count;
+    }
+
+    @Override
+    public long getValueAtPercentile(double percentile) {
+      if (count == 0) {
+        return 0;
+      }
+      val rank = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * count));
+      long seen = 0;
+      for (int i = 0; i < buckets.length; i++) {
+        seen += buckets[i];
+        if (seen >= rank) {
+          return Math.max(min, Math.min(max, highestValueIn(i)));
+        }
+      }
+      return max;
+    }
+  }
+}
@@ -0,0 +1,8 @@
+package io.zephyr.kernel.metrics;
+
+/** a named measurement: a {@link Counter}, a {@link Gauge} or a {@link Histogram} */
+public interface Metric {
+
+  /** @return this metric's name. Names are dot-separated, e.g. <code>install.download.bytes</code> */
+  String getName();
+}
@@ -0,0 +1,35 @@
+package io.zephyr.kernel.metrics;
+
+import io.zephyr.kernel.Coordinate;
+
+/**
+ * what a plugin has cost since it last started. Every task a plugin runs--its activator, its event
+ * and tracker callbacks, anything it schedules--runs on the plugin's own thread, so the thread's
+ * CPU time and allocations are the plugin's
+ */
+public interface ModuleUsage {
+
+  /** @return the plugin's coordinate */
+  Coordinate getCoordinate();
+
+  /** @return true while the plugin's thread is running */
+  boolean isRunning();
+
+  /** @return the CPU time the plugin's thread has used, or -1 if the VM can't measure it */
+  long getCpuTimeNanos();
+
+  /** @return the bytes the plugin's thread has allocated, or -1 if the VM can't measure it */
+  long getAllocatedBytes();
+
+  /** @return the number of tasks the plugin's thread has run */
+  long getTasksCompleted();
+
+  /** @return the number of tasks waiting to run on the plugin's thread */
+  int getQueueDepth();
+
+  /** @return how long tasks waited on the plugin's queue before they ran, in nanoseconds */
+  Histogram.Snapshot getQueueLatency();
+
+  /** @return how long tasks ran for, in nanoseconds */
+  Histogram.Snapshot getTaskDuration();
+}
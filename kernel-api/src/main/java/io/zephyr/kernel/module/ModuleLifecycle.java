@@ -2,6 +2,9 @@ package io.zephyr.kernel.module;
 
 import io.zephyr.kernel.Lifecycle;
 import io.zephyr.kernel.Module;
+import io.zephyr.kernel.jfr.ModuleStateChangeEvent;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.val;
@@ -10,6 +13,17 @@ public class ModuleLifecycle implements Lifecycle {
   private final Module module;
   private volatile State state;
 
+  /** when ({@link System#nanoTime()}) the current state was entered. Guarded by this */
+  private long stateEntered = System.nanoTime();
+
+  private final List<StateListener> stateListeners = new CopyOnWriteArrayList<>();
+
+  /** notified synchronously after each change to a lifecycle's state */
+  @FunctionalInterface
+  public interface StateListener {
+    void onStateChanged(Module module, State previous, State current);
+  }
+
   public enum Actions {
     // move to Resolved
     Stop,
@@ -43,7 +57,26 @@ public class ModuleLifecycle implements Lifecycle {
 
   @Override
   public void setState(State resolved) {
-    this.state = resolved;
+    synchronized (this) {
+      val previous = state;
+      this.state = resolved;
+      if (previous != resolved) {
+        val now = System.nanoTime();
+        ModuleStateChangeEvent.record(module, previous, resolved, now - stateEntered);
+        stateEntered = now;
+        for (val listener : stateListeners) {
+          listener.onStateChanged(module, previous, resolved);
+        }
+      }
+    }
+  }
+
+  public void addStateListener(@NonNull StateListener listener) {
+    stateListeners.add(listener);
+  }
+
+  public void removeStateListener(@NonNull StateListener listener) {
+    stateListeners.remove(listener);
   }
 
   @Override
@@ -0,0 +1,134 @@
+package io.zephyr.kernel.module;
+
+import io.zephyr.kernel.Lifecycle;
+import io.zephyr.kernel.Module;
+import java.util.Objects;
+import java.util.function.Predicate;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * module filters the kernel can answer from its module index rather than by testing every installed
+ * module. These may be combined with each other (and with arbitrary predicates) via {@link
+ * Predicate#and(Predicate)}:
+ *
+ * <pre>
+ *   context.getModules(ModulePredicates.inState(Lifecycle.State.Active)
+ *       .and(ModulePredicates.inGroup("io.zephyr"))
+ *       .and(module -> module.getOrder() > 0));
+ * </pre>
+ */
+public final class ModulePredicates {
+
+  private ModulePredicates() {
+    throw new IllegalStateException("No instances");
+  }
+
+  /**
+   * @param state the state to match
+   * @return a filter matching modules currently in <code>state</code>
+   */
+  public static Indexed inState(@NonNull Lifecycle.State state) {
+    return new Indexed(state, null, null, null, false);
+  }
+
+  /**
+   * @param type the type to match
+   * @return a filter matching modules of <code>type</code>
+   */
+  public static Indexed ofType(@NonNull Module.Type type) {
+    return new Indexed(null, type, null, null, false);
+  }
+
+  /**
+   * @param group the coordinate group to match
+   * @return a filter matching modules whose coordinate is in <code>group</code>
+   */
+  public static Indexed inGroup(@NonNull String group) {
+    return new Indexed(null, null, group, null, false);
+  }
+
+  /**
+   * a conjunction of (optional) state, type and group constraints, plus an arbitrary residual
+   * predicate that's applied to the candidates the constraints select
+   */
+  @Getter
+  public static final class Indexed implements Predicate<Module> {
+    private final Lifecycle.State state;
+    private final Module.Type type;
+    private final String group;
+    private final Predicate<Module> residual;
+
+    /** true if the constraints contradict each other, e.g. two different states */
+    private final boolean unsatisfiable;
+
+    Indexed(
+        Lifecycle.State state,
+        Module.Type type,
+        String group,
+        Predicate<Module> residual,
+        boolean unsatisfiable) {
+      this.state = state;
+      this.type = type;
+      this.group = group;
+      this.residual = residual;
+      this.unsatisfiable = unsatisfiable;
+    }
+
+    @Override
+    public boolean test(Module module) {
+      if (unsatisfiable) {
+        return false;
+      }
+      if (state != null) {
+        final Lifecycle lifecycle = module.getLifecycle();
+        if (lifecycle == null || lifecycle.getState() != state) {
+          return false;
+        }
+      }
+      if (type != null && module.getType() != type) {
+        return false;
+      }
+      if (group != null && !group.equals(module.getCoordinate().getGroup())) {
+        return false;
+      }
+      return residual == null || residual.test(module);
+    }
+
+    @Override
+    public Indexed and(@NonNull Predicate<? super Module> other) {
+      if (other instanceof Indexed) {
+        return merge((Indexed) other);
+      }
+      @SuppressWarnings("unchecked")
+      final Predicate<Module> next = (Predicate<Module>) other;
+      return new Indexed(
+          state, type, group, residual == null ? next : residual.and(next), unsatisfiable);
+    }
+
+    private Indexed merge(Indexed other) {
+      final Predicate<Module> combined;
+      if (residual == null) {
+        combined = other.residual;
+      } else if (other.residual == null) {
+        combined = residual;
+      } else {
+        combined = residual.and(other.residual);
+      }
+      return new Indexed(
+          state == null ? other.state : state,
+          type == null ? other.type : type,
+          group == null ? other.group : group,
+          combined,
+          unsatisfiable
+              || other.unsatisfiable
+              || conflicts(state, other.state)
+              || conflicts(type, other.type)
+              || conflicts(group, other.group));
+    }
+
+    private static boolean conflicts(Object lhs, Object rhs) {
+      return lhs != null && rhs != null && !Objects.equals(lhs, rhs);
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package io.zephyr.kernel.benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * an embedded stand-in for an HTTP artifact repository: serves the files under a directory from an
+ * ephemeral port on the loopback address
+ */
+public final class ArtifactServer implements AutoCloseable {
+
+  private final Path root;
+  private final HttpServer server;
+
+  /**
+   * start serving
+   *
+   * @param directory the directory to serve
+   * @throws IOException if the server can't be started
+   */
+  public ArtifactServer(@NonNull File directory) throws IOException {
+    this.root = directory.toPath().toAbsolutePath().normalize();
+    this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/", this::serve);
+    server.start();
+  }
+
+  /**
+   * @param file a file under the served directory
+   * @return the URL it's served from
+   */
+  public URL locate(@NonNull File file) throws MalformedURLException {
+    val path = root.relativize(file.toPath().toAbsolutePath().normalize());
+    val address = server.getAddress();
+    return new URL(
+        "http",
+        address.getHostString(),
+        address.getPort(),
+        "/" + path.toString().replace(File.separatorChar, '/'));
+  }
+
+  private void serve(HttpExchange exchange) throws IOException {
+    try {
+      val file = root.resolve(exchange.getRequestURI().getPath().substring(1)).normalize();
+      if (!file.startsWith(root) || !Files.isRegularFile(file)) {
+        exchange.sendResponseHeaders(404, -1);
+        return;
+      }
+      exchange.getResponseHeaders().set("Content-Type", "application/java-archive");
+      exchange.sendResponseHeaders(200, Files.size(file));
+      try (val body = exchange.getResponseBody()) {
+        Files.copy(file, body);
+      }
+    } finally {
+      exchange.close();
+    }
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+}
@@ -0,0 +1,122 @@
+package io.zephyr.kernel.benchmarks;
+
+import io.zephyr.common.io.Files;
+import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.Lifecycle;
+import io.zephyr.kernel.Module;
+import io.zephyr.kernel.core.DaggerSunshowerKernelConfiguration;
+import io.zephyr.kernel.core.Kernel;
+import io.zephyr.kernel.core.SunshowerKernel;
+import io.zephyr.kernel.launch.KernelOptions;
+import io.zephyr.kernel.module.ModuleInstallationGroup;
+import io.zephyr.kernel.module.ModuleInstallationRequest;
+import io.zephyr.kernel.module.ModuleLifecycle;
+import io.zephyr.kernel.module.ModuleLifecycleChangeGroup;
+import io.zephyr.kernel.module.ModuleLifecycleChangeRequest;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.val;
+
+/** a started kernel in a temporary home directory, which is deleted when the kernel is closed */
+public final class BenchmarkKernel implements AutoCloseable {
+
+  @Getter private final Kernel kernel;
+  @Getter private final File homeDirectory;
+
+  private BenchmarkKernel(Kernel kernel, File homeDirectory) {
+    this.kernel = kernel;
+    this.homeDirectory = homeDirectory;
+  }
+
+  /**
+   * @return a started kernel
+   * @throws IOException if its home directory can't be created
+   */
+  public static BenchmarkKernel start() throws IOException {
+    val homeDirectory = java.nio.file.Files.createTempDirectory("zephyr-benchmark").toFile();
+    val options = new KernelOptions();
+    options.setHomeDirectory(homeDirectory);
+    SunshowerKernel.setKernelOptions(options);
+
+    val kernel =
+        DaggerSunshowerKernelConfiguration.factory()
+            .create(options, ClassLoader.getSystemClassLoader())
+            .kernel();
+    kernel.getModuleManager().initialize(kernel);
+    kernel.start();
+    return new BenchmarkKernel(kernel, homeDirectory);
+  }
+
+  /**
+   * install modules in a single group and wait for the installation to finish
+   *
+   * @param locations where to install them from
+   */
+  public void install(@NonNull URL... locations) throws InterruptedException, ExecutionException {
+    val group = new ModuleInstallationGroup();
+    for (val location : locations) {
+      val request = new ModuleInstallationRequest();
+      request.setLifecycleActions(ModuleLifecycle.Actions.Install);
+      request.setLocation(location);
+      group.add(request);
+    }
+    kernel.getModuleManager().prepare(group).commit().toCompletableFuture().get();
+  }
+
+  /**
+   * start installed modules and wait for them to become active
+   *
+   * @param coordinates the modules to start
+   * @return every active module
+   */
+  public List<Module> activate(@NonNull Coordinate... coordinates)
+      throws InterruptedException, ExecutionException {
+    change(ModuleLifecycle.Actions.Activate, coordinates);
+    for (; ; ) {
+      val result = kernel.getModuleManager().getModules(Lifecycle.State.Active);
+      if (result.size() >= coordinates.length) {
+        return result;
+      }
+      Thread.sleep(10);
+    }
+  }
+
+  /**
+   * remove a module and wait for the removal to finish
+   *
+   * @param coordinate the module to remove
+   */
+  public void remove(@NonNull Coordinate coordinate)
+      throws InterruptedException, ExecutionException {
+    change(ModuleLifecycle.Actions.Delete, coordinate);
+  }
+
+  /**
+   * change the lifecycles of modules in a single group, and wait for the change to finish
+   *
+   * @param action what to do with the modules
+   * @param coordinates the modules
+   */
+  public void change(@NonNull ModuleLifecycle.Actions action, @NonNull Coordinate... coordinates)
+      throws InterruptedException, ExecutionException {
+    val group = new ModuleLifecycleChangeGroup();
+    for (val coordinate : coordinates) {
+      group.addRequest(new ModuleLifecycleChangeRequest(coordinate, action));
+    }
+    kernel.getModuleManager().prepare(group).commit().toCompletableFuture().get();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      kernel.stop();
+    } finally {
+      Files.deleteTree(homeDirectory);
+    }
+  }
+}
@@ -0,0 +1,200 @@
+package io.zephyr.kernel.benchmarks;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * loads classes and resources through a plugin's classloader, across a chain of plugins (see {@link
+ * ClassLoadingFixture}):
+ *
+ * <ul>
+ *   <li>first loads: every probed class, from a classpath that was linked just before, serially or
+ *       split over {@link #LOADERS} threads. Linking the chain happens on the first load, and is
+ *       part of what's measured
+ *   <li>repeated loads and resource lookups of classes that have already been loaded
+ *   <li>misses: a class that doesn't exist in the chain, which falls through to the kernel's
+ *       classloader--and, for comparison, a miss that starts at the kernel's classloader
+ * </ul>
+ *
+ * The contended variants run on 4 threads against the same classloader
+ */
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = InstallFixture.OPEN_URL_CONNECTIONS)
+public class ClassLoadingBenchmark {
+
+  /** how many threads load classes concurrently in {@link #firstLoadConcurrent(Fresh)} */
+  static final int LOADERS = 4;
+
+  /** a chain that's linked once: its classes are loaded before the measurement */
+  public static class Linked extends ClassLoadingFixture {
+    @Override
+    void installed() throws ClassNotFoundException {
+      link();
+      for (val probe : probes) {
+        loader.loadClass(probe);
+      }
+    }
+
+    @Override
+    void removing() {
+      unlink();
+    }
+  }
+
+  /** a chain that's linked again before each invocation */
+  public static class Fresh extends ClassLoadingFixture {
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void startLoaders() {
+      executor = Executors.newFixedThreadPool(LOADERS);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopLoaders() {
+      executor.shutdownNow();
+    }
+
+    @Setup(Level.Invocation)
+    public void linkChain() {
+      link();
+    }
+
+    @TearDown(Level.Invocation)
+    public void unlinkChain() {
+      unlink();
+    }
+  }
+
+  /** which probe a thread looks up next */
+  @State(Scope.Thread)
+  public static class Cursor {
+    private int next;
+
+    int next(int bound) {
+      val result = next;
+      next = (next + 1) % bound;
+      return result;
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Warmup(iterations = 5)
+  @Measurement(iterations = 20)
+  public int firstLoad(Fresh state) throws ClassNotFoundException {
+    int result = 0;
+    for (val probe : state.probes) {
+      result += state.loader.loadClass(probe).hashCode();
+    }
+    return result;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Warmup(iterations = 5)
+  @Measurement(iterations = 20)
+  public int firstLoadConcurrent(Fresh state) throws InterruptedException, ExecutionException {
+    val probes = state.probes;
+    val loads = new ArrayList<Future<Integer>>(LOADERS);
+    for (int i = 0; i < LOADERS; i++) {
+      val offset = i;
+      loads.add(
+          state.executor.submit(
+              () -> {
+                int result = 0;
+                for (int j = offset; j < probes.length; j += LOADERS) {
+                  result += state.loader.loadClass(probes[j]).hashCode();
+                }
+                return result;
+              }));
+    }
+    int result = 0;
+    for (val load : loads) {
+      result += load.get();
+    }
+    return result;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public Class<?> repeatedLoad(Linked state, Cursor cursor) throws ClassNotFoundException {
+    return state.loader.loadClass(state.probes[cursor.next(state.probes.length)]);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  @Threads(4)
+  public Class<?> repeatedLoadContended(Linked state, Cursor cursor) throws ClassNotFoundException {
+    return state.loader.loadClass(state.probes[cursor.next(state.probes.length)]);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public URL resource(Linked state, Cursor cursor) {
+    return state.loader.getResource(state.resources[cursor.next(state.resources.length)]);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  @Threads(4)
+  public URL resourceContended(Linked state, Cursor cursor) {
+    return state.loader.getResource(state.resources[cursor.next(state.resources.length)]);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public Object miss(Linked state) {
+    return load(state.loader, state.missing);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Threads(4)
+  public Object missContended(Linked state) {
+    return load(state.loader, state.missing);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public Object kernelMiss(Linked state) {
+    return load(state.kernel.getKernel().getClassLoader(), state.missing);
+  }
+
+  private static Object load(ClassLoader loader, String name) {
+    try {
+      return loader.loadClass(name);
+    } catch (ClassNotFoundException ex) {
+      return ex;
+    }
+  }
+}
@@ -0,0 +1,174 @@
+package io.zephyr.kernel.benchmarks;
+
+import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.core.ModuleClasspathManager;
+import io.zephyr.kernel.core.ModuleLoader;
+import io.zephyr.kernel.core.Plugins;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import lombok.val;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * a chain of <code>depth + 1</code> installed (not started) synthetic plugins: <code>chain-0</code>
+ * depends on <code>chain-1</code>, which re-exports <code>chain-2</code>, and so on down to the
+ * provider at the end of the chain. Classes are looked up from <code>chain-0</code>'s classloader,
+ * and live in the provider--so every lookup walks the whole chain. Each plugin's classes are spread
+ * over <code>libraries</code> nested jars. With import filters, <code>chain-0</code> only imports
+ * the provider's <code>api</code> package and the probed classes in it.
+ *
+ * <p>Classpaths are linked by a module classpath manager of the fixture's own, created the way the
+ * kernel creates its own. Linking a module points it at the new classpath, which is fine because
+ * none of the plugins are ever started
+ */
+@State(Scope.Benchmark)
+@SuppressWarnings({
+  "PMD.AbstractClassWithoutAbstractMethod",
+  "PMD.AvoidInstantiatingObjectsInLoops",
+  "PMD.BeanMembersShouldSerialize"
+})
+public abstract class ClassLoadingFixture {
+
+  /** what <code>chain-0</code> imports from its dependency */
+  public enum Filter {
+    /** everything */
+    None,
+
+    /** the provider's api package, and the probed classes in it */
+    Imports
+  }
+
+  /** how many classes each plugin holds: half of them are in its api package, and probed */
+  static final int CLASSES = 64;
+
+  @Param({"1", "4", "16"})
+  int depth;
+
+  @Param({"0", "8"})
+  int libraries;
+
+  @Param({"None", "Imports"})
+  Filter filter;
+
+  BenchmarkKernel kernel;
+
+  /** the binary names of the provider's api classes */
+  String[] probes;
+
+  /** the resource paths of the provider's api classes */
+  String[] resources;
+
+  /** a class in the provider's api package that doesn't exist */
+  String missing;
+
+  /** <code>chain-0</code>'s classloader, once linked */
+  ClassLoader loader;
+
+  private File artifacts;
+  private List<SyntheticPlugin> chain;
+  private ModuleClasspathManager manager;
+
+  @Setup(Level.Trial)
+  public void installChain()
+      throws IOException, InterruptedException, ExecutionException, ClassNotFoundException {
+    kernel = BenchmarkKernel.start();
+    artifacts = java.nio.file.Files.createTempDirectory("zephyr-artifacts").toFile();
+    chain = new ArrayList<>(depth + 1);
+    for (int i = 0; i <= depth; i++) {
+      chain.add(
+          new SyntheticPlugin("chain-" + i, SyntheticPlugin.Descriptor.Manifest, 0, 0, libraries)
+              .withClasses(CLASSES));
+    }
+
+    val provider = chain.get(depth);
+    probes = new String[CLASSES / 2];
+    resources = new String[probes.length];
+    for (int i = 0; i < probes.length; i++) {
+      probes[i] = provider.getClassName(2 * i);
+      resources[i] = probes[i].replace('.', '/') + ".class";
+    }
+    missing = provider.getPackageName() + ".api.Missing";
+
+    for (int i = 0; i < depth; i++) {
+      val reexport = i > 0;
+      if (i == 0 && filter == Filter.Imports) {
+        chain.get(i).dependOn(chain.get(i + 1), reexport, imports(provider));
+      } else {
+        chain.get(i).dependOn(chain.get(i + 1), reexport);
+      }
+    }
+
+    val locations = new URL[chain.size()];
+    for (int i = 0; i < locations.length; i++) {
+      locations[i] = chain.get(i).writeTo(artifacts).toURI().toURL();
+    }
+    kernel.install(locations);
+    installed();
+  }
+
+  @TearDown(Level.Trial)
+  public void stopKernel() throws IOException {
+    try {
+      removing();
+      kernel.close();
+    } finally {
+      io.zephyr.common.io.Files.deleteTree(artifacts);
+    }
+  }
+
+  /**
+   * called once the chain is installed. JMH doesn't order a subclass's setup after its
+   * superclass's, so subclasses hook in here instead
+   */
+  void installed() throws ClassNotFoundException {}
+
+  /** called before the kernel is stopped */
+  void removing() {}
+
+  /** link <code>chain-0</code> (and, lazily, everything it depends on) with a new classpath */
+  void link() {
+    val core = kernel.getKernel();
+    val moduleManager = core.getModuleManager();
+    manager =
+        Plugins.moduleClasspathManager(
+            moduleManager.getDependencyGraph(), core.getClassLoader(), core);
+    for (val plugin : chain) {
+      manager.install(module(plugin.getCoordinate()));
+    }
+    loader = ((ModuleLoader) manager).loadModule(chain.get(0).getCoordinate()).getClassLoader();
+  }
+
+  /** unload the classpath created by {@link #link()} */
+  void unlink() {
+    for (val plugin : chain) {
+      manager.uninstall(plugin.getCoordinate());
+    }
+    manager = null;
+    loader = null;
+  }
+
+  private io.zephyr.kernel.Module module(Coordinate coordinate) {
+    return kernel.getKernel().getModuleManager().getModules().stream()
+        .filter(module -> module.getCoordinate().equals(coordinate))
+        .findFirst()
+        .orElseThrow();
+  }
+
+  private String[] imports(SyntheticPlugin provider) {
+    val result = new String[probes.length + 1];
+    result[0] = "just:" + provider.getPackageName().replace('.', '/') + "/api";
+    for (int i = 0; i < probes.length; i++) {
+      result[i + 1] = "class:" + resources[i];
+    }
+    return result;
+  }
+}
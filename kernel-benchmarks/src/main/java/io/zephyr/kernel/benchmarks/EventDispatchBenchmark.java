@@ -0,0 +1,106 @@
+package io.zephyr.kernel.benchmarks;
+
+import io.zephyr.kernel.events.AbstractEventSource;
+import io.zephyr.kernel.events.Event;
+import io.zephyr.kernel.events.EventListener;
+import io.zephyr.kernel.events.EventType;
+import io.zephyr.kernel.events.Events;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * dispatches events through an {@link AbstractEventSource}. Its <code>listeners</code> are spread
+ * evenly over <code>eventTypes</code> types; each dispatch fires one of them, so it's delivered to
+ * <code>listeners / eventTypes</code> of the listeners but has to look at every type's listener set
+ * to find them. A miss fires a type nobody listens for. Dispatch holds the source's lock for the
+ * whole delivery, which is what the contended variant measures
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class EventDispatchBenchmark {
+
+  /** the types the listeners listen for */
+  enum Types implements EventType {
+    First,
+    Second,
+    Third,
+    Fourth,
+    Fifth,
+    Sixth,
+    Seventh,
+    Eighth,
+    Unheard;
+
+    private final int id;
+
+    Types() {
+      id = EventType.newId();
+    }
+
+    @Override
+    public int getId() {
+      return id;
+    }
+  }
+
+  static final class Source extends AbstractEventSource {}
+
+  static final class Sink implements EventListener<Object> {
+    long received;
+
+    @Override
+    public void onEvent(EventType type, Event<Object> event) {
+      received++;
+    }
+  }
+
+  @Param({"1", "16", "256"})
+  int listeners;
+
+  @Param({"1", "8"})
+  int eventTypes;
+
+  private Source source;
+  private Event<Object> event;
+
+  @Setup(Level.Trial)
+  public void addListeners() {
+    source = new Source();
+    event = Events.create(new Object());
+    for (int i = 0; i < listeners; i++) {
+      source.addEventListener(new Sink(), Types.values()[i % eventTypes]);
+    }
+  }
+
+  @Benchmark
+  public void dispatch() {
+    source.dispatchEvent(Types.First, event);
+  }
+
+  @Benchmark
+  public void dispatchMiss() {
+    source.dispatchEvent(Types.Unheard, event);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void dispatchContended() {
+    source.dispatchEvent(Types.First, event);
+  }
+}
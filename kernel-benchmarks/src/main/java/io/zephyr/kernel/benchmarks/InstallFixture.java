@@ -0,0 +1,87 @@
+package io.zephyr.kernel.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import lombok.val;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * a started kernel and a synthetic plugin archive to install into it, shaped by the benchmark's
+ * parameters and served either from a local file or over HTTP
+ */
+@State(Scope.Benchmark)
+@SuppressWarnings({"PMD.AbstractClassWithoutAbstractMethod", "PMD.BeanMembersShouldSerialize"})
+public abstract class InstallFixture {
+
+  /**
+   * downloads close their URL connections reflectively, which newer JDKs refuse unless sun.net.www
+   * is opened
+   */
+  static final String OPEN_URL_CONNECTIONS = "--add-opens=java.base/sun.net.www=ALL-UNNAMED";
+
+  /** where the archive is installed from */
+  public enum Source {
+    File,
+    Http
+  }
+
+  @Param({"Manifest", "Yaml"})
+  SyntheticPlugin.Descriptor descriptor;
+
+  @Param({"File", "Http"})
+  Source source;
+
+  @Param({"16", "256"})
+  int entries;
+
+  @Param({"1024", "32768"})
+  int entrySize;
+
+  @Param({"0", "8"})
+  int libraries;
+
+  BenchmarkKernel kernel;
+  SyntheticPlugin plugin;
+  URL location;
+
+  private File artifacts;
+  private ArtifactServer server;
+
+  @Setup(Level.Trial)
+  public void startKernel() throws IOException {
+    kernel = BenchmarkKernel.start();
+    artifacts = java.nio.file.Files.createTempDirectory("zephyr-artifacts").toFile();
+    plugin =
+        new SyntheticPlugin(
+            "synthetic-" + descriptor.name().toLowerCase(),
+            descriptor,
+            entries,
+            entrySize,
+            libraries);
+    val archive = plugin.writeTo(artifacts);
+    if (source == Source.Http) {
+      server = new ArtifactServer(artifacts);
+      location = server.locate(archive);
+    } else {
+      location = archive.toURI().toURL();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void stopKernel() throws IOException {
+    try {
+      if (server != null) {
+        server.close();
+      }
+      kernel.close();
+    } finally {
+      io.zephyr.common.io.Files.deleteTree(artifacts);
+    }
+  }
+}
@@ -0,0 +1,176 @@
+package io.zephyr.kernel.benchmarks;
+
+import io.sunshower.gyre.Pair;
+import io.zephyr.kernel.Module;
+import io.zephyr.kernel.concurrency.Task;
+import io.zephyr.kernel.core.actions.ModuleDownloadPhase;
+import io.zephyr.kernel.core.actions.ModuleInstallationCompletionPhase;
+import io.zephyr.kernel.core.actions.ModuleScanPhase;
+import io.zephyr.kernel.core.actions.ModuleTransferPhase;
+import io.zephyr.kernel.core.actions.ModuleUnpackPhase;
+import io.zephyr.kernel.module.ModuleInstallationRequest;
+import io.zephyr.kernel.module.ModuleLifecycle;
+import java.net.URL;
+import java.util.LinkedHashSet;
+import java.util.concurrent.TimeUnit;
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * runs each phase of a plugin installation on its own. Before each invocation the phases ahead of
+ * the measured one run (outside of the measurement) against a fresh installation scope, wired up
+ * the way <code>DefaultModuleInstallationStatusGroup</code> wires it
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = InstallFixture.OPEN_URL_CONNECTIONS)
+public class InstallPhaseBenchmark {
+
+  /** the phases of an installation, in order */
+  enum Phase {
+    Download {
+      @Override
+      Task create(InstallFixture fixture) {
+        val result = new ModuleDownloadPhase("module:download");
+        result
+            .parameters()
+            .define(Pair.of(ModuleDownloadPhase.DOWNLOAD_URL, URL.class), fixture.location);
+        return result;
+      }
+    },
+    Scan {
+      @Override
+      Task create(InstallFixture fixture) {
+        val request = new ModuleInstallationRequest();
+        request.setLifecycleActions(ModuleLifecycle.Actions.Install);
+        request.setLocation(fixture.location);
+        val result = new ModuleScanPhase("module:scan");
+        result
+            .parameters()
+            .define(Pair.of("INSTALLATION_REQUEST", ModuleInstallationRequest.class), request);
+        result
+            .parameters()
+            .define(Pair.of(ModuleDownloadPhase.DOWNLOAD_URL, URL.class), fixture.location);
+        return result;
+      }
+    },
+    Transfer {
+      @Override
+      Task create(InstallFixture fixture) {
+        return new ModuleTransferPhase("module:transfer");
+      }
+    },
+    Unpack {
+      @Override
+      Task create(InstallFixture fixture) {
+        return new ModuleUnpackPhase("module:unpack", fixture.kernel.getKernel());
+      }
+    },
+    Complete {
+      @Override
+      Task create(InstallFixture fixture) {
+        return new ModuleInstallationCompletionPhase("module:install");
+      }
+    };
+
+    abstract Task create(InstallFixture fixture);
+  }
+
+  /** an installation that has run every phase before the measured one */
+  public abstract static class Pipeline extends InstallFixture {
+    private final Phase measured;
+    private io.sunshower.gyre.Scope scope;
+    private Task task;
+
+    Pipeline(Phase measured) {
+      this.measured = measured;
+    }
+
+    @Setup(Level.Invocation)
+    public void prepare() {
+      val kernel = this.kernel.getKernel();
+      scope = io.sunshower.gyre.Scope.root();
+      scope.set("SunshowerKernel", kernel);
+      scope.set(ModuleDownloadPhase.TARGET_DIRECTORY, kernel.getFileSystem().getPath("downloads"));
+      scope.set(ModuleInstallationCompletionPhase.INSTALLED_PLUGINS, new LinkedHashSet<Module>());
+      scope.set(
+          ModuleInstallationCompletionPhase.INSTALLED_KERNEL_MODULES, new LinkedHashSet<Module>());
+      for (val phase : Phase.values()) {
+        if (phase == measured) {
+          break;
+        }
+        phase.create(this).run(scope);
+      }
+      task = measured.create(this);
+    }
+
+    Object run() {
+      return task.run(scope);
+    }
+  }
+
+  public static class BeforeDownload extends Pipeline {
+    public BeforeDownload() {
+      super(Phase.Download);
+    }
+  }
+
+  public static class BeforeScan extends Pipeline {
+    public BeforeScan() {
+      super(Phase.Scan);
+    }
+  }
+
+  public static class BeforeTransfer extends Pipeline {
+    public BeforeTransfer() {
+      super(Phase.Transfer);
+    }
+  }
+
+  public static class BeforeUnpack extends Pipeline {
+    public BeforeUnpack() {
+      super(Phase.Unpack);
+    }
+  }
+
+  public static class BeforeCompletion extends Pipeline {
+    public BeforeCompletion() {
+      super(Phase.Complete);
+    }
+  }
+
+  @Benchmark
+  public Object download(BeforeDownload state) {
+    return state.run();
+  }
+
+  @Benchmark
+  public Object scan(BeforeScan state) {
+    return state.run();
+  }
+
+  @Benchmark
+  public Object transfer(BeforeTransfer state) {
+    return state.run();
+  }
+
+  @Benchmark
+  public Object unpack(BeforeUnpack state) {
+    return state.run();
+  }
+
+  @Benchmark
+  public Object complete(BeforeCompletion state) {
+    return state.run();
+  }
+}
@@ -0,0 +1,39 @@
+package io.zephyr.kernel.benchmarks;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * installs a synthetic plugin through the kernel's module manager: the whole installation process
+ * (read the module list, download, scan, transfer, unpack, complete, write the module list and
+ * plugin descriptors). The plugin is removed after each installation, outside of the measurement
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = InstallFixture.OPEN_URL_CONNECTIONS)
+public class InstallPipelineBenchmark extends InstallFixture {
+
+  @Benchmark
+  public void install() throws InterruptedException, ExecutionException {
+    kernel.install(location);
+  }
+
+  @TearDown(Level.Invocation)
+  public void remove() throws InterruptedException, ExecutionException {
+    kernel.remove(plugin.getCoordinate());
+  }
+}
@@ -0,0 +1,80 @@
+package io.zephyr.kernel.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import lombok.Getter;
+import lombok.val;
+
+/** the JVM's threads, heap, metaspace, loaded classes and open files at a point in time */
+@Getter
+public final class ResourceSnapshot {
+
+  /** reported for a resource the JVM can't measure */
+  public static final long UNAVAILABLE = -1;
+
+  private final int threads;
+  private final int peakThreads;
+  private final long heapUsed;
+  private final long metaspaceUsed;
+  private final int loadedClasses;
+  private final long openFileDescriptors;
+
+  private ResourceSnapshot(
+      int threads,
+      int peakThreads,
+      long heapUsed,
+      long metaspaceUsed,
+      int loadedClasses,
+      long openFileDescriptors) {
+    this.threads = threads;
+    this.peakThreads = peakThreads;
+    this.heapUsed = heapUsed;
+    this.metaspaceUsed = metaspaceUsed;
+    this.loadedClasses = loadedClasses;
+    this.openFileDescriptors = openFileDescriptors;
+  }
+
+  /** @return the JVM's resources now. Peak threads are since the last {@link #resetPeakThreads()} */
+  public static ResourceSnapshot take() {
+    val threads = ManagementFactory.getThreadMXBean();
+    return new ResourceSnapshot(
+        threads.getThreadCount(),
+        threads.getPeakThreadCount(),
+        ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(),
+        metaspaceUsed(),
+        ManagementFactory.getClassLoadingMXBean().getLoadedClassCount(),
+        openFileDescriptors());
+  }
+
+  /**
+   * collect garbage first, so that heap, metaspace and classes only count what's still reachable
+   *
+   * @return the JVM's resources after a collection
+   */
+  @SuppressWarnings("PMD.DoNotCallGarbageCollectionExplicitly")
+  public static ResourceSnapshot takeAfterCollection() {
+    System.gc();
+    return take();
+  }
+
+  /** start counting peak threads over from the current count */
+  public static void resetPeakThreads() {
+    ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+  }
+
+  private static long metaspaceUsed() {
+    for (val pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if ("Metaspace".equals(pool.getName())) {
+        return pool.getUsage().getUsed();
+      }
+    }
+    return UNAVAILABLE;
+  }
+
+  private static long openFileDescriptors() {
+    val os = ManagementFactory.getOperatingSystemMXBean();
+    if (os instanceof com.sun.management.UnixOperatingSystemMXBean) {
+      return ((com.sun.management.UnixOperatingSystemMXBean) os).getOpenFileDescriptorCount();
+    }
+    return UNAVAILABLE;
+  }
+}
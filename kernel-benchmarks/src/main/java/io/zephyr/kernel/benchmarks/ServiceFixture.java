@@ -0,0 +1,102 @@
+package io.zephyr.kernel.benchmarks;
+
+import io.zephyr.api.ModuleContext;
+import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.Module;
+import io.zephyr.kernel.service.DefaultServiceDefinition;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import lombok.val;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * a started kernel with <code>modules</code> active plugins, each of which has registered <code>
+ * servicesPerModule</code> services. Every fourth service is a {@link Wanted}; the rest are {@link
+ * Filler}s that lookups have to skip over
+ */
+@State(Scope.Benchmark)
+@SuppressWarnings({
+  "PMD.AbstractClassWithoutAbstractMethod",
+  "PMD.AvoidInstantiatingObjectsInLoops",
+  "PMD.BeanMembersShouldSerialize"
+})
+public abstract class ServiceFixture {
+
+  /** the services lookups look for */
+  public static final class Wanted {}
+
+  /** the services lookups skip over */
+  public static final class Filler {}
+
+  @Param({"16", "128"})
+  int modules;
+
+  @Param({"1", "16"})
+  int servicesPerModule;
+
+  BenchmarkKernel kernel;
+  List<Module> plugins;
+
+  /** the first plugin's context--where lookups are made from */
+  ModuleContext context;
+
+  private File artifacts;
+
+  @Setup(Level.Trial)
+  public void startKernel() throws IOException, InterruptedException, ExecutionException {
+    kernel = BenchmarkKernel.start();
+    artifacts = java.nio.file.Files.createTempDirectory("zephyr-artifacts").toFile();
+    val locations = new URL[modules];
+    val coordinates = new Coordinate[modules];
+    for (int i = 0; i < modules; i++) {
+      val plugin =
+          new SyntheticPlugin("service-host-" + i, SyntheticPlugin.Descriptor.Manifest, 0, 0, 0);
+      locations[i] = plugin.writeTo(artifacts).toURI().toURL();
+      coordinates[i] = plugin.getCoordinate();
+    }
+    kernel.install(locations);
+    plugins = kernel.activate(coordinates);
+
+    val registry = kernel.getKernel().getServiceRegistry();
+    for (int i = 0; i < plugins.size(); i++) {
+      val plugin = plugins.get(i);
+      for (int j = 0; j < servicesPerModule; j++) {
+        val name = serviceName(i, j);
+        if ((i * servicesPerModule + j) % 4 == 0) {
+          registry.register(
+              plugin, new DefaultServiceDefinition<>(Wanted.class, name, new Wanted()));
+        } else {
+          registry.register(
+              plugin, new DefaultServiceDefinition<>(Filler.class, name, new Filler()));
+        }
+      }
+    }
+    context = plugins.get(0).getContext();
+  }
+
+  @TearDown(Level.Trial)
+  public void stopKernel() throws IOException {
+    try {
+      kernel.close();
+    } finally {
+      io.zephyr.common.io.Files.deleteTree(artifacts);
+    }
+  }
+
+  /**
+   * @param module the index of the module that registered the service
+   * @param service the index of the service within its module
+   * @return the service's name
+   */
+  static String serviceName(int module, int service) {
+    return "service-" + module + "-" + service;
+  }
+}
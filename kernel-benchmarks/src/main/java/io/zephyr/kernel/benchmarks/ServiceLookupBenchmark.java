@@ -0,0 +1,63 @@
+package io.zephyr.kernel.benchmarks;
+
+import io.zephyr.api.Queries;
+import io.zephyr.api.Query;
+import io.zephyr.api.ServiceDefinition;
+import io.zephyr.api.ServiceReference;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * looks services up through a plugin's context, by type and by an MVEL query. Lookups walk every
+ * active module's registrations under a single lock, so the contended variants show what that lock
+ * costs when several plugins look services up at once
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = InstallFixture.OPEN_URL_CONNECTIONS)
+public class ServiceLookupBenchmark extends ServiceFixture {
+
+  private Query<ServiceDefinition<?>> query;
+
+  @Setup(Level.Trial)
+  public void createQuery() {
+    query = Queries.create("mvel", "value.name == '" + serviceName(0, 0) + "'");
+  }
+
+  @Benchmark
+  public List<ServiceReference<Wanted>> byType() {
+    return context.getReferences(Wanted.class);
+  }
+
+  @Benchmark
+  public List<ServiceReference<?>> byQuery() {
+    return context.getReferences(query);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public List<ServiceReference<Wanted>> byTypeContended() {
+    return context.getReferences(Wanted.class);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public List<ServiceReference<?>> byQueryContended() {
+    return context.getReferences(query);
+  }
+}
@@ -0,0 +1,115 @@
+package io.zephyr.kernel.benchmarks;
+
+import io.zephyr.api.ServiceEvents;
+import io.zephyr.api.ServiceReference;
+import io.zephyr.api.ServiceRegistry;
+import io.zephyr.api.ServiceTracker;
+import io.zephyr.kernel.Module;
+import io.zephyr.kernel.events.Event;
+import io.zephyr.kernel.events.EventListener;
+import io.zephyr.kernel.events.EventType;
+import io.zephyr.kernel.service.DefaultServiceDefinition;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * registers a service and unregisters it again, waiting each time until every service tracker has
+ * been told. The time is the full round trip: the registering module's thread, the kernel's event
+ * source, then each tracker's filter and listener on its host module's thread. Trackers are spread
+ * over the plugins, and are recreated for each iteration since they remember everything they've
+ * tracked
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = InstallFixture.OPEN_URL_CONNECTIONS)
+@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+public class ServiceTrackerBenchmark extends ServiceFixture {
+
+  /** the services the trackers track */
+  public static final class Tracked {}
+
+  @Param({"1", "16"})
+  int trackers;
+
+  private final AtomicLong registered = new AtomicLong();
+  private final AtomicLong unregistered = new AtomicLong();
+  private final List<ServiceTracker> open = new ArrayList<>();
+
+  private ServiceRegistry registry;
+  private Module host;
+  private long rounds;
+
+  @Setup(Level.Iteration)
+  public void openTrackers() {
+    registry = kernel.getKernel().getServiceRegistry();
+    host = plugins.get(0);
+    registered.set(0);
+    unregistered.set(0);
+    rounds = 0;
+    val listener = new Counter();
+    for (int i = 0; i < trackers; i++) {
+      val tracker =
+          plugins
+              .get(i % plugins.size())
+              .getContext()
+              .trackServices(reference -> reference.getDefinition().getType() == Tracked.class);
+      tracker.addEventListener(listener, ServiceEvents.REGISTERED, ServiceEvents.UNREGISTERED);
+      open.add(tracker);
+    }
+  }
+
+  @TearDown(Level.Iteration)
+  public void closeTrackers() {
+    for (val tracker : open) {
+      tracker.close();
+    }
+    open.clear();
+  }
+
+  @Benchmark
+  public void registerAndUnregister() {
+    val expected = ++rounds * trackers;
+    val registration =
+        registry.register(
+            host, new DefaultServiceDefinition<>(Tracked.class, "tracked", new Tracked()));
+    await(registered, expected);
+    registration.dispose();
+    await(unregistered, expected);
+  }
+
+  private static void await(AtomicLong counter, long expected) {
+    while (counter.get() < expected) {
+      Thread.onSpinWait();
+    }
+  }
+
+  final class Counter implements EventListener<ServiceReference<?>> {
+    @Override
+    public void onEvent(EventType type, Event<ServiceReference<?>> event) {
+      if (type == ServiceEvents.REGISTERED) {
+        registered.incrementAndGet();
+      } else {
+        unregistered.incrementAndGet();
+      }
+    }
+  }
+}
@@ -0,0 +1,294 @@
+package io.zephyr.kernel.benchmarks;
+
+import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.core.ModuleCoordinate;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * a generated plugin archive (a WAR): a descriptor, then <code>entries</code> resources of <code>
+ * entrySize</code> random bytes each, spread evenly over <code>WEB-INF/classes</code> and <code>
+ * libraries</code> nested jars under <code>WEB-INF/lib</code>--so the number of libraries changes
+ * how the archive is nested without changing how much it holds. Content is seeded by the plugin's
+ * name: the same plugin is always the same bytes.
+ *
+ * <p>A plugin may also hold empty classes (spread the same way, alternating between an <code>api
+ * </code> and an <code>impl</code> package) and depend on other synthetic plugins, which makes it
+ * usable for classloading benchmarks. Dependencies are only written to manifest descriptors
+ */
+@Getter
+@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+public final class SyntheticPlugin {
+
+  /** how the plugin describes itself */
+  public enum Descriptor {
+    /** attributes in <code>META-INF/MANIFEST.MF</code> */
+    Manifest,
+
+    /** a <code>plugin.yml</code> under <code>WEB-INF/classes/META-INF</code> */
+    Yaml
+  }
+
+  public static final String GROUP = "io.zephyr.benchmarks";
+  public static final String VERSION = "1.0.0";
+
+  private final String name;
+  private final Descriptor descriptor;
+  private final int entries;
+  private final int entrySize;
+  private final int libraries;
+  private final List<String> dependencies;
+
+  @Getter(AccessLevel.NONE)
+  private final Map<String, byte[]> resources;
+
+  private int classes;
+
+  /**
+   * @param name the plugin's name (and the archive's)
+   * @param descriptor how the plugin describes itself
+   * @param entries how many resources the plugin holds
+   * @param entrySize how large each resource is
+   * @param libraries how many nested jars the resources are spread over
+   */
+  public SyntheticPlugin(
+      @NonNull String name,
+      @NonNull Descriptor descriptor,
+      int entries,
+      int entrySize,
+      int libraries) {
+    if (entries < 0 || entrySize < 0 || libraries < 0) {
+      throw new IllegalArgumentException(
+          "Error: entries, sizes and libraries must not be negative");
+    }
+    this.name = name;
+    this.descriptor = descriptor;
+    this.entries = entries;
+    this.entrySize = entrySize;
+    this.libraries = libraries;
+    this.dependencies = new ArrayList<>(0);
+    this.resources = new LinkedHashMap<>(0);
+  }
+
+  /**
+   * @param classes how many classes the plugin holds
+   * @return this plugin
+   */
+  public SyntheticPlugin withClasses(int classes) {
+    if (classes < 0) {
+      throw new IllegalArgumentException("Error: classes must not be negative");
+    }
+    this.classes = classes;
+    return this;
+  }
+
+  /**
+   * @param path the resource's path, relative to <code>WEB-INF/classes</code>
+   * @param content the resource's content
+   * @return this plugin
+   */
+  public SyntheticPlugin withResource(@NonNull String path, @NonNull byte[] content) {
+    resources.put(path, content.clone());
+    return this;
+  }
+
+  /**
+   * depend on another synthetic plugin
+   *
+   * @param target the plugin to depend on
+   * @param reexport whether this plugin's dependents also see what the target exports
+   * @param imports the manifest path specifications (e.g. <code>just:a/b</code> or <code>
+   *     class:a/b/C.class</code>) limiting what's imported from the target. Imports everything if
+   *     there are none
+   * @return this plugin
+   */
+  public SyntheticPlugin dependOn(
+      @NonNull SyntheticPlugin target, boolean reexport, @NonNull String... imports) {
+    if (descriptor != Descriptor.Manifest) {
+      throw new IllegalStateException("Error: only manifest descriptors may declare dependencies");
+    }
+    val modifiers = new ArrayList<String>(2);
+    if (reexport) {
+      modifiers.add("re-export");
+    }
+    if (imports.length > 0) {
+      modifiers.add("imports-paths=[" + String.join(",", imports) + "]");
+    }
+    val coordinate = "service@" + GROUP + ":" + target.name + ":" + VERSION;
+    dependencies.add(
+        modifiers.isEmpty() ? coordinate : coordinate + "<" + String.join(";", modifiers) + ">");
+    return this;
+  }
+
+  /** @return the package this plugin's classes are in (under <code>api</code> and <code>impl</code>) */
+  public String getPackageName() {
+    return GROUP + "." + name.replace('-', '_');
+  }
+
+  /**
+   * @param index the class's index, less than {@link #getClasses()}
+   * @return the class's binary name. Even classes are in the <code>api</code> package, odd ones in
+   *     <code>impl</code>
+   */
+  public String getClassName(int index) {
+    return getPackageName() + (index % 2 == 0 ? ".api" : ".impl") + ".Type" + index;
+  }
+
+  /** @return the coordinate the plugin installs as */
+  public Coordinate getCoordinate() {
+    return ModuleCoordinate.create(GROUP, name, VERSION);
+  }
+
+  /**
+   * @param directory the directory to write the archive to
+   * @return the archive: <code>[name].war</code>
+   * @throws IOException if it can't be written
+   */
+  public File writeTo(@NonNull File directory) throws IOException {
+    val result = new File(directory, name + ".war");
+    val random = new Random(name.hashCode());
+    val buffer = new byte[entrySize];
+    val perContainer = entries / (libraries + 1);
+
+    try (val output =
+        new JarOutputStream(
+            new BufferedOutputStream(new FileOutputStream(result)), createManifest(true))) {
+      // the extractors only put WEB-INF/classes on the classpath if it has a directory entry
+      directory(output, "WEB-INF/");
+      directory(output, "WEB-INF/classes/");
+      directory(output, "WEB-INF/lib/");
+      if (descriptor == Descriptor.Yaml) {
+        write(
+            output,
+            "WEB-INF/classes/META-INF/plugin.yml",
+            createYaml().getBytes(StandardCharsets.UTF_8));
+      }
+      val own = perContainer + entries % (libraries + 1);
+      for (int i = 0; i < own; i++) {
+        random.nextBytes(buffer);
+        write(output, "WEB-INF/classes/resources/entry-" + i + ".bin", buffer);
+      }
+      writeClasses(output, "WEB-INF/classes/", 0);
+      for (val resource : resources.entrySet()) {
+        write(output, "WEB-INF/classes/" + resource.getKey(), resource.getValue());
+      }
+      for (int i = 0; i < libraries; i++) {
+        val library = name + "-library-" + i;
+        write(
+            output,
+            "WEB-INF/lib/" + library + ".jar",
+            createLibrary(library, i + 1, perContainer, random));
+      }
+    }
+    return result;
+  }
+
+  private byte[] createLibrary(String library, int container, int count, Random random)
+      throws IOException {
+    val result = new ByteArrayOutputStream(count * entrySize + 512);
+    val buffer = new byte[entrySize];
+    try (val output = new JarOutputStream(result, createManifest(false))) {
+      for (int i = 0; i < count; i++) {
+        random.nextBytes(buffer);
+        write(output, library + "/entry-" + i + ".bin", buffer);
+      }
+      writeClasses(output, "", container);
+    }
+    return result.toByteArray();
+  }
+
+  /** classes are dealt out over the containers: WEB-INF/classes first, then each library */
+  private void writeClasses(JarOutputStream output, String prefix, int container)
+      throws IOException {
+    for (int i = container; i < classes; i += libraries + 1) {
+      val internalName = getClassName(i).replace('.', '/');
+      write(output, prefix + internalName + ".class", createClass(internalName));
+    }
+  }
+
+  /** @return an empty public class extending Object--all a class needs to be defined */
+  private static byte[] createClass(String internalName) throws IOException {
+    val result = new ByteArrayOutputStream(64 + internalName.length());
+    try (val output = new DataOutputStream(result)) {
+      output.writeInt(0xCAFEBABE);
+      output.writeShort(0); // minor version
+      output.writeShort(55); // major version: Java 11
+      output.writeShort(5); // constant pool size + 1
+      output.writeByte(1); // #1 utf8
+      output.writeUTF(internalName);
+      output.writeByte(7); // #2 class #1
+      output.writeShort(1);
+      output.writeByte(1); // #3 utf8
+      output.writeUTF("java/lang/Object");
+      output.writeByte(7); // #4 class #3
+      output.writeShort(3);
+      output.writeShort(0x0021); // public super
+      output.writeShort(2); // this
+      output.writeShort(4); // super
+      output.writeShort(0); // interfaces
+      output.writeShort(0); // fields
+      output.writeShort(0); // methods
+      output.writeShort(0); // attributes
+    }
+    return result.toByteArray();
+  }
+
+  private Manifest createManifest(boolean describe) {
+    val result = new Manifest();
+    val attributes = result.getMainAttributes();
+    attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    if (describe && descriptor == Descriptor.Manifest) {
+      attributes.putValue("group", GROUP);
+      attributes.putValue("name", name);
+      attributes.putValue("version", VERSION);
+      attributes.putValue("type", "plugin");
+      attributes.putValue("description", "synthetic benchmark plugin");
+      if (!dependencies.isEmpty()) {
+        attributes.putValue("dependencies", String.join(",", dependencies));
+      }
+    }
+    return result;
+  }
+
+  private String createYaml() {
+    return "plugin:\n"
+        + "  name: "
+        + name
+        + "\n  group: "
+        + GROUP
+        + "\n  version: "
+        + VERSION
+        + "\n  type: plugin\n"
+        + "  description: synthetic benchmark plugin\n";
+  }
+
+  private static void directory(JarOutputStream output, String name) throws IOException {
+    output.putNextEntry(new JarEntry(name));
+    output.closeEntry();
+  }
+
+  private static void write(JarOutputStream output, String name, byte[] content)
+      throws IOException {
+    output.putNextEntry(new JarEntry(name));
+    output.write(content);
+    output.closeEntry();
+  }
+}
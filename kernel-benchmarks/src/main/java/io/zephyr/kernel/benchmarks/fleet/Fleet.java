@@ -0,0 +1,105 @@
+package io.zephyr.kernel.benchmarks.fleet;
+
+import io.zephyr.api.ModuleActivator;
+import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.benchmarks.SyntheticPlugin;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * a generated fleet of plugins, shaped by {@link FleetOptions}. Plugin <code>i</code> is named
+ * <code>fleet-[i]</code>, and only depends on plugins with lower indices
+ */
+public final class Fleet {
+
+  @Getter private final List<SyntheticPlugin> plugins;
+  @Getter private final List<int[]> dependencies;
+
+  private Fleet(List<SyntheticPlugin> plugins, List<int[]> dependencies) {
+    this.plugins = Collections.unmodifiableList(plugins);
+    this.dependencies = Collections.unmodifiableList(dependencies);
+  }
+
+  /**
+   * @param options the fleet's shape
+   * @return the fleet
+   */
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  public static Fleet generate(@NonNull FleetOptions options) {
+    val random = new Random(options.getSeed());
+    val plugins = new ArrayList<SyntheticPlugin>(options.getPlugins());
+    val dependencies = new ArrayList<int[]>(options.getPlugins());
+    for (int i = 0; i < options.getPlugins(); i++) {
+      val name = "fleet-" + i;
+      val plugin =
+          new SyntheticPlugin(
+                  name, SyntheticPlugin.Descriptor.Manifest, 0, 0, options.getLibraries())
+              .withClasses(options.getClasses())
+              .withResource(
+                  "META-INF/services/" + ModuleActivator.class.getName(),
+                  utf8(SyntheticActivator.class.getName() + "\n"))
+              .withResource(
+                  SyntheticActivator.configuration(name),
+                  utf8(
+                      SyntheticActivator.COST
+                          + "="
+                          + options.getActivatorCost()
+                          + "\n"
+                          + SyntheticActivator.SERVICES
+                          + "="
+                          + options.getServices()
+                          + "\n"));
+      val targets = options.getTopology().dependencies(i, random);
+      for (val target : targets) {
+        plugin.dependOn(plugins.get(target), false);
+      }
+      plugins.add(plugin);
+      dependencies.add(targets);
+    }
+    return new Fleet(plugins, dependencies);
+  }
+
+  /**
+   * @param directory where to write the plugins' archives
+   * @return the archives' locations, in plugin order
+   * @throws IOException if an archive can't be written
+   */
+  public List<URL> writeTo(@NonNull File directory) throws IOException {
+    val result = new ArrayList<URL>(plugins.size());
+    for (val plugin : plugins) {
+      result.add(plugin.writeTo(directory).toURI().toURL());
+    }
+    return result;
+  }
+
+  /** @return the plugins' coordinates, in plugin order */
+  public List<Coordinate> getCoordinates() {
+    val result = new ArrayList<Coordinate>(plugins.size());
+    for (val plugin : plugins) {
+      result.add(plugin.getCoordinate());
+    }
+    return result;
+  }
+
+  /** @return how many dependencies the fleet's plugins have between them */
+  public int getEdgeCount() {
+    int result = 0;
+    for (val targets : dependencies) {
+      result += targets.length;
+    }
+    return result;
+  }
+
+  private static byte[] utf8(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,300 @@
+package io.zephyr.kernel.benchmarks.fleet;
+
+import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.Lifecycle;
+import io.zephyr.kernel.benchmarks.BenchmarkKernel;
+import io.zephyr.kernel.benchmarks.ResourceSnapshot;
+import io.zephyr.kernel.metrics.LogLinearHistogram;
+import io.zephyr.kernel.module.ModuleLifecycle;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.val;
+import picocli.CommandLine;
+
+/**
+ * generates a fleet of plugins and drives it through a kernel's module manager, one phase at a
+ * time:
+ *
+ * <ol>
+ *   <li>install: every plugin, in batches, dependencies first
+ *   <li>start: every plugin, in batches, dependencies first
+ *   <li>restart: the whole fleet, stopped and started again in one request each, <code>restarts
+ *       </code> times
+ *   <li>stop: every plugin, in batches, dependents first
+ *   <li>remove: every plugin, in batches, dependents first
+ * </ol>
+ *
+ * Each phase reports its throughput, the latency percentiles of its requests and--after a
+ * collection--the threads, heap, metaspace, classes and files in use, and checks that every plugin
+ * ended up where it should have. Run it with
+ *
+ * <pre>
+ *   gradle :kernel-benchmarks:fleet -Pfleet="--plugins 1000 --topology RandomDag"
+ * </pre>
+ */
+@SuppressWarnings({"PMD.SystemPrintln", "PMD.AvoidInstantiatingObjectsInLoops"})
+public final class FleetHarness {
+
+  /** what a phase did, and what it cost */
+  @Getter
+  public static final class Phase {
+    private final String name;
+    private final int modules;
+    private final long elapsed;
+    private final LogLinearHistogram.Snapshot latencies;
+    private final ResourceSnapshot resources;
+    private final int misplaced;
+
+    Phase(
+        String name,
+        int modules,
+        long elapsed,
+        LogLinearHistogram latencies,
+        ResourceSnapshot resources,
+        int misplaced) {
+      this.name = name;
+      this.modules = modules;
+      this.elapsed = elapsed;
+      this.latencies = latencies.snapshot();
+      this.resources = resources;
+      this.misplaced = misplaced;
+    }
+
+    /** @return modules per second */
+    public double getThroughput() {
+      return elapsed == 0 ? 0 : modules * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+  }
+
+  /** a request the harness times */
+  @FunctionalInterface
+  interface Request {
+    void run() throws InterruptedException, ExecutionException;
+  }
+
+  static final String HEADER_FORMAT =
+      "%-8s %7s %10s %10s %9s %9s %9s %9s %8s %8s %10s %10s %8s %6s %9s%n";
+  static final String ROW_FORMAT =
+      "%-8s %7d %10.1f %10.1f %9.2f %9.2f %9.2f %9.2f %8d %8d %10.1f %10.1f %8d %6d %9d%n";
+  static final double MEGABYTE = 1024 * 1024;
+  static final double MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final FleetOptions options;
+
+  public FleetHarness(@NonNull FleetOptions options) {
+    this.options = options.validate();
+  }
+
+  public static void main(String[] args) throws Exception {
+    val options = new FleetOptions();
+    new CommandLine(options).parseArgs(args);
+    val harness = new FleetHarness(options);
+    val phases = harness.run();
+    harness.print(phases, System.out);
+    for (val phase : phases) {
+      if (phase.misplaced > 0) {
+        System.exit(1);
+      }
+    }
+    System.exit(0);
+  }
+
+  /**
+   * generate the fleet and drive it through every phase
+   *
+   * @return the phases
+   */
+  public List<Phase> run() throws IOException, InterruptedException, ExecutionException {
+    val fleet = Fleet.generate(options);
+    val artifacts = java.nio.file.Files.createTempDirectory("zephyr-fleet").toFile();
+    try (val kernel = BenchmarkKernel.start()) {
+      return run(fleet, fleet.writeTo(artifacts), kernel);
+    } finally {
+      io.zephyr.common.io.Files.deleteTree(artifacts);
+    }
+  }
+
+  private List<Phase> run(Fleet fleet, List<URL> locations, BenchmarkKernel kernel)
+      throws InterruptedException, ExecutionException {
+    val coordinates = fleet.getCoordinates();
+    val size = coordinates.size();
+    val all = coordinates.toArray(new Coordinate[0]);
+    val result = new ArrayList<Phase>(5);
+
+    result.add(
+        phase(
+            "install",
+            size,
+            batches(size, false, (from, to) -> kernel.install(locations(locations, from, to))),
+            () -> size - count(kernel, null)));
+    result.add(
+        phase(
+            "start",
+            size,
+            batches(
+                size,
+                false,
+                (from, to) ->
+                    kernel.change(
+                        ModuleLifecycle.Actions.Activate, coordinates(coordinates, from, to))),
+            () -> size - count(kernel, Lifecycle.State.Active)));
+
+    val restarts = new ArrayList<Request>(options.getRestarts());
+    for (int i = 0; i < options.getRestarts(); i++) {
+      restarts.add(
+          () -> {
+            kernel.change(ModuleLifecycle.Actions.Stop, all);
+            kernel.change(ModuleLifecycle.Actions.Activate, all);
+          });
+    }
+    result.add(
+        phase(
+            "restart",
+            size * options.getRestarts(),
+            restarts,
+            () -> size - count(kernel, Lifecycle.State.Active)));
+    result.add(
+        phase(
+            "stop",
+            size,
+            batches(
+                size,
+                true,
+                (from, to) ->
+                    kernel.change(
+                        ModuleLifecycle.Actions.Stop, coordinates(coordinates, from, to))),
+            () -> count(kernel, Lifecycle.State.Active)));
+    result.add(
+        phase(
+            "remove",
+            size,
+            batches(
+                size,
+                true,
+                (from, to) ->
+                    kernel.change(
+                        ModuleLifecycle.Actions.Delete, coordinates(coordinates, from, to))),
+            () -> count(kernel, null)));
+    return result;
+  }
+
+  /**
+   * print phases as a table
+   *
+   * @param phases the phases
+   * @param output where to print them
+   */
+  public void print(@NonNull List<Phase> phases, @NonNull PrintStream output) {
+    output.printf(
+        "fleet: %d plugins, %s topology, %d services and %dus of activation each, batches of %d%n",
+        options.getPlugins(),
+        options.getTopology(),
+        options.getServices(),
+        options.getActivatorCost(),
+        options.getBatch());
+    output.printf(
+        HEADER_FORMAT,
+        "phase",
+        "modules",
+        "time(ms)",
+        "modules/s",
+        "p50(ms)",
+        "p90(ms)",
+        "p99(ms)",
+        "max(ms)",
+        "threads",
+        "peak",
+        "heap(MB)",
+        "meta(MB)",
+        "classes",
+        "fds",
+        "misplaced");
+    for (val phase : phases) {
+      val latencies = phase.latencies;
+      val resources = phase.resources;
+      output.printf(
+          ROW_FORMAT,
+          phase.name,
+          phase.modules,
+          phase.elapsed / MILLISECOND,
+          phase.getThroughput(),
+          latencies.getValueAtPercentile(50) / MILLISECOND,
+          latencies.getValueAtPercentile(90) / MILLISECOND,
+          latencies.getValueAtPercentile(99) / MILLISECOND,
+          latencies.getMax() / MILLISECOND,
+          resources.getThreads(),
+          resources.getPeakThreads(),
+          resources.getHeapUsed() / MEGABYTE,
+          resources.getMetaspaceUsed() / MEGABYTE,
+          resources.getLoadedClasses(),
+          resources.getOpenFileDescriptors(),
+          phase.misplaced);
+    }
+  }
+
+  /** a request over the plugins <code>[from, to)</code> */
+  @FunctionalInterface
+  interface BatchRequest {
+    void run(int from, int to) throws InterruptedException, ExecutionException;
+  }
+
+  /** the plugin count a phase checks when it's done */
+  @FunctionalInterface
+  interface Check {
+    int misplaced();
+  }
+
+  private List<Request> batches(int size, boolean descending, BatchRequest request) {
+    val batch = options.getBatch();
+    val result = new ArrayList<Request>(size / batch + 1);
+    for (int from = 0; from < size; from += batch) {
+      val start = descending ? Math.max(0, size - from - batch) : from;
+      val end = descending ? size - from : Math.min(size, from + batch);
+      result.add(() -> request.run(start, end));
+    }
+    return result;
+  }
+
+  private Phase phase(String name, int modules, List<Request> requests, Check check)
+      throws InterruptedException, ExecutionException {
+    val latencies = new LogLinearHistogram(name);
+    ResourceSnapshot.resetPeakThreads();
+    val started = System.nanoTime();
+    for (val request : requests) {
+      val requested = System.nanoTime();
+      request.run();
+      latencies.record(System.nanoTime() - requested);
+    }
+    val elapsed = System.nanoTime() - started;
+    return new Phase(
+        name,
+        modules,
+        elapsed,
+        latencies,
+        ResourceSnapshot.takeAfterCollection(),
+        check.misplaced());
+  }
+
+  /** @return how many of the kernel's modules are in a state, or how many there are if it's null */
+  private static int count(BenchmarkKernel kernel, Lifecycle.State state) {
+    val moduleManager = kernel.getKernel().getModuleManager();
+    return state == null
+        ? moduleManager.getModules().size()
+        : moduleManager.getModules(state).size();
+  }
+
+  private static URL[] locations(List<URL> values, int from, int to) {
+    return values.subList(from, to).toArray(new URL[0]);
+  }
+
+  private static Coordinate[] coordinates(List<Coordinate> values, int from, int to) {
+    return values.subList(from, to).toArray(new Coordinate[0]);
+  }
+}
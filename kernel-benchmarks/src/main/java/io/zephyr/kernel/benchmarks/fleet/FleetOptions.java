@@ -0,0 +1,59 @@
+package io.zephyr.kernel.benchmarks.fleet;
+
+import lombok.Getter;
+import lombok.Setter;
+import picocli.CommandLine;
+
+/** the shape of a fleet, and how the harness drives it */
+@Getter
+@Setter
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public class FleetOptions {
+
+  /** how many plugins the fleet holds */
+  @CommandLine.Option(names = "--plugins", defaultValue = "100")
+  private int plugins;
+
+  /** how the plugins depend on each other */
+  @CommandLine.Option(names = "--topology", defaultValue = "Tree")
+  private Topology topology;
+
+  /** how many services each plugin registers when it starts */
+  @CommandLine.Option(names = "--services", defaultValue = "4")
+  private int services;
+
+  /** how long (in microseconds) each plugin's activator works for */
+  @CommandLine.Option(names = "--activator-cost", defaultValue = "1000")
+  private long activatorCost;
+
+  /** how many classes each plugin holds */
+  @CommandLine.Option(names = "--classes", defaultValue = "32")
+  private int classes;
+
+  /** how many nested jars each plugin's classes are spread over */
+  @CommandLine.Option(names = "--libraries", defaultValue = "2")
+  private int libraries;
+
+  /** how many plugins each install, start, stop and remove request holds */
+  @CommandLine.Option(names = "--batch", defaultValue = "1")
+  private int batch;
+
+  /** how many times the whole fleet is restarted */
+  @CommandLine.Option(names = "--restarts", defaultValue = "3")
+  private int restarts;
+
+  /** seeds the random DAG topology */
+  @CommandLine.Option(names = "--seed", defaultValue = "42")
+  private long seed;
+
+  /** @return these options, checked */
+  FleetOptions validate() {
+    if (plugins < 1 || batch < 1) {
+      throw new IllegalArgumentException("Error: --plugins and --batch must be at least 1");
+    }
+    if (services < 0 || activatorCost < 0 || classes < 0 || libraries < 0 || restarts < 0) {
+      throw new IllegalArgumentException("Error: fleet options must not be negative");
+    }
+    return this;
+  }
+}
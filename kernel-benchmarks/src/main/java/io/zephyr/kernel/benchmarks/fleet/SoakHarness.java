@@ -0,0 +1,285 @@
+package io.zephyr.kernel.benchmarks.fleet;
+
+import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.benchmarks.BenchmarkKernel;
+import io.zephyr.kernel.benchmarks.ResourceSnapshot;
+import io.zephyr.kernel.module.ModuleLifecycle;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import lombok.NonNull;
+import lombok.val;
+import picocli.CommandLine;
+
+/**
+ * churns a fleet of plugins--install, start, stop and remove, over and over--and checks that
+ * removing them gives back everything installing them took. After each cycle it collects garbage
+ * and checks that:
+ *
+ * <ol>
+ *   <li>every removed module's classloader and module thread is unreachable (via weak-reference
+ *       probes taken while the module was active)
+ *   <li>live threads, open files and loaded classes are within their slack of the baseline taken
+ *       after the warmup cycles
+ * </ol>
+ *
+ * The first cycle that fails prints a retention report--the modules still reachable, the threads
+ * that weren't there at the baseline and how far each resource grew--and the harness exits with 1.
+ * Run it with
+ *
+ * <pre>
+ *   gradle :kernel-benchmarks:soak -Psoak="--plugins 200 --topology RandomDag --duration 3600"
+ * </pre>
+ */
+@SuppressWarnings({"PMD.SystemPrintln", "PMD.AvoidInstantiatingObjectsInLoops"})
+public final class SoakHarness {
+
+  /** a weak reference to something a removed module should no longer be holding on to */
+  static final class Probe extends WeakReference<Object> {
+    final int cycle;
+    final String kind;
+    final Coordinate coordinate;
+
+    Probe(int cycle, String kind, Coordinate coordinate, Object referent) {
+      super(referent);
+      this.cycle = cycle;
+      this.kind = kind;
+      this.coordinate = coordinate;
+    }
+  }
+
+  static final String HEADER_FORMAT = "%-6s %9s %8s %6s %8s %10s %10s%n";
+  static final String ROW_FORMAT = "%-6d %9.1f %8d %6d %8d %10.1f %10d%n";
+  static final double MEGABYTE = 1024 * 1024;
+  static final long COLLECTION_PAUSE_MILLIS = 100;
+
+  private final SoakOptions options;
+  private final PrintStream output;
+
+  public SoakHarness(@NonNull SoakOptions options, @NonNull PrintStream output) {
+    this.options = options.validate();
+    this.output = output;
+  }
+
+  public static void main(String[] args) throws Exception {
+    val options = new SoakOptions();
+    new CommandLine(options).parseArgs(args);
+    System.exit(new SoakHarness(options, System.out).run() ? 0 : 1);
+  }
+
+  /**
+   * generate the fleet and churn it until the cycles or the duration run out, or a cycle leaks
+   *
+   * @return true if no cycle leaked
+   */
+  public boolean run() throws IOException, InterruptedException, ExecutionException {
+    val fleet = Fleet.generate(options);
+    val artifacts = java.nio.file.Files.createTempDirectory("zephyr-soak").toFile();
+    try (val kernel = BenchmarkKernel.start()) {
+      return run(fleet.writeTo(artifacts), fleet.getCoordinates(), kernel);
+    } finally {
+      io.zephyr.common.io.Files.deleteTree(artifacts);
+    }
+  }
+
+  private boolean run(List<URL> locations, List<Coordinate> coordinates, BenchmarkKernel kernel)
+      throws InterruptedException, ExecutionException {
+    output.printf(
+        "soak: %d plugins, %s topology, %d services each, batches of %d, %s%n",
+        options.getPlugins(),
+        options.getTopology(),
+        options.getServices(),
+        options.getBatch(),
+        options.getDuration() > 0 ? options.getDuration() + "s" : options.getCycles() + " cycles");
+    output.printf(
+        HEADER_FORMAT, "cycle", "time(ms)", "threads", "fds", "classes", "heap(MB)", "retained");
+
+    val deadline =
+        options.getDuration() > 0
+            ? System.nanoTime() + TimeUnit.SECONDS.toNanos(options.getDuration())
+            : Long.MAX_VALUE;
+    val probes = new ArrayList<Probe>();
+    ResourceSnapshot baseline = null;
+    Set<Long> baselineThreads = null;
+    if (options.getWarmup() == 0) {
+      baseline = collect(probes);
+      baselineThreads = threadIds();
+    }
+
+    for (int cycle = 0; proceed(cycle, deadline); cycle++) {
+      val started = System.nanoTime();
+      cycle(cycle, locations, coordinates, kernel, probes);
+      val elapsed = System.nanoTime() - started;
+      val snapshot = collect(probes);
+      output.printf(
+          ROW_FORMAT,
+          cycle,
+          elapsed / (double) TimeUnit.MILLISECONDS.toNanos(1),
+          snapshot.getThreads(),
+          snapshot.getOpenFileDescriptors(),
+          snapshot.getLoadedClasses(),
+          snapshot.getHeapUsed() / MEGABYTE,
+          probes.size());
+
+      if (cycle + 1 == options.getWarmup()) {
+        baseline = snapshot;
+        baselineThreads = threadIds();
+        continue;
+      }
+      if (baseline != null) {
+        val violations = check(kernel, baseline, snapshot, probes);
+        if (!violations.isEmpty()) {
+          report(cycle, violations, baseline, snapshot, baselineThreads, probes);
+          return false;
+        }
+      }
+    }
+    output.println("soak: no retention detected");
+    return true;
+  }
+
+  private boolean proceed(int cycle, long deadline) {
+    return options.getDuration() > 0 ? System.nanoTime() < deadline : cycle < options.getCycles();
+  }
+
+  /** install, start, stop and remove every plugin, probing each one while it's active */
+  private void cycle(
+      int cycle,
+      List<URL> locations,
+      List<Coordinate> coordinates,
+      BenchmarkKernel kernel,
+      List<Probe> probes)
+      throws InterruptedException, ExecutionException {
+    val size = coordinates.size();
+    val batch = options.getBatch();
+    kernel.install(locations.toArray(new URL[0]));
+    for (int from = 0; from < size; from += batch) {
+      kernel.change(
+          ModuleLifecycle.Actions.Activate,
+          coordinates.subList(from, Math.min(size, from + batch)).toArray(new Coordinate[0]));
+    }
+
+    val moduleManager = kernel.getKernel().getModuleManager();
+    for (val coordinate : coordinates) {
+      val module = moduleManager.getModule(coordinate);
+      probes.add(new Probe(cycle, "classloader", coordinate, module.getClassLoader()));
+      if (module.getTaskQueue() != null) {
+        probes.add(new Probe(cycle, "module thread", coordinate, module.getTaskQueue()));
+      }
+    }
+
+    for (int to = size; to > 0; to -= batch) {
+      kernel.change(
+          ModuleLifecycle.Actions.Stop,
+          coordinates.subList(Math.max(0, to - batch), to).toArray(new Coordinate[0]));
+    }
+    for (int to = size; to > 0; to -= batch) {
+      kernel.change(
+          ModuleLifecycle.Actions.Delete,
+          coordinates.subList(Math.max(0, to - batch), to).toArray(new Coordinate[0]));
+    }
+  }
+
+  /**
+   * collect garbage until every probe has cleared, or we run out of collections
+   *
+   * @param probes the probes. Cleared probes are dropped
+   * @return the JVM's resources after the last collection
+   */
+  private ResourceSnapshot collect(List<Probe> probes) throws InterruptedException {
+    ResourceSnapshot result = ResourceSnapshot.takeAfterCollection();
+    for (int i = 1; ; i++) {
+      probes.removeIf(probe -> probe.get() == null);
+      if (probes.isEmpty() || i == options.getCollections()) {
+        return result;
+      }
+      Thread.sleep(COLLECTION_PAUSE_MILLIS);
+      result = ResourceSnapshot.takeAfterCollection();
+    }
+  }
+
+  /** @return why the cycle leaked, or nothing if it didn't */
+  private List<String> check(
+      BenchmarkKernel kernel,
+      ResourceSnapshot baseline,
+      ResourceSnapshot snapshot,
+      List<Probe> probes) {
+    val result = new ArrayList<String>();
+    val installed = kernel.getKernel().getModuleManager().getModules().size();
+    if (installed > 0) {
+      result.add(installed + " module(s) still installed");
+    }
+    if (!probes.isEmpty()) {
+      result.add(probes.size() + " removed module classloader(s) or thread(s) still reachable");
+    }
+    if (snapshot.getThreads() > baseline.getThreads() + options.getThreadSlack()) {
+      result.add(grew("live threads", baseline.getThreads(), snapshot.getThreads()));
+    }
+    if (baseline.getOpenFileDescriptors() != ResourceSnapshot.UNAVAILABLE
+        && snapshot.getOpenFileDescriptors()
+            > baseline.getOpenFileDescriptors() + options.getFileDescriptorSlack()) {
+      result.add(
+          grew("open files", baseline.getOpenFileDescriptors(), snapshot.getOpenFileDescriptors()));
+    }
+    if (snapshot.getLoadedClasses() > baseline.getLoadedClasses() + options.getClassSlack()) {
+      result.add(grew("loaded classes", baseline.getLoadedClasses(), snapshot.getLoadedClasses()));
+    }
+    return result;
+  }
+
+  private void report(
+      int cycle,
+      List<String> violations,
+      ResourceSnapshot baseline,
+      ResourceSnapshot snapshot,
+      Set<Long> baselineThreads,
+      List<Probe> probes) {
+    output.printf("soak: cycle %d leaked%n", cycle);
+    for (val violation : violations) {
+      output.printf("  %s%n", violation);
+    }
+    output.printf(
+        "  heap: %.1fMB -> %.1fMB, metaspace: %.1fMB -> %.1fMB%n",
+        baseline.getHeapUsed() / MEGABYTE,
+        snapshot.getHeapUsed() / MEGABYTE,
+        baseline.getMetaspaceUsed() / MEGABYTE,
+        snapshot.getMetaspaceUsed() / MEGABYTE);
+    if (!probes.isEmpty()) {
+      output.println("  still reachable:");
+      for (val probe : probes) {
+        output.printf(
+            "    %s of %s (removed in cycle %d)%n",
+            probe.kind, probe.coordinate.toCanonicalForm(), probe.cycle);
+      }
+    }
+    output.println("  threads started since the baseline:");
+    for (val entry : Thread.getAllStackTraces().entrySet()) {
+      val thread = entry.getKey();
+      if (!baselineThreads.contains(thread.getId())) {
+        val stack = entry.getValue();
+        output.printf(
+            "    '%s' %s%s%n",
+            thread.getName(), thread.getState(), stack.length == 0 ? "" : " at " + stack[0]);
+      }
+    }
+  }
+
+  private static String grew(String resource, long baseline, long current) {
+    return String.format("%s grew from %d to %d", resource, baseline, current);
+  }
+
+  private static Set<Long> threadIds() {
+    val result = new HashSet<Long>();
+    for (val thread : Thread.getAllStackTraces().keySet()) {
+      result.add(thread.getId());
+    }
+    return result;
+  }
+}
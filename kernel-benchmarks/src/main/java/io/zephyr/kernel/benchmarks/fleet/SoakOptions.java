@@ -0,0 +1,56 @@
+package io.zephyr.kernel.benchmarks.fleet;
+
+import lombok.Getter;
+import lombok.Setter;
+import picocli.CommandLine;
+
+/** a fleet's shape, how long to churn it for, and how much its resources may grow */
+@Getter
+@Setter
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public class SoakOptions extends FleetOptions {
+
+  /** how many install, start, stop and remove cycles to run */
+  @CommandLine.Option(names = "--cycles", defaultValue = "20")
+  private int cycles;
+
+  /** if positive, cycle for this many seconds instead of <code>--cycles</code> times */
+  @CommandLine.Option(names = "--duration", defaultValue = "0")
+  private long duration;
+
+  /** how many cycles to run before taking the baseline the others are checked against */
+  @CommandLine.Option(names = "--warmup", defaultValue = "2")
+  private int warmup;
+
+  /** how many live threads a cycle may leave over the baseline */
+  @CommandLine.Option(names = "--thread-slack", defaultValue = "4")
+  private int threadSlack;
+
+  /** how many open files a cycle may leave over the baseline */
+  @CommandLine.Option(names = "--fd-slack", defaultValue = "16")
+  private long fileDescriptorSlack;
+
+  /** how many loaded classes a cycle may leave over the baseline */
+  @CommandLine.Option(names = "--class-slack", defaultValue = "256")
+  private int classSlack;
+
+  /** how many collections to wait through for a removed module's classloader to be collected */
+  @CommandLine.Option(names = "--collections", defaultValue = "5")
+  private int collections;
+
+  @Override
+  SoakOptions validate() {
+    super.validate();
+    if (cycles < 1 || collections < 1) {
+      throw new IllegalArgumentException("Error: --cycles and --collections must be at least 1");
+    }
+    if (duration < 0
+        || warmup < 0
+        || threadSlack < 0
+        || fileDescriptorSlack < 0
+        || classSlack < 0) {
+      throw new IllegalArgumentException("Error: soak options must not be negative");
+    }
+    return this;
+  }
+}
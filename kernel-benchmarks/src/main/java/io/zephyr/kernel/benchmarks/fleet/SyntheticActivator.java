@@ -0,0 +1,89 @@
+package io.zephyr.kernel.benchmarks.fleet;
+
+import io.zephyr.api.ModuleActivator;
+import io.zephyr.api.ModuleContext;
+import io.zephyr.api.ServiceRegistration;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import lombok.val;
+
+/**
+ * the activator of every plugin in a fleet. Plugins name it in their <code>
+ * META-INF/services/io.zephyr.api.ModuleActivator</code>, and load it from the kernel's classpath.
+ * What it does is read from the plugin's own <code>fleet/[name].properties</code>: it works for
+ * <code>cost</code> microseconds, then registers <code>services</code> services--which it
+ * unregisters again when it's stopped
+ */
+public final class SyntheticActivator implements ModuleActivator {
+
+  /** the services fleet plugins register */
+  public static final class Service {
+    private final String name;
+
+    Service(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  static final String COST = "cost";
+  static final String SERVICES = "services";
+
+  private final List<ServiceRegistration<Service>> registrations = new ArrayList<>();
+
+  /** so the JIT can't drop the work */
+  @SuppressWarnings("PMD.UnusedPrivateField")
+  private long work;
+
+  /**
+   * @param name the plugin's name
+   * @return where the plugin's configuration is
+   */
+  static String configuration(String name) {
+    return "fleet/" + name + ".properties";
+  }
+
+  @Override
+  public void start(ModuleContext context) throws IOException {
+    val module = context.getModule();
+    val name = module.getCoordinate().getName();
+    val properties = new Properties();
+    try (val input = module.getClassLoader().getResourceAsStream(configuration(name))) {
+      if (input == null) {
+        throw new IllegalStateException("Error: no fleet configuration for " + name);
+      }
+      properties.load(input);
+    }
+
+    work(Long.parseLong(properties.getProperty(COST, "0")));
+    val services = Integer.parseInt(properties.getProperty(SERVICES, "0"));
+    for (int i = 0; i < services; i++) {
+      val serviceName = name + "-service-" + i;
+      registrations.add(context.register(Service.class, serviceName, new Service(serviceName)));
+    }
+  }
+
+  @Override
+  public void stop(ModuleContext context) {
+    for (val registration : registrations) {
+      registration.dispose();
+    }
+    registrations.clear();
+  }
+
+  /** spin for a while: activators are usually busy, not asleep */
+  private void work(long micros) {
+    val deadline = System.nanoTime() + micros * 1000;
+    long result = work;
+    while (System.nanoTime() < deadline) {
+      result = result * 31 + 17;
+    }
+    work = result;
+  }
+}
@@ -0,0 +1,74 @@
+package io.zephyr.kernel.benchmarks.fleet;
+
+import java.util.Random;
+import java.util.TreeSet;
+import lombok.val;
+
+/**
+ * how the plugins in a fleet depend on each other. Plugins only ever depend on plugins with lower
+ * indices, so every topology is a DAG and ascending index order is a valid start order
+ */
+public enum Topology {
+
+  /** no dependencies */
+  None {
+    @Override
+    int[] dependencies(int index, Random random) {
+      return new int[0];
+    }
+  },
+
+  /** each plugin depends on the one before it */
+  Chain {
+    @Override
+    int[] dependencies(int index, Random random) {
+      return index == 0 ? new int[0] : new int[] {index - 1};
+    }
+  },
+
+  /** a binary tree: each plugin depends on its parent */
+  Tree {
+    @Override
+    int[] dependencies(int index, Random random) {
+      return index == 0 ? new int[0] : new int[] {(index - 1) / 2};
+    }
+  },
+
+  /**
+   * stacked diamonds: every third plugin is a waist that the two plugins after it depend on, and
+   * that depends on both of the plugins before it
+   */
+  Diamond {
+    @Override
+    int[] dependencies(int index, Random random) {
+      if (index == 0) {
+        return new int[0];
+      }
+      val offset = index % 3;
+      return offset == 0 ? new int[] {index - 2, index - 1} : new int[] {index - offset};
+    }
+  },
+
+  /** each plugin depends on up to {@link #MAXIMUM_DEGREE} plugins picked at random */
+  RandomDag {
+    @Override
+    int[] dependencies(int index, Random random) {
+      val degree = random.nextInt(Math.min(index, MAXIMUM_DEGREE) + 1);
+      val result = new TreeSet<Integer>();
+      while (result.size() < degree) {
+        result.add(random.nextInt(index));
+      }
+      return result.stream().mapToInt(Integer::intValue).toArray();
+    }
+  };
+
+  /** the most dependencies a plugin in a random DAG has */
+  static final int MAXIMUM_DEGREE = 3;
+
+  /**
+   * @param index the plugin's index
+   * @param random the fleet's random source, for topologies that need one
+   * @return the indices of the plugins the plugin depends on--all less than <code>index</code>
+   */
+  abstract int[] dependencies(int index, Random random);
+}
@@ -6,6 +6,8 @@ import java.io.*;
 import java.net.URL;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import lombok.NonNull;
 import lombok.val;
 
@@ -15,6 +17,18 @@ public class Files {
 
   static final int BUFFER_SIZE = 8128;
 
+  static final Logger log = Logger.getLogger(Files.class.getName());
+
+  /** the strategy that was used to place a file at its destination */
+  public enum Placement {
+    /** the file was atomically renamed--source no longer exists */
+    MOVED,
+    /** the destination is a hard link to the source */
+    LINKED,
+    /** the source's bytes were copied into the destination */
+    COPIED
+  }
+
   @SuppressFBWarnings
   @SuppressWarnings({"PMD.AvoidFileStream", "PMD.DataflowAnomalyAnalysis"})
   public static void transferTo(File destination, InputStream inputStream) throws IOException {
@@ -26,7 +40,7 @@ public class Files {
         if (read == -1) {
           return;
         }
-        os.write(buffer);
+        os.write(buffer, 0, read);
       }
     }
   }
@@ -45,6 +59,57 @@ public class Files {
     }
   }
 
+  /**
+   * place a file at its destination as cheaply as possible. In order of preference:
+   *
+   * <p>1. atomically rename <code>from</code> to <code>to</code> (same file store only) 2.
+   * hard-link <code>to</code> to <code>from</code> 3. copy <code>from</code> to <code>to</code> via
+   * channel transfer
+   *
+   * <p>Any existing file at <code>to</code> is replaced. Callers must not rely on <code>from</code>
+   * existing after this call
+   *
+   * @param from the file to place
+   * @param to the destination
+   * @return the strategy that succeeded
+   * @throws IOException if every strategy failed
+   */
+  @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+  public static Placement place(@NonNull Path from, @NonNull Path to) throws IOException {
+    if (isSameFileStore(from, to)) {
+      try {
+        java.nio.file.Files.move(
+            from, to, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return Placement.MOVED;
+      } catch (IOException | UnsupportedOperationException ex) {
+        log.log(Level.FINE, "atomic move of {0} to {1} failed: {2}", new Object[] {from, to, ex});
+      }
+
+      try {
+        java.nio.file.Files.deleteIfExists(to);
+        java.nio.file.Files.createLink(to, from);
+        return Placement.LINKED;
+      } catch (IOException | UnsupportedOperationException ex) {
+        log.log(Level.FINE, "linking {0} to {1} failed: {2}", new Object[] {to, from, ex});
+      }
+    }
+    transferTo(from.toFile(), to.toFile());
+    return Placement.COPIED;
+  }
+
+  private static boolean isSameFileStore(Path from, Path to) {
+    try {
+      val parent = to.toAbsolutePath().getParent();
+      if (parent == null) {
+        return false;
+      }
+      val sourceStore = java.nio.file.Files.getFileStore(from);
+      return sourceStore.equals(java.nio.file.Files.getFileStore(parent));
+    } catch (IOException | SecurityException ex) {
+      return false;
+    }
+  }
+
   @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
   public static Path toPath(@NonNull String... segments) {
     Path path = Path.of(segments[0]);
@@ -0,0 +1,361 @@
+package io.zephyr.common.io;
+
+import io.zephyr.kernel.concurrency.NamedThreadFactory;
+import io.zephyr.kernel.memento.Memento;
+import io.zephyr.kernel.misc.SuppressFBWarnings;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * batches state writes (plugin descriptors, the kernel module list, kernel state) into group
+ * commits. Writes submitted within <code>maxCommitLatency</code> of the first pending write are
+ * committed together: every distinct file in the batch is written and forced concurrently, and
+ * writes to the same file within a batch are applied in submission order and forced once.
+ *
+ * <p>The future returned for a write completes once the batch containing it is durable, or
+ * exceptionally if the file it targets could not be written
+ */
+@SuppressFBWarnings
+@SuppressWarnings({
+  "PMD.DoNotUseThreads",
+  "PMD.AvoidInstantiatingObjectsInLoops",
+  "PMD.DataflowAnomalyAnalysis"
+})
+public final class GroupCommitWriter implements AutoCloseable {
+
+  static final Logger log = Logger.getLogger(GroupCommitWriter.class.getName());
+
+  /** the default maximum time a write waits for other writes to join its batch */
+  public static final long DEFAULT_MAX_COMMIT_LATENCY_MILLIS = 5;
+
+  /** the default maximum number of files written concurrently within a batch */
+  public static final int DEFAULT_CONCURRENCY = 4;
+
+  /** writes content to a file */
+  @FunctionalInterface
+  public interface Content {
+    void writeTo(OutputStream outputStream) throws Exception;
+  }
+
+  enum Mode {
+    REPLACE,
+    APPEND
+  }
+
+  private final long maxCommitLatencyNanos;
+  private final ExecutorService executorService;
+
+  /** guarded by lock */
+  private final Object lock = new Object();
+
+  private List<PendingWrite> pending;
+
+  /** the batch the leader is committing, if any--flushes wait on it as well as on pending */
+  private List<PendingWrite> committingBatch;
+
+  private long batchStart;
+  private boolean committing;
+  private boolean closed;
+
+  public GroupCommitWriter() {
+    this(DEFAULT_MAX_COMMIT_LATENCY_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_CONCURRENCY);
+  }
+
+  public GroupCommitWriter(long maxCommitLatency, @NonNull TimeUnit unit, int concurrency) {
+    if (maxCommitLatency < 0) {
+      throw new IllegalArgumentException("Error: commit latency must be non-negative");
+    }
+    if (concurrency < 1) {
+      throw new IllegalArgumentException("Error: concurrency must be at least 1");
+    }
+    this.maxCommitLatencyNanos = unit.toNanos(maxCommitLatency);
+    this.pending = new ArrayList<>();
+    val executor =
+        new ThreadPoolExecutor(
+            concurrency + 1,
+            concurrency + 1,
+            30L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new NamedThreadFactory("kernel-persistence"));
+    executor.allowCoreThreadTimeOut(true);
+    this.executorService = executor;
+  }
+
+  /**
+   * replace the contents of a file
+   *
+   * @param path the file to write (created along with its parents if it does not exist)
+   * @param content the new contents
+   * @return a future completing when the write is durable
+   */
+  public CompletableFuture<Path> replace(@NonNull Path path, @NonNull Content content) {
+    return enqueue(new PendingWrite(path, Mode.REPLACE, content));
+  }
+
+  /**
+   * convenience method for writing a memento
+   *
+   * @param path the file to write
+   * @param memento the memento to write
+   * @return a future completing when the write is durable
+   */
+  public CompletableFuture<Path> replace(@NonNull Path path, @NonNull Memento memento) {
+    return replace(path, memento::write);
+  }
+
+  /**
+   * append to a file
+   *
+   * @param path the file to write (created along with its parents if it does not exist)
+   * @param content the content to append
+   * @return a future completing when the write is durable
+   */
+  public CompletableFuture<Path> append(@NonNull Path path, @NonNull Content content) {
+    return enqueue(new PendingWrite(path, Mode.APPEND, content));
+  }
+
+  /** @return a future completing when every write submitted before this call is durable */
+  public CompletableFuture<Void> flush() {
+    synchronized (lock) {
+      val batch = committingBatch;
+      val futures =
+          new ArrayList<CompletableFuture<Path>>(
+              pending.size() + (batch == null ? 0 : batch.size()));
+      if (batch != null) {
+        for (val write : batch) {
+          futures.add(write.result);
+        }
+      }
+      for (val write : pending) {
+        futures.add(write.result);
+      }
+      return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+          .handle((t, u) -> null);
+    }
+  }
+
+  /** commits any outstanding writes and releases this writer's threads */
+  @Override
+  public void close() {
+    synchronized (lock) {
+      closed = true;
+      lock.notifyAll();
+    }
+    flush().join();
+    executorService.shutdown();
+  }
+
+  /** @return true if this writer has been closed */
+  public boolean isClosed() {
+    synchronized (lock) {
+      return closed;
+    }
+  }
+
+  private CompletableFuture<Path> enqueue(PendingWrite write) {
+    synchronized (lock) {
+      if (closed) {
+        throw new IllegalStateException("Error: writer is closed");
+      }
+      if (pending.isEmpty()) {
+        batchStart = System.nanoTime();
+      }
+      pending.add(write);
+      if (!committing) {
+        committing = true;
+        executorService.execute(this::commitLoop);
+      }
+      return write.result;
+    }
+  }
+
+  /** the group-commit leader: exactly one of these runs at a time */
+  private void commitLoop() {
+    for (; ; ) {
+      final List<PendingWrite> batch;
+      synchronized (lock) {
+        awaitBatchWindow();
+        if (pending.isEmpty()) {
+          committing = false;
+          return;
+        }
+        batch = pending;
+        pending = new ArrayList<>();
+        committingBatch = batch;
+      }
+      try {
+        commit(batch);
+      } finally {
+        synchronized (lock) {
+          committingBatch = null;
+        }
+      }
+    }
+  }
+
+  private void awaitBatchWindow() {
+    for (; ; ) {
+      val remaining = maxCommitLatencyNanos - (System.nanoTime() - batchStart);
+      if (closed || remaining <= 0 || pending.isEmpty()) {
+        return;
+      }
+      try {
+        TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void commit(List<PendingWrite> batch) {
+    val byPath = new LinkedHashMap<Path, List<PendingWrite>>();
+    for (val write : batch) {
+      byPath.computeIfAbsent(write.path, k -> new ArrayList<>()).add(write);
+    }
+    if (log.isLoggable(Level.FINE)) {
+      log.log(
+          Level.FINE,
+          "committing {0} writes to {1} files",
+          new Object[] {batch.size(), byPath.size()});
+    }
+
+    val commits = new ArrayList<CompletableFuture<Void>>(byPath.size());
+    for (val entry : byPath.entrySet()) {
+      commits.add(
+          CompletableFuture.runAsync(
+              () -> commitFile(entry.getKey(), entry.getValue()), executorService));
+    }
+    CompletableFuture.allOf(commits.toArray(new CompletableFuture<?>[0]))
+        .handle((t, u) -> null)
+        .join();
+  }
+
+  private void commitFile(Path path, List<PendingWrite> writes) {
+    try {
+      write(path, writes);
+      for (val write : writes) {
+        write.result.complete(path);
+      }
+    } catch (Exception ex) {
+      log.log(Level.WARNING, "failed to write {0}.  Reason: {1}", new Object[] {path, ex});
+      for (val write : writes) {
+        write.result.completeExceptionally(ex);
+      }
+    }
+  }
+
+  /**
+   * everything before the last replace is superseded by it. A replacement is written beside the
+   * file and moved over it, so that a crash mid-write leaves the previous contents intact
+   */
+  private void write(Path path, List<PendingWrite> writes) throws Exception {
+    int first = 0;
+    for (int i = writes.size() - 1; i >= 0; i--) {
+      if (writes.get(i).mode == Mode.REPLACE) {
+        first = i;
+        break;
+      }
+    }
+    val file = Files.doCheck(path);
+    if (writes.get(first).mode == Mode.APPEND) {
+      write(file, writes, first, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+      return;
+    }
+
+    val temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try {
+      write(
+          temp,
+          writes,
+          first,
+          StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE,
+          StandardOpenOption.TRUNCATE_EXISTING);
+      try {
+        java.nio.file.Files.move(
+            temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException ex) {
+        java.nio.file.Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      java.nio.file.Files.deleteIfExists(temp);
+    }
+  }
+
+  private void write(Path file, List<PendingWrite> writes, int first, OpenOption... options)
+      throws Exception {
+    try (val channel = FileChannel.open(file, options)) {
+      val outputStream = new BufferedOutputStream(Channels.newOutputStream(channel));
+      for (int i = first; i < writes.size(); i++) {
+        writes.get(i).content.writeTo(new UnclosableOutputStream(outputStream));
+      }
+      outputStream.flush();
+      channel.force(true);
+    }
+  }
+
+  static final class PendingWrite {
+    final Path path;
+    final Mode mode;
+    final Content content;
+    final CompletableFuture<Path> result;
+
+    PendingWrite(Path path, Mode mode, Content content) {
+      this.path = path;
+      this.mode = mode;
+      this.content = content;
+      this.result = new CompletableFuture<>();
+    }
+  }
+
+  /** content writers may close their stream--don't let that close the shared channel */
+  static final class UnclosableOutputStream extends OutputStream {
+    final OutputStream delegate;
+
+    UnclosableOutputStream(OutputStream delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      delegate.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      delegate.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+      delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      delegate.flush();
+    }
+  }
+}
@@ -0,0 +1,420 @@
+package io.zephyr.kernel.concurrency;
+
+import io.zephyr.kernel.log.Logging;
+import io.zephyr.kernel.metrics.KernelMetrics;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * periodically resizes thread pools between a floor and a ceiling. Each sample looks at the pool's
+ * queue depth, how long its tasks waited versus how long they ran, and host CPU utilization:
+ *
+ * <ul>
+ *   <li>CPU above {@link #MAX_UTILIZATION}: shrink by a quarter--we're oversubscribing the host
+ *   <li>tasks queueing (or waiting longer than they run) with CPU below {@link
+ *       #TARGET_UTILIZATION}: grow by up to half
+ *   <li>no queue and fewer than half the threads busy: shrink by one
+ * </ul>
+ *
+ * Every decision is recorded and available from {@link #getDecisions()}, and, once {@link
+ * #export(KernelMetrics)} is called, counted and gauged in the kernel's metrics
+ */
+@SuppressWarnings({"PMD.DoNotUseThreads", "PMD.AvoidCatchingGenericException"})
+public final class AdaptiveConcurrencyController implements AutoCloseable {
+
+  static final Logger log = Logging.get(AdaptiveConcurrencyController.class, "Concurrency");
+
+  /** the default sampling interval */
+  public static final long DEFAULT_INTERVAL_MILLIS = 500;
+
+  /** grow only while host CPU utilization is below this */
+  static final double TARGET_UTILIZATION = 0.75;
+
+  /** shrink while host CPU utilization is above this */
+  static final double MAX_UTILIZATION = 0.9;
+
+  public enum Action {
+    Grow,
+    Shrink,
+    Hold
+  }
+
+  private final long interval;
+  private final TimeUnit unit;
+  private final DoubleSupplier utilization;
+  private final List<Pool> pools;
+  private ScheduledExecutorService sampler;
+  private volatile KernelMetrics metrics;
+
+  public AdaptiveConcurrencyController() {
+    this(
+        DEFAULT_INTERVAL_MILLIS,
+        TimeUnit.MILLISECONDS,
+        AdaptiveConcurrencyController::hostUtilization);
+  }
+
+  /**
+   * @param interval how often to sample
+   * @param unit the unit of <code>interval</code>
+   * @param utilization supplies host CPU utilization in [0, 1], or a negative value if unknown
+   */
+  public AdaptiveConcurrencyController(
+      long interval, @NonNull TimeUnit unit, @NonNull DoubleSupplier utilization) {
+    this.interval = interval;
+    this.unit = unit;
+    this.utilization = utilization;
+    this.pools = new CopyOnWriteArrayList<>();
+  }
+
+  /**
+   * place a pool under control. The pool should use an unbounded queue: its size is set through its
+   * core and maximum pool sizes
+   *
+   * @param name the pool's name (for metrics)
+   * @param executor the pool
+   * @param floor the fewest threads the pool may have
+   * @param ceiling the most threads the pool may have
+   * @return the controlled pool
+   */
+  public Pool register(
+      @NonNull String name, @NonNull ThreadPoolExecutor executor, int floor, int ceiling) {
+    if (floor <= 0 || ceiling < floor) {
+      throw new IllegalArgumentException(
+          "Error: pool bounds must satisfy 0 < floor <= ceiling, not ["
+              + floor
+              + ", "
+              + ceiling
+              + "]");
+    }
+    val pool = new Pool(name, executor, floor, ceiling);
+    resize(executor, Math.max(floor, Math.min(ceiling, executor.getMaximumPoolSize())));
+    pools.add(pool);
+    val exported = metrics;
+    if (exported != null) {
+      pool.export(exported);
+    }
+    return pool;
+  }
+
+  /**
+   * publish every controlled pool's size, queue depth, grows and shrinks as <code>
+   * concurrency.pool.&lt;name&gt;.*</code> gauges, and count each decision under <code>
+   * concurrency.pool.&lt;name&gt;.decisions.&lt;action&gt;</code>
+   *
+   * @param metrics the metrics to publish to
+   */
+  public void export(@NonNull KernelMetrics metrics) {
+    this.metrics = metrics;
+    for (val pool : pools) {
+      pool.export(metrics);
+    }
+  }
+
+  /** begin sampling on a daemon thread */
+  public synchronized void start() {
+    if (sampler == null) {
+      sampler =
+          Executors.newSingleThreadScheduledExecutor(
+              r -> {
+                val thread = new Thread(r, "kernel-concurrency-controller");
+                thread.setDaemon(true);
+                return thread;
+              });
+      sampler.scheduleWithFixedDelay(this::sample, interval, interval, unit);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    if (sampler != null) {
+      sampler.shutdownNow();
+      sampler = null;
+    }
+  }
+
+  /** @return the controlled pools */
+  public List<Pool> getPools() {
+    return new ArrayList<>(pools);
+  }
+
+  /** @return the latest decision for each pool that has been sampled */
+  public List<Decision> getDecisions() {
+    val result = new ArrayList<Decision>(pools.size());
+    for (val pool : pools) {
+      val decision = pool.lastDecision;
+      if (decision != null) {
+        result.add(decision);
+      }
+    }
+    return result;
+  }
+
+  /** sample every pool once */
+  void sample() {
+    try {
+      val cpu = utilization.getAsDouble();
+      for (val pool : pools) {
+        val decision = decide(pool, cpu);
+        pool.record(decision);
+        val exported = metrics;
+        if (exported != null) {
+          exported.counter(pool.decisionCounter(decision.action)).increment();
+        }
+        if (decision.action != Action.Hold && log.isLoggable(Level.FINE)) {
+          log.log(
+              Level.FINE,
+              "concurrency.controller.resized",
+              new Object[] {
+                pool.name, decision.action, decision.previousSize, decision.size, decision.reason
+              });
+        }
+      }
+    } catch (RuntimeException ex) { // never kill the sampler
+      log.log(Level.WARNING, "concurrency.controller.failed", ex);
+    }
+  }
+
+  private Decision decide(Pool pool, double cpu) {
+    val executor = pool.executor;
+    val size = executor.getMaximumPoolSize();
+    val queued = executor.getQueue().size();
+    val active = executor.getActiveCount();
+    val tasks = pool.tasks.sumThenReset();
+    val meanWait = tasks == 0 ? 0 : pool.waitNanos.sumThenReset() / tasks;
+    val meanRun = tasks == 0 ? 0 : pool.runNanos.sumThenReset() / tasks;
+    val cpuKnown = cpu >= 0;
+
+    int target = size;
+    Action action = Action.Hold;
+    String reason = "steady";
+    if (cpuKnown && cpu > MAX_UTILIZATION && size > pool.floor) {
+      target = Math.max(pool.floor, size - Math.max(1, size / 4));
+      action = Action.Shrink;
+      reason = "host saturated";
+    } else if ((queued > 0 || tasks > 0 && meanWait > meanRun)
+        && (!cpuKnown || cpu < TARGET_UTILIZATION)
+        && size < pool.ceiling) {
+      target = Math.min(pool.ceiling, size + Math.max(1, Math.min(queued, size / 2)));
+      action = Action.Grow;
+      reason = queued > 0 ? "tasks queued" : "tasks waiting longer than they run";
+    } else if (queued == 0 && active < size / 2 && size > pool.floor) {
+      target = size - 1;
+      action = Action.Shrink;
+      reason = "idle threads";
+    }
+    if (target != size) {
+      resize(executor, target);
+    }
+    return new Decision(
+        pool.name,
+        action,
+        reason,
+        size,
+        target,
+        queued,
+        active,
+        meanWait,
+        meanRun,
+        cpu,
+        System.currentTimeMillis());
+  }
+
+  private static void resize(ThreadPoolExecutor executor, int size) {
+    // core may never exceed max: order the updates by direction
+    if (size > executor.getMaximumPoolSize()) {
+      executor.setMaximumPoolSize(size);
+      executor.setCorePoolSize(size);
+    } else {
+      executor.setCorePoolSize(size);
+      executor.setMaximumPoolSize(size);
+    }
+  }
+
+  /** @return host CPU utilization in [0, 1], or -1 if the platform doesn't report it */
+  @SuppressWarnings("deprecation")
+  static double hostUtilization() {
+    val os = ManagementFactory.getOperatingSystemMXBean();
+    if (os instanceof com.sun.management.OperatingSystemMXBean) {
+      return ((com.sun.management.OperatingSystemMXBean) os).getSystemCpuLoad();
+    }
+    val load = os.getSystemLoadAverage();
+    return load < 0 ? -1 : Math.min(1.0, load / os.getAvailableProcessors());
+  }
+
+  /** a controlled pool. Wrap tasks with {@link #wrap(Callable)} to feed latency samples */
+  public static final class Pool {
+    @Getter private final String name;
+    @Getter private final int floor;
+    @Getter private final int ceiling;
+    private final AtomicLong grows;
+    private final AtomicLong shrinks;
+
+    final ThreadPoolExecutor executor;
+    final LongAdder tasks;
+    final LongAdder waitNanos;
+    final LongAdder runNanos;
+    volatile Decision lastDecision;
+
+    Pool(String name, ThreadPoolExecutor executor, int floor, int ceiling) {
+      this.name = name;
+      this.executor = executor;
+      this.floor = floor;
+      this.ceiling = ceiling;
+      this.grows = new AtomicLong();
+      this.shrinks = new AtomicLong();
+      this.tasks = new LongAdder();
+      this.waitNanos = new LongAdder();
+      this.runNanos = new LongAdder();
+    }
+
+    /** @return the number of times this pool has grown */
+    public long getGrows() {
+      return grows.get();
+    }
+
+    /** @return the number of times this pool has shrunk */
+    public long getShrinks() {
+      return shrinks.get();
+    }
+
+    /** @return the pool's current size */
+    public int getSize() {
+      return executor.getMaximumPoolSize();
+    }
+
+    /** @return the number of tasks waiting for a thread */
+    public int getQueueDepth() {
+      return executor.getQueue().size();
+    }
+
+    /** @return the latest decision, or null if the pool hasn't been sampled */
+    public Decision getLastDecision() {
+      return lastDecision;
+    }
+
+    void export(KernelMetrics metrics) {
+      val prefix = prefix();
+      metrics.gauge(prefix + "size", this::getSize);
+      metrics.gauge(prefix + "queue.depth", this::getQueueDepth);
+      metrics.gauge(prefix + "grows", this::getGrows);
+      metrics.gauge(prefix + "shrinks", this::getShrinks);
+      for (val action : Action.values()) {
+        metrics.counter(decisionCounter(action));
+      }
+    }
+
+    String decisionCounter(Action action) {
+      return prefix() + "decisions." + action.name().toLowerCase(Locale.ROOT);
+    }
+
+    private String prefix() {
+      return "concurrency.pool." + name + ".";
+    }
+
+    /**
+     * @param task the task to measure
+     * @param <T> the type of the task's result
+     * @return a task that records its queueing and running time against this pool
+     */
+    public <T> Callable<T> wrap(@NonNull Callable<T> task) {
+      val submitted = System.nanoTime();
+      return () -> {
+        val started = System.nanoTime();
+        try {
+          return task.call();
+        } finally {
+          record(submitted, started);
+        }
+      };
+    }
+
+    /**
+     * @param task the task to measure
+     * @return a task that records its queueing and running time against this pool
+     */
+    public Runnable wrap(@NonNull Runnable task) {
+      val submitted = System.nanoTime();
+      return () -> {
+        val started = System.nanoTime();
+        try {
+          task.run();
+        } finally {
+          record(submitted, started);
+        }
+      };
+    }
+
+    private void record(long submitted, long started) {
+      tasks.increment();
+      waitNanos.add(started - submitted);
+      runNanos.add(System.nanoTime() - started);
+    }
+
+    void record(Decision decision) {
+      lastDecision = decision;
+      if (decision.action == Action.Grow) {
+        grows.incrementAndGet();
+      } else if (decision.action == Action.Shrink) {
+        shrinks.incrementAndGet();
+      }
+    }
+  }
+
+  /** a single sizing decision, and the sample that led to it */
+  @Getter
+  public static final class Decision {
+    private final String pool;
+    private final Action action;
+    private final String reason;
+    private final int previousSize;
+    private final int size;
+    private final int queueDepth;
+    private final int activeThreads;
+    private final long meanWaitNanos;
+    private final long meanRunNanos;
+    private final double cpuUtilization;
+    private final long timestamp;
+
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    Decision(
+        String pool,
+        Action action,
+        String reason,
+        int previousSize,
+        int size,
+        int queueDepth,
+        int activeThreads,
+        long meanWaitNanos,
+        long meanRunNanos,
+        double cpuUtilization,
+        long timestamp) {
+      this.pool = pool;
+      this.action = action;
+      this.reason = reason;
+      this.previousSize = previousSize;
+      this.size = size;
+      this.queueDepth = queueDepth;
+      this.activeThreads = activeThreads;
+      this.meanWaitNanos = meanWaitNanos;
+      this.meanRunNanos = meanRunNanos;
+      this.cpuUtilization = cpuUtilization;
+      this.timestamp = timestamp;
+    }
+  }
+}
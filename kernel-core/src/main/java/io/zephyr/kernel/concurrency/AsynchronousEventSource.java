@@ -2,40 +2,231 @@ package io.zephyr.kernel.concurrency;
 
 import io.zephyr.api.Startable;
 import io.zephyr.api.Stoppable;
+import io.zephyr.kernel.core.SunshowerKernel;
 import io.zephyr.kernel.events.AbstractEventSource;
 import io.zephyr.kernel.events.Event;
 import io.zephyr.kernel.events.EventListener;
 import io.zephyr.kernel.events.EventSource;
 import io.zephyr.kernel.events.EventType;
+import io.zephyr.kernel.jfr.EventDispatchEvent;
+import io.zephyr.kernel.log.Logging;
+import io.zephyr.kernel.metrics.Counter;
+import io.zephyr.kernel.metrics.DefaultKernelMetrics;
+import io.zephyr.kernel.metrics.Histogram;
+import io.zephyr.kernel.metrics.KernelMetrics;
+import io.zephyr.kernel.metrics.LogLinearHistogram;
 import io.zephyr.kernel.misc.SuppressFBWarnings;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TransferQueue;
-import lombok.AllArgsConstructor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import lombok.Getter;
+import lombok.NonNull;
 import lombok.val;
 
-@SuppressWarnings({"PMD.DoNotUseThreads", "PMD.AvoidUsingVolatile"})
+/**
+ * dispatches events on a single kernel-executor thread. Every delivery is timed against a budget;
+ * listeners that exceed it are logged and counted and, if quarantine is enabled, listeners that
+ * exceed it repeatedly are moved onto isolated delivery queues--one per listener--so that they can
+ * no longer delay everyone else's events, or each other's.
+ *
+ * <p>If quarantine is enabled, a watchdog also looks for a delivery that has run for as long as a
+ * listener's every strike put together (and at least {@link #MIN_HANG_MILLIS}): that listener is
+ * quarantined on the spot and dispatch carries on from its next listener on a fresh task, leaving
+ * the hung thread to finish (and then drain the listener's own queue) whenever it returns
+ */
+@SuppressWarnings({
+  "PMD.DoNotUseThreads",
+  "PMD.AvoidUsingVolatile",
+  "PMD.AvoidCatchingGenericException"
+})
 public class AsynchronousEventSource implements EventSource, Stoppable, Startable {
 
+  static final Logger log = Logging.get(AsynchronousEventSource.class, "Concurrency");
+
+  /** how long (in milliseconds) a listener may take to handle an event before it's slow */
+  public static final long DEFAULT_LISTENER_BUDGET_MILLIS = 100;
+
+  /** how many slow deliveries a listener may make before it's quarantined */
+  public static final int DEFAULT_QUARANTINE_STRIKES = 3;
+
+  /** however small the budget, a delivery isn't hung until it's run for this long */
+  static final long MIN_HANG_MILLIS = 250;
+
   private final QueuedEventSource source;
-  private final ExecutorService executorService;
+  /** looked up on each use: the kernel's executor is replaced if the kernel is restarted */
+  private final Supplier<ExecutorService> executorService;
+
   private final TransferQueue<AsynchronousEvent<?>> queue;
 
   private final Object queueLock = new Object();
 
+  /** how long a delivery may take before it's slow */
+  @Getter private final long listenerBudgetNanos;
+  /** how many slow deliveries a listener may make before it's quarantined */
+  @Getter private final int quarantineStrikes;
+  /** whether repeatedly slow listeners are quarantined */
+  @Getter private final boolean quarantineEnabled;
+
+  private final AtomicInteger depth;
+  private final AtomicLong highWaterMark;
+  private final Histogram queueLatency;
+  private final Histogram listenerLatency;
+  private final Counter slowDeliveries;
+  private final Counter quarantinedListeners;
+  private final Map<EventListener<?>, ListenerStatistics> statistics;
+
+  private final AtomicInteger isolatedDepth;
+  private final Counter hungListeners;
+
+  /** how long a single delivery may take before the watchdog gives up on it */
+  private final long hangNanos;
+
+  /** the task currently dispatching events */
+  private volatile Dispatcher dispatcher;
+
+  /** guarded by this. Null unless started with quarantine enabled */
+  private ScheduledExecutorService watchdog;
+
   public AsynchronousEventSource(ExecutorService executorService) {
+    this(executorService, new DefaultKernelMetrics());
+  }
+
+  /**
+   * @param executorService the executor to dispatch on
+   * @param metrics where to publish queue depths, latencies and offenders. Budget and quarantine
+   *     are configured from the kernel options (or the defaults, if there are none)
+   */
+  public AsynchronousEventSource(ExecutorService executorService, KernelMetrics metrics) {
+    this(() -> executorService, metrics);
+  }
+
+  /**
+   * @param executorService supplies the executor to dispatch on, each time it's needed
+   * @param metrics where to publish queue depths, latencies and offenders. Budget and quarantine
+   *     are configured from the kernel options (or the defaults, if there are none)
+   */
+  public AsynchronousEventSource(Supplier<ExecutorService> executorService, KernelMetrics metrics) {
+    this(
+        executorService,
+        metrics,
+        configuredListenerBudget(),
+        configuredQuarantineStrikes(),
+        SunshowerKernel.hasKernelOptions()
+            && SunshowerKernel.getKernelOptions().isEventListenerQuarantine());
+  }
+
+  /**
+   * @param executorService the executor to dispatch on
+   * @param metrics where to publish queue depths, latencies and offenders
+   * @param listenerBudgetMillis how long a listener may take to handle an event before it's slow
+   * @param quarantineStrikes how many slow deliveries a listener may make before it's quarantined
+   * @param quarantineEnabled whether to quarantine repeatedly slow listeners
+   */
+  public AsynchronousEventSource(
+      @NonNull ExecutorService executorService,
+      @NonNull KernelMetrics metrics,
+      long listenerBudgetMillis,
+      int quarantineStrikes,
+      boolean quarantineEnabled) {
+    this(
+        () -> executorService, metrics, listenerBudgetMillis, quarantineStrikes, quarantineEnabled);
+  }
+
+  /**
+   * @param executorService supplies the executor to dispatch on, each time it's needed
+   * @param metrics where to publish queue depths, latencies and offenders
+   * @param listenerBudgetMillis how long a listener may take to handle an event before it's slow
+   * @param quarantineStrikes how many slow deliveries a listener may make before it's quarantined
+   * @param quarantineEnabled whether to quarantine repeatedly slow listeners
+   */
+  public AsynchronousEventSource(
+      @NonNull Supplier<ExecutorService> executorService,
+      @NonNull KernelMetrics metrics,
+      long listenerBudgetMillis,
+      int quarantineStrikes,
+      boolean quarantineEnabled) {
+    if (listenerBudgetMillis <= 0 || quarantineStrikes <= 0) {
+      throw new IllegalArgumentException(
+          "Error: listener budget and quarantine strikes must be positive");
+    }
     queue = new LinkedTransferQueue<>();
     source = new QueuedEventSource();
     this.executorService = executorService;
+    this.listenerBudgetNanos = TimeUnit.MILLISECONDS.toNanos(listenerBudgetMillis);
+    this.quarantineStrikes = quarantineStrikes;
+    this.quarantineEnabled = quarantineEnabled;
+    this.hangNanos =
+        Math.max(
+            TimeUnit.MILLISECONDS.toNanos(MIN_HANG_MILLIS),
+            listenerBudgetNanos * quarantineStrikes);
+
+    this.depth = new AtomicInteger();
+    this.highWaterMark = new AtomicLong();
+    this.statistics = Collections.synchronizedMap(new WeakHashMap<>());
+    this.isolatedDepth = new AtomicInteger();
+
+    this.queueLatency = metrics.histogram("events.queue.latency");
+    this.listenerLatency = metrics.histogram("events.listener.latency");
+    this.slowDeliveries = metrics.counter("events.listener.slow");
+    this.quarantinedListeners = metrics.counter("events.listener.quarantined");
+    this.hungListeners = metrics.counter("events.listener.hung");
+    metrics.gauge("events.queue.depth", depth::get);
+    metrics.gauge("events.queue.highwater", highWaterMark::get);
+    metrics.gauge("events.quarantine.depth", isolatedDepth::get);
   }
 
   public boolean isRunning() {
     return source.running;
   }
 
+  /** @return how many events are waiting to be dispatched */
+  public int getQueueDepth() {
+    return depth.get();
+  }
+
+  /** @return the most events that have ever been waiting to be dispatched at once */
+  public long getHighWaterMark() {
+    return highWaterMark.get();
+  }
+
+  /** @return how many deliveries to quarantined listeners are waiting */
+  public int getQuarantineDepth() {
+    return isolatedDepth.get();
+  }
+
+  /** @return the delivery statistics of every listener that's been delivered an event */
+  public List<ListenerStatistics> getListenerStatistics() {
+    synchronized (statistics) {
+      return new ArrayList<>(statistics.values());
+    }
+  }
+
   @Override
   public void stop() {
     source.stop();
+    synchronized (this) {
+      if (watchdog != null) {
+        watchdog.shutdownNow();
+        watchdog = null;
+      }
+    }
   }
 
   @Override
@@ -67,12 +258,15 @@ public class AsynchronousEventSource implements EventSource, Stoppable, Startabl
     synchronized (source) {
       source.removeEventListener(listener);
     }
+    statistics.remove(listener);
   }
 
   @Override
   public <T> void dispatchEvent(EventType type, Event<T> event) {
+    queue.add(new AsynchronousEvent<>(event, type));
+    val current = depth.incrementAndGet();
+    highWaterMark.accumulateAndGet(current, Math::max);
     synchronized (queueLock) {
-      queue.add(new AsynchronousEvent<>(event, type));
       queueLock.notifyAll();
     }
   }
@@ -80,7 +274,23 @@ public class AsynchronousEventSource implements EventSource, Stoppable, Startabl
   @Override
   public void start() {
     synchronized (this) {
-      executorService.submit(source);
+      val initial = new Dispatcher(null, Collections.emptyList(), 0);
+      dispatcher = initial;
+      executorService.get().submit(initial);
+      if (quarantineEnabled && watchdog == null) {
+        watchdog =
+            Executors.newSingleThreadScheduledExecutor(
+                r -> {
+                  val thread = new Thread(r, "kernel-event-watchdog");
+                  thread.setDaemon(true);
+                  return thread;
+                });
+        watchdog.scheduleWithFixedDelay(
+            this::checkForHungListener,
+            listenerBudgetNanos,
+            listenerBudgetNanos,
+            TimeUnit.NANOSECONDS);
+      }
     }
   }
 
@@ -96,43 +306,330 @@ public class AsynchronousEventSource implements EventSource, Stoppable, Startabl
     }
   }
 
-  @AllArgsConstructor
+  private ListenerStatistics statisticsFor(EventListener<?> listener) {
+    synchronized (statistics) {
+      var result = statistics.get(listener);
+      if (result == null) {
+        result = new ListenerStatistics(String.valueOf(listener));
+        statistics.put(listener, result);
+      }
+      return result;
+    }
+  }
+
+  private <T> void deliver(
+      EventListener<T> listener, ListenerStatistics stats, EventType type, Event<T> event) {
+    val started = System.nanoTime();
+    try {
+      listener.onEvent(type, event);
+    } finally {
+      val elapsed = System.nanoTime() - started;
+      listenerLatency.record(elapsed);
+      stats.latency.record(elapsed);
+      if (elapsed > listenerBudgetNanos) {
+        onSlowDelivery(stats, elapsed);
+      }
+    }
+  }
+
+  private void onSlowDelivery(ListenerStatistics stats, long elapsed) {
+    slowDeliveries.increment();
+    val strikes = stats.slowDeliveries.incrementAndGet();
+    if (strikes == 1) {
+      log.log(
+          Level.WARNING,
+          "event.listener.slow",
+          new Object[] {
+            stats.listener,
+            TimeUnit.NANOSECONDS.toMillis(elapsed),
+            TimeUnit.NANOSECONDS.toMillis(listenerBudgetNanos)
+          });
+    }
+    if (quarantineEnabled && strikes >= quarantineStrikes && quarantine(stats)) {
+      log.log(Level.WARNING, "event.listener.quarantined", new Object[] {stats.listener, strikes});
+    }
+  }
+
+  /** @return true if the listener wasn't already quarantined */
+  private boolean quarantine(ListenerStatistics stats) {
+    if (stats.quarantined.compareAndSet(false, true)) {
+      quarantinedListeners.increment();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * quarantine a listener whose delivery has outlasted {@link #hangNanos}, and hand the rest of
+   * dispatch to a fresh task. The hung thread becomes the listener's isolated drain: it delivers
+   * the listener's queued events once (if ever) the listener returns
+   */
+  void checkForHungListener() {
+    try {
+      val current = dispatcher;
+      val delivery = current == null ? null : current.delivery;
+      if (delivery == null
+          || !source.running
+          || System.nanoTime() - delivery.started < hangNanos
+          || !delivery.abandon()) {
+        return;
+      }
+      val stats = delivery.stats;
+      stats.draining.set(true);
+      quarantine(stats);
+      hungListeners.increment();
+      log.log(
+          Level.WARNING,
+          "event.listener.hung",
+          new Object[] {stats.listener, TimeUnit.NANOSECONDS.toMillis(hangNanos)});
+      val replacement = new Dispatcher(delivery.event, delivery.listeners, delivery.index + 1);
+      dispatcher = replacement;
+      executorService.get().execute(replacement);
+    } catch (RuntimeException ex) { // never kill the watchdog
+      log.log(Level.WARNING, "event.listener.failed", ex);
+    }
+  }
+
+  private void isolate(ListenerStatistics stats, Runnable delivery) {
+    stats.isolated.add(delivery);
+    isolatedDepth.incrementAndGet();
+    if (stats.draining.compareAndSet(false, true)) {
+      try {
+        executorService.get().execute(() -> drainIsolated(stats));
+      } catch (RejectedExecutionException ex) {
+        stats.draining.set(false);
+      }
+    }
+  }
+
+  /** deliver everything queued for a quarantined listener, in order */
+  private void drainIsolated(ListenerStatistics stats) {
+    do {
+      Runnable next;
+      while ((next = stats.isolated.poll()) != null) {
+        isolatedDepth.decrementAndGet();
+        try {
+          next.run();
+        } catch (RuntimeException ex) {
+          log.log(Level.WARNING, "event.listener.failed", ex);
+        }
+      }
+      stats.draining.set(false);
+    } while (!stats.isolated.isEmpty() && stats.draining.compareAndSet(false, true));
+  }
+
+  private static long configuredListenerBudget() {
+    if (SunshowerKernel.hasKernelOptions()) {
+      val budget = SunshowerKernel.getKernelOptions().getEventListenerBudget();
+      if (budget != null && budget > 0) {
+        return budget;
+      }
+    }
+    return DEFAULT_LISTENER_BUDGET_MILLIS;
+  }
+
+  private static int configuredQuarantineStrikes() {
+    if (SunshowerKernel.hasKernelOptions()) {
+      val strikes = SunshowerKernel.getKernelOptions().getEventListenerStrikes();
+      if (strikes != null && strikes > 0) {
+        return strikes;
+      }
+    }
+    return DEFAULT_QUARANTINE_STRIKES;
+  }
+
+  /** how quickly a single listener has handled its events */
+  public static final class ListenerStatistics {
+
+    /** the listener's description */
+    @Getter private final String listener;
+
+    private final LogLinearHistogram latency;
+    private final AtomicLong slowDeliveries;
+    private final AtomicBoolean quarantined;
+
+    /** this listener's deliveries while quarantined, and whether a task is delivering them */
+    private final Queue<Runnable> isolated;
+
+    private final AtomicBoolean draining;
+
+    ListenerStatistics(String listener) {
+      this.listener = listener;
+      this.latency = new LogLinearHistogram(listener + ".latency");
+      this.slowDeliveries = new AtomicLong();
+      this.quarantined = new AtomicBoolean();
+      this.isolated = new ConcurrentLinkedQueue<>();
+      this.draining = new AtomicBoolean();
+    }
+
+    /** @return how long each delivery to this listener took */
+    public Histogram.Snapshot getLatency() {
+      return latency.snapshot();
+    }
+
+    /** @return how many deliveries to this listener exceeded the budget */
+    public long getSlowDeliveries() {
+      return slowDeliveries.get();
+    }
+
+    /** @return true if this listener's events are delivered on its own isolated queue */
+    public boolean isQuarantined() {
+      return quarantined.get();
+    }
+  }
+
   static class AsynchronousEvent<T> {
 
     final Event<T> event;
     final EventType eventType;
+
+    /** when ({@link System#nanoTime()}) the event was queued */
+    final long queued;
+
+    AsynchronousEvent(Event<T> event, EventType eventType) {
+      this.event = event;
+      this.eventType = eventType;
+      this.queued = System.nanoTime();
+    }
   }
 
-  final class QueuedEventSource extends AbstractEventSource implements Runnable, Stoppable {
+  /** a delivery in progress on the dispatch thread */
+  static final class Delivery {
+    final AsynchronousEvent<?> event;
+    final List<EventListener<?>> listeners;
+    final int index;
+    final ListenerStatistics stats;
+    final long started;
+    private final AtomicBoolean settled;
 
-    volatile boolean running;
+    Delivery(
+        AsynchronousEvent<?> event,
+        List<EventListener<?>> listeners,
+        int index,
+        ListenerStatistics stats) {
+      this.event = event;
+      this.listeners = listeners;
+      this.index = index;
+      this.stats = stats;
+      this.started = System.nanoTime();
+      this.settled = new AtomicBoolean();
+    }
 
+    /** @return true if the delivery completed before the watchdog gave up on it */
+    boolean finish() {
+      return settled.compareAndSet(false, true);
+    }
+
+    /** @return true if the watchdog gave up on the delivery before it completed */
+    boolean abandon() {
+      return settled.compareAndSet(false, true);
+    }
+  }
+
+  /** dispatches events until it's stopped, or until the watchdog replaces it */
+  final class Dispatcher implements Runnable {
+
+    /** the rest of the event a hung listener was holding up. Null for the initial dispatcher */
+    private final AsynchronousEvent<?> resumed;
+
+    private final List<EventListener<?>> resumedListeners;
+    private final int resumeFrom;
+
+    /** the delivery being made, if any */
+    volatile Delivery delivery;
+
+    Dispatcher(AsynchronousEvent<?> resumed, List<EventListener<?>> listeners, int from) {
+      this.resumed = resumed;
+      this.resumedListeners = listeners;
+      this.resumeFrom = from;
+    }
+
+    /** the queue lock is only held while waiting, so producers never wait on listeners */
     @Override
     public void run() {
-      synchronized (queueLock) {
-        running = true;
+      if (resumed == null) {
+        source.running = true;
         synchronized (AsynchronousEventSource.this) {
           AsynchronousEventSource.this.notifyAll();
         }
-        while (running) {
-          while (queue.isEmpty()) {
+      } else if (!deliverAll(resumed, resumedListeners, resumeFrom)) {
+        return;
+      }
+      while (source.running && dispatcher == this) {
+        synchronized (queueLock) {
+          while (source.running && queue.isEmpty()) {
             try {
               queueLock.wait();
             } catch (InterruptedException ex) {
               return;
             }
           }
-          drain();
         }
+        drain();
       }
     }
 
     @SuppressFBWarnings
     private void drain() {
-      while (!queue.isEmpty()) {
-        val next = queue.remove();
-        QueuedEventSource.this.dispatchEvent(next.eventType, next.event);
+      AsynchronousEvent<?> next;
+      while (dispatcher == this && (next = queue.poll()) != null) {
+        depth.decrementAndGet();
+        val dispatch = EventDispatchEvent.start();
+        val queued = System.nanoTime() - next.queued;
+        queueLatency.record(queued);
+        val delivered = deliverAll(next, source.takeListeners(next.eventType), 0);
+        dispatch.complete(next.eventType, next.event, queued);
+        if (!delivered) {
+          return;
+        }
+      }
+    }
+
+    /** @return false if a listener hung and the watchdog handed dispatch to another task */
+    private boolean deliverAll(
+        AsynchronousEvent<?> event, List<EventListener<?>> listeners, int from) {
+      for (int i = from; i < listeners.size(); i++) {
+        if (!deliver(event, listeners, i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private boolean deliver(AsynchronousEvent<?> event, List<EventListener<?>> listeners, int i) {
+      val listener = (EventListener) listeners.get(i);
+      val stats = statisticsFor(listener);
+      val type = event.eventType;
+      val payload = (Event) event.event;
+      if (stats.isQuarantined()) {
+        isolate(stats, () -> AsynchronousEventSource.this.deliver(listener, stats, type, payload));
+        return true;
+      }
+      val current = new Delivery(event, listeners, i, stats);
+      delivery = current;
+      boolean finished = false;
+      try {
+        AsynchronousEventSource.this.deliver(listener, stats, type, payload);
+      } finally {
+        delivery = null;
+        finished = current.finish();
+        if (!finished) {
+          drainIsolated(stats); // the watchdog left this listener's queue to us
+        }
       }
+      return finished;
+    }
+  }
+
+  /** holds the listeners. Deliveries are made by the {@link Dispatcher}, outside its lock */
+  final class QueuedEventSource extends AbstractEventSource implements Stoppable {
+
+    volatile boolean running;
+
+    @Override
+    protected List<EventListener<?>> takeListeners(EventType type) {
+      return super.takeListeners(type);
     }
 
     @Override
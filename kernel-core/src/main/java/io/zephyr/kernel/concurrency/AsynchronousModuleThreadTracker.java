@@ -31,19 +31,16 @@ public class AsynchronousModuleThreadTracker extends AbstractAsynchronousObjectT
 
     @Override
     public void run() {
-      val modules = kernel.getModuleManager().getModules();
-      for (val module : modules) {
-        val lifecycle = module.getLifecycle();
-        val state = lifecycle.getState();
-        if (state == Lifecycle.State.Installed) {
-          taskQueue.schedule(
-              new FilteredObjectDispatchTask(ModuleEvents.INSTALLED, Events.create(module)));
-        } else if (state == Lifecycle.State.Active) {
-          taskQueue.schedule(
-              new FilteredObjectDispatchTask(ModuleEvents.INSTALLED, Events.create(module)));
-          taskQueue.schedule(
-              new FilteredObjectDispatchTask(ModuleEvents.STARTED, Events.create(module)));
-        }
+      val moduleManager = kernel.getModuleManager();
+      for (val module : moduleManager.getModules(Lifecycle.State.Installed)) {
+        taskQueue.schedule(
+            new FilteredObjectDispatchTask(ModuleEvents.INSTALLED, Events.create(module)));
+      }
+      for (val module : moduleManager.getModules(Lifecycle.State.Active)) {
+        taskQueue.schedule(
+            new FilteredObjectDispatchTask(ModuleEvents.INSTALLED, Events.create(module)));
+        taskQueue.schedule(
+            new FilteredObjectDispatchTask(ModuleEvents.STARTED, Events.create(module)));
       }
     }
   }
@@ -27,6 +27,21 @@ public class DefaultProcess<T> implements Process<T> {
     this.graph = graph;
   }
 
+  /**
+   * a process whose schedule has already been planned. Its execution graph is only described, never
+   * rescheduled
+   */
+  public DefaultProcess(
+      String name,
+      boolean coalesce,
+      boolean parallel,
+      Scope context,
+      TaskGraph<T> graph,
+      Schedule<DirectedGraph.Edge<T>, io.zephyr.kernel.concurrency.Task> schedule) {
+    this(name, coalesce, parallel, context, graph);
+    this.schedule = schedule;
+  }
+
   @Override
   public String toString() {
     return format("Process(name=%s, coalesce paths=%b, parallel=%b)", name, coalesce, parallel);
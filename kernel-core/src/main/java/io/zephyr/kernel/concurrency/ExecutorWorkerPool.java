@@ -1,13 +1,27 @@
 package io.zephyr.kernel.concurrency;
 
+import io.zephyr.kernel.metrics.KernelMetrics;
 import java.util.concurrent.*;
+import lombok.Getter;
+import lombok.val;
 
 @SuppressWarnings("PMD.DoNotUseThreads")
-public class ExecutorWorkerPool implements WorkerPool {
+public class ExecutorWorkerPool implements WorkerPool, AutoCloseable {
+
+  /** how long idle threads in an adaptive pool are kept */
+  static final long KEEP_ALIVE_SECONDS = 30;
 
   final ExecutorService executorService;
   final ExecutorService kernelExecutorService;
 
+  /** sizes the gyre pool. Null unless this pool is adaptive */
+  @Getter private final AdaptiveConcurrencyController controller;
+
+  /** admits I/O-bound tasks. Null unless this pool is adaptive */
+  @Getter private final GradientLimiter ioLimiter;
+
+  private final AdaptiveConcurrencyController.Pool controlledPool;
+
   public ExecutorWorkerPool(
       ExecutorService executorService, final ExecutorService kernelExecutorService) {
     this.executorService = executorService;
@@ -16,6 +30,50 @@ public class ExecutorWorkerPool implements WorkerPool {
     // this should probably be configurable
     this.kernelExecutorService = kernelExecutorService;
     //        new ThreadPoolExecutor(0, 5, 60L, TimeUnit.SECONDS, new SynchronousQueue<>());
+    this.controller = null;
+    this.ioLimiter = null;
+    this.controlledPool = null;
+  }
+
+  private ExecutorWorkerPool(
+      ThreadPoolExecutor executorService,
+      ExecutorService kernelExecutorService,
+      int floor,
+      int ceiling) {
+    this.executorService = executorService;
+    this.kernelExecutorService = kernelExecutorService;
+    this.controller = new AdaptiveConcurrencyController();
+    this.controlledPool = controller.register("gyre", executorService, floor, ceiling);
+    this.ioLimiter =
+        new GradientLimiter(executorService.getMaximumPoolSize(), 1, Math.max(ceiling, floor));
+    controller.start();
+  }
+
+  /**
+   * create a worker pool whose gyre pool is resized between <code>floor</code> and <code>ceiling
+   * </code> threads by an {@link AdaptiveConcurrencyController}, and whose I/O-bound tasks are
+   * admitted by a {@link GradientLimiter}
+   *
+   * @param initial the starting size of the gyre pool
+   * @param floor the fewest gyre threads
+   * @param ceiling the most gyre threads
+   * @param kernelExecutorService the kernel executor. Not resized: kernel tasks wait on each other,
+   *     and bounding this pool could deadlock them
+   * @return the pool
+   */
+  public static ExecutorWorkerPool adaptive(
+      int initial, int floor, int ceiling, ExecutorService kernelExecutorService) {
+    val size = Math.max(floor, Math.min(ceiling, initial));
+    val executor =
+        new ThreadPoolExecutor(
+            size,
+            size,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new NamedThreadFactory("gyre"));
+    executor.allowCoreThreadTimeOut(true);
+    return new ExecutorWorkerPool(executor, kernelExecutorService, floor, ceiling);
   }
 
   @Override
@@ -25,11 +83,66 @@ public class ExecutorWorkerPool implements WorkerPool {
 
   @Override
   public <T> Future<T> submit(Callable<T> value) {
+    if (controlledPool != null) {
+      return executorService.submit(controlledPool.wrap(value));
+    }
     return executorService.submit(value);
   }
 
+  @Override
+  public <T> Future<T> submitIoBound(Callable<T> value) {
+    if (ioLimiter != null) {
+      return ioLimiter.submit(value, this::dispatchControlled);
+    }
+    return submit(value);
+  }
+
+  /**
+   * measure a task from when the limiter admits it: time spent waiting for admission isn't time
+   * spent waiting for a gyre thread, and counting it would grow the pool while the limiter
+   * throttles
+   */
+  private void dispatchControlled(Runnable task) {
+    executorService.execute(controlledPool.wrap(task));
+  }
+
+  /**
+   * publish the controller's decisions and the gyre pool's size, and the I/O limiter's limit,
+   * in-flight and pending tasks as <code>concurrency.io.*</code> gauges. Does nothing unless this
+   * pool is adaptive
+   */
+  @Override
+  public void exportMetrics(KernelMetrics metrics) {
+    if (controller == null) {
+      return;
+    }
+    controller.export(metrics);
+    metrics.gauge("concurrency.io.limit", ioLimiter::getLimit);
+    metrics.gauge("concurrency.io.inflight", ioLimiter::getInFlight);
+    metrics.gauge("concurrency.io.pending", ioLimiter::getPending);
+    metrics.gauge("concurrency.io.latency.nanos", ioLimiter::getLatencyNanos);
+  }
+
   @Override
   public <K> void submitKernelAllocated(Runnable result) {
     kernelExecutorService.submit(result);
   }
+
+  @Override
+  public void start() {
+    if (controller != null) {
+      controller.start();
+    }
+  }
+
+  /**
+   * stop the controller's sampler. The executors are left running: they're the caller's, and an
+   * adaptive gyre pool's idle threads time out on their own
+   */
+  @Override
+  public void close() {
+    if (controller != null) {
+      controller.close();
+    }
+  }
 }
@@ -0,0 +1,101 @@
+package io.zephyr.kernel.concurrency;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * a work-stealing worker pool. Gyre tasks run on one {@link ForkJoinPool} and kernel work (process
+ * coordination, event dispatch) on another, both in FIFO (async) mode. Process coordination never
+ * blocks a pool thread, so many concurrent processes share the pools instead of each holding a
+ * thread until it completes
+ */
+@SuppressWarnings({
+  "PMD.DoNotUseThreads",
+  "PMD.AvoidUsingVolatile",
+  "PMD.AvoidSynchronizedAtMethodLevel"
+})
+public class ForkJoinWorkerPool implements WorkerPool, AutoCloseable {
+
+  /** how long idle workers are kept (beyond the pools' parallelism) */
+  static final long KEEP_ALIVE_SECONDS = 30;
+
+  private final int concurrency;
+  private final int kernelConcurrency;
+
+  volatile ForkJoinPool executorService;
+  volatile ForkJoinPool kernelExecutorService;
+
+  /**
+   * @param concurrency the parallelism of the gyre pool
+   * @param kernelConcurrency the parallelism of the kernel pool
+   */
+  public ForkJoinWorkerPool(int concurrency, int kernelConcurrency) {
+    this.concurrency = concurrency;
+    this.kernelConcurrency = kernelConcurrency;
+    this.executorService = create("gyre", concurrency);
+    this.kernelExecutorService = create("kernel", kernelConcurrency);
+  }
+
+  @Override
+  public ExecutorService getKernelExecutor() {
+    return kernelExecutorService;
+  }
+
+  @Override
+  public <T> Future<T> submit(Callable<T> value) {
+    return executorService.submit(value);
+  }
+
+  @Override
+  public <K> void submitKernelAllocated(Runnable result) {
+    kernelExecutorService.execute(result);
+  }
+
+  /** replace any pools {@link #close()} shut down */
+  @Override
+  public synchronized void start() {
+    if (executorService.isShutdown()) {
+      executorService = create("gyre", concurrency);
+    }
+    if (kernelExecutorService.isShutdown()) {
+      kernelExecutorService = create("kernel", kernelConcurrency);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    executorService.shutdown();
+    kernelExecutorService.shutdown();
+  }
+
+  private static ForkJoinPool create(String name, int parallelism) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException(
+          "Error: " + name + " parallelism must be positive, not " + parallelism);
+    }
+    final AtomicInteger count = new AtomicInteger(1);
+    final ForkJoinPool.ForkJoinWorkerThreadFactory factory =
+        pool -> {
+          final ForkJoinWorkerThread thread =
+              ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+          thread.setName(name + "-fj-thread-" + count.getAndIncrement());
+          return thread;
+        };
+    return new ForkJoinPool(
+        parallelism,
+        factory,
+        null,
+        true,
+        0,
+        Math.max(parallelism, Short.MAX_VALUE),
+        1,
+        null,
+        KEEP_ALIVE_SECONDS,
+        TimeUnit.SECONDS);
+  }
+}
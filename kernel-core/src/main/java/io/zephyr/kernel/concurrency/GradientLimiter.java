@@ -0,0 +1,167 @@
+package io.zephyr.kernel.concurrency;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * a gradient concurrency limiter for I/O-bound work. The limit tracks the ratio of the long-term
+ * task latency to the latest sample: while latency holds steady the limit grows (by roughly the
+ * square root of the limit per sample), and once tasks start queueing on the device or the network
+ * the latency gradient pulls it back down.
+ *
+ * <p>Tasks over the limit wait in this limiter, not on a pool thread: the task that releases a
+ * permit dispatches the next waiting task
+ */
+@SuppressWarnings({"PMD.AvoidCatchingGenericException", "PMD.DoNotUseThreads"})
+public final class GradientLimiter {
+
+  /** how quickly the long-term latency follows new samples */
+  static final double LONG_WINDOW_SMOOTHING = 0.05;
+
+  /** how quickly the limit follows its target */
+  static final double LIMIT_SMOOTHING = 0.2;
+
+  /** latency may exceed the long-term average by this factor before the limit backs off */
+  static final double TOLERANCE = 1.5;
+
+  /** a release that carries no latency sample */
+  private static final long NO_SAMPLE = -1;
+
+  private final int minLimit;
+  private final int maxLimit;
+
+  /** guarded by this */
+  private final Queue<Runnable> pending;
+
+  private double limit;
+  private double longRtt;
+  private int inFlight;
+
+  /**
+   * @param initialLimit the starting limit
+   * @param minLimit the lowest the limit may go
+   * @param maxLimit the highest the limit may go
+   */
+  public GradientLimiter(int initialLimit, int minLimit, int maxLimit) {
+    if (minLimit <= 0 || maxLimit < minLimit) {
+      throw new IllegalArgumentException(
+          "Error: limits must satisfy 0 < min <= max, not [" + minLimit + ", " + maxLimit + "]");
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    this.pending = new ArrayDeque<>();
+  }
+
+  /**
+   * run a task on <code>executor</code> once the limit admits it
+   *
+   * @param task the task to run
+   * @param executor the executor to run it on
+   * @param <T> the type of the task's result
+   * @return a future completed with the task's result
+   */
+  public <T> CompletableFuture<T> submit(@NonNull Callable<T> task, @NonNull Executor executor) {
+    val result = new CompletableFuture<T>();
+    final Runnable dispatch =
+        () -> {
+          try {
+            executor.execute(() -> run(task, result));
+          } catch (RejectedExecutionException ex) {
+            result.completeExceptionally(ex);
+            release(NO_SAMPLE);
+          }
+        };
+    final boolean admitted;
+    synchronized (this) {
+      admitted = inFlight < (int) limit;
+      if (admitted) {
+        inFlight++;
+      } else {
+        pending.add(dispatch);
+      }
+    }
+    if (admitted) {
+      dispatch.run();
+    }
+    return result;
+  }
+
+  /** @return the current limit */
+  public synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  /** @return the number of admitted, unfinished tasks */
+  public synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  /** @return the number of tasks waiting for admission */
+  public synchronized int getPending() {
+    return pending.size();
+  }
+
+  /** @return the long-term average task latency in nanoseconds (0 before any sample) */
+  public synchronized long getLatencyNanos() {
+    return (long) longRtt;
+  }
+
+  /** the permit is released before the result is published, so callers see it returned */
+  @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+  private <T> void run(Callable<T> task, CompletableFuture<T> result) {
+    val start = System.nanoTime();
+    T value = null;
+    Exception failure = null;
+    try {
+      value = task.call();
+    } catch (Exception ex) {
+      failure = ex;
+    }
+    release(System.nanoTime() - start);
+    if (failure == null) {
+      result.complete(value);
+    } else {
+      result.completeExceptionally(failure);
+    }
+  }
+
+  private void release(long rtt) {
+    final List<Runnable> admitted = new ArrayList<>(1);
+    synchronized (this) {
+      inFlight--;
+      if (rtt != NO_SAMPLE) {
+        update(Math.max(1, rtt));
+      }
+      Runnable next;
+      while (inFlight < (int) limit && (next = pending.poll()) != null) {
+        inFlight++;
+        admitted.add(next);
+      }
+    }
+    for (val next : admitted) {
+      next.run();
+    }
+  }
+
+  /** guarded by this */
+  private void update(long rtt) {
+    longRtt =
+        longRtt == 0 ? rtt : longRtt * (1 - LONG_WINDOW_SMOOTHING) + rtt * LONG_WINDOW_SMOOTHING;
+    val gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / rtt));
+    val target = limit * gradient + Math.sqrt(limit);
+    if (target > limit && inFlight < limit / 2) {
+      return; // we're not using the limit we have--don't raise it
+    }
+    val smoothed = limit * (1 - LIMIT_SMOOTHING) + target * LIMIT_SMOOTHING;
+    limit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+  }
+}
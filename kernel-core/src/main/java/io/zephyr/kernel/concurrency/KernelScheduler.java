@@ -1,13 +1,25 @@
 package io.zephyr.kernel.concurrency;
 
+import io.zephyr.kernel.core.SunshowerKernel;
+import io.zephyr.kernel.log.Logging;
+import io.zephyr.kernel.metrics.KernelMetrics;
+import java.io.File;
+import java.io.IOException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.inject.Inject;
+import lombok.val;
 
 @SuppressWarnings("PMD.DoNotUseThreads")
 public final class KernelScheduler<K> implements Scheduler<K> {
 
+  static final Logger log = Logging.get(KernelScheduler.class, "Concurrency");
+
   final WorkerPool workerPool;
   private final TopologyAwareParallelScheduler<K> scheduler;
+  private final AtomicInteger profiled = new AtomicInteger();
 
   @Inject
   public KernelScheduler(WorkerPool pool) {
@@ -20,8 +32,72 @@ public final class KernelScheduler<K> implements Scheduler<K> {
     return workerPool.getKernelExecutor();
   }
 
+  @Override
+  public void exportMetrics(KernelMetrics metrics) {
+    workerPool.exportMetrics(metrics);
+  }
+
+  @Override
+  public void start() {
+    workerPool.start();
+  }
+
+  @Override
+  public void stop() {
+    workerPool.close();
+  }
+
   @Override
   public TaskTracker<K> submit(Process<K> process) {
-    return scheduler.submit(process, process.getContext());
+    return submit(process, null);
+  }
+
+  /**
+   * @param process the process to run
+   * @param listener notified as the process's tasks run. May be null
+   * @return the process's tracker
+   */
+  public TaskTracker<K> submit(Process<K> process, TaskEventDispatcher<K> listener) {
+    val directory = profileDirectory();
+    if (directory == null) {
+      return listener == null
+          ? scheduler.submit(process, process.getContext())
+          : scheduler.submit(process, process.getContext(), listener);
+    }
+    val profiler = new ProcessProfiler<K>(process.toString());
+    final TaskEventDispatcher<K> dispatcher;
+    if (listener == null) {
+      dispatcher = profiler;
+    } else {
+      dispatcher =
+          (type, event) -> {
+            profiler.dispatch(type, event);
+            listener.dispatch(type, event);
+          };
+    }
+    val result = scheduler.submit(process, process.getContext(), dispatcher);
+    result.whenComplete((p, ex) -> writeProfile(directory, profiler));
+    return result;
+  }
+
+  private void writeProfile(File directory, ProcessProfiler<K> profiler) {
+    val profile = profiler.getProfile();
+    val basename = String.format("process-%04d", profiled.incrementAndGet());
+    try {
+      profile.write(directory.toPath(), basename);
+      log.log(
+          Level.INFO,
+          "process.profile.written",
+          new Object[] {profile.getName(), new File(directory, basename)});
+    } catch (IOException ex) {
+      log.log(Level.WARNING, "process.profile.failed", new Object[] {directory, ex.getMessage()});
+    }
+  }
+
+  private static File profileDirectory() {
+    if (SunshowerKernel.hasKernelOptions()) {
+      return SunshowerKernel.getKernelOptions().getProcessProfileDirectory();
+    }
+    return null;
   }
 }
@@ -0,0 +1,204 @@
+package io.zephyr.kernel.concurrency;
+
+import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.core.Kernel;
+import io.zephyr.kernel.metrics.Histogram;
+import io.zephyr.kernel.metrics.LogLinearHistogram;
+import io.zephyr.kernel.metrics.ModuleUsage;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.ToLongFunction;
+import lombok.val;
+
+/**
+ * a module thread's usage. CPU time and allocations are read off the thread (and captured when it
+ * exits), so the only per-task cost is a couple of clock reads and histogram updates
+ */
+@SuppressWarnings({"PMD.AvoidUsingVolatile", "PMD.DoNotUseThreads"})
+final class ModuleAccount implements ModuleUsage {
+
+  static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+  /** the gauges each module publishes, under <code>module.[coordinate].</code> */
+  static final String[] GAUGES = {
+    "cpu.nanos",
+    "allocated.bytes",
+    "tasks.completed",
+    "queue.depth",
+    "queue.latency.p99",
+    "task.duration.p99"
+  };
+
+  private final Coordinate coordinate;
+  private final IntSupplier queueDepth;
+  private final LongAdder completed;
+  private final LogLinearHistogram queueLatency;
+  private final LogLinearHistogram taskDuration;
+
+  private volatile Thread thread;
+  private volatile long cpuTimeNanos;
+  private volatile long allocatedBytes;
+
+  ModuleAccount(Coordinate coordinate, IntSupplier queueDepth) {
+    this.coordinate = coordinate;
+    this.queueDepth = queueDepth;
+    this.completed = new LongAdder();
+    this.queueLatency = new LogLinearHistogram(coordinate.toCanonicalForm() + ".queue.latency");
+    this.taskDuration = new LogLinearHistogram(coordinate.toCanonicalForm() + ".task.duration");
+    this.cpuTimeNanos = cpuTimeSupported() ? 0 : -1;
+    this.allocatedBytes = allocationSupported() ? 0 : -1;
+  }
+
+  /** called on the module thread once it starts */
+  void attach() {
+    thread = Thread.currentThread();
+  }
+
+  /** called on the module thread just before it exits: keeps its final usage */
+  void detach() {
+    val current = Thread.currentThread();
+    cpuTimeNanos = cpuTimeOf(current);
+    allocatedBytes = allocationsOf(current);
+    thread = null;
+  }
+
+  /**
+   * @param queued when the task was scheduled
+   * @param started when it started running
+   * @param finished when it finished
+   */
+  void record(long queued, long started, long finished) {
+    completed.increment();
+    queueLatency.record(started - queued);
+    taskDuration.record(finished - started);
+  }
+
+  @Override
+  public Coordinate getCoordinate() {
+    return coordinate;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return thread != null;
+  }
+
+  @Override
+  public long getCpuTimeNanos() {
+    val current = thread;
+    return current == null ? cpuTimeNanos : cpuTimeOf(current);
+  }
+
+  @Override
+  public long getAllocatedBytes() {
+    val current = thread;
+    return current == null ? allocatedBytes : allocationsOf(current);
+  }
+
+  @Override
+  public long getTasksCompleted() {
+    return completed.sum();
+  }
+
+  @Override
+  public int getQueueDepth() {
+    return queueDepth.getAsInt();
+  }
+
+  @Override
+  public Histogram.Snapshot getQueueLatency() {
+    return queueLatency.snapshot();
+  }
+
+  @Override
+  public Histogram.Snapshot getTaskDuration() {
+    return taskDuration.snapshot();
+  }
+
+  /**
+   * publish a module's usage as gauges in the kernel's metrics (and so over JMX). The gauges look
+   * the module up on every read, so they follow it across restarts
+   *
+   * @param kernel the kernel
+   * @param coordinate the module
+   */
+  static void export(Kernel kernel, Coordinate coordinate) {
+    val metrics = kernel.getMetrics();
+    if (metrics == null) {
+      return;
+    }
+    val prefix = prefix(coordinate);
+    metrics.gauge(prefix + "cpu.nanos", () -> read(kernel, coordinate, u -> u.getCpuTimeNanos()));
+    metrics.gauge(
+        prefix + "allocated.bytes", () -> read(kernel, coordinate, u -> u.getAllocatedBytes()));
+    metrics.gauge(
+        prefix + "tasks.completed", () -> read(kernel, coordinate, u -> u.getTasksCompleted()));
+    metrics.gauge(prefix + "queue.depth", () -> read(kernel, coordinate, u -> u.getQueueDepth()));
+    metrics.gauge(
+        prefix + "queue.latency.p99",
+        () -> read(kernel, coordinate, u -> u.getQueueLatency().getValueAtPercentile(99)));
+    metrics.gauge(
+        prefix + "task.duration.p99",
+        () -> read(kernel, coordinate, u -> u.getTaskDuration().getValueAtPercentile(99)));
+  }
+
+  /**
+   * remove the gauges {@link #export(Kernel, Coordinate)} published
+   *
+   * @param kernel the kernel
+   * @param coordinate the module
+   */
+  static void unexport(Kernel kernel, Coordinate coordinate) {
+    val metrics = kernel.getMetrics();
+    if (metrics == null) {
+      return;
+    }
+    val prefix = prefix(coordinate);
+    for (val name : GAUGES) {
+      metrics.remove(prefix + name);
+    }
+  }
+
+  private static String prefix(Coordinate coordinate) {
+    return "module." + coordinate.toCanonicalForm() + ".";
+  }
+
+  /** a scrape reads every module's gauges, so look the module up directly rather than scanning */
+  private static long read(Kernel kernel, Coordinate coordinate, ToLongFunction<ModuleUsage> f) {
+    val module = kernel.getModuleManager().getModule(coordinate);
+    if (module == null) {
+      return 0;
+    }
+    val queue = module.getTaskQueue();
+    return queue instanceof ModuleThread ? f.applyAsLong(((ModuleThread) queue).getUsage()) : 0;
+  }
+
+  private static boolean cpuTimeSupported() {
+    return threads.isThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled();
+  }
+
+  private static boolean allocationSupported() {
+    return threads instanceof com.sun.management.ThreadMXBean
+        && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()
+        && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemoryEnabled();
+  }
+
+  private long cpuTimeOf(Thread thread) {
+    if (!cpuTimeSupported()) {
+      return -1;
+    }
+    val result = threads.getThreadCpuTime(thread.getId());
+    return result < 0 ? cpuTimeNanos : result;
+  }
+
+  private long allocationsOf(Thread thread) {
+    if (!allocationSupported()) {
+      return -1;
+    }
+    val result =
+        ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(thread.getId());
+    return result < 0 ? allocatedBytes : result;
+  }
+}
@@ -11,32 +11,49 @@ import io.zephyr.kernel.PluginException;
 import io.zephyr.kernel.TaskQueue;
 import io.zephyr.kernel.VolatileStorage;
 import io.zephyr.kernel.core.AbstractModule;
+import io.zephyr.kernel.core.BootTimeline;
 import io.zephyr.kernel.core.Kernel;
+import io.zephyr.kernel.core.SunshowerKernel;
 import io.zephyr.kernel.events.Events;
+import io.zephyr.kernel.metrics.ModuleUsage;
 import io.zephyr.kernel.misc.SuppressFBWarnings;
 import io.zephyr.kernel.status.Status;
 import io.zephyr.kernel.status.StatusType;
 import java.io.IOException;
 import java.util.Map;
+import java.util.Queue;
 import java.util.ServiceConfigurationError;
-import java.util.concurrent.BlockingQueue;
+import java.util.ServiceLoader;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import lombok.NonNull;
 import lombok.val;
 
-/** not really sure if this is a good idea or not */
+/**
+ * runs a plugin's activator and every task scheduled against the plugin on a single thread.
+ *
+ * <p>Tasks arrive on two lanes: a bounded, lock-free application lane (service and module events,
+ * tracker callbacks, anything plugins schedule) and an unbounded lifecycle lane (stop requests).
+ * The module thread drains application tasks in batches, but checks the lifecycle lane before each
+ * task--a plugin flooding its own queue can't delay its shutdown
+ */
 @SuppressWarnings({
   "PMD.DoNotUseThreads",
   "PMD.AvoidFieldNameMatchingTypeName",
   "PMD.UnusedPrivateMethod",
-  "PMD.DataflowAnomalyAnalysis"
+  "PMD.DataflowAnomalyAnalysis",
+  "PMD.AvoidCatchingGenericException"
 })
 @SuppressFBWarnings
 public class ModuleThread implements Startable, Stoppable, TaskQueue, Runnable, VolatileStorage {
@@ -44,122 +61,362 @@ public class ModuleThread implements Startable, Stoppable, TaskQueue, Runnable,
   static final Logger log = Logger.getLogger("ModuleThread");
   static final String FAILURE_TEMPLATE = "Failed to start plugin ''{0}''.  Reason: ''{1}''";
 
+  /** the default maximum number of pending application tasks */
+  public static final int DEFAULT_CAPACITY = 4096;
+
+  /** the maximum number of application tasks run per wakeup */
+  static final int BATCH_SIZE = 64;
+
+  /** how long a producer blocked on a full queue waits between attempts */
+  static final long BLOCKED_PRODUCER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  /** what to do with an application task scheduled against a full queue */
+  public enum OverflowPolicy {
+    /** wait for space. Tasks scheduled from the module's own thread run immediately instead */
+    Block,
+
+    /** fail the task's future with a {@link RejectedExecutionException} */
+    Reject,
+
+    /** run the task on the scheduling thread */
+    CallerRuns
+  }
+
   final Module module;
 
   final Kernel kernel;
 
+  final OverflowPolicy overflowPolicy;
+
   final AtomicBoolean running;
-  final BlockingQueue<Runnable> taskQueue;
+  final AtomicBoolean parked;
+  final AtomicBoolean terminated;
+  final CompletableFuture<Void> started;
+  final MpscRing<Runnable> taskQueue;
+  final Queue<Runnable> lifecycleQueue;
   final AtomicReference<Thread> moduleThread;
   final InheritableThreadLocal<Map<Object, Object>> context;
-  final Object queueLock = new Object();
-  final Object moduleLock = new Object();
+  final Object stopLock = new Object();
+  final ModuleAccount account;
 
   public ModuleThread(final Module module, final Kernel kernel) {
+    this(module, kernel, configuredCapacity(), configuredOverflowPolicy());
+  }
+
+  public ModuleThread(
+      final Module module,
+      final Kernel kernel,
+      int capacity,
+      @NonNull OverflowPolicy overflowPolicy) {
     if (module.getType() == Module.Type.KernelModule) {
       throw new IllegalStateException("Error: cannot create a module thread for a kernel module");
     }
     this.kernel = kernel;
     this.module = module;
+    this.overflowPolicy = overflowPolicy;
     this.moduleThread = new AtomicReference<>();
-    this.taskQueue = new LinkedBlockingQueue<>();
+    this.taskQueue = new MpscRing<>(capacity);
+    this.lifecycleQueue = new ConcurrentLinkedQueue<>();
     this.running = new AtomicBoolean(false);
+    this.parked = new AtomicBoolean(false);
+    this.terminated = new AtomicBoolean(false);
+    this.started = new CompletableFuture<>();
     this.context = new InheritableThreadLocal<>();
+    this.account = new ModuleAccount(module.getCoordinate(), this::getOutstandingTasks);
     context.set(new ConcurrentHashMap<>());
   }
 
   @Override
   public void stop() {
-    synchronized (queueLock) {
-      running.set(false);
-      queueLock.notifyAll();
-      while (running.get()) {
-        try {
-          synchronized (moduleLock) {
-            moduleLock.wait();
+    synchronized (stopLock) {
+      val thread = moduleThread.get();
+      if (thread != null && !terminated.get()) {
+        scheduleLifecycle(() -> running.set(false));
+        if (thread != Thread.currentThread()) {
+          try {
+            thread.join();
+          } catch (InterruptedException ex) {
+            log.log(Level.INFO, "interrupted", ex);
           }
-        } catch (InterruptedException ex) {
-          log.log(Level.INFO, "interrupted", ex);
-          break;
         }
       }
       doStop();
     }
   }
 
+  /** start the module's thread and wait for its activator to start */
   @Override
   public void start() {
-    synchronized (moduleLock) {
-      val thread = new Thread(this, "module-" + module.getCoordinate().toCanonicalForm());
-      moduleThread.set(thread);
-      thread.start();
+    try {
+      startAsync();
+      started.get();
+    } catch (InterruptedException ex) {
+      log.log(Level.INFO, "module thread interrupted", ex);
+    } catch (ExecutionException ex) {
+      log.log(Level.INFO, "module thread failed to start", ex.getCause());
+    }
+  }
+
+  /**
+   * start the module's thread without waiting for it.
+   *
+   * @return a stage that completes once the module's activator has started (or failed to--a failed
+   *     activator marks the module failed, but the stage still completes normally)
+   */
+  public CompletionStage<Void> startAsync() {
+    val thread = new Thread(this, "module-" + module.getCoordinate().toCanonicalForm());
+    moduleThread.set(thread);
+    ModuleAccount.export(kernel, module.getCoordinate());
+    thread.start();
+    return started.minimalCompletionStage();
+  }
+
+  /**
+   * remove the usage gauges {@link #startAsync()} published for a module. Called once the module is
+   * removed: they'd otherwise outlive it for as long as the kernel runs
+   *
+   * @param kernel the kernel
+   * @param coordinate the removed module
+   */
+  public static void removeMetrics(Kernel kernel, Coordinate coordinate) {
+    ModuleAccount.unexport(kernel, coordinate);
+  }
+
+  /** interrupt the module's thread, if it's running. Used to escalate a stop that's overrun */
+  public void interrupt() {
+    val thread = moduleThread.get();
+    if (thread != null && thread.isAlive() && thread != Thread.currentThread()) {
+      thread.interrupt();
+    }
+  }
+
+  /**
+   * abandon a module thread that won't stop: mark it terminated so that it rejects new tasks, drop
+   * the module's activator without calling it, close its filesystem and mark it failed. The thread
+   * itself is left to exit on its own
+   */
+  public void forceUnload() {
+    running.set(false);
+    terminated.set(true);
+    signal();
+    if (module instanceof AbstractModule) {
+      ((AbstractModule) module).setActivator(null);
+    }
+    val fileSystem = module.getFileSystem();
+    if (fileSystem != null) {
       try {
-        moduleLock.wait();
-      } catch (InterruptedException ex) {
-        log.log(Level.INFO, "module thread interrupted", ex);
+        fileSystem.close();
+      } catch (IOException | RuntimeException ex) {
+        log.log(Level.INFO, "failed to close filesystem of force-unloaded module", ex);
       }
     }
+    module.getLifecycle().setState(Lifecycle.State.Failed);
+    log.log(Level.WARNING, "force-unloaded module {0}", module.getCoordinate());
+  }
+
+  /** @return true once the thread has exited, or been abandoned by {@link #forceUnload()} */
+  public boolean isTerminated() {
+    return terminated.get();
+  }
+
+  /** @return true if the caller is running on this module's thread */
+  public boolean isCurrentThread() {
+    return moduleThread.get() == Thread.currentThread();
+  }
+
+  /** @return the CPU, allocations and task latencies of this module thread */
+  public ModuleUsage getUsage() {
+    return account;
+  }
+
+  /** @return the maximum number of pending application tasks */
+  public int getCapacity() {
+    return taskQueue.capacity();
   }
 
   @Override
   public int getOutstandingTasks() {
-    return taskQueue.size();
+    return taskQueue.size() + lifecycleQueue.size();
   }
 
   @Override
   public <T> CompletionStage<T> schedule(Callable<T> task) {
-    synchronized (queueLock) {
-      val result = new TaskQueueCallable<>(task);
-      taskQueue.offer(result);
-      queueLock.notifyAll();
-      return result;
-    }
+    val result = new TaskQueueCallable<>(task);
+    enqueue(result, result);
+    return result;
   }
 
   @Override
   public CompletionStage<Void> schedule(Runnable task) {
-    synchronized (queueLock) {
-      val result = new TaskQueueRunnable(task);
-      taskQueue.offer(task);
-      queueLock.notifyAll();
-      return result;
+    val result = new TaskQueueRunnable(task);
+    enqueue(result, result);
+    return result;
+  }
+
+  /**
+   * schedule a lifecycle task. Lifecycle tasks run before any pending application tasks and are
+   * never rejected for capacity
+   *
+   * @param task the task
+   * @return a future completed when the task has run
+   */
+  public CompletionStage<Void> scheduleLifecycle(Runnable task) {
+    val result = new TaskQueueRunnable(task);
+    if (terminated.get()) {
+      result.completeExceptionally(rejected());
+    } else {
+      lifecycleQueue.offer(result);
+      signal();
     }
+    return result;
   }
 
   @Override
   public void run() {
+    account.attach();
     performStart();
-    while (running.get()) {
-      try {
-        while (!taskQueue.isEmpty()) {
-          val runnable = taskQueue.take();
-          runnable.run();
+    try {
+      while (running.get()) {
+        runLifecycleTasks();
+        if (running.get() && drain() == 0) {
+          await();
+        }
+      }
+    } finally {
+      terminated.set(true);
+      cancelPending();
+      account.detach();
+    }
+  }
+
+  private void enqueue(Runnable task, CompletableFuture<?> result) {
+    if (terminated.get()) {
+      result.completeExceptionally(rejected());
+      return;
+    }
+    if (taskQueue.offer(task)) {
+      signal();
+    } else {
+      overflow(task, result);
+    }
+    if (terminated.get() && !result.isDone()) { // raced with the module thread's exit
+      result.completeExceptionally(rejected());
+    }
+  }
+
+  private void overflow(Runnable task, CompletableFuture<?> result) {
+    switch (overflowPolicy) {
+      case Reject:
+        result.completeExceptionally(rejected());
+        return;
+      case CallerRuns:
+        task.run();
+        return;
+      default:
+        if (isCurrentThread()) { // waiting on ourselves would never end
+          task.run();
+          return;
         }
-        synchronized (queueLock) {
-          queueLock.wait();
+        while (!taskQueue.offer(task)) {
+          if (terminated.get()) {
+            result.completeExceptionally(rejected());
+            return;
+          }
+          signal();
+          LockSupport.parkNanos(this, BLOCKED_PRODUCER_PARK_NANOS);
         }
-      } catch (InterruptedException ex) {
-        log.log(Level.INFO, "module interrupted", ex);
+        signal();
+    }
+  }
+
+  private RejectedExecutionException rejected() {
+    return new RejectedExecutionException(
+        "Task queue for module " + module.getCoordinate() + " is not accepting tasks");
+  }
+
+  private void runLifecycleTasks() {
+    Runnable task;
+    while ((task = lifecycleQueue.poll()) != null) {
+      runAccounted(task);
+    }
+  }
+
+  /** @return the number of application tasks run */
+  private int drain() {
+    int count = 0;
+    Runnable task;
+    while (count < BATCH_SIZE && lifecycleQueue.isEmpty() && (task = taskQueue.poll()) != null) {
+      runAccounted(task);
+      count++;
+    }
+    return count;
+  }
+
+  private void runAccounted(Runnable task) {
+    val started = System.nanoTime();
+    task.run();
+    account.record(((Queued) task).getQueuedAt(), started, System.nanoTime());
+  }
+
+  private void await() {
+    parked.set(true);
+    try {
+      if (running.get() && taskQueue.isEmpty() && lifecycleQueue.isEmpty()) {
+        LockSupport.park(this);
       }
+    } finally {
+      parked.set(false);
+    }
+    if (Thread.interrupted()) {
+      log.log(Level.INFO, "module {0} interrupted", module.getCoordinate());
+    }
+  }
+
+  private void signal() {
+    if (parked.get()) {
+      LockSupport.unpark(moduleThread.get());
     }
-    finalizeModule();
   }
 
-  private void finalizeModule() {
-    synchronized (moduleLock) {
-      moduleLock.notifyAll();
+  private void cancelPending() {
+    Runnable task;
+    while ((task = lifecycleQueue.poll()) != null) {
+      ((CompletableFuture<?>) task).cancel(false);
+    }
+    while ((task = taskQueue.poll()) != null) {
+      ((CompletableFuture<?>) task).cancel(false);
     }
   }
 
   private void performStart() {
-    synchronized (moduleLock) {
-      running.set(true);
-      try {
-        doStart();
-      } finally { // don't hang if an exception is thrown
-        moduleLock.notifyAll();
+    running.set(true);
+    try {
+      doStart();
+      started.complete(null);
+    } catch (RuntimeException | Error ex) { // don't hang if an exception is thrown
+      started.completeExceptionally(ex);
+      throw ex;
+    }
+  }
+
+  private static int configuredCapacity() {
+    if (SunshowerKernel.hasKernelOptions()) {
+      val capacity = SunshowerKernel.getKernelOptions().getModuleQueueCapacity();
+      if (capacity != null) {
+        return capacity;
+      }
+    }
+    return DEFAULT_CAPACITY;
+  }
+
+  private static OverflowPolicy configuredOverflowPolicy() {
+    if (SunshowerKernel.hasKernelOptions()) {
+      val policy = SunshowerKernel.getKernelOptions().getModuleQueueOverflowPolicy();
+      if (policy != null) {
+        return policy;
       }
     }
+    return OverflowPolicy.Block;
   }
 
   private void doStart() {
@@ -169,18 +426,31 @@ public class ModuleThread implements Startable, Stoppable, TaskQueue, Runnable,
     if (!currentState.isAtLeast(Lifecycle.State.Active)) {
       module.getLifecycle().setState(Lifecycle.State.Starting);
       kernel.getModuleManager().getModuleLoader().check(module);
-      val loader = module.getModuleClasspath().resolveServiceLoader(ModuleActivator.class);
+      final ServiceLoader<ModuleActivator> loader;
+      val classloading =
+          BootTimeline.span(kernel, "plugins", "classloader " + coordinate.toCanonicalForm());
+      try {
+        loader = module.getModuleClasspath().resolveServiceLoader(ModuleActivator.class);
+      } finally {
+        classloading.close();
+      }
       val ctx = kernel.createContext(module, this);
       moduleThread.get().setContextClassLoader(module.getClassLoader());
-      for (val activator : loader) {
-        try {
-          activator.start(ctx);
-          ((AbstractModule) module).setActivator(activator);
-          break;
-        } catch (Exception | ServiceConfigurationError | LinkageError ex) {
-          handleFailure(coordinate, ex);
-          return;
+      val activating =
+          BootTimeline.span(kernel, "plugins", "activate " + coordinate.toCanonicalForm());
+      try {
+        for (val activator : loader) {
+          try {
+            activator.start(ctx);
+            ((AbstractModule) module).setActivator(activator);
+            break;
+          } catch (Exception | ServiceConfigurationError | LinkageError ex) {
+            handleFailure(coordinate, ex);
+            return;
+          }
         }
+      } finally {
+        activating.close();
       }
       fireStarted();
       module.getLifecycle().setState(Lifecycle.State.Active);
@@ -232,7 +502,10 @@ public class ModuleThread implements Startable, Stoppable, TaskQueue, Runnable,
           }
           ((AbstractModule) module).setActivator(null);
           module.getFileSystem().close();
-          moduleThread.get().setContextClassLoader(null);
+          val thread = moduleThread.get();
+          if (thread != null) {
+            thread.setContextClassLoader(null);
+          }
         } catch (Exception ex) {
           module.getLifecycle().setState(Lifecycle.State.Failed);
           throw new PluginException(ex);
@@ -274,28 +547,54 @@ public class ModuleThread implements Startable, Stoppable, TaskQueue, Runnable,
     context.get().clear();
   }
 
-  static final class TaskQueueRunnable extends CompletableFuture<Void> implements Runnable {
+  /** a task that knows when it was scheduled */
+  interface Queued {
+    /** @return the {@link System#nanoTime()} the task was scheduled at */
+    long getQueuedAt();
+  }
+
+  static final class TaskQueueRunnable extends CompletableFuture<Void> implements Runnable, Queued {
 
     final Runnable delegate;
+    final long queuedAt;
 
     TaskQueueRunnable(Runnable delegate) {
       this.delegate = delegate;
+      this.queuedAt = System.nanoTime();
+    }
+
+    @Override
+    public long getQueuedAt() {
+      return queuedAt;
     }
 
     @Override
     public void run() {
-      delegate.run();
-      complete(null);
+      try {
+        delegate.run();
+        complete(null);
+      } catch (RuntimeException | LinkageError ex) {
+        log.log(Level.WARNING, "task {0} failed: {1}", new Object[] {delegate, ex.getMessage()});
+        log.log(Level.FINE, "Reason: ", ex);
+        completeExceptionally(ex);
+      }
     }
   }
 
   static final class TaskQueueCallable<T> extends CompletableFuture<T>
-      implements Callable<T>, Runnable {
+      implements Callable<T>, Runnable, Queued {
 
     final Callable<T> delegate;
+    final long queuedAt;
 
     TaskQueueCallable(Callable<T> delegate) {
       this.delegate = delegate;
+      this.queuedAt = System.nanoTime();
+    }
+
+    @Override
+    public long getQueuedAt() {
+      return queuedAt;
     }
 
     @Override
@@ -309,8 +608,10 @@ public class ModuleThread implements Startable, Stoppable, TaskQueue, Runnable,
     public void run() {
       try {
         call();
-      } catch (Exception ex) {
-        throw new RuntimeException(ex);
+      } catch (Exception | LinkageError ex) {
+        log.log(Level.WARNING, "task {0} failed: {1}", new Object[] {delegate, ex.getMessage()});
+        log.log(Level.FINE, "Reason: ", ex);
+        completeExceptionally(ex);
       }
     }
   }
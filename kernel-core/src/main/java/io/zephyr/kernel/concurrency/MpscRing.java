@@ -0,0 +1,99 @@
+package io.zephyr.kernel.concurrency;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * a bounded, lock-free multi-producer/single-consumer ring. Producers claim slots by CAS on the
+ * tail and publish them through a per-slot sequence number; the (single) consumer never contends
+ * with producers. Capacity is rounded up to a power of two (at least 2).
+ *
+ * <p>{@link #poll()} and {@link #isEmpty()} must only be called from the consumer thread
+ */
+final class MpscRing<E> {
+
+  private final int mask;
+  private final AtomicReferenceArray<E> elements;
+  private final AtomicLongArray sequences;
+  private final AtomicLong tail;
+
+  /** published copy of the consumer's position, for size() */
+  private final AtomicLong head;
+
+  /** consumer-local position */
+  private long consumerPosition;
+
+  MpscRing(int capacity) {
+    if (capacity <= 0 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("capacity must be in (0, 2^30], not " + capacity);
+    }
+    // a single slot's "published" and "free" sequence numbers would coincide
+    final int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+    this.mask = size - 1;
+    this.elements = new AtomicReferenceArray<>(size);
+    this.sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+    this.tail = new AtomicLong();
+    this.head = new AtomicLong();
+  }
+
+  /** @return the number of slots in this ring */
+  int capacity() {
+    return mask + 1;
+  }
+
+  /**
+   * @param element the element to add
+   * @return false if the ring is full
+   */
+  boolean offer(E element) {
+    long position;
+    for (; ; ) {
+      position = tail.get();
+      final long available = sequences.get(index(position)) - position;
+      if (available == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          break;
+        }
+      } else if (available < 0) {
+        return false;
+      }
+    }
+    final int index = index(position);
+    elements.lazySet(index, element);
+    sequences.set(index, position + 1);
+    return true;
+  }
+
+  /** @return the next element, or null if none has been published */
+  E poll() {
+    final long position = consumerPosition;
+    final int index = index(position);
+    if (sequences.get(index) != position + 1) {
+      return null;
+    }
+    final E element = elements.get(index);
+    elements.lazySet(index, null);
+    sequences.set(index, position + mask + 1);
+    consumerPosition = position + 1;
+    head.lazySet(consumerPosition);
+    return element;
+  }
+
+  /** @return true if no element is ready for the consumer */
+  boolean isEmpty() {
+    return sequences.get(index(consumerPosition)) != consumerPosition + 1;
+  }
+
+  /** @return an estimate of the number of elements in the ring (safe from any thread) */
+  int size() {
+    return (int) Math.max(0, Math.min(capacity(), tail.get() - head.get()));
+  }
+
+  private int index(long position) {
+    return (int) position & mask;
+  }
+}
@@ -1,41 +1,58 @@
 package io.zephyr.kernel.concurrency;
 
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * counts down the tasks of a schedule stage. The task that completes the stage runs the stage's
+ * continuation--nothing ever waits on this latch
+ */
 public class NotifyingLatch<K> {
-  final CountDownLatch latch;
+  final int stage;
+  final AtomicInteger remaining;
+  final Runnable onComplete;
   final TaskEventDispatcher<K> dispatcher;
 
-  public NotifyingLatch(TaskEventDispatcher<K> dispatcher, int size) {
+  public NotifyingLatch(TaskEventDispatcher<K> dispatcher, int size, Runnable onComplete) {
+    this(dispatcher, -1, size, onComplete);
+  }
+
+  public NotifyingLatch(
+      TaskEventDispatcher<K> dispatcher, int stage, int size, Runnable onComplete) {
+    this.stage = stage;
     this.dispatcher = dispatcher;
-    this.latch = new CountDownLatch(size);
+    this.onComplete = onComplete;
+    this.remaining = new AtomicInteger(size);
   }
 
+  /** an empty stage completes here, so that listeners see it start before it ends */
   void start() {
-    dispatcher.dispatch(TaskEvents.TASK_PHASE_STARTING, new TaskPhaseEvent());
+    dispatcher.dispatch(TaskEvents.TASK_PHASE_STARTING, new TaskPhaseEvent(stage));
+    if (remaining.get() == 0) {
+      complete();
+    }
   }
 
-  void beforeTask() {
-    dispatcher.dispatch(TaskEvents.TASK_STARTING, new TaskPhaseEvent());
+  void beforeTask(TaskPhaseEvent event) {
+    dispatcher.dispatch(TaskEvents.TASK_STARTING, event);
   }
 
-  void afterTask() {
-    dispatcher.dispatch(TaskEvents.TASK_STARTING, new TaskPhaseEvent());
+  /** should be called before decrement(), so that listeners see the task before its stage ends */
+  void afterTask(TaskPhaseEvent event) {
+    if (event.getTask() != null && event.getTask().getState() == Task.State.Failed) {
+      dispatcher.dispatch(TaskEvents.TASK_ERROR, event);
+    } else {
+      dispatcher.dispatch(TaskEvents.TASK_COMPLETE, event);
+    }
   }
 
-  /** should be called between beforeTask() and afterTask() */
   void decrement() {
-    latch.countDown();
-    dispatcher.dispatch(TaskEvents.TASK_COMPLETE, new TaskPhaseEvent());
+    if (remaining.decrementAndGet() == 0) {
+      complete();
+    }
   }
 
-  void await() throws InterruptedException {
-    try {
-      latch.await();
-    } catch (InterruptedException ex) {
-
-    } finally {
-      dispatcher.dispatch(TaskEvents.TASK_PHASE_COMPLETE, new TaskPhaseEvent());
-    }
+  private void complete() {
+    dispatcher.dispatch(TaskEvents.TASK_PHASE_COMPLETE, new TaskPhaseEvent(stage));
+    onComplete.run();
   }
 }
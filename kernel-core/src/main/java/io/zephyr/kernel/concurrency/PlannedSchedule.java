@@ -0,0 +1,177 @@
+package io.zephyr.kernel.concurrency;
+
+import io.sunshower.gyre.DirectedGraph;
+import io.sunshower.gyre.Schedule;
+import io.sunshower.gyre.Scope;
+import io.sunshower.gyre.TaskSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * a schedule assembled stage by stage by a caller that has already worked out the stages (e.g. from
+ * a memoized dependency schedule), so that running it doesn't mean scheduling its task graph all
+ * over again. Tasks look values up in their predecessors' scopes exactly as they do in a computed
+ * schedule
+ *
+ * @param <K> the process's key type
+ */
+@SuppressWarnings("PMD.AvoidFieldNameMatchingMethodName")
+public final class PlannedSchedule<K> implements Schedule<DirectedGraph.Edge<K>, Task> {
+
+  private final List<TaskSet<DirectedGraph.Edge<K>, Task>> stages;
+  private final Map<Task, Node<K>> nodes;
+
+  public PlannedSchedule() {
+    this(new ArrayList<>(), new IdentityHashMap<>());
+  }
+
+  private PlannedSchedule(
+      List<TaskSet<DirectedGraph.Edge<K>, Task>> stages, Map<Task, Node<K>> nodes) {
+    this.stages = stages;
+    this.nodes = nodes;
+  }
+
+  /**
+   * add a task to a stage
+   *
+   * @param stage the stage--created, along with any before it, if it doesn't exist yet
+   * @param task the task
+   * @param predecessors tasks already added to earlier stages whose scopes the task may read
+   */
+  public void add(int stage, @NonNull Task task, @NonNull Collection<Task> predecessors) {
+    if (nodes.containsKey(task)) {
+      throw new IllegalArgumentException("Error: task " + task.getName() + " already scheduled");
+    }
+    while (stages.size() <= stage) {
+      stages.add(new Stage<>());
+    }
+    val node = new Node<K>(task);
+    for (val predecessor : predecessors) {
+      val predecessorNode = nodes.get(predecessor);
+      if (predecessorNode != null) {
+        node.predecessors.add(predecessorNode);
+      }
+    }
+    nodes.put(task, node);
+    ((Stage<K>) stages.get(stage)).tasks.add(node);
+  }
+
+  @Override
+  public List<TaskSet<DirectedGraph.Edge<K>, Task>> getTasks() {
+    return Collections.unmodifiableList(stages);
+  }
+
+  @Override
+  public int size() {
+    return stages.size();
+  }
+
+  @Override
+  public TaskSet<DirectedGraph.Edge<K>, Task> get(int i) {
+    return stages.get(i);
+  }
+
+  @Override
+  public Schedule<DirectedGraph.Edge<K>, Task> reverse() {
+    val result = new ArrayList<>(stages);
+    Collections.reverse(result);
+    return new PlannedSchedule<>(result, nodes);
+  }
+
+  @Override
+  public Iterator<TaskSet<DirectedGraph.Edge<K>, Task>> iterator() {
+    return getTasks().iterator();
+  }
+
+  static final class Stage<K> implements TaskSet<DirectedGraph.Edge<K>, Task> {
+    final List<io.sunshower.gyre.Task<DirectedGraph.Edge<K>, Task>> tasks = new ArrayList<>();
+
+    @Override
+    public List<io.sunshower.gyre.Task<DirectedGraph.Edge<K>, Task>> getTasks() {
+      return tasks;
+    }
+
+    @Override
+    public int size() {
+      return tasks.size();
+    }
+  }
+
+  static final class Node<K> implements io.sunshower.gyre.Task<DirectedGraph.Edge<K>, Task> {
+    final Task value;
+    final Scope scope;
+    final Set<io.sunshower.gyre.Task<DirectedGraph.Edge<K>, Task>> predecessors;
+
+    Node(Task value) {
+      this.value = value;
+      this.scope = new PredecessorScanningScope();
+      this.predecessors = new LinkedHashSet<>();
+    }
+
+    @Override
+    public Task getValue() {
+      return value;
+    }
+
+    @Override
+    public Scope getScope() {
+      return scope;
+    }
+
+    @Override
+    public Set<io.sunshower.gyre.Task<DirectedGraph.Edge<K>, Task>> getPredecessors() {
+      return predecessors;
+    }
+
+    @Override
+    public Set<DirectedGraph.Edge<K>> getEdges() {
+      return Collections.emptySet();
+    }
+
+    /** a task's own values, falling back to its predecessors' */
+    final class PredecessorScanningScope implements Scope {
+      final Map<String, Object> values = new HashMap<>(2);
+
+      @Override
+      public <T> void set(String name, T value) {
+        values.put(name, value);
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public <T> T get(String name) {
+        val result = (T) values.get(name);
+        if (result == null) {
+          for (val predecessor : predecessors) {
+            final T presult = predecessor.getScope().get(name);
+            if (presult != null) {
+              return presult;
+            }
+          }
+        }
+        return result;
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public synchronized <E> E computeIfAbsent(String name, E o) {
+        final E existing = get(name);
+        if (existing == null) {
+          values.put(name, o);
+          return o;
+        }
+        return existing;
+      }
+    }
+  }
+}
@@ -0,0 +1,389 @@
+package io.zephyr.kernel.concurrency;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import lombok.val;
+
+/**
+ * where the time went in a process. Times are nanoseconds since the process started.
+ *
+ * <p>Stages run one after another, so each stage is gated by its slowest task: the critical path is
+ * the slowest task of each stage, and a task's slack is how long before the end of its stage it
+ * finished (how much slower it could have been without slowing the process down)
+ */
+@Getter
+@SuppressWarnings({
+  "PMD.AvoidInstantiatingObjectsInLoops",
+  "PMD.DataflowAnomalyAnalysis",
+  "PMD.AvoidDuplicateLiterals"
+})
+public final class ProcessProfile {
+
+  /** the process's name */
+  private final String name;
+
+  /** true if the process was rejected, or stopped by a failed task */
+  private final boolean failed;
+
+  /** how long the whole process took */
+  private final long elapsedNanos;
+
+  /** every task that ran, ordered by start */
+  private final List<TaskProfile> tasks;
+
+  /** every stage that ran, in order */
+  private final List<StageProfile> stages;
+
+  /** the slowest task of each stage, in order */
+  private final List<TaskProfile> criticalPath;
+
+  ProcessProfile(String name, boolean failed, long origin, long end, List<TaskPhaseEvent> events) {
+    this.name = name;
+    this.failed = failed;
+    this.elapsedNanos = Math.max(0, end - origin);
+
+    val byStage = new TreeMap<Integer, List<TaskPhaseEvent>>();
+    for (val event : events) {
+      byStage.computeIfAbsent(event.getStage(), k -> new ArrayList<>()).add(event);
+    }
+
+    val allTasks = new ArrayList<TaskProfile>(events.size());
+    val allStages = new ArrayList<StageProfile>(byStage.size());
+    val critical = new ArrayList<TaskProfile>(byStage.size());
+    for (val entry : byStage.entrySet()) {
+      val stageEvents = entry.getValue();
+      long stageStart = Long.MAX_VALUE;
+      long stageEnd = Long.MIN_VALUE;
+      for (val event : stageEvents) {
+        stageStart = Math.min(stageStart, event.getStartedNanos());
+        stageEnd = Math.max(stageEnd, event.getCompletedNanos());
+      }
+
+      TaskProfile slowest = null;
+      long totalSlack = 0;
+      long maxSlack = 0;
+      val stageTasks = new ArrayList<TaskProfile>(stageEvents.size());
+      for (val event : stageEvents) {
+        val slack = stageEnd - event.getCompletedNanos();
+        val task =
+            new TaskProfile(
+                event.getTask() == null ? "?" : event.getTask().getName(),
+                entry.getKey(),
+                event.getWorker(),
+                event.getQueuedNanos(),
+                event.getStartedNanos() - origin,
+                event.getCompletedNanos() - origin,
+                slack,
+                event.getTask() != null && event.getTask().getState() == Task.State.Failed);
+        stageTasks.add(task);
+        totalSlack += slack;
+        maxSlack = Math.max(maxSlack, slack);
+        if (slowest == null || task.endNanos > slowest.endNanos) {
+          slowest = task;
+        }
+      }
+      if (slowest != null) {
+        slowest.critical = true;
+        critical.add(slowest);
+      }
+      allTasks.addAll(stageTasks);
+      allStages.add(
+          new StageProfile(
+              entry.getKey(),
+              stageStart - origin,
+              stageEnd - origin,
+              stageTasks.size(),
+              slowest == null ? null : slowest.name,
+              maxSlack,
+              totalSlack));
+    }
+    allTasks.sort(Comparator.comparingLong(TaskProfile::getStartNanos));
+    this.tasks = Collections.unmodifiableList(allTasks);
+    this.stages = Collections.unmodifiableList(allStages);
+    this.criticalPath = Collections.unmodifiableList(critical);
+  }
+
+  /** @return how long the critical path's tasks ran (the rest is scheduling and queueing) */
+  public long getCriticalPathNanos() {
+    long result = 0;
+    for (val task : criticalPath) {
+      result += task.getElapsedNanos();
+    }
+    return result;
+  }
+
+  /** @return this profile as a JSON document */
+  public String toJson() {
+    val result = new StringBuilder(256 + 256 * tasks.size());
+    result
+        .append("{\"process\":")
+        .append(quote(name))
+        .append(",\"failed\":")
+        .append(failed)
+        .append(",\"elapsedNanos\":")
+        .append(elapsedNanos)
+        .append(",\"criticalPathNanos\":")
+        .append(getCriticalPathNanos())
+        .append(",\"criticalPath\":[");
+    for (int i = 0; i < criticalPath.size(); i++) {
+      result.append(i == 0 ? "" : ",").append(quote(criticalPath.get(i).name));
+    }
+    result.append("],\"stages\":[");
+    for (int i = 0; i < stages.size(); i++) {
+      val stage = stages.get(i);
+      result
+          .append(i == 0 ? "" : ",")
+          .append("{\"stage\":")
+          .append(stage.index)
+          .append(",\"startNanos\":")
+          .append(stage.startNanos)
+          .append(",\"endNanos\":")
+          .append(stage.endNanos)
+          .append(",\"tasks\":")
+          .append(stage.taskCount)
+          .append(",\"criticalTask\":")
+          .append(quote(stage.criticalTask))
+          .append(",\"maxSlackNanos\":")
+          .append(stage.maxSlackNanos)
+          .append(",\"totalSlackNanos\":")
+          .append(stage.totalSlackNanos)
+          .append('}');
+    }
+    result.append("],\"tasks\":[");
+    for (int i = 0; i < tasks.size(); i++) {
+      val task = tasks.get(i);
+      result
+          .append(i == 0 ? "" : ",")
+          .append("{\"name\":")
+          .append(quote(task.name))
+          .append(",\"stage\":")
+          .append(task.stage)
+          .append(",\"worker\":")
+          .append(quote(task.worker))
+          .append(",\"queuedNanos\":")
+          .append(task.queuedNanos)
+          .append(",\"startNanos\":")
+          .append(task.startNanos)
+          .append(",\"endNanos\":")
+          .append(task.endNanos)
+          .append(",\"slackNanos\":")
+          .append(task.slackNanos)
+          .append(",\"critical\":")
+          .append(task.critical)
+          .append(",\"failed\":")
+          .append(task.failed)
+          .append('}');
+    }
+    return result.append("]}").toString();
+  }
+
+  /**
+   * @return this profile in the Chrome trace-event format (load it in chrome://tracing or
+   *     Perfetto): one row per worker thread, one slice per task
+   */
+  public String toChromeTrace() {
+    val workers = new LinkedHashMap<String, Integer>();
+    for (val task : tasks) {
+      workers.putIfAbsent(String.valueOf(task.worker), workers.size() + 1);
+    }
+    val result = new StringBuilder(256 + 256 * tasks.size());
+    result
+        .append("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[")
+        .append("{\"name\":\"process_name\",\"ph\":\"M\",\"pid\":1,\"args\":{\"name\":")
+        .append(quote(name))
+        .append("}}");
+    for (val worker : workers.entrySet()) {
+      result
+          .append(",{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":")
+          .append(worker.getValue())
+          .append(",\"args\":{\"name\":")
+          .append(quote(worker.getKey()))
+          .append("}}");
+    }
+    for (val task : tasks) {
+      result
+          .append(",{\"name\":")
+          .append(quote(task.name))
+          .append(",\"cat\":")
+          .append(task.critical ? "\"critical\"" : "\"task\"")
+          .append(",\"ph\":\"X\",\"pid\":1,\"tid\":")
+          .append(workers.get(String.valueOf(task.worker)))
+          .append(",\"ts\":")
+          .append(micros(task.startNanos))
+          .append(",\"dur\":")
+          .append(micros(task.getElapsedNanos()))
+          .append(",\"args\":{\"stage\":")
+          .append(task.stage)
+          .append(",\"queuedMicros\":")
+          .append(micros(task.queuedNanos))
+          .append(",\"slackMicros\":")
+          .append(micros(task.slackNanos))
+          .append(",\"failed\":")
+          .append(task.failed)
+          .append("}}");
+    }
+    return result.append("]}").toString();
+  }
+
+  /**
+   * write <code>[basename].profile.json</code> and <code>[basename].trace.json</code>
+   *
+   * @param directory the directory to write to. Created if it doesn't exist
+   * @param basename the name of the files, without extension
+   * @throws IOException if they can't be written
+   */
+  public void write(Path directory, String basename) throws IOException {
+    Files.createDirectories(directory);
+    Files.write(
+        directory.resolve(basename + ".profile.json"), toJson().getBytes(StandardCharsets.UTF_8));
+    Files.write(
+        directory.resolve(basename + ".trace.json"),
+        toChromeTrace().getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public String toString() {
+    val result =
+        new StringBuilder()
+            .append(
+                String.format(
+                    "process %s: %d tasks in %d stages, %d ms (critical path %d ms)%n",
+                    name,
+                    tasks.size(),
+                    stages.size(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    TimeUnit.NANOSECONDS.toMillis(getCriticalPathNanos())));
+    for (val stage : stages) {
+      result.append(
+          String.format(
+              "  stage %-3d %8d ms  %3d tasks  max slack %6d ms  %s%n",
+              stage.index,
+              TimeUnit.NANOSECONDS.toMillis(stage.endNanos - stage.startNanos),
+              stage.taskCount,
+              TimeUnit.NANOSECONDS.toMillis(stage.maxSlackNanos),
+              stage.criticalTask));
+    }
+    return result.toString();
+  }
+
+  private static String micros(long nanos) {
+    return String.format(Locale.ROOT, "%.3f", nanos / 1000d);
+  }
+
+  private static String quote(String value) {
+    if (value == null) {
+      return "null";
+    }
+    val result = new StringBuilder(value.length() + 2).append('"');
+    for (int i = 0; i < value.length(); i++) {
+      val c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        result.append('\\').append(c);
+      } else if (c < 0x20) {
+        result.append(String.format("\\u%04x", (int) c));
+      } else {
+        result.append(c);
+      }
+    }
+    return result.append('"').toString();
+  }
+
+  /** a single task's run */
+  @Getter
+  public static final class TaskProfile {
+    private final String name;
+    private final int stage;
+
+    /** the thread the task ran on */
+    private final String worker;
+
+    /** how long the task waited for a worker */
+    private final long queuedNanos;
+
+    private final long startNanos;
+    private final long endNanos;
+
+    /** how long before the end of its stage the task finished */
+    private final long slackNanos;
+
+    private final boolean failed;
+
+    /** true if this was the slowest task in its stage */
+    private boolean critical;
+
+    TaskProfile(
+        String name,
+        int stage,
+        String worker,
+        long queuedNanos,
+        long startNanos,
+        long endNanos,
+        long slackNanos,
+        boolean failed) {
+      this.name = name;
+      this.stage = stage;
+      this.worker = worker;
+      this.queuedNanos = queuedNanos;
+      this.startNanos = startNanos;
+      this.endNanos = endNanos;
+      this.slackNanos = slackNanos;
+      this.failed = failed;
+    }
+
+    /** @return how long the task ran */
+    public long getElapsedNanos() {
+      return endNanos - startNanos;
+    }
+  }
+
+  /** a single stage's run */
+  @Getter
+  public static final class StageProfile {
+    private final int index;
+
+    /** when the stage's first task started */
+    private final long startNanos;
+
+    /** when the stage's last task finished */
+    private final long endNanos;
+
+    private final int taskCount;
+
+    /** the name of the stage's slowest task */
+    private final String criticalTask;
+
+    /** the most slack any of the stage's tasks had */
+    private final long maxSlackNanos;
+
+    /** the stage's total slack: how much worker time it left idle waiting on its slowest task */
+    private final long totalSlackNanos;
+
+    StageProfile(
+        int index,
+        long startNanos,
+        long endNanos,
+        int taskCount,
+        String criticalTask,
+        long maxSlackNanos,
+        long totalSlackNanos) {
+      this.index = index;
+      this.startNanos = startNanos;
+      this.endNanos = endNanos;
+      this.taskCount = taskCount;
+      this.criticalTask = criticalTask;
+      this.maxSlackNanos = maxSlackNanos;
+      this.totalSlackNanos = totalSlackNanos;
+    }
+  }
+}
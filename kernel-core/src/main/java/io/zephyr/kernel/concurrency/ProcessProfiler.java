@@ -0,0 +1,63 @@
+package io.zephyr.kernel.concurrency;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * records the timing of every task in a process. Pass one to {@link
+ * TopologyAwareParallelScheduler#submit(Process, io.sunshower.gyre.Scope, TaskEventDispatcher)};
+ * once the process's tracker completes, {@link #getProfile()} has its critical path and slack
+ */
+@SuppressWarnings({"PMD.AvoidUsingVolatile", "PMD.DataflowAnomalyAnalysis"})
+public class ProcessProfiler<K> implements TaskEventDispatcher<K> {
+
+  /** the name of the process being profiled */
+  @Getter private final String name;
+
+  private final List<TaskPhaseEvent> tasks;
+  private volatile long started;
+  private volatile long completed;
+  private volatile boolean failed;
+
+  public ProcessProfiler(@NonNull String name) {
+    this.name = name;
+    this.tasks = Collections.synchronizedList(new ArrayList<>());
+  }
+
+  @Override
+  public void dispatch(TaskEventType type, TaskPhaseEvent event) {
+    if (type == TaskEvents.PROCESS_STARTING) {
+      started = System.nanoTime();
+    } else if (type == TaskEvents.TASK_COMPLETE || type == TaskEvents.TASK_ERROR) {
+      tasks.add(event);
+    } else if (type == TaskEvents.PROCESS_COMPLETE || type == TaskEvents.PROCESS_ERROR) {
+      failed = type == TaskEvents.PROCESS_ERROR;
+      completed = System.nanoTime();
+    }
+  }
+
+  /** @return true once the process has completed (or failed) */
+  public boolean isComplete() {
+    return completed != 0;
+  }
+
+  /** @return the profile of the tasks that have run so far */
+  public ProcessProfile getProfile() {
+    final List<TaskPhaseEvent> snapshot;
+    synchronized (tasks) {
+      snapshot = new ArrayList<>(tasks);
+    }
+    long origin = started;
+    for (val event : snapshot) {
+      if (origin == 0 || event.getSubmittedNanos() < origin) {
+        origin = event.getSubmittedNanos();
+      }
+    }
+    val end = completed == 0 ? System.nanoTime() : completed;
+    return new ProcessProfile(name, failed, origin, end, snapshot);
+  }
+}
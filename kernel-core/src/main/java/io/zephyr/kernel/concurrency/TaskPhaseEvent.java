@@ -1,3 +1,63 @@
 package io.zephyr.kernel.concurrency;
 
-public class TaskPhaseEvent {}
+import lombok.Getter;
+
+/**
+ * what happened to a task (or a stage, or a process). Task events carry the task and its timing;
+ * stage and process events carry only the stage
+ */
+@Getter
+@SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+public class TaskPhaseEvent {
+
+  /** the task. Null for stage and process events */
+  private final Task task;
+
+  /** the index of the stage the task ran in, or -1 for process events */
+  private final int stage;
+
+  /** the name of the thread that ran the task */
+  private final String worker;
+
+  /** when ({@link System#nanoTime()}) the task was handed to the worker pool */
+  private final long submittedNanos;
+
+  /** when the task started running */
+  private final long startedNanos;
+
+  /** when the task finished--for tasks that complete asynchronously, when their work finished */
+  private final long completedNanos;
+
+  public TaskPhaseEvent() {
+    this(-1);
+  }
+
+  public TaskPhaseEvent(int stage) {
+    this(null, stage, null, 0, 0, 0);
+  }
+
+  public TaskPhaseEvent(
+      Task task,
+      int stage,
+      String worker,
+      long submittedNanos,
+      long startedNanos,
+      long completedNanos) {
+    this.task = task;
+    this.stage = stage;
+    this.worker = worker;
+    this.submittedNanos = submittedNanos;
+    this.startedNanos = startedNanos;
+    this.completedNanos = completedNanos;
+  }
+
+  /** @return how long the task waited for a worker */
+  public long getQueuedNanos() {
+    return startedNanos - submittedNanos;
+  }
+
+  /** @return how long the task ran */
+  public long getElapsedNanos() {
+    return completedNanos - startedNanos;
+  }
+}
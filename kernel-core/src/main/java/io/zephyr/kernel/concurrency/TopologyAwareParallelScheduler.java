@@ -2,10 +2,17 @@ package io.zephyr.kernel.concurrency;
 
 import io.sunshower.gyre.DirectedGraph;
 import io.sunshower.gyre.Scope;
+import io.sunshower.gyre.TaskSet;
+import io.zephyr.kernel.jfr.ProcessExecutionEvent;
+import io.zephyr.kernel.jfr.TaskExecutionEvent;
 import io.zephyr.kernel.log.Logging;
 import io.zephyr.kernel.misc.SuppressFBWarnings;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import lombok.val;
@@ -32,48 +39,112 @@ public class TopologyAwareParallelScheduler<K> {
    * @return a task listener for the given process
    */
   public TaskTracker<K> submit(Process<K> process, Scope context) {
+    return submit(process, context, null);
+  }
+
+  /**
+   * this method does not block
+   *
+   * @param process process to submit
+   * @param context
+   * @param listener receives the process's task, stage and process events (e.g. a {@link
+   *     ProcessProfiler}). May be null
+   * @return a task listener for the given process
+   */
+  public TaskTracker<K> submit(Process<K> process, Scope context, TaskEventDispatcher<K> listener) {
     log.log(Level.INFO, "parallel.scheduler.schedulingtask", process);
-    val result = new StagedScheduleEnqueuer(process, context);
+    val result = new StagedScheduleEnqueuer(process, context, listener);
     workerPool.submitKernelAllocated(result);
     log.log(Level.INFO, "parallel.scheduler.scheduledtask", process);
     return result;
   }
 
+  /**
+   * runs a process stage by stage without blocking: each stage's last task submits the next stage.
+   * No pool thread ever waits on a stage, so concurrent processes can't exhaust the kernel pool
+   */
   final class StagedScheduleEnqueuer extends DefaultTaskEventDispatcher<K> implements Runnable {
 
     final Scope context;
     final Process<K> process;
-    final Object lock = new Object();
+    final Iterator<TaskSet<DirectedGraph.Edge<K>, Task>> stages;
+    final TaskEventDispatcher<K> listener;
 
-    public StagedScheduleEnqueuer(Process<K> process, Scope context) {
+    /** guarded by stage completion */
+    private int stage;
+
+    private ProcessExecutionEvent execution;
+
+    public StagedScheduleEnqueuer(
+        Process<K> process, Scope context, TaskEventDispatcher<K> listener) {
       this.context = context;
       this.process = process;
+      this.listener = listener;
+      this.stages = process.getTasks().iterator();
+    }
+
+    @Override
+    public void dispatch(TaskEventType type, TaskPhaseEvent taskPhaseEvent) {
+      if (listener != null) {
+        listener.dispatch(type, taskPhaseEvent);
+      }
     }
 
     @Override
     public void run() {
-      outer:
-      for (val taskSet : process.getTasks()) {
-
-        val latch = new NotifyingLatch<K>(this, taskSet.size());
-        val results = new ArrayList<Task>();
-        for (val task : taskSet.getTasks()) {
-          val ntask = new NotifyingTask<>(task, latch, context);
-          workerPool.submit(ntask);
-          results.add(task.getValue());
-        }
-        try {
-          latch.await();
-          for (val task : results) {
-            if (task.getState() == Task.State.Failed) {
-              log.log(Level.WARNING, "Task {0} failed--not continuing ", task.getName());
-              break outer;
-            }
+      execution = ProcessExecutionEvent.start(process.toString());
+      dispatch(TaskEvents.PROCESS_STARTING, new TaskPhaseEvent());
+      submitNextStage();
+    }
+
+    /** guarded by stage completion: only one stage is ever in flight */
+    private void submitNextStage() {
+      if (!stages.hasNext()) {
+        finish(false);
+        return;
+      }
+      val taskSet = stages.next();
+      val tasks = taskSet.getTasks();
+      val results = new ArrayList<Task>(tasks.size());
+      for (val task : tasks) {
+        results.add(task.getValue());
+      }
+      val latch =
+          new NotifyingLatch<K>(this, stage++, tasks.size(), () -> onStageComplete(results));
+      latch.start();
+      try {
+        for (val task : tasks) {
+          val notifyingTask =
+              new NotifyingTask<>(task, latch, context, workerPool.getKernelExecutor());
+          if (task.getValue() instanceof IoBound) {
+            workerPool.submitIoBound(notifyingTask);
+          } else {
+            workerPool.submit(notifyingTask);
           }
+        }
+      } catch (RejectedExecutionException ex) {
+        log.log(Level.WARNING, "Process {0} rejected by worker pool", process);
+        dispatch(TaskEvents.PROCESS_ERROR, new TaskPhaseEvent());
+        execution.complete(stage, true);
+        completeExceptionally(ex);
+      }
+    }
 
-        } catch (InterruptedException e) {
+    private void onStageComplete(List<Task> results) {
+      for (val task : results) {
+        if (task.getState() == Task.State.Failed) {
+          log.log(Level.WARNING, "Task {0} failed--not continuing ", task.getName());
+          finish(true);
+          return;
         }
       }
+      submitNextStage();
+    }
+
+    private void finish(boolean failed) {
+      execution.complete(stage, failed);
+      dispatch(
+          failed ? TaskEvents.PROCESS_ERROR : TaskEvents.PROCESS_COMPLETE, new TaskPhaseEvent());
       complete(null);
     }
   }
@@ -83,22 +154,45 @@ public class TopologyAwareParallelScheduler<K> {
     private final NotifyingLatch<K> latch;
     private final io.sunshower.gyre.Task<DirectedGraph.Edge<K>, Task> task;
 
+    /** runs the completion of tasks that finish asynchronously */
+    private final Executor continuations;
+
+    private final long submitted;
+    private volatile long started;
+    private volatile String worker;
+    private volatile TaskExecutionEvent execution;
+
     public NotifyingTask(
         io.sunshower.gyre.Task<DirectedGraph.Edge<K>, Task> task,
         NotifyingLatch<K> latch,
-        final Scope scope) {
+        final Scope scope,
+        Executor continuations) {
       this.task = task;
       this.latch = latch;
       this.scope = scope;
+      this.continuations = continuations;
+      this.submitted = System.nanoTime();
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public Object call() throws Exception {
+      boolean pending = false;
+      started = System.nanoTime();
+      worker = Thread.currentThread().getName();
+      execution =
+          TaskExecutionEvent.start(
+              task.getValue().getName(), task.getValue().getClass(), latch.stage);
       try {
-        latch.beforeTask();
+        latch.beforeTask(event(0));
         val result = task.getValue().run(this);
         if (result != null) {
+          if (result.completion != null) {
+            // release this task's slot in the stage when its work completes, not now--and don't
+            // hold this thread until then
+            pending = true;
+            result.completion.whenCompleteAsync(this::completed, continuations);
+          }
           return result.value;
         }
         return null;
@@ -116,11 +210,36 @@ public class TopologyAwareParallelScheduler<K> {
         }
         return null;
       } finally {
-        latch.decrement();
-        latch.afterTask();
+        if (!pending) {
+          finished();
+        }
+      }
+    }
+
+    private void completed(Object value, Throwable ex) {
+      try {
+        if (ex != null) {
+          task.getValue().setState(Task.State.Failed);
+          if (log.isLoggable(Level.INFO)) {
+            log.log(Level.INFO, "Error completing task " + task.getValue().getName(), ex);
+          }
+        }
+      } finally {
+        finished();
       }
     }
 
+    private void finished() {
+      execution.complete(started - submitted, task.getValue().getState() == Task.State.Failed);
+      latch.afterTask(event(System.nanoTime()));
+      latch.decrement();
+    }
+
+    private TaskPhaseEvent event(long completed) {
+      return new TaskPhaseEvent(
+          task.getValue(), latch.stage, worker, submitted, started, completed);
+    }
+
     @Override
     public <T> void set(String name, T value) {
       val tscope = task.getScope();
@@ -1,5 +1,6 @@
 package io.zephyr.kernel.concurrency;
 
+import io.zephyr.kernel.metrics.KernelMetrics;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -7,9 +8,45 @@ import java.util.concurrent.Future;
 @SuppressWarnings("PMD.DoNotUseThreads")
 public interface WorkerPool {
 
+  /** the worker pool implementations the kernel may be launched with */
+  enum Type {
+    /** thread-pool executors ({@link ExecutorWorkerPool}) */
+    Executor,
+
+    /** work-stealing pools ({@link ForkJoinWorkerPool}) */
+    ForkJoin
+  }
+
   ExecutorService getKernelExecutor();
 
   <T> Future<T> submit(Callable<T> value);
 
+  /**
+   * submit a task that mostly waits on I/O. Pools may admit these under a separate limit
+   *
+   * @param value the task
+   * @param <T> the type of the task's result
+   * @return the task's result
+   */
+  default <T> Future<T> submitIoBound(Callable<T> value) {
+    return submit(value);
+  }
+
   <K> void submitKernelAllocated(Runnable result);
+
+  /**
+   * publish this pool's sizing and admission metrics. Pools that have none ignore this
+   *
+   * @param metrics the kernel's metrics
+   */
+  default void exportMetrics(KernelMetrics metrics) {}
+
+  /** (re)start this pool after {@link #close()}. Called each time the kernel starts */
+  default void start() {}
+
+  /**
+   * release the threads this pool owns. Called each time the kernel stops: a stopped kernel may be
+   * started again, so a closed pool must be reopened by {@link #start()}
+   */
+  default void close() {}
 }
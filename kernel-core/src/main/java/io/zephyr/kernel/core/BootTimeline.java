@@ -0,0 +1,352 @@
+package io.zephyr.kernel.core;
+
+import io.zephyr.kernel.concurrency.TaskEventDispatcher;
+import io.zephyr.kernel.concurrency.TaskEvents;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * where the time went while the kernel booted: the kernel lifecycle's phases, restoring (hydrating)
+ * each plugin, and building each plugin's classloader and running its activator. Times are
+ * nanoseconds since the boot started.
+ *
+ * <p>The kernel writes each boot's timeline to {@link #FILE} once its plugins have started, and
+ * compares it with the previous boot's: phases that slowed down noticeably are logged as
+ * regressions
+ */
+@SuppressWarnings({
+  "PMD.AvoidUsingVolatile",
+  "PMD.AvoidInstantiatingObjectsInLoops",
+  "PMD.DataflowAnomalyAnalysis"
+})
+public final class BootTimeline {
+
+  /** where the most recent boot's timeline is kept, relative to the kernel filesystem */
+  public static final String FILE = "boot/timeline.tsv";
+
+  /** where the boot before that's timeline is kept */
+  public static final String PREVIOUS_FILE = "boot/timeline.previous.tsv";
+
+  /** a phase regressed if it took this many times as long as it did in the previous boot... */
+  static final double REGRESSION_RATIO = 1.25;
+
+  /** ...and at least this much longer, so that noise in millisecond-long phases isn't flagged */
+  static final long REGRESSION_MINIMUM_NANOS = TimeUnit.MILLISECONDS.toNanos(25);
+
+  static final String HEADER = "# zephyr boot timeline";
+
+  /** a span that records nothing */
+  static final Span NONE = new Span(null, null, null, 0);
+
+  /** when ({@link System#currentTimeMillis()}) the boot started */
+  @Getter private final long startedAt;
+
+  private final long origin;
+  private final List<Entry> entries;
+  private volatile long elapsedNanos;
+
+  public BootTimeline() {
+    this.startedAt = System.currentTimeMillis();
+    this.origin = System.nanoTime();
+    this.entries = new ArrayList<>();
+    this.elapsedNanos = -1;
+  }
+
+  private BootTimeline(long startedAt, long elapsedNanos, List<Entry> entries) {
+    this.startedAt = startedAt;
+    this.origin = 0;
+    this.elapsedNanos = elapsedNanos;
+    this.entries = entries;
+  }
+
+  /**
+   * @param kernel the kernel. May be any kernel
+   * @param phase the phase, e.g. <code>restore</code>
+   * @param name what's being timed within the phase
+   * @return a started span if the kernel is booting, or a span that records nothing
+   */
+  public static Span span(Kernel kernel, String phase, String name) {
+    if (kernel instanceof SunshowerKernel) {
+      val timeline = ((SunshowerKernel) kernel).getBootTimeline();
+      if (timeline != null) {
+        return timeline.span(phase, name);
+      }
+    }
+    return NONE;
+  }
+
+  /**
+   * @param phase the phase, e.g. <code>lifecycle</code>
+   * @param name what's being timed within the phase
+   * @return a started span. Close it to record it
+   */
+  public Span span(@NonNull String phase, @NonNull String name) {
+    return isComplete() ? NONE : new Span(this, phase, name, System.nanoTime());
+  }
+
+  /**
+   * @param phase the phase to record the process's tasks under
+   * @return a listener that records each task of a process as it finishes
+   */
+  public <K> TaskEventDispatcher<K> listener(@NonNull String phase) {
+    return (type, event) -> {
+      if ((type == TaskEvents.TASK_COMPLETE || type == TaskEvents.TASK_ERROR)
+          && event.getTask() != null) {
+        record(
+            phase, event.getTask().getName(), event.getStartedNanos(), event.getCompletedNanos());
+      }
+    };
+  }
+
+  /**
+   * @param phase the phase
+   * @param name what was timed
+   * @param start when ({@link System#nanoTime()}) it started
+   * @param end when it finished
+   */
+  public void record(String phase, String name, long start, long end) {
+    synchronized (entries) {
+      if (!isComplete()) {
+        entries.add(new Entry(phase, name, start - origin, end - origin));
+      }
+    }
+  }
+
+  /** @return true once the boot has finished. Nothing more is recorded after that */
+  public boolean isComplete() {
+    return elapsedNanos >= 0;
+  }
+
+  /** @return how long the boot took, or has taken so far */
+  public long getElapsedNanos() {
+    val elapsed = elapsedNanos;
+    return elapsed >= 0 ? elapsed : System.nanoTime() - origin;
+  }
+
+  /** @return everything recorded, ordered by start */
+  public List<Entry> getEntries() {
+    final List<Entry> result;
+    synchronized (entries) {
+      result = new ArrayList<>(entries);
+    }
+    result.sort(Comparator.comparingLong(Entry::getStartNanos));
+    return Collections.unmodifiableList(result);
+  }
+
+  /**
+   * finish the boot
+   *
+   * @return false if it had already finished
+   */
+  boolean complete() {
+    synchronized (entries) {
+      if (isComplete()) {
+        return false;
+      }
+      elapsedNanos = System.nanoTime() - origin;
+      return true;
+    }
+  }
+
+  /**
+   * @param previous the previous boot's timeline
+   * @return everything (including the boot as a whole) that took noticeably longer this time
+   */
+  public List<Regression> compareTo(@NonNull BootTimeline previous) {
+    val before = new HashMap<String, Long>();
+    for (val entry : previous.getEntries()) {
+      before.merge(entry.getKey(), entry.getElapsedNanos(), Long::sum);
+    }
+    val now = new HashMap<String, Long>();
+    val first = new LinkedHashMap<String, Entry>();
+    for (val entry : getEntries()) {
+      now.merge(entry.getKey(), entry.getElapsedNanos(), Long::sum);
+      first.putIfAbsent(entry.getKey(), entry);
+    }
+
+    val result = new ArrayList<Regression>();
+    if (regressed(previous.getElapsedNanos(), getElapsedNanos())) {
+      result.add(new Regression("boot", "total", previous.getElapsedNanos(), getElapsedNanos()));
+    }
+    for (val entry : first.values()) {
+      val earlier = before.get(entry.getKey());
+      val current = now.get(entry.getKey());
+      if (earlier != null && regressed(earlier, current)) {
+        result.add(new Regression(entry.phase, entry.name, earlier, current));
+      }
+    }
+    return result;
+  }
+
+  private static boolean regressed(long previous, long current) {
+    return current - previous >= REGRESSION_MINIMUM_NANOS && current >= previous * REGRESSION_RATIO;
+  }
+
+  /**
+   * write this timeline: a header line, then one tab-separated <code>
+   * phase name startNanos endNanos</code> line per entry
+   *
+   * @param outputStream the stream to write to
+   * @throws IOException if it can't be written
+   */
+  public void write(OutputStream outputStream) throws IOException {
+    val all = getEntries();
+    val result = new StringBuilder(64 + 96 * all.size());
+    result
+        .append(HEADER)
+        .append('\t')
+        .append(startedAt)
+        .append('\t')
+        .append(getElapsedNanos())
+        .append('\n');
+    for (val entry : all) {
+      result
+          .append(clean(entry.phase))
+          .append('\t')
+          .append(clean(entry.name))
+          .append('\t')
+          .append(entry.startNanos)
+          .append('\t')
+          .append(entry.endNanos)
+          .append('\n');
+    }
+    outputStream.write(result.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @param content a timeline written by {@link #write(OutputStream)}
+   * @return the timeline
+   * @throws IOException if it isn't a timeline
+   */
+  public static BootTimeline read(byte[] content) throws IOException {
+    val lines = new String(content, StandardCharsets.UTF_8).split("\r?\n");
+    val header = lines[0].split("\t");
+    if (header.length != 3 || !HEADER.equals(header[0])) {
+      throw new IOException("Error: not a boot timeline");
+    }
+    try {
+      val entries = new ArrayList<Entry>(lines.length - 1);
+      for (int i = 1; i < lines.length; i++) {
+        val fields = lines[i].split("\t");
+        if (fields.length == 4) {
+          entries.add(
+              new Entry(
+                  fields[0], fields[1], Long.parseLong(fields[2]), Long.parseLong(fields[3])));
+        }
+      }
+      return new BootTimeline(Long.parseLong(header[1]), Long.parseLong(header[2]), entries);
+    } catch (NumberFormatException ex) {
+      throw new IOException("Error: malformed boot timeline", ex);
+    }
+  }
+
+  private static String clean(String value) {
+    return value.replace('\t', ' ').replace('\n', ' ');
+  }
+
+  @Override
+  public String toString() {
+    val result =
+        new StringBuilder()
+            .append(
+                String.format(
+                    "boot at %tF %<tT: %d ms%s%n",
+                    startedAt,
+                    TimeUnit.NANOSECONDS.toMillis(getElapsedNanos()),
+                    isComplete() ? "" : " (in progress)"));
+    for (val entry : getEntries()) {
+      result.append(
+          String.format(
+              "  %8d ms %8d ms  %-10s %s%n",
+              TimeUnit.NANOSECONDS.toMillis(entry.startNanos),
+              TimeUnit.NANOSECONDS.toMillis(entry.getElapsedNanos()),
+              entry.phase,
+              entry.name));
+    }
+    return result.toString();
+  }
+
+  /** a timed piece of the boot. Times are relative to the start of the boot */
+  @Getter
+  public static final class Entry {
+    private final String phase;
+    private final String name;
+    private final long startNanos;
+    private final long endNanos;
+
+    Entry(String phase, String name, long startNanos, long endNanos) {
+      this.phase = phase;
+      this.name = name;
+      this.startNanos = startNanos;
+      this.endNanos = endNanos;
+    }
+
+    /** @return how long it took */
+    public long getElapsedNanos() {
+      return endNanos - startNanos;
+    }
+
+    String getKey() {
+      return phase + '\t' + name;
+    }
+  }
+
+  /** something that took noticeably longer than it did in the previous boot */
+  @Getter
+  public static final class Regression {
+    private final String phase;
+    private final String name;
+    private final long previousNanos;
+    private final long currentNanos;
+
+    Regression(String phase, String name, long previousNanos, long currentNanos) {
+      this.phase = phase;
+      this.name = name;
+      this.previousNanos = previousNanos;
+      this.currentNanos = currentNanos;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%s %s: %d ms -> %d ms",
+          phase,
+          name,
+          TimeUnit.NANOSECONDS.toMillis(previousNanos),
+          TimeUnit.NANOSECONDS.toMillis(currentNanos));
+    }
+  }
+
+  /** a running span. Closing it records it */
+  public static final class Span implements AutoCloseable {
+    private final BootTimeline timeline;
+    private final String phase;
+    private final String name;
+    private final long start;
+
+    Span(BootTimeline timeline, String phase, String name, long start) {
+      this.timeline = timeline;
+      this.phase = phase;
+      this.name = name;
+      this.start = start;
+    }
+
+    @Override
+    public void close() {
+      if (timeline != null) {
+        timeline.record(phase, name, start, System.nanoTime());
+      }
+    }
+  }
+}
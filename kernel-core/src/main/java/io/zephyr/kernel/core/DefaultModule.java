@@ -16,6 +16,7 @@ import java.nio.file.Path;
 import java.util.LinkedHashSet;
 import java.util.ServiceLoader;
 import java.util.Set;
+import lombok.NonNull;
 import lombok.SneakyThrows;
 import lombok.val;
 
@@ -30,6 +31,7 @@ public final class DefaultModule extends AbstractModule
     implements Module, Comparable<Module>, Originator {
   private int order;
   private Type type;
+  private Activation activation = Activation.Eager;
 
   private Kernel kernel;
   private Source source;
@@ -127,6 +129,15 @@ public final class DefaultModule extends AbstractModule
     this.type = type;
   }
 
+  @Override
+  public Activation getActivation() {
+    return activation;
+  }
+
+  public void setActivation(@NonNull Activation activation) {
+    this.activation = activation;
+  }
+
   @Override
   public Source getSource() {
     return source;
@@ -267,6 +278,9 @@ public final class DefaultModule extends AbstractModule
   public void restore(Memento memento) {
     this.order = Integer.parseInt(memento.read("order", String.class));
     this.type = Type.parse(memento.read("type", String.class));
+    val activationPolicy = memento.read("activation", String.class);
+    this.activation =
+        activationPolicy == null ? Activation.Eager : Activation.parse(activationPolicy);
     this.source = new ModuleSource(URI.create(memento.read("source", String.class)));
 
     readCoordinate(memento);
@@ -283,6 +297,7 @@ public final class DefaultModule extends AbstractModule
 
     result.write("order", order);
     result.write("type", type);
+    result.write("activation", activation);
     result.write("source", source.getLocation());
     writeCoordinate(result, coordinate);
     writeAssembly(result);
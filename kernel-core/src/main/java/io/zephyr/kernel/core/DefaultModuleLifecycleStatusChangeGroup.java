@@ -8,6 +8,7 @@ import io.zephyr.kernel.concurrency.Task;
 import io.zephyr.kernel.core.actions.plugin.PluginRemoveTask;
 import io.zephyr.kernel.core.actions.plugin.PluginStartTask;
 import io.zephyr.kernel.core.actions.plugin.PluginStopTask;
+import io.zephyr.kernel.dependencies.DefaultDependencyGraph;
 import io.zephyr.kernel.module.*;
 import java.util.*;
 import java.util.concurrent.CompletionStage;
@@ -45,6 +46,16 @@ final class DefaultModuleLifecycleStatusChangeGroup implements ModuleLifecycleSt
     val taskGraph = new TaskGraph<String>();
     val tasks = new HashMap<Coordinate, Task>();
 
+    val dependencyGraph = moduleManager.getDependencyGraph();
+    if (dependencyGraph instanceof DefaultDependencyGraph) {
+      val schedule =
+          planInBulk(request, (DefaultDependencyGraph) dependencyGraph, taskGraph, tasks);
+      return schedule == null
+          ? new DefaultProcess<>("module:lifecycle:change", true, true, Scope.root(), taskGraph)
+          : new DefaultProcess<>(
+              "module:lifecycle:change", true, true, Scope.root(), taskGraph, schedule);
+    }
+
     for (val task : request.getRequests()) {
       val actions = task.getLifecycleActions();
       if (actions.isAtLeast(ModuleLifecycle.Actions.Stop)) {
@@ -80,34 +91,190 @@ final class DefaultModuleLifecycleStatusChangeGroup implements ModuleLifecycleSt
 
   private void addStopAction(
       ModuleLifecycleChangeRequest task, TaskGraph<String> tasks, Map<Coordinate, Task> existing) {
-    val reachability =
-        new ReverseSubgraphTransformation<DirectedGraph.Edge<Coordinate>, Coordinate>(
-                task.getCoordinate())
-            .apply(moduleManager.getDependencyGraph().getGraph());
-    addAction(reachability, task, tasks, existing, (t, u, v) -> this.pluginStopTask(t, u));
+    addAction(
+        schedule(task.getCoordinate(), DefaultDependencyGraph.Direction.Dependents),
+        task,
+        tasks,
+        existing,
+        (t, u, v) -> this.pluginStopTask(t, u));
   }
 
   private void addStartAction(
       ModuleLifecycleChangeRequest task, TaskGraph<String> tasks, Map<Coordinate, Task> existing) {
+    addAction(
+        schedule(task.getCoordinate(), DefaultDependencyGraph.Direction.Dependencies),
+        task,
+        tasks,
+        existing,
+        this::pluginStartTask);
+  }
 
+  private Schedule<DirectedGraph.Edge<Coordinate>, Coordinate> schedule(
+      Coordinate coordinate, DefaultDependencyGraph.Direction direction) {
+    val graph = moduleManager.getDependencyGraph().getGraph();
     val reachability =
-        new SubgraphTransformation<DirectedGraph.Edge<Coordinate>, Coordinate>(task.getCoordinate())
-            .apply(moduleManager.getDependencyGraph().getGraph());
-    addAction(reachability, task, tasks, existing, this::pluginStartTask);
+        direction == DefaultDependencyGraph.Direction.Dependencies
+            ? new SubgraphTransformation<DirectedGraph.Edge<Coordinate>, Coordinate>(coordinate)
+                .apply(graph)
+            : new ReverseSubgraphTransformation<DirectedGraph.Edge<Coordinate>, Coordinate>(
+                    coordinate)
+                .apply(graph);
+    return new ParallelScheduler<DirectedGraph.Edge<Coordinate>, Coordinate>().apply(reachability);
+  }
+
+  /**
+   * plan every request in the group at once: one (memoized) schedule over all the roots of each
+   * kind, and one task per module in it, connected along the dependency graph's own edges. This is
+   * linear in the size of the affected subgraph instead of in requests &times; graph.
+   *
+   * <p>A group that only starts, or only stops (and removes), runs straight off the memoized
+   * schedule's stages, so planning the same change against an unchanged graph never reschedules. A
+   * group that mixes the two is scheduled from its task graph
+   *
+   * @return the group's stages, or null if the task graph must be scheduled
+   */
+  private PlannedSchedule<String> planInBulk(
+      ModuleLifecycleChangeGroup request,
+      DefaultDependencyGraph graph,
+      TaskGraph<String> taskGraph,
+      Map<Coordinate, Task> tasks) {
+    val stops = new LinkedHashSet<Coordinate>();
+    val starts = new LinkedHashSet<Coordinate>();
+    boolean delete = false;
+    for (val task : request.getRequests()) {
+      val actions = task.getLifecycleActions();
+      if (actions.isAtLeast(ModuleLifecycle.Actions.Stop)) {
+        stops.add(task.getCoordinate());
+      } else if (actions == ModuleLifecycle.Actions.Activate) {
+        starts.add(task.getCoordinate());
+      }
+      delete |= actions.isAtLeast(ModuleLifecycle.Actions.Delete);
+    }
+
+    val schedule = stops.isEmpty() || starts.isEmpty() ? new PlannedSchedule<String>() : null;
+    val stopTasks = new HashMap<Coordinate, Task>();
+    val stopStages = new HashMap<Coordinate, Integer>();
+    if (!stops.isEmpty()) {
+      plan(
+          graph,
+          stops,
+          DefaultDependencyGraph.Direction.Dependents,
+          taskGraph,
+          stopTasks,
+          (t, u, v) -> this.pluginStopTask(t, u),
+          schedule,
+          stopStages);
+      tasks.putAll(stopTasks);
+    }
+    if (!starts.isEmpty()) {
+      plan(
+          graph,
+          starts,
+          DefaultDependencyGraph.Direction.Dependencies,
+          taskGraph,
+          tasks,
+          this::pluginStartTask,
+          schedule,
+          new HashMap<>());
+    }
+    if (delete) {
+      for (val stopTask : stopTasks.entrySet()) {
+        val removeTask =
+            new PluginRemoveTask("plugin:remove:" + stopTask.getKey().toCanonicalForm(), kernel);
+        taskGraph.connect(removeTask, stopTask.getValue(), DirectedGraph.incoming("remove"));
+        if (schedule != null) {
+          // a module is removed as soon as it's stopped--it reads its coordinate from the stop
+          schedule.add(
+              stopStages.get(stopTask.getKey()) + 1,
+              removeTask,
+              Collections.singleton(stopTask.getValue()));
+        }
+      }
+    }
+    return schedule;
+  }
+
+  /**
+   * @param schedule if not null, receives each task in its stage. Schedules are computed over
+   *     dependency edges, so they start dependencies first: stopping walks them backwards
+   * @param stages receives each planned module's stage
+   */
+  private void plan(
+      DefaultDependencyGraph graph,
+      Set<Coordinate> roots,
+      DefaultDependencyGraph.Direction direction,
+      TaskGraph<String> taskGraph,
+      Map<Coordinate, Task> tasks,
+      TernaryFunction<Coordinate, ModuleManager, Kernel, Task> ctor,
+      PlannedSchedule<String> schedule,
+      Map<Coordinate, Integer> stages) {
+    val memoized = graph.getSchedule(roots, direction);
+    val ordered =
+        direction == DefaultDependencyGraph.Direction.Dependencies ? memoized : memoized.reverse();
+    val planned = new ArrayList<Coordinate>();
+    int index = 0;
+    for (val stage : ordered) {
+      for (val node : stage.getTasks()) {
+        val coordinate = node.getValue();
+        planned.add(coordinate);
+        stages.put(coordinate, index);
+        if (!tasks.containsKey(coordinate)) {
+          val task = ctor.apply(coordinate, moduleManager, kernel);
+          taskGraph.add(task);
+          tasks.put(coordinate, task);
+        }
+      }
+      index++;
+    }
+
+    // starting waits on dependencies; stopping waits on dependents
+    for (val coordinate : planned) {
+      val task = tasks.get(coordinate);
+      val predecessors = new ArrayList<Task>();
+      for (val prerequisite : prerequisites(graph, coordinate, direction)) {
+        val prerequisiteTask = tasks.get(prerequisite);
+        if (prerequisiteTask != null && prerequisiteTask != task) {
+          predecessors.add(prerequisiteTask);
+          if (!taskGraph.containsEdge(task, prerequisiteTask)) {
+            taskGraph.connect(
+                task,
+                prerequisiteTask,
+                DirectedGraph.incoming(
+                    coordinate.toCanonicalForm()
+                        + " depends-on "
+                        + prerequisite.toCanonicalForm()));
+          }
+        }
+      }
+      if (schedule != null) {
+        schedule.add(stages.get(coordinate), task, predecessors);
+      }
+    }
+  }
+
+  private static Collection<Coordinate> prerequisites(
+      DefaultDependencyGraph graph,
+      Coordinate coordinate,
+      DefaultDependencyGraph.Direction direction) {
+    if (direction == DefaultDependencyGraph.Direction.Dependencies) {
+      return graph.getGraph().neighbors(coordinate);
+    }
+    val dependents = new ArrayList<Coordinate>();
+    for (val dependent : graph.getDependents(coordinate)) {
+      if (dependent != null) {
+        dependents.add(dependent.getCoordinate());
+      }
+    }
+    return dependents;
   }
 
   private void addAction(
-      Graph<DirectedGraph.Edge<Coordinate>, Coordinate> reachability,
+      Schedule<DirectedGraph.Edge<Coordinate>, Coordinate> schedule,
       ModuleLifecycleChangeRequest task,
       TaskGraph<String> tasks,
       Map<Coordinate, Task> existing,
       TernaryFunction<Coordinate, ModuleManager, Kernel, Task> ctor) {
 
-    val schedule =
-        new ParallelScheduler<DirectedGraph.Edge<Coordinate>, Coordinate>()
-            .apply(reachability)
-            .getTasks();
-
     Task source;
     if (!existing.containsKey(task.getCoordinate())) {
       source = ctor.apply(task.getCoordinate(), moduleManager, kernel);
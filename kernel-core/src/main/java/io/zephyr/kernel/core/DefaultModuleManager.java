@@ -3,6 +3,7 @@ package io.zephyr.kernel.core;
 import io.zephyr.kernel.Coordinate;
 import io.zephyr.kernel.Lifecycle;
 import io.zephyr.kernel.Module;
+import io.zephyr.kernel.dependencies.DefaultDependencyGraph;
 import io.zephyr.kernel.dependencies.DependencyGraph;
 import io.zephyr.kernel.events.EventSource;
 import io.zephyr.kernel.log.Logging;
@@ -10,11 +11,14 @@ import io.zephyr.kernel.module.ModuleInstallationGroup;
 import io.zephyr.kernel.module.ModuleInstallationStatusGroup;
 import io.zephyr.kernel.module.ModuleLifecycleChangeGroup;
 import io.zephyr.kernel.module.ModuleLifecycleStatusGroup;
+import io.zephyr.kernel.module.ModuleStateIndex;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.inject.Inject;
+import lombok.Getter;
 import lombok.experimental.Delegate;
 import lombok.val;
 
@@ -31,9 +35,20 @@ public class DefaultModuleManager implements ModuleManager, EventSource {
   @Delegate private Kernel kernel;
   final DependencyGraph dependencyGraph;
 
+  /** null if the dependency graph doesn't maintain one */
+  final ModuleStateIndex stateIndex;
+
+  /** lazily-activated modules that have been started but not yet used */
+  @Getter final DeferredActivations deferredActivations;
+
   @Inject
   public DefaultModuleManager(DependencyGraph graph) {
     this.dependencyGraph = graph;
+    this.stateIndex =
+        graph instanceof DefaultDependencyGraph
+            ? ((DefaultDependencyGraph) graph).getStateIndex()
+            : null;
+    this.deferredActivations = new DeferredActivations();
   }
 
   @Override
@@ -77,6 +92,9 @@ public class DefaultModuleManager implements ModuleManager, EventSource {
 
   @Override
   public List<Module> getModules(Lifecycle.State state) {
+    if (stateIndex != null) {
+      return stateIndex.getModules(state);
+    }
     val results = new ArrayList<Module>();
     for (val module : dependencyGraph) {
       if (module.getLifecycle().getState() == state) {
@@ -86,6 +104,25 @@ public class DefaultModuleManager implements ModuleManager, EventSource {
     return results;
   }
 
+  @Override
+  public List<Module> getModules(Predicate<Module> filter) {
+    if (stateIndex != null) {
+      return stateIndex.getModules(filter);
+    }
+    val results = new ArrayList<Module>();
+    for (val module : getModules()) {
+      if (filter.test(module)) {
+        results.add(module);
+      }
+    }
+    return results;
+  }
+
+  @Override
+  public void activateDeferred(Coordinate coordinate) {
+    deferredActivations.activate(coordinate);
+  }
+
   @Override
   public void initialize(Kernel kernel) {
     if (log.isLoggable(Level.INFO)) {
@@ -10,6 +10,7 @@ import io.zephyr.kernel.concurrency.AsynchronousServiceTracker;
 import io.zephyr.kernel.concurrency.ModuleThread;
 import io.zephyr.kernel.extensions.ExpressionLanguageExtension;
 import io.zephyr.kernel.log.Logging;
+import io.zephyr.kernel.metrics.ModuleUsage;
 import io.zephyr.kernel.service.DefaultServiceDefinition;
 import java.util.ArrayList;
 import java.util.List;
@@ -91,7 +92,18 @@ public class DefaultPluginContext implements ModuleContext {
 
   @Override
   public List<Module> getModules(Predicate<Module> filter) {
-    return kernel.getModuleManager().getModules();
+    return kernel.getModuleManager().getModules(filter);
+  }
+
+  @Override
+  public ModuleUsage getUsage() {
+    val queue = module.getTaskQueue();
+    return queue instanceof ModuleThread ? ((ModuleThread) queue).getUsage() : null;
+  }
+
+  @Override
+  public List<ModuleUsage> getModuleUsage() {
+    return kernel.getModuleUsage();
   }
 
   @Override
@@ -113,6 +125,7 @@ public class DefaultPluginContext implements ModuleContext {
 
   @Override
   public ServiceTracker trackServices(Predicate<ServiceReference<?>> filter) {
+    activateDependencies();
     return new AsynchronousServiceTracker(kernel, module, module.getTaskQueue(), filter);
   }
 
@@ -144,6 +157,7 @@ public class DefaultPluginContext implements ModuleContext {
   @Override
   @SuppressWarnings({"unchecked", "PMD.DataflowAnomalyAnalysis"})
   public <T> List<ServiceReference<T>> getReferences(Class<T> type) {
+    activateDependencies();
     synchronized (lock) {
       val moduleManager = kernel.getModuleManager();
       val serviceRegistry = kernel.getServiceRegistry();
@@ -165,6 +179,7 @@ public class DefaultPluginContext implements ModuleContext {
   @Override
   @SuppressWarnings({"PMD.DataflowAnomalyAnalysis"})
   public List<ServiceReference<?>> getReferences(Query<ServiceDefinition<?>> query) {
+    activateDependencies();
     synchronized (lock) {
       val predicate = createFilter(query);
       val moduleManager = kernel.getModuleManager();
@@ -182,6 +197,17 @@ public class DefaultPluginContext implements ModuleContext {
     }
   }
 
+  /**
+   * a service lookup is the first use of any lazily-activated modules we depend on. Lazy modules we
+   * don't depend on stay deferred: which services they provide isn't known until they're activated
+   */
+  private void activateDependencies() {
+    val moduleManager = kernel.getModuleManager();
+    for (val dependency : module.getDependencies()) {
+      moduleManager.activateDeferred(dependency.getCoordinate());
+    }
+  }
+
   private <T> ExpressionLanguageExtension resolveModuleExpressionLanguageExtension(Query<T> query) {
     if (log.isLoggable(Level.FINE)) {
       log.log(Level.FINE, "el.locating.evaluator.modules");
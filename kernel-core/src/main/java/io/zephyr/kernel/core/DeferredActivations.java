@@ -0,0 +1,150 @@
+package io.zephyr.kernel.core;
+
+import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.Lifecycle;
+import io.zephyr.kernel.Module;
+import io.zephyr.kernel.concurrency.ModuleThread;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * tracks lazily-activated modules that have been started but not yet used. A deferred module is
+ * resolved, has its module loader installed and sits in the <code>Starting</code> state until the
+ * first call to {@link #activate(Coordinate)}, which starts its module thread (and so runs its
+ * activator). Concurrent callers block until that activation completes
+ */
+@SuppressWarnings({"PMD.DoNotUseThreads", "PMD.AvoidSynchronizedAtMethodLevel"})
+public final class DeferredActivations {
+
+  static final Logger log = Logger.getLogger(DeferredActivations.class.getName());
+
+  private final ConcurrentMap<Coordinate, Deferred> pending;
+
+  public DeferredActivations() {
+    pending = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * prepare a module for activation without activating it
+   *
+   * @param module the (lazy) module to defer
+   * @param kernel the kernel the module is running in
+   */
+  public void defer(@NonNull Module module, @NonNull Kernel kernel) {
+    val coordinate = module.getCoordinate();
+    kernel.getModuleManager().getModuleLoader().check(module);
+    if (pending.putIfAbsent(coordinate, new Deferred(module, kernel)) == null) {
+      module.getLifecycle().setState(Lifecycle.State.Starting);
+      log.log(Level.FINE, "deferring activation of {0} until first use", coordinate);
+    }
+  }
+
+  /**
+   * activate a deferred module (after activating any deferred modules it depends on). Does nothing
+   * if the module isn't deferred
+   *
+   * @param coordinate the module to activate
+   */
+  public void activate(@NonNull Coordinate coordinate) {
+    val deferred = pending.get(coordinate);
+    if (deferred != null) {
+      deferred.activate();
+    }
+  }
+
+  /**
+   * stop tracking a deferred module that hasn't been activated yet, returning it to <code>Resolved
+   * </code>
+   *
+   * @param coordinate the module
+   * @return true if the module was deferred and had not been activated
+   */
+  public boolean cancel(@NonNull Coordinate coordinate) {
+    val deferred = pending.remove(coordinate);
+    return deferred != null && deferred.cancel();
+  }
+
+  /**
+   * @param coordinate the module to check
+   * @return true if the module's activation is still deferred
+   */
+  public boolean isDeferred(@NonNull Coordinate coordinate) {
+    return pending.containsKey(coordinate);
+  }
+
+  /** @return the modules whose activation is currently deferred */
+  public Set<Coordinate> getDeferred() {
+    return Collections.unmodifiableSet(new LinkedHashSet<>(pending.keySet()));
+  }
+
+  final class Deferred {
+    final Module module;
+    final Kernel kernel;
+    final CompletableFuture<Void> done;
+
+    /** guarded by this */
+    private ModuleThread thread;
+
+    private boolean cancelled;
+
+    Deferred(Module module, Kernel kernel) {
+      this.module = module;
+      this.kernel = kernel;
+      this.done = new CompletableFuture<>();
+    }
+
+    synchronized boolean cancel() {
+      cancelled = true;
+      if (thread == null) {
+        module.getLifecycle().setState(Lifecycle.State.Resolved);
+        done.complete(null);
+        return true;
+      }
+      return false;
+    }
+
+    void activate() {
+      final ModuleThread existing;
+      final ModuleThread created;
+      synchronized (this) {
+        if (cancelled) {
+          return;
+        }
+        existing = thread;
+        if (existing == null) {
+          thread = new ModuleThread(module, kernel);
+        }
+        created = thread;
+      }
+
+      if (existing != null) {
+        // the module's own activator may trigger this--it must not wait on itself
+        if (!existing.isCurrentThread()) {
+          done.join();
+        }
+        return;
+      }
+
+      val coordinate = module.getCoordinate();
+      try {
+        log.log(Level.FINE, "activating deferred module {0}", coordinate);
+        for (val dependency : module.getDependencies()) {
+          DeferredActivations.this.activate(dependency.getCoordinate());
+        }
+        ((AbstractModule) module).setTaskQueue(created);
+        created.start();
+      } finally {
+        pending.remove(coordinate, this);
+        done.complete(null);
+      }
+    }
+  }
+}
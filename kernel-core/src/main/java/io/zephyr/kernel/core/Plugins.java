@@ -5,7 +5,6 @@ import io.sunshower.gyre.DirectedGraph;
 import io.sunshower.gyre.Pair;
 import io.sunshower.gyre.Scope;
 import io.zephyr.api.ModuleEvents;
-import io.zephyr.common.io.Files;
 import io.zephyr.kernel.Coordinate;
 import io.zephyr.kernel.Lifecycle;
 import io.zephyr.kernel.Module;
@@ -22,6 +21,8 @@ import java.net.URI;
 import java.nio.file.*;
 import java.nio.file.spi.FileSystemProvider;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -295,16 +296,34 @@ public class Plugins {
     }
   }
 
+  /**
+   * submits every descriptor to the kernel's persistence writer so that they're committed as a
+   * group, then waits for the group to become durable
+   */
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
   private static void saveAll(SunshowerKernel kernel, Set<Module> installedPlugins) {
+    val writer = kernel.getPersistenceWriter();
+    val writes = new ArrayList<CompletableFuture<Path>>(installedPlugins.size());
     for (val plugin : installedPlugins) {
       val pfs = plugin.getFileSystem();
       try {
         val pmemento = plugin.save();
-        Files.tryWrite(pmemento.locate("plugin", pfs), pmemento);
-
+        writes.add(writer.replace(pmemento.locate("plugin", pfs), pmemento));
       } catch (Exception e) {
         log.log(Level.WARNING, "failed to write descriptor", e);
       }
     }
+
+    for (val write : writes) {
+      try {
+        write.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        log.log(Level.WARNING, "interrupted while writing descriptors", e);
+        return;
+      } catch (ExecutionException e) {
+        log.log(Level.WARNING, "failed to write descriptor", e.getCause());
+      }
+    }
   }
 }
@@ -2,7 +2,7 @@ package io.zephyr.kernel.core;
 
 import io.zephyr.api.ModuleContext;
 import io.zephyr.api.ServiceRegistry;
-import io.zephyr.common.io.Files;
+import io.zephyr.common.io.GroupCommitWriter;
 import io.zephyr.kernel.*;
 import io.zephyr.kernel.Module;
 import io.zephyr.kernel.classloading.KernelClassloader;
@@ -13,19 +13,25 @@ import io.zephyr.kernel.core.actions.WritePluginDescriptorPhase;
 import io.zephyr.kernel.core.lifecycle.DefaultKernelLifecycle;
 import io.zephyr.kernel.events.*;
 import io.zephyr.kernel.events.EventListener;
+import io.zephyr.kernel.jfr.ZephyrEvents;
 import io.zephyr.kernel.launch.KernelOptions;
 import io.zephyr.kernel.log.Logging;
 import io.zephyr.kernel.memento.Memento;
 import io.zephyr.kernel.memento.MementoProvider;
 import io.zephyr.kernel.memento.Mementos;
+import io.zephyr.kernel.metrics.JmxMetricsExporter;
+import io.zephyr.kernel.metrics.KernelMetrics;
+import io.zephyr.kernel.metrics.ModuleUsage;
 import io.zephyr.kernel.module.ModuleLifecycle;
 import io.zephyr.kernel.module.ModuleLifecycleChangeGroup;
 import io.zephyr.kernel.module.ModuleLifecycleChangeRequest;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.nio.file.*;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.inject.Inject;
@@ -44,6 +50,9 @@ public class SunshowerKernel implements Kernel, EventSource {
   /** class fields */
   private static KernelOptions kernelOptions;
 
+  /** numbers the kernels in this VM, to keep their JMX metrics apart */
+  private static final AtomicInteger instances = new AtomicInteger();
+
   /** @return the kernel options used to start this instance. */
   @NonNull
   public static KernelOptions getKernelOptions() {
@@ -53,6 +62,11 @@ public class SunshowerKernel implements Kernel, EventSource {
     return kernelOptions;
   }
 
+  /** @return true if kernel options have been set */
+  public static boolean hasKernelOptions() {
+    return kernelOptions != null;
+  }
+
   final VolatileStorage storage;
 
   /** Instance fields */
@@ -62,10 +76,22 @@ public class SunshowerKernel implements Kernel, EventSource {
   private final Scheduler<String> scheduler;
   private final ServiceRegistry serviceRegistry;
   private final AsynchronousEventSource eventDispatcher;
+  private final KernelMetrics metrics;
+  private final String instance;
+  private volatile JmxMetricsExporter metricsExporter;
+
+  /** the current (or most recent) boot's timeline. Null until the kernel first starts */
+  @Getter private volatile BootTimeline bootTimeline;
 
   /** accessable fields */
   @Getter private final ModuleManager moduleManager;
 
+  /**
+   * batches descriptor, module-list and kernel-state writes into group commits. Closed when the
+   * kernel stops, and replaced when it starts again
+   */
+  @Getter private volatile GroupCommitWriter persistenceWriter;
+
   @Setter private ModuleClasspathManager moduleClasspathManager;
 
   /** mutable fields */
@@ -82,7 +108,11 @@ public class SunshowerKernel implements Kernel, EventSource {
     this.moduleManager = moduleManager;
     this.storage = new ConcurrentVolatileStorage();
     this.lifecycle = new DefaultKernelLifecycle(this, scheduler, parentClassloader);
-    this.eventDispatcher = new AsynchronousEventSource(scheduler.getKernelExecutor());
+    this.metrics = KernelMetrics.load(parentClassloader, SunshowerKernel.class.getClassLoader());
+    this.eventDispatcher = new AsynchronousEventSource(scheduler::getKernelExecutor, metrics);
+    scheduler.exportMetrics(metrics);
+    this.persistenceWriter = createPersistenceWriter();
+    this.instance = String.valueOf(instances.getAndIncrement());
   }
 
   public SunshowerKernel(
@@ -94,6 +124,17 @@ public class SunshowerKernel implements Kernel, EventSource {
     kernelOptions = options;
   }
 
+  private static GroupCommitWriter createPersistenceWriter() {
+    val options = kernelOptions;
+    if (options == null || options.getMaxCommitLatency() == null) {
+      return new GroupCommitWriter();
+    }
+    return new GroupCommitWriter(
+        options.getMaxCommitLatency(),
+        TimeUnit.MILLISECONDS,
+        GroupCommitWriter.DEFAULT_CONCURRENCY);
+  }
+
   @Override
   public VolatileStorage getVolatileStorage() {
     return storage;
@@ -144,9 +185,22 @@ public class SunshowerKernel implements Kernel, EventSource {
   @Override
   @SneakyThrows
   public void start() {
-    serviceRegistry.initialize(this);
-    eventDispatcher.start();
-    lifecycle.start().toCompletableFuture().get();
+    val timeline = new BootTimeline();
+    bootTimeline = timeline;
+    val span = timeline.span("kernel", "start");
+    try {
+      scheduler.start(); // reopens its pools if we've been stopped
+      if (persistenceWriter.isClosed()) {
+        persistenceWriter = createPersistenceWriter();
+      }
+      ZephyrEvents.register();
+      exportMetrics();
+      serviceRegistry.initialize(this);
+      eventDispatcher.start();
+      lifecycle.start().toCompletableFuture().get();
+    } finally {
+      span.close();
+    }
   }
 
   @Override
@@ -160,8 +214,47 @@ public class SunshowerKernel implements Kernel, EventSource {
   public void stop() {
     eventDispatcher.stop();
     lifecycle.stop().toCompletableFuture().get();
+    persistenceWriter.close(); // commits everything written up to and during shutdown
     serviceRegistry.close();
     storage.clear();
+    val timeline = bootTimeline;
+    if (timeline != null) {
+      timeline.complete(); // stopped before its plugins were restored: nothing to compare
+    }
+    val exporter = metricsExporter;
+    if (exporter != null) {
+      metricsExporter = null;
+      exporter.close();
+    }
+    scheduler.stop();
+  }
+
+  @Override
+  public KernelMetrics getMetrics() {
+    return metrics;
+  }
+
+  @Override
+  public List<ModuleUsage> getModuleUsage() {
+    val modules = moduleManager.getModules();
+    val result = new ArrayList<ModuleUsage>(modules.size());
+    for (val module : modules) {
+      val queue = module.getTaskQueue();
+      if (queue instanceof ModuleThread) {
+        result.add(((ModuleThread) queue).getUsage());
+      }
+    }
+    return result;
+  }
+
+  private void exportMetrics() {
+    if (metricsExporter != null || kernelOptions != null && kernelOptions.isJmxMetricsDisabled()) {
+      return;
+    }
+    val exporter =
+        new JmxMetricsExporter(metrics, ManagementFactory.getPlatformMBeanServer(), instance);
+    exporter.start();
+    metricsExporter = exporter;
   }
 
   @Override
@@ -201,15 +294,56 @@ public class SunshowerKernel implements Kernel, EventSource {
   public CompletionStage<Void> persistState() throws Exception {
     val memento = save();
     val file = memento.locate("kernel", getFileSystem());
-    Files.tryWrite(file, memento);
-    return CompletableFuture.completedFuture(null);
+    return persistenceWriter.replace(file, memento).thenAccept(t -> {});
   }
 
   @Override
   public CompletionStage<Void> restoreState() throws Exception {
-    val mementoProvider = Memento.loadProvider(getClassLoader());
-    val kernelMemento = mementoProvider.newMemento("kernel", "kernel", getFileSystem());
-    return doRestore(kernelMemento);
+    val timeline = bootTimeline;
+    final Memento kernelMemento;
+    val span = BootTimeline.span(this, "restore", "read state");
+    try {
+      val mementoProvider = Memento.loadProvider(getClassLoader());
+      kernelMemento = mementoProvider.newMemento("kernel", "kernel", getFileSystem());
+    } finally {
+      span.close();
+    }
+    return doRestore(kernelMemento).whenComplete((ignored, ex) -> completeBoot(timeline));
+  }
+
+  /** finish the boot's timeline, compare it with the previous boot's and write it */
+  private void completeBoot(BootTimeline timeline) {
+    val fileSystem = getFileSystem();
+    if (timeline == null || !timeline.complete() || fileSystem == null) {
+      return;
+    }
+    val file = fileSystem.getPath(BootTimeline.FILE);
+    try {
+      if (Files.exists(file)) {
+        val previous = Files.readAllBytes(file);
+        for (val regression : timeline.compareTo(BootTimeline.read(previous))) {
+          log.log(Level.WARNING, "boot.regression", regression);
+        }
+        persistenceWriter.replace(
+            fileSystem.getPath(BootTimeline.PREVIOUS_FILE), out -> out.write(previous));
+      }
+    } catch (IOException ex) {
+      log.log(Level.INFO, "boot.timeline.unreadable", new Object[] {file, ex.getMessage()});
+    }
+    persistenceWriter
+        .replace(file, timeline::write)
+        .whenComplete(
+            (path, ex) -> {
+              if (ex == null) {
+                log.log(
+                    Level.INFO,
+                    "boot.timeline.written",
+                    new Object[] {TimeUnit.NANOSECONDS.toMillis(timeline.getElapsedNanos()), path});
+              } else {
+                log.log(
+                    Level.WARNING, "boot.timeline.failed", new Object[] {file, ex.getMessage()});
+              }
+            });
   }
 
   @Override
@@ -289,7 +423,7 @@ public class SunshowerKernel implements Kernel, EventSource {
     process.getContext().set(ModuleInstallationCompletionPhase.INSTALLED_PLUGINS, modules);
     process.getContext().set("SunshowerKernel", this);
     try {
-      scheduler.submit(process).toCompletableFuture().get();
+      submitRestore(process).toCompletableFuture().get();
       return requestStart(modules, stateMap).thenAccept(t -> {});
     } catch (Exception ex) {
       throw new IllegalStateException(ex);
@@ -297,12 +431,23 @@ public class SunshowerKernel implements Kernel, EventSource {
     }
   }
 
+  private TaskTracker<String> submitRestore(Process<String> process) {
+    val timeline = bootTimeline;
+    if (timeline == null || timeline.isComplete() || !(scheduler instanceof KernelScheduler)) {
+      return scheduler.submit(process);
+    }
+    return ((KernelScheduler<String>) scheduler).submit(process, timeline.listener("restore"));
+  }
+
   private CompletionStage<Process<String>> requestStart(
       Set<Module> modules, Map<Coordinate, Lifecycle.State> stateMap) {
     val startGroup = new ModuleLifecycleChangeGroup();
     for (val module : modules) {
       val state = stateMap.get(module.getCoordinate());
-      if (state == Lifecycle.State.Active) {
+      // a deferred lazy module was started (just not yet used)
+      if (state == Lifecycle.State.Active
+          || (state == Lifecycle.State.Starting
+              && module.getActivation() == Module.Activation.Lazy)) {
         val request =
             new ModuleLifecycleChangeRequest(
                 module.getCoordinate(), ModuleLifecycle.Actions.Activate);
@@ -317,20 +462,25 @@ public class SunshowerKernel implements Kernel, EventSource {
     try {
 
       val coordinate = pluginMemento.read("coordinate", Coordinate.class);
-      val filesystem = hydrateFilesystem(coordinate);
-      val plugin = new DefaultModule();
+      val span = BootTimeline.span(this, "restore", "hydrate " + coordinate.toCanonicalForm());
+      try {
+        val filesystem = hydrateFilesystem(coordinate);
+        val plugin = new DefaultModule();
 
-      val lifecycle = new ModuleLifecycle(plugin);
-      lifecycle.setState(Lifecycle.State.Installed);
-      plugin.setLifecycle(lifecycle);
+        val lifecycle = new ModuleLifecycle(plugin);
+        lifecycle.setState(Lifecycle.State.Installed);
+        plugin.setLifecycle(lifecycle);
 
-      plugin.setCoordinate(coordinate);
-      plugin.setKernel(this);
-      plugin.setFileSystem(filesystem);
+        plugin.setCoordinate(coordinate);
+        plugin.setKernel(this);
+        plugin.setFileSystem(filesystem);
 
-      hydratePlugin(pluginMementoProvider, plugin, filesystem);
-      modules.add(plugin);
-      return plugin;
+        hydratePlugin(pluginMementoProvider, plugin, filesystem);
+        modules.add(plugin);
+        return plugin;
+      } finally {
+        span.close();
+      }
     } catch (IOException ex) {
       throw new RuntimeException(ex);
       // todo: handle fs create failed
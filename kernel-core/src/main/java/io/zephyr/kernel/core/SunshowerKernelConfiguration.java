@@ -3,12 +3,14 @@ package io.zephyr.kernel.core;
 import dagger.BindsInstance;
 import dagger.Component;
 import io.zephyr.kernel.concurrency.ExecutorWorkerPool;
+import io.zephyr.kernel.concurrency.ForkJoinWorkerPool;
 import io.zephyr.kernel.concurrency.NamedThreadFactory;
 import io.zephyr.kernel.concurrency.WorkerPool;
 import io.zephyr.kernel.dependencies.DependencyGraph;
 import io.zephyr.kernel.launch.KernelOptions;
 import java.util.concurrent.Executors;
 import javax.inject.Singleton;
+import lombok.val;
 
 @Singleton
 @Component(modules = SunshowerKernelInjectionModule.class)
@@ -26,12 +28,27 @@ public interface SunshowerKernelConfiguration {
 
     default SunshowerKernelConfiguration create(
         KernelOptions options, ClassLoader bootstrapClassloader) {
+      if (options.getWorkerPool() == WorkerPool.Type.ForkJoin) {
+        return create(
+            options,
+            bootstrapClassloader,
+            new ForkJoinWorkerPool(options.getConcurrency(), options.getKernelConcurrency()));
+      }
+      val kernelExecutor = Executors.newCachedThreadPool(new NamedThreadFactory("kernel"));
+      if (options.isAdaptiveConcurrency()) {
+        return create(
+            options,
+            bootstrapClassloader,
+            ExecutorWorkerPool.adaptive(
+                options.getConcurrency(),
+                options.getConcurrencyFloor(),
+                options.getConcurrencyCeiling(),
+                kernelExecutor));
+      }
       return create(
           options,
           bootstrapClassloader,
-          new ExecutorWorkerPool(
-              Executors.newFixedThreadPool(1),
-              Executors.newCachedThreadPool(new NamedThreadFactory("kernel"))));
+          new ExecutorWorkerPool(Executors.newFixedThreadPool(1), kernelExecutor));
     }
   }
 }
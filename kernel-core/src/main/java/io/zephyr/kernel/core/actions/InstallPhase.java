@@ -0,0 +1,93 @@
+package io.zephyr.kernel.core.actions;
+
+import io.sunshower.gyre.Scope;
+import io.zephyr.kernel.core.Kernel;
+import io.zephyr.kernel.core.ModuleDescriptor;
+import io.zephyr.kernel.jfr.ModuleInstallPhaseEvent;
+import io.zephyr.kernel.metrics.KernelMetrics;
+import lombok.val;
+
+/**
+ * times a phase of an installation: the phase is recorded to Flight Recorder, and its duration to
+ * the kernel's <code>install.[metric].duration</code> histogram
+ */
+final class InstallPhase {
+
+  private final String metric;
+  private final boolean perModule;
+  private final long started;
+  private final ModuleInstallPhaseEvent event;
+
+  private InstallPhase(String name, String metric, boolean perModule) {
+    this.metric = "install." + metric + ".duration";
+    this.perModule = perModule;
+    this.event = ModuleInstallPhaseEvent.start(name);
+    this.started = System.nanoTime();
+  }
+
+  /**
+   * @param name the phase's task name
+   * @param metric the phase's metric name, e.g. <code>download</code>
+   * @return a started phase of a single module's installation
+   */
+  static InstallPhase module(String name, String metric) {
+    return new InstallPhase(name, metric, true);
+  }
+
+  /**
+   * @param name the phase's task name
+   * @param metric the phase's metric name, e.g. <code>write.list</code>
+   * @return a started phase that covers every module being installed
+   */
+  static InstallPhase kernel(String name, String metric) {
+    return new InstallPhase(name, metric, false);
+  }
+
+  /**
+   * end the phase
+   *
+   * @param scope the installation's scope: the kernel and (for a single module's phase) the
+   *     module's location and coordinate are read from it
+   */
+  void complete(Scope scope) {
+    val elapsed = System.nanoTime() - started;
+    if (perModule) {
+      final ModuleDescriptor descriptor = scope.get(ModuleScanPhase.MODULE_DESCRIPTOR);
+      event.complete(
+          scope.get(ModuleDownloadPhase.DOWNLOAD_URL),
+          descriptor == null ? null : descriptor.getCoordinate());
+    } else {
+      event.complete(null, null);
+    }
+    val metrics = metrics(scope);
+    if (metrics != null) {
+      metrics.histogram(metric).record(elapsed);
+    }
+  }
+
+  /**
+   * @param scope the installation's scope
+   * @param counter the counter to add to, e.g. <code>install.download.bytes</code>
+   * @param delta the amount to add
+   */
+  static void count(Scope scope, String counter, long delta) {
+    count(scope.<Kernel>get("SunshowerKernel"), counter, delta);
+  }
+
+  /**
+   * @param kernel the installing kernel. May be null
+   * @param counter the counter to add to
+   * @param delta the amount to add
+   */
+  static void count(Kernel kernel, String counter, long delta) {
+    val metrics = kernel == null ? null : kernel.getMetrics();
+    if (metrics != null) {
+      metrics.counter(counter).add(delta);
+    }
+  }
+
+  private static KernelMetrics metrics(Scope scope) {
+    final Kernel kernel = scope.get("SunshowerKernel");
+    return kernel == null ? null : kernel.getMetrics();
+  }
+}
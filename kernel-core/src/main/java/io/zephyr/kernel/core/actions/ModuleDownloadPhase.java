@@ -3,6 +3,7 @@ package io.zephyr.kernel.core.actions;
 import io.sunshower.gyre.Scope;
 import io.zephyr.common.io.Files;
 import io.zephyr.common.io.MonitorableChannels;
+import io.zephyr.kernel.concurrency.IoBound;
 import io.zephyr.kernel.concurrency.Task;
 import io.zephyr.kernel.concurrency.TaskException;
 import io.zephyr.kernel.concurrency.TaskStatus;
@@ -23,7 +24,7 @@ import lombok.val;
 
 /** Downloads a file from a URL into a temp directory */
 @SuppressWarnings("PMD.UnusedFormalParameter")
-public class ModuleDownloadPhase extends Task implements ChannelTransferListener {
+public class ModuleDownloadPhase extends Task implements IoBound, ChannelTransferListener {
 
   static final Logger log = Logging.get(ModuleDownloadPhase.class);
   static final ResourceBundle bundle;
@@ -45,20 +46,25 @@ public class ModuleDownloadPhase extends Task implements ChannelTransferListener
 
   @Override
   public Task.TaskValue run(Scope scope) {
-    URL downloadUrl = (URL) parameters().get(DOWNLOAD_URL);
-    Kernel kernel = scope.get("SunshowerKernel");
+    val phase = InstallPhase.module(getName(), "download");
     try {
-
-      fireDownloadInitiated(downloadUrl, kernel);
-      scope.set(DOWNLOAD_URL, downloadUrl);
-      Path moduleDirectory = scope.get(TARGET_DIRECTORY);
-      downloadModule(downloadUrl, moduleDirectory, scope);
-      fireDownloadCompleted(downloadUrl, kernel);
-    } catch (Exception ex) {
-      fireDownloadFailed(downloadUrl, kernel, ex);
-      throw new TaskException(ex, TaskStatus.UNRECOVERABLE);
+      URL downloadUrl = (URL) parameters().get(DOWNLOAD_URL);
+      Kernel kernel = scope.get("SunshowerKernel");
+      try {
+
+        fireDownloadInitiated(downloadUrl, kernel);
+        scope.set(DOWNLOAD_URL, downloadUrl);
+        Path moduleDirectory = scope.get(TARGET_DIRECTORY);
+        downloadModule(downloadUrl, moduleDirectory, scope);
+        fireDownloadCompleted(downloadUrl, kernel);
+      } catch (Exception ex) {
+        fireDownloadFailed(downloadUrl, kernel, ex);
+        throw new TaskException(ex, TaskStatus.UNRECOVERABLE);
+      }
+      return null;
+    } finally {
+      phase.complete(scope);
     }
-    return null;
   }
 
   @Override
@@ -106,6 +112,7 @@ public class ModuleDownloadPhase extends Task implements ChannelTransferListener
     transfer.addListener(this);
     transfer.call();
     context.set(DOWNLOADED_FILE, targetFile);
+    InstallPhase.count(context, "install.download.bytes", targetFile.length());
   }
 
   private void fireDownloadFailed(URL downloadUrl, Kernel kernel, Exception ex) {
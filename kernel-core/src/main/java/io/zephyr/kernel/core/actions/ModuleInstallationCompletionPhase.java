@@ -39,43 +39,49 @@ public class ModuleInstallationCompletionPhase extends Task {
   @Override
   @SuppressWarnings({"PMD.CloseResource", "PMD.DataflowAnomalyAnalysis"})
   public TaskValue run(Scope context) {
-    synchronized (this) {
-      final Kernel kernel = context.get("SunshowerKernel");
-      final URL url = context.get(ModuleDownloadPhase.DOWNLOAD_URL);
-      final Source source = new ModuleSource(getSource(url));
-      final ModuleDescriptor descriptor = context.get(ModuleScanPhase.MODULE_DESCRIPTOR);
-      final FileSystem fileSystem = context.get(ModuleTransferPhase.MODULE_FILE_SYSTEM);
-      final File moduleDirectory = context.get(ModuleTransferPhase.MODULE_DIRECTORY);
-      final Assembly assembly = context.get(ModuleUnpackPhase.MODULE_ASSEMBLY);
-      //      final Set<Library> libraries = context.get(ModuleUnpackPhase.INSTALLED_LIBRARIES);
+    val phase = InstallPhase.module(getName(), "complete");
+    try {
+      synchronized (this) {
+        final Kernel kernel = context.get("SunshowerKernel");
+        final URL url = context.get(ModuleDownloadPhase.DOWNLOAD_URL);
+        final Source source = new ModuleSource(getSource(url));
+        final ModuleDescriptor descriptor = context.get(ModuleScanPhase.MODULE_DESCRIPTOR);
+        final FileSystem fileSystem = context.get(ModuleTransferPhase.MODULE_FILE_SYSTEM);
+        final File moduleDirectory = context.get(ModuleTransferPhase.MODULE_DIRECTORY);
+        final Assembly assembly = context.get(ModuleUnpackPhase.MODULE_ASSEMBLY);
+        //      final Set<Library> libraries = context.get(ModuleUnpackPhase.INSTALLED_LIBRARIES);
 
-      val module =
-          new DefaultModule(
-              descriptor.getOrder(),
-              descriptor.getType(),
-              source,
-              kernel,
-              assembly,
-              moduleDirectory.getAbsoluteFile().toPath(),
-              descriptor.getCoordinate(),
-              fileSystem,
-              assembly.getLibraries(),
-              getDependencies(descriptor.getDependencies()));
+        val module =
+            new DefaultModule(
+                descriptor.getOrder(),
+                descriptor.getType(),
+                source,
+                kernel,
+                assembly,
+                moduleDirectory.getAbsoluteFile().toPath(),
+                descriptor.getCoordinate(),
+                fileSystem,
+                assembly.getLibraries(),
+                getDependencies(descriptor.getDependencies()));
 
-      val lifecycle = createLifecycle(module);
-      module.setLifecycle(lifecycle);
+        module.setActivation(descriptor.getActivation());
+        val lifecycle = createLifecycle(module);
+        module.setLifecycle(lifecycle);
 
-      if (descriptor.getType() == Module.Type.Plugin) {
-        context.<Set<Module>>get(INSTALLED_PLUGINS).add(module);
-      } else {
-        context.<Set<Module>>get(INSTALLED_KERNEL_MODULES).add(module);
+        if (descriptor.getType() == Module.Type.Plugin) {
+          context.<Set<Module>>get(INSTALLED_PLUGINS).add(module);
+        } else {
+          context.<Set<Module>>get(INSTALLED_KERNEL_MODULES).add(module);
+        }
+        kernel.dispatchEvent(
+            ModuleEvents.INSTALLING,
+            Events.create(
+                module,
+                StatusType.SUCCEEDED.resolvable("Successfully installed plugin: " + descriptor)));
+        return null;
       }
-      kernel.dispatchEvent(
-          ModuleEvents.INSTALLING,
-          Events.create(
-              module,
-              StatusType.SUCCEEDED.resolvable("Successfully installed plugin: " + descriptor)));
-      return null;
+    } finally {
+      phase.complete(context);
     }
   }
 
@@ -73,18 +73,23 @@ public class ModuleScanPhase extends Task {
 
   @Override
   public TaskValue run(Scope context) {
-    File downloaded = context.get(ModuleDownloadPhase.DOWNLOADED_FILE);
-    val result = scan(downloaded, context);
-    context.set(ModuleScanPhase.MODULE_DESCRIPTOR, result);
+    val phase = InstallPhase.module(getName(), "scan");
+    try {
+      File downloaded = context.get(ModuleDownloadPhase.DOWNLOADED_FILE);
+      val result = scan(downloaded, context);
+      context.set(ModuleScanPhase.MODULE_DESCRIPTOR, result);
 
-    if (result.getType() == Module.Type.KernelModule) {
-      context
-          .computeIfAbsent(ModuleScanPhase.SCANNED_KERNEL_MODULES, new LinkedHashSet<>())
-          .add(result);
-    } else {
-      context.computeIfAbsent(ModuleScanPhase.SCANNED_PLUGINS, new LinkedHashSet<>()).add(result);
+      if (result.getType() == Module.Type.KernelModule) {
+        context
+            .computeIfAbsent(ModuleScanPhase.SCANNED_KERNEL_MODULES, new LinkedHashSet<>())
+            .add(result);
+      } else {
+        context.computeIfAbsent(ModuleScanPhase.SCANNED_PLUGINS, new LinkedHashSet<>()).add(result);
+      }
+      return null;
+    } finally {
+      phase.complete(context);
     }
-    return null;
   }
 
   private void fireScanComplete(Kernel kernel, ModuleDescriptor result) {
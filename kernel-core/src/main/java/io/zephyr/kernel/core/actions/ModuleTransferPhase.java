@@ -1,6 +1,8 @@
 package io.zephyr.kernel.core.actions;
 
 import io.sunshower.gyre.Scope;
+import io.zephyr.common.io.Files;
+import io.zephyr.kernel.concurrency.IoBound;
 import io.zephyr.kernel.concurrency.Task;
 import io.zephyr.kernel.concurrency.TaskException;
 import io.zephyr.kernel.concurrency.TaskStatus;
@@ -21,11 +23,13 @@ import lombok.val;
 
 /**
  * This phase transfers a module file from the kernel temp directory to its final destination .
+ * Where possible the downloaded file is renamed or linked into place rather than copied (see {@link
+ * Files#place})--the downloaded file should not be relied upon after this phase
  *
  * <p>This phase is also responsible for the creation of the module filesystem
  */
 @SuppressWarnings("PMD.UnusedPrivateMethod")
-public class ModuleTransferPhase extends Task {
+public class ModuleTransferPhase extends Task implements IoBound {
 
   public static final String MODULE_ASSEMBLY_FILE = "MODULE_ASSEMBLY";
   public static final String MODULE_DIRECTORY = "MODULE_DIRECTORY";
@@ -46,38 +50,44 @@ public class ModuleTransferPhase extends Task {
   @Override
   @SuppressWarnings("PMD.PreserveStackTrace")
   public TaskValue run(Scope scope) {
+    val phase = InstallPhase.module(getName(), "transfer");
+    try {
 
-    val kernel = scope.<Kernel>get("SunshowerKernel");
-    moduleTransferInitiated(kernel);
-    val fs = createFilesystem(kernel, scope);
+      val kernel = scope.<Kernel>get("SunshowerKernel");
+      moduleTransferInitiated(kernel);
+      val fs = createFilesystem(kernel, scope);
 
-    scope.set(MODULE_FILE_SYSTEM, fs);
+      scope.set(MODULE_FILE_SYSTEM, fs);
 
-    val assembly = fs.getPath("module.droplet").toFile();
-    File file = scope.get(ModuleDownloadPhase.DOWNLOADED_FILE);
-    val parent = assembly.getParentFile();
-    if (!assembly.exists()) {
-      if (!(parent.exists() || parent.mkdirs())) {
-        log.log(Level.WARNING, "transfer.file.makedirectory", parent);
+      val assembly = fs.getPath("module.droplet").toFile();
+      File file = scope.get(ModuleDownloadPhase.DOWNLOADED_FILE);
+      val parent = assembly.getParentFile();
+      if (!assembly.exists()) {
+        if (!(parent.exists() || parent.mkdirs())) {
+          log.log(Level.WARNING, "transfer.file.makedirectory", parent);
+        }
       }
+      scope.set(MODULE_DIRECTORY, parent);
+
+      log.log(Level.INFO, "transfer.file.beginning", new Object[] {file, assembly});
+      try {
+        val placement = Files.place(file.toPath(), assembly.toPath());
+        scope.set(MODULE_ASSEMBLY_FILE, assembly);
+        InstallPhase.count(kernel, "install.transfer.bytes", assembly.length());
+        log.log(Level.INFO, "transfer.file.complete", new Object[] {file, assembly, placement});
+        dispatchEvent(kernel, fs, ModulePhaseEvents.MODULE_TRANSFER_COMPLETED);
+      } catch (Exception ex) {
+        val message =
+            MessageFormat.format(
+                bundle.getString("transfer.file.failed"), assembly, file, ex.getMessage());
+        log.log(Level.WARNING, message);
+        dispatchTransferFailed(kernel, message);
+        throw new TaskException(ex, TaskStatus.UNRECOVERABLE);
+      }
+      return null;
+    } finally {
+      phase.complete(scope);
     }
-    scope.set(MODULE_DIRECTORY, parent);
-
-    log.log(Level.INFO, "transfer.file.beginning", new Object[] {file, assembly});
-    try {
-      Files.copy(file.toPath(), assembly.toPath(), StandardCopyOption.REPLACE_EXISTING);
-      scope.set(MODULE_ASSEMBLY_FILE, assembly);
-      log.log(Level.INFO, "transfer.file.complete", new Object[] {file, assembly});
-      dispatchEvent(kernel, fs, ModulePhaseEvents.MODULE_TRANSFER_COMPLETED);
-    } catch (Exception ex) {
-      val message =
-          MessageFormat.format(
-              bundle.getString("transfer.file.failed"), assembly, file, ex.getMessage());
-      log.log(Level.WARNING, message);
-      dispatchTransferFailed(kernel, message);
-      throw new TaskException(ex, TaskStatus.UNRECOVERABLE);
-    }
-    return null;
   }
 
   @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
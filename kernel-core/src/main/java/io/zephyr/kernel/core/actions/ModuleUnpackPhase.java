@@ -2,6 +2,7 @@ package io.zephyr.kernel.core.actions;
 
 import io.sunshower.gyre.Scope;
 import io.zephyr.kernel.Assembly;
+import io.zephyr.kernel.concurrency.IoBound;
 import io.zephyr.kernel.concurrency.Task;
 import io.zephyr.kernel.core.Kernel;
 import io.zephyr.kernel.events.Events;
@@ -17,7 +18,8 @@ import java.util.logging.Logger;
 import lombok.val;
 
 @SuppressWarnings("PMD.UnusedPrivateMethod")
-public class ModuleUnpackPhase extends Task implements ModuleAssemblyExtractor.ExtractionListener {
+public class ModuleUnpackPhase extends Task
+    implements IoBound, ModuleAssemblyExtractor.ExtractionListener {
 
   static final Logger log;
   static final ResourceBundle bundle;
@@ -42,39 +44,44 @@ public class ModuleUnpackPhase extends Task implements ModuleAssemblyExtractor.E
     "PMD.AvoidInstantiatingObjectsInLoops"
   })
   public TaskValue run(Scope context) {
-
-    File assemblyFile = context.get(ModuleTransferPhase.MODULE_ASSEMBLY_FILE);
-    val assembly = new Assembly(assemblyFile);
-
-    fireExtractionInitiated(assembly);
-
-    FileSystem moduleFileSystem = context.get(ModuleTransferPhase.MODULE_FILE_SYSTEM);
-
-    val extractors = ServiceLoader.load(ModuleAssemblyExtractor.class, kernel.getClassLoader());
-
-    var anyworked = false;
-    for (val extractor : extractors) {
-      try {
-        log.log(Level.INFO, "module.extractor.beforeapplication", extractor);
-        extractor.extract(assembly, moduleFileSystem, this);
-        log.log(Level.INFO, "module.extractor.afterapplication", extractor);
-        anyworked = true;
-      } catch (Exception ex) {
-        log.log(Level.INFO, "module.extractor.error", new Object[] {ex.getMessage(), extractor});
-        if (log.isLoggable(Level.FINE)) {
-          log.log(Level.FINE, "module.extractor.actualerror", ex);
+    val phase = InstallPhase.module(getName(), "unpack");
+    try {
+
+      File assemblyFile = context.get(ModuleTransferPhase.MODULE_ASSEMBLY_FILE);
+      val assembly = new Assembly(assemblyFile);
+
+      fireExtractionInitiated(assembly);
+
+      FileSystem moduleFileSystem = context.get(ModuleTransferPhase.MODULE_FILE_SYSTEM);
+
+      val extractors = ServiceLoader.load(ModuleAssemblyExtractor.class, kernel.getClassLoader());
+
+      var anyworked = false;
+      for (val extractor : extractors) {
+        try {
+          log.log(Level.INFO, "module.extractor.beforeapplication", extractor);
+          extractor.extract(assembly, moduleFileSystem, this);
+          log.log(Level.INFO, "module.extractor.afterapplication", extractor);
+          anyworked = true;
+        } catch (Exception ex) {
+          log.log(Level.INFO, "module.extractor.error", new Object[] {ex.getMessage(), extractor});
+          if (log.isLoggable(Level.FINE)) {
+            log.log(Level.FINE, "module.extractor.actualerror", ex);
+          }
+          fireExtractorFailed(extractor, ex);
         }
-        fireExtractorFailed(extractor, ex);
       }
-    }
 
-    if (anyworked) {
-      fireExtractionCompleted(assembly);
-    } else {
-      fireNoValidExtractors(assembly);
+      if (anyworked) {
+        fireExtractionCompleted(assembly);
+      } else {
+        fireNoValidExtractors(assembly);
+      }
+      context.set(MODULE_ASSEMBLY, assembly);
+      return null;
+    } finally {
+      phase.complete(context);
     }
-    context.set(MODULE_ASSEMBLY, assembly);
-    return null;
   }
 
   private void fireExtractionCompleted(Assembly assembly) {
@@ -110,6 +117,7 @@ public class ModuleUnpackPhase extends Task implements ModuleAssemblyExtractor.E
 
   @Override
   public void afterEntryExtracted(String name, Object target) {
+    InstallPhase.count(kernel, "install.unpack.entries", 1);
     if (log.isLoggable(Level.FINE)) {
       log.log(Level.FINE, "module.unpack.file.complete", new Object[] {name, target});
     }
@@ -6,17 +6,8 @@ import io.zephyr.kernel.Library;
 import io.zephyr.kernel.Module;
 import io.zephyr.kernel.concurrency.Task;
 import io.zephyr.kernel.core.Kernel;
-import io.zephyr.kernel.core.KernelException;
 import io.zephyr.kernel.log.Logging;
-import io.zephyr.kernel.misc.SuppressFBWarnings;
-import io.zephyr.kernel.module.ModuleListParser;
-import java.io.BufferedWriter;
-import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.nio.file.FileSystem;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
+import io.zephyr.kernel.module.ModuleList;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -33,56 +24,40 @@ public class WriteKernelModuleListPhase extends Task {
 
   @Override
   public TaskValue run(Scope scope) {
-    Set<Module> descriptors = scope.get(ModuleInstallationCompletionPhase.INSTALLED_KERNEL_MODULES);
-    if (descriptors == null || descriptors.isEmpty()) {
-      log.info("no descriptors found");
+    val phase = InstallPhase.kernel(getName(), "write.list");
+    try {
+      Set<Module> descriptors =
+          scope.get(ModuleInstallationCompletionPhase.INSTALLED_KERNEL_MODULES);
+      if (descriptors == null || descriptors.isEmpty()) {
+        log.info("no descriptors found");
+        return null;
+      }
+      log.log(Level.INFO, "located {0} modules to install", descriptors.size());
+
+      val kernel = scope.<Kernel>get("SunshowerKernel");
+      val moduleList = ModuleList.open(kernel.getFileSystem(), KernelModuleEntry.MODULE_LIST);
+      val added = moduleList.append(entries(descriptors));
+      log.log(Level.INFO, "added {0} modules to the kernel module list", added);
       return null;
+    } finally {
+      phase.complete(scope);
     }
-    log.log(Level.INFO, "located {0} modules to install", descriptors.size());
-
-    val kernel = scope.<Kernel>get("SunshowerKernel");
-    val fs = kernel.getFileSystem();
-    Set<KernelModuleEntry> entries = readEntries(fs);
-
-    val file = fs.getPath("modules.list");
-    writeModules(file, descriptors, entries);
-
-    return null;
   }
 
-  private Set<KernelModuleEntry> readEntries(FileSystem fs) {
-    return new LinkedHashSet<>(ModuleListParser.read(fs, "modules.list"));
-  }
-
-  @SuppressFBWarnings
   @SuppressWarnings({"PMD.AvoidInstantiatingObjectsInLoops", "PMD.UnusedPrivateMethod"})
-  private void writeModules(Path file, Collection<Module> modules, Set<KernelModuleEntry> entries) {
-    try (val outputStream =
-        new BufferedWriter(
-            new OutputStreamWriter(
-                Files.newOutputStream(
-                    file,
-                    StandardOpenOption.WRITE,
-                    StandardOpenOption.DSYNC,
-                    StandardOpenOption.APPEND)))) {
-      for (val module : modules) {
-        val coord = module.getCoordinate();
-        val entry =
-            new KernelModuleEntry(
-                module.getOrder(),
-                coord.getName(),
-                coord.getGroup(),
-                coord.getVersion().toString(),
-                libraryFiles(module, module.getLibraries()));
-        if (!entries.contains(entry)) {
-          outputStream.write(entry.toString());
-          outputStream.write("\n");
-          entries.add(entry);
-        }
-      }
-    } catch (IOException ex) {
-      throw new KernelException(ex);
+  private List<KernelModuleEntry> entries(Collection<Module> modules) {
+    val result = new ArrayList<KernelModuleEntry>(modules.size());
+    for (val module : modules) {
+      val coord = module.getCoordinate();
+      result.add(
+          new KernelModuleEntry(
+              module.getOrder(),
+              coord.getName(),
+              coord.getGroup(),
+              coord.getVersion().toString(),
+              libraryFiles(module, module.getLibraries())));
     }
+    return result;
   }
 
   @SuppressWarnings({"PMD.UnusedPrivateMethod"})
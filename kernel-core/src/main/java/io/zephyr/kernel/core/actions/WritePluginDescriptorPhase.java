@@ -25,10 +25,15 @@ public class WritePluginDescriptorPhase extends Task {
 
   @Override
   public TaskValue run(Scope scope) {
-    final Set<Module> installedPlugins =
-        scope.get(ModuleInstallationCompletionPhase.INSTALLED_PLUGINS);
-    val kernel = scope.<SunshowerKernel>get("SunshowerKernel");
-    performInstallation(scope, installedPlugins, kernel);
-    return null;
+    val phase = InstallPhase.kernel(getName(), "write.plugins");
+    try {
+      final Set<Module> installedPlugins =
+          scope.get(ModuleInstallationCompletionPhase.INSTALLED_PLUGINS);
+      val kernel = scope.<SunshowerKernel>get("SunshowerKernel");
+      performInstallation(scope, installedPlugins, kernel);
+      return null;
+    } finally {
+      phase.complete(scope);
+    }
   }
 }
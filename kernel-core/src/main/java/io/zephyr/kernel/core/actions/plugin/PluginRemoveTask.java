@@ -3,6 +3,7 @@ package io.zephyr.kernel.core.actions.plugin;
 import io.sunshower.gyre.Scope;
 import io.zephyr.api.ModuleEvents;
 import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.concurrency.ModuleThread;
 import io.zephyr.kernel.concurrency.Task;
 import io.zephyr.kernel.concurrency.TaskException;
 import io.zephyr.kernel.concurrency.TaskStatus;
@@ -45,6 +46,7 @@ public class PluginRemoveTask extends Task {
       }
       kernel.getModuleManager().getDependencyGraph().remove(module);
       kernel.getModuleClasspathManager().uninstall(module);
+      ModuleThread.removeMetrics(kernel, coordinate);
     } catch (IOException ex) {
       log.log(Level.WARNING, "plugin.remove.failed", new Object[] {moduleName, ex.getMessage()});
       log.log(Level.WARNING, "Error", ex);
@@ -64,7 +66,7 @@ public class PluginRemoveTask extends Task {
       } catch (IOException ex) {
         log.log(
             Level.WARNING,
-            "Failed to delete file ''{0}''.  Reason: ''{0}''.  Will attempt to delete upon Zephyr process exit",
+            "Failed to delete file ''{0}''.  Reason: ''{1}''.  Will attempt to delete upon Zephyr process exit",
             new Object[] {file, ex.getMessage()});
         file.toFile().deleteOnExit();
       }
@@ -78,7 +80,7 @@ public class PluginRemoveTask extends Task {
       } catch (IOException ex) {
         log.log(
             Level.WARNING,
-            "Failed to delete directory ''{0}''.  Reason: ''{0}''.  Will attempt to delete upon Zephyr process exit",
+            "Failed to delete directory ''{0}''.  Reason: ''{1}''.  Will attempt to delete upon Zephyr process exit",
             new Object[] {dir, ex.getMessage()});
         dir.toFile().deleteOnExit();
       }
@@ -2,9 +2,12 @@ package io.zephyr.kernel.core.actions.plugin;
 
 import io.sunshower.gyre.Scope;
 import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.Lifecycle;
+import io.zephyr.kernel.Module;
 import io.zephyr.kernel.concurrency.ModuleThread;
 import io.zephyr.kernel.concurrency.Task;
 import io.zephyr.kernel.core.AbstractModule;
+import io.zephyr.kernel.core.DefaultModuleManager;
 import io.zephyr.kernel.core.Kernel;
 import io.zephyr.kernel.core.ModuleManager;
 import java.util.logging.Logger;
@@ -32,9 +35,23 @@ public class PluginStartTask extends Task {
   })
   public TaskValue run(Scope scope) {
     val module = manager.getModule(coordinate);
+    if (module.getActivation() == Module.Activation.Lazy
+        && manager instanceof DefaultModuleManager) {
+      if (!module.getLifecycle().getState().isAtLeast(Lifecycle.State.Active)) {
+        ((DefaultModuleManager) manager).getDeferredActivations().defer(module, kernel);
+      }
+      return null;
+    }
+    val existing = module.getTaskQueue();
+    if (existing instanceof ModuleThread && !((ModuleThread) existing).isTerminated()) {
+      // already running or still starting (e.g. a dependency of a module being started): a second
+      // module thread would replace the first without stopping it, and strand its thread and
+      // classloader
+      return null;
+    }
     val thread = new ModuleThread(module, kernel);
     ((AbstractModule) module).setTaskQueue(thread);
-    thread.start();
-    return null;
+    // don't hold a kernel worker while the activator runs: dependents are released when it's done
+    return TaskValue.completingWhen(thread.startAsync(), getName());
   }
 }
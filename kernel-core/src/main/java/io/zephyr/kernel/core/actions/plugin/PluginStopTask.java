@@ -3,6 +3,7 @@ package io.zephyr.kernel.core.actions.plugin;
 import io.sunshower.gyre.Scope;
 import io.zephyr.kernel.Coordinate;
 import io.zephyr.kernel.concurrency.Task;
+import io.zephyr.kernel.core.DefaultModuleManager;
 import io.zephyr.kernel.core.ModuleManager;
 import lombok.val;
 
@@ -21,6 +22,10 @@ public class PluginStopTask extends Task {
   public TaskValue run(Scope scope) {
     val module = manager.getModule(coordinate);
     scope.set(PluginRemoveTask.MODULE_COORDINATE, coordinate);
+    if (manager instanceof DefaultModuleManager
+        && ((DefaultModuleManager) manager).getDeferredActivations().cancel(coordinate)) {
+      return null; // lazy and never used--there's nothing to stop
+    }
     val taskQueue = module.getTaskQueue();
     if (taskQueue != null) { // may not have been started yet or may not be startable
       taskQueue.stop();
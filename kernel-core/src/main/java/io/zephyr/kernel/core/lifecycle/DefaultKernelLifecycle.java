@@ -1,9 +1,9 @@
 package io.zephyr.kernel.core.lifecycle;
 
 import static io.zephyr.kernel.core.lifecycle.DefaultKernelLifecycle.LifecycleProcessHolder.stopInstance;
-import static io.zephyr.kernel.core.lifecycle.DefaultKernelLifecycle.LifecycleProcessHolder.stopPlugins;
 
 import io.sunshower.gyre.Scope;
+import io.zephyr.kernel.concurrency.KernelScheduler;
 import io.zephyr.kernel.concurrency.Process;
 import io.zephyr.kernel.concurrency.Scheduler;
 import io.zephyr.kernel.concurrency.TaskTracker;
@@ -14,12 +14,10 @@ import io.zephyr.kernel.core.KernelLifecycle;
 import io.zephyr.kernel.core.SunshowerKernel;
 import io.zephyr.kernel.events.Events;
 import io.zephyr.kernel.misc.SuppressFBWarnings;
-import io.zephyr.kernel.module.ModuleLifecycle;
-import io.zephyr.kernel.module.ModuleLifecycleChangeGroup;
-import io.zephyr.kernel.module.ModuleLifecycleChangeRequest;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.atomic.AtomicReference;
 import javax.inject.Inject;
+import lombok.Getter;
 import lombok.val;
 
 @SuppressFBWarnings
@@ -40,6 +38,9 @@ public class DefaultKernelLifecycle implements KernelLifecycle {
 
   private final ClassLoader parentClassloader;
 
+  /** how the plugins stopped during the most recent shutdown. Null until the kernel has stopped */
+  @Getter private volatile ShutdownReport shutdownReport;
+
   @Inject
   public DefaultKernelLifecycle(
       SunshowerKernel kernel, Scheduler<String> scheduler, ClassLoader parent) {
@@ -61,8 +62,10 @@ public class DefaultKernelLifecycle implements KernelLifecycle {
 
   @Override
   public CompletionStage<Process<String>> stop() {
+    // plan before announcing the shutdown: a bad configuration fails here, not halfway through
+    val planner = ShutdownPlanner.create(kernel.getModuleManager());
     kernel.dispatchEvent(KernelEventTypes.KERNEL_SHUTDOWN_INITIATED, Events.create(kernel));
-    return scheduler.submit(stopPlugins(kernel)).thenCompose(this::doStop);
+    return planner.shutdownAsync().thenCompose(this::doStop);
   }
 
   @Override
@@ -70,7 +73,7 @@ public class DefaultKernelLifecycle implements KernelLifecycle {
     val event = Events.create(kernel);
     kernel.dispatchEvent(KernelEventTypes.KERNEL_START_INITIATED, event);
     this.state.set(State.Starting);
-    val a = scheduler.submit(LifecycleProcessHolder.startInstance(kernel));
+    val a = submit(LifecycleProcessHolder.startInstance(kernel), "lifecycle");
     a.thenRun(
         () -> {
           this.state.set(State.Running);
@@ -89,8 +92,17 @@ public class DefaultKernelLifecycle implements KernelLifecycle {
     return null;
   }
 
-  @SuppressWarnings("PMD.UnusedFormalParameter")
-  private TaskTracker<String> doStop(Process<String> taskSets) {
+  /** run a process, recording its tasks to the boot timeline while the kernel is booting */
+  private TaskTracker<String> submit(Process<String> process, String phase) {
+    val timeline = kernel.getBootTimeline();
+    if (timeline == null || timeline.isComplete() || !(scheduler instanceof KernelScheduler)) {
+      return scheduler.submit(process);
+    }
+    return ((KernelScheduler<String>) scheduler).submit(process, timeline.listener(phase));
+  }
+
+  private TaskTracker<String> doStop(ShutdownReport report) {
+    this.shutdownReport = report;
     this.state.set(State.Stopping);
     val r = scheduler.submit(stopInstance(kernel));
     r.thenRun(
@@ -129,20 +141,5 @@ public class DefaultKernelLifecycle implements KernelLifecycle {
           .dependsOn("kernel:lifecycle:module:list")
           .create();
     }
-
-    public static Process<String> stopPlugins(SunshowerKernel kernel) {
-
-      val running = kernel.getModuleManager().getModules();
-      val results = new ModuleLifecycleChangeRequest[running.size()];
-      int i = 0;
-      for (val r : running) {
-        results[i++] =
-            new ModuleLifecycleChangeRequest(r.getCoordinate(), ModuleLifecycle.Actions.Stop);
-      }
-      return kernel
-          .getModuleManager()
-          .prepare(new ModuleLifecycleChangeGroup(results))
-          .getProcess();
-    }
   }
 }
@@ -8,7 +8,7 @@ import io.zephyr.kernel.concurrency.TaskStatus;
 import io.zephyr.kernel.core.KernelEventTypes;
 import io.zephyr.kernel.core.SunshowerKernel;
 import io.zephyr.kernel.events.Events;
-import io.zephyr.kernel.module.ModuleListParser;
+import io.zephyr.kernel.module.ModuleList;
 import lombok.val;
 
 public class KernelModuleListReadPhase extends Task {
@@ -27,7 +27,7 @@ public class KernelModuleListReadPhase extends Task {
     if (fs == null) {
       throw new TaskException(TaskStatus.UNRECOVERABLE);
     }
-    val entries = ModuleListParser.read(fs, KernelModuleEntry.MODULE_LIST);
+    val entries = ModuleList.open(fs, KernelModuleEntry.MODULE_LIST).getEntries();
     scope.set(INSTALLED_MODULE_LIST, entries);
     kernel.dispatchEvent(KernelEventTypes.KERNEL_MODULE_LIST_READ, Events.create(kernel));
     return null;
@@ -0,0 +1,303 @@
+package io.zephyr.kernel.core.lifecycle;
+
+import io.sunshower.gyre.DirectedGraph;
+import io.sunshower.gyre.ParallelScheduler;
+import io.sunshower.gyre.Schedule;
+import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.Module;
+import io.zephyr.kernel.concurrency.ModuleThread;
+import io.zephyr.kernel.core.DefaultModuleManager;
+import io.zephyr.kernel.core.ModuleManager;
+import io.zephyr.kernel.core.SunshowerKernel;
+import io.zephyr.kernel.dependencies.DefaultDependencyGraph;
+import io.zephyr.kernel.log.Logging;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * stops every plugin in reverse-topological waves: a plugin is stopped only once everything that
+ * depends on it has stopped, and the plugins in a wave stop in parallel (at most <code>concurrency
+ * </code> at a time).
+ *
+ * <p>Each plugin gets <code>stopTimeout</code> to stop. If it overruns, its thread is interrupted
+ * and it gets <code>grace</code> more; if it still hasn't stopped it's force-unloaded and
+ * abandoned, so one hung activator can't stall the rest of the shutdown
+ */
+@SuppressWarnings({
+  "PMD.DoNotUseThreads",
+  "PMD.AvoidCatchingGenericException",
+  "PMD.AvoidInstantiatingObjectsInLoops",
+  "PMD.DataflowAnomalyAnalysis"
+})
+public final class ShutdownPlanner {
+
+  static final Logger log = Logging.get(ShutdownPlanner.class, "KernelLifecycle");
+
+  /** how long a plugin may take to stop before it's interrupted */
+  public static final long DEFAULT_STOP_TIMEOUT_MILLIS = 10_000;
+
+  /** how long an interrupted plugin may take to stop before it's force-unloaded */
+  public static final long DEFAULT_GRACE_MILLIS = 2_000;
+
+  private static final AtomicInteger instances = new AtomicInteger();
+
+  private final ModuleManager manager;
+  private final int concurrency;
+  private final long stopTimeoutMillis;
+  private final long graceMillis;
+
+  /**
+   * @param manager the module manager whose plugins to stop
+   * @param concurrency the most plugins to stop at once
+   * @param stopTimeoutMillis how long each plugin may take to stop
+   * @param graceMillis how long each plugin may take to stop once interrupted
+   */
+  public ShutdownPlanner(
+      @NonNull ModuleManager manager, int concurrency, long stopTimeoutMillis, long graceMillis) {
+    if (concurrency <= 0 || stopTimeoutMillis <= 0 || graceMillis <= 0) {
+      // Thread.join(0) waits forever
+      throw new IllegalArgumentException("Error: concurrency and timeouts must be positive");
+    }
+    this.manager = manager;
+    this.concurrency = concurrency;
+    this.stopTimeoutMillis = stopTimeoutMillis;
+    this.graceMillis = graceMillis;
+  }
+
+  /**
+   * @param manager the module manager whose plugins to stop
+   * @return a planner configured from the kernel options (or the defaults, if there are none)
+   */
+  public static ShutdownPlanner create(@NonNull ModuleManager manager) {
+    if (SunshowerKernel.hasKernelOptions()) {
+      val options = SunshowerKernel.getKernelOptions();
+      return new ShutdownPlanner(
+          manager,
+          options.getShutdownConcurrency(),
+          options.getPluginStopTimeout(),
+          options.getPluginStopGrace());
+    }
+    return new ShutdownPlanner(
+        manager,
+        Runtime.getRuntime().availableProcessors(),
+        DEFAULT_STOP_TIMEOUT_MILLIS,
+        DEFAULT_GRACE_MILLIS);
+  }
+
+  /** @return the shutdown, run on its own (daemon) thread */
+  public CompletableFuture<ShutdownReport> shutdownAsync() {
+    return CompletableFuture.supplyAsync(
+        this::shutdown,
+        task -> {
+          val thread = new Thread(task, "kernel-shutdown");
+          thread.setDaemon(true);
+          thread.start();
+        });
+  }
+
+  /** @return the report, once every plugin has stopped (or been abandoned) */
+  public ShutdownReport shutdown() {
+    val started = System.nanoTime();
+    val waves = plan();
+    val entries = Collections.synchronizedList(new ArrayList<ShutdownReport.Entry>());
+    val instance = instances.incrementAndGet();
+    val counter = new AtomicInteger();
+    val executor =
+        Executors.newFixedThreadPool(
+            concurrency,
+            task -> {
+              val thread =
+                  new Thread(
+                      task, "kernel-shutdown-" + instance + "-thread-" + counter.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    try {
+      int index = 0;
+      for (val wave : waves) {
+        val number = index++;
+        val stops = new ArrayList<Future<?>>(wave.size());
+        for (val module : wave) {
+          stops.add(executor.submit(() -> stopLogged(module, number, entries)));
+        }
+        for (val stop : stops) {
+          await(stop);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    val report = new ShutdownReport(entries, waves.size(), System.nanoTime() - started);
+    log.log(
+        Level.INFO,
+        "kernel.shutdown.complete",
+        new Object[] {
+          entries.size(),
+          waves.size(),
+          TimeUnit.NANOSECONDS.toMillis(report.getElapsedNanos()),
+          report.count(ShutdownReport.Outcome.Interrupted),
+          report.count(ShutdownReport.Outcome.Forced)
+        });
+    if (log.isLoggable(Level.FINE)) {
+      log.log(Level.FINE, report.toString());
+    }
+    return report;
+  }
+
+  /** @return the plugins to stop, dependents first, grouped into waves that may stop in parallel */
+  List<List<Module>> plan() {
+    val modules = manager.getModules();
+    val coordinates = new LinkedHashSet<Coordinate>(modules.size());
+    for (val module : modules) {
+      coordinates.add(module.getCoordinate());
+    }
+    final Schedule<DirectedGraph.Edge<Coordinate>, Coordinate> schedule;
+    try {
+      val graph = manager.getDependencyGraph();
+      schedule =
+          graph instanceof DefaultDependencyGraph
+              ? ((DefaultDependencyGraph) graph)
+                  .getSchedule(coordinates, DefaultDependencyGraph.Direction.Dependencies)
+              : new ParallelScheduler<DirectedGraph.Edge<Coordinate>, Coordinate>()
+                  .apply(graph.getGraph());
+    } catch (IllegalStateException ex) {
+      // cyclic--there's no safe order, so stop everything at once
+      log.log(Level.WARNING, "kernel.shutdown.cyclic", ex.getMessage());
+      return Collections.singletonList(new ArrayList<>(modules));
+    }
+
+    val result = new ArrayList<List<Module>>(schedule.size());
+    val scheduled = new LinkedHashSet<Coordinate>(coordinates.size());
+    for (val stage : schedule.reverse()) {
+      val wave = new ArrayList<Module>(stage.size());
+      for (val task : stage.getTasks()) {
+        val coordinate = task.getValue();
+        if (coordinates.contains(coordinate) && scheduled.add(coordinate)) {
+          val module = manager.getModule(coordinate);
+          if (module != null) {
+            wave.add(module);
+          }
+        }
+      }
+      if (!wave.isEmpty()) {
+        result.add(wave);
+      }
+    }
+
+    // anything the graph doesn't know about depends on nothing we know of: stop it last
+    val rest = new ArrayList<Module>();
+    for (val module : modules) {
+      if (!scheduled.contains(module.getCoordinate())) {
+        rest.add(module);
+      }
+    }
+    if (!rest.isEmpty()) {
+      result.add(rest);
+    }
+    return result;
+  }
+
+  /** stop a plugin, logging (and reporting) a failure against the plugin it came from */
+  private void stopLogged(Module module, int wave, List<ShutdownReport.Entry> entries) {
+    val started = System.nanoTime();
+    try {
+      entries.add(stop(module, wave));
+    } catch (RuntimeException | Error ex) {
+      val coordinate = module.getCoordinate();
+      log.log(Level.WARNING, "kernel.shutdown.plugin.failed", new Object[] {coordinate, ex});
+      entries.add(
+          entry(coordinate, wave, ShutdownReport.Outcome.Failed, started, String.valueOf(ex)));
+    }
+  }
+
+  ShutdownReport.Entry stop(Module module, int wave) {
+    val coordinate = module.getCoordinate();
+    val started = System.nanoTime();
+    if (manager instanceof DefaultModuleManager
+        && ((DefaultModuleManager) manager).getDeferredActivations().cancel(coordinate)) {
+      return entry(coordinate, wave, ShutdownReport.Outcome.Skipped, started, null);
+    }
+    val queue = module.getTaskQueue();
+    if (queue == null) {
+      return entry(coordinate, wave, ShutdownReport.Outcome.Skipped, started, null);
+    }
+
+    // stop on a thread we can walk away from
+    val failure = new AtomicReference<Throwable>();
+    val stopper =
+        new Thread(
+            () -> {
+              try {
+                queue.stop();
+              } catch (Throwable ex) { // NOPMD
+                failure.set(ex);
+              }
+            },
+            "kernel-shutdown-" + coordinate.toCanonicalForm());
+    stopper.setDaemon(true);
+    stopper.start();
+
+    ShutdownReport.Outcome outcome = ShutdownReport.Outcome.Stopped;
+    try {
+      stopper.join(stopTimeoutMillis);
+      if (stopper.isAlive()) {
+        log.log(Level.WARNING, "kernel.shutdown.plugin.overdue", coordinate);
+        outcome = ShutdownReport.Outcome.Interrupted;
+        if (queue instanceof ModuleThread) {
+          ((ModuleThread) queue).interrupt();
+        }
+        stopper.interrupt();
+        stopper.join(graceMillis);
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    if (stopper.isAlive()) {
+      log.log(Level.WARNING, "kernel.shutdown.plugin.forced", coordinate);
+      if (queue instanceof ModuleThread) {
+        ((ModuleThread) queue).forceUnload();
+      }
+      return entry(coordinate, wave, ShutdownReport.Outcome.Forced, started, null);
+    }
+    val ex = failure.get();
+    if (ex != null) {
+      log.log(Level.WARNING, "kernel.shutdown.plugin.failed", new Object[] {coordinate, ex});
+      return entry(coordinate, wave, ShutdownReport.Outcome.Failed, started, String.valueOf(ex));
+    }
+    return entry(coordinate, wave, outcome, started, null);
+  }
+
+  private static ShutdownReport.Entry entry(
+      Coordinate coordinate,
+      int wave,
+      ShutdownReport.Outcome outcome,
+      long started,
+      String failure) {
+    return new ShutdownReport.Entry(
+        coordinate, wave, outcome, System.nanoTime() - started, failure);
+  }
+
+  /** stopLogged handles its own failures: this only waits */
+  private static void await(Future<?> stop) {
+    try {
+      stop.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException ex) {
+      throw new IllegalStateException(ex.getCause());
+    }
+  }
+}
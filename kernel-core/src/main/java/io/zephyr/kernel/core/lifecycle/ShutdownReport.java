@@ -0,0 +1,101 @@
+package io.zephyr.kernel.core.lifecycle;
+
+import io.zephyr.kernel.Coordinate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import lombok.val;
+
+/** how each plugin stopped during a kernel shutdown, and how long it took */
+public final class ShutdownReport {
+
+  /** how a plugin stopped */
+  public enum Outcome {
+    /** stopped within its deadline */
+    Stopped,
+
+    /** stopped after its thread was interrupted */
+    Interrupted,
+
+    /** didn't stop even after being interrupted, and was force-unloaded */
+    Forced,
+
+    /** its stop threw */
+    Failed,
+
+    /** there was nothing to stop (never started, or lazy and never used) */
+    Skipped
+  }
+
+  /** the plugins, in the order they finished stopping */
+  @Getter private final List<Entry> entries;
+
+  /** the number of waves plugins were stopped in */
+  @Getter private final int waves;
+
+  /** the wall-clock time the whole shutdown took */
+  @Getter private final long elapsedNanos;
+
+  ShutdownReport(List<Entry> entries, int waves, long elapsedNanos) {
+    this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+    this.waves = waves;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * @param outcome the outcome to count
+   * @return the number of plugins that stopped with that outcome
+   */
+  public int count(Outcome outcome) {
+    int result = 0;
+    for (val entry : entries) {
+      if (entry.outcome == outcome) {
+        result++;
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    val result =
+        new StringBuilder()
+            .append(
+                String.format(
+                    "shutdown: %d plugins in %d waves, %d ms%n",
+                    entries.size(), waves, TimeUnit.NANOSECONDS.toMillis(elapsedNanos)));
+    for (val entry : entries) {
+      result.append(
+          String.format(
+              "  wave %-3d %-12s %8d ms  %s%s%n",
+              entry.wave,
+              entry.outcome,
+              TimeUnit.NANOSECONDS.toMillis(entry.elapsedNanos),
+              entry.coordinate.toCanonicalForm(),
+              entry.failure == null ? "" : " (" + entry.failure + ")"));
+    }
+    return result.toString();
+  }
+
+  /** a single plugin's stop */
+  @Getter
+  public static final class Entry {
+    private final Coordinate coordinate;
+    private final int wave;
+    private final Outcome outcome;
+    private final long elapsedNanos;
+
+    /** why the stop failed. Null unless the outcome is Failed */
+    private final String failure;
+
+    Entry(Coordinate coordinate, int wave, Outcome outcome, long elapsedNanos, String failure) {
+      this.coordinate = coordinate;
+      this.wave = wave;
+      this.outcome = outcome;
+      this.elapsedNanos = elapsedNanos;
+      this.failure = failure;
+    }
+  }
+}
@@ -3,7 +3,10 @@ package io.zephyr.kernel.dependencies;
 import io.sunshower.gyre.*;
 import io.zephyr.kernel.Coordinate;
 import io.zephyr.kernel.Module;
+import io.zephyr.kernel.module.ModuleStateIndex;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.val;
 
@@ -14,17 +17,226 @@ import lombok.val;
 })
 public final class DefaultDependencyGraph implements DependencyGraph, Cloneable {
 
+  /** the most schedules a graph remembers */
+  public static final int SCHEDULE_CACHE_SIZE = 64;
+
+  /** which way a schedule walks the graph from its roots */
+  public enum Direction {
+    /** the roots and everything they depend on (starting) */
+    Dependencies,
+    /** the roots and everything that depends on them (stopping) */
+    Dependents
+  }
+
   final TrieMap<Coordinate, Module> modules;
   final Graph<DirectedGraph.Edge<Coordinate>, Coordinate> dependencyGraph;
 
+  /** the modules in this graph by state, type and group */
+  @Getter final ModuleStateIndex stateIndex;
+
+  /** missing coordinate -> the modules in this graph waiting for it */
+  private final Map<Coordinate, Set<Coordinate>> waitingFor;
+
+  /** bumped by every structural change */
+  private final AtomicLong version;
+
+  /** transitive closure of the dependency graph. Null if this graph isn't indexed */
+  private final ReachabilityIndex<Coordinate> reachability;
+
+  /** guarded by itself */
+  private final Map<ScheduleKey, Schedule<DirectedGraph.Edge<Coordinate>, Coordinate>> schedules;
+
   public DefaultDependencyGraph() {
+    this(true);
+  }
+
+  /**
+   * @param indexReachability whether to maintain a transitive-closure index. Indexed graphs answer
+   *     transitive dependent/dependency queries (and so plan stops and starts) without walking the
+   *     graph, at the cost of a few bitsets per module
+   */
+  public DefaultDependencyGraph(boolean indexReachability) {
     dependencyGraph = new AbstractDirectedGraph<>();
+    reachability = indexReachability ? new ReachabilityIndex<>() : null;
     modules = new CompactTrieMap<>(new CoordinateAnalyzer());
+    stateIndex = new ModuleStateIndex();
+    waitingFor = new HashMap<>();
+    version = new AtomicLong();
+    schedules = createScheduleCache();
   }
 
+  /**
+   * clones are prospective--don't attach their index to the modules' lifecycles. Nor do they get a
+   * reachability index: copying one is quadratic in the graph's size, and a clone is typically only
+   * checked for cycles and thrown away
+   */
   private DefaultDependencyGraph(DefaultDependencyGraph graph) {
     dependencyGraph = graph.dependencyGraph.clone();
+    reachability = null;
     modules = new CompactTrieMap<>(new CoordinateAnalyzer(), graph.modules);
+    stateIndex = new ModuleStateIndex(false);
+    stateIndex.addAll(modules.values());
+    waitingFor = new HashMap<>();
+    for (val waiting : graph.waitingFor.entrySet()) {
+      waitingFor.put(waiting.getKey(), new LinkedHashSet<>(waiting.getValue()));
+    }
+    version = new AtomicLong(graph.getVersion());
+    schedules = createScheduleCache();
+  }
+
+  /** @return this graph's version. Changes whenever a module is added or removed */
+  public long getVersion() {
+    return version.get();
+  }
+
+  /**
+   * compute (or recall) the parallel schedule over the roots and everything reachable from them in
+   * the given direction. Schedules are cached by (roots, direction, version) so repeated requests
+   * against an unchanged graph skip planning altogether
+   *
+   * @param roots the coordinates to schedule from
+   * @param direction which way to walk the graph
+   * @return the schedule. Must not be modified
+   * @throws IllegalStateException if the reachable subgraph contains a cycle
+   */
+  public Schedule<DirectedGraph.Edge<Coordinate>, Coordinate> getSchedule(
+      @NonNull Set<Coordinate> roots, @NonNull Direction direction) {
+    val key = new ScheduleKey(roots, direction, version.get());
+    synchronized (schedules) {
+      val cached = schedules.get(key);
+      if (cached != null) {
+        return cached;
+      }
+    }
+    val schedule =
+        new ParallelScheduler<DirectedGraph.Edge<Coordinate>, Coordinate>()
+            .apply(reachable(roots, direction));
+    synchronized (schedules) {
+      // the graph may have changed while we planned--don't remember a stale schedule
+      if (key.version == version.get()) {
+        schedules.put(key, schedule);
+      }
+    }
+    return schedule;
+  }
+
+  /** @return the number of schedules currently cached */
+  public int getCachedScheduleCount() {
+    synchronized (schedules) {
+      return schedules.size();
+    }
+  }
+
+  /** @return true if this graph maintains a transitive-closure index */
+  public boolean isReachabilityIndexed() {
+    return reachability != null;
+  }
+
+  /**
+   * @param coordinate the module
+   * @return every module that depends on the module, directly or transitively
+   */
+  public Set<Coordinate> getTransitiveDependents(@NonNull Coordinate coordinate) {
+    if (reachability != null) {
+      return reachability.getReaching(coordinate);
+    }
+    return closure(
+        new ReverseSubgraphTransformation<DirectedGraph.Edge<Coordinate>, Coordinate>(coordinate)
+            .apply(dependencyGraph),
+        coordinate);
+  }
+
+  /**
+   * @param coordinate the module
+   * @return every module that the module depends on, directly or transitively
+   */
+  public Set<Coordinate> getTransitiveDependencies(@NonNull Coordinate coordinate) {
+    if (reachability != null) {
+      return reachability.getReachableFrom(coordinate);
+    }
+    return closure(
+        new SubgraphTransformation<DirectedGraph.Edge<Coordinate>, Coordinate>(coordinate)
+            .apply(dependencyGraph),
+        coordinate);
+  }
+
+  private static Set<Coordinate> closure(
+      Graph<DirectedGraph.Edge<Coordinate>, Coordinate> subgraph, Coordinate root) {
+    val result = new LinkedHashSet<>(subgraph.vertexSet());
+    result.remove(root);
+    return result;
+  }
+
+  private Graph<DirectedGraph.Edge<Coordinate>, Coordinate> reachable(
+      Set<Coordinate> roots, Direction direction) {
+    if (reachability != null) {
+      return induced(roots, direction);
+    }
+    Graph<DirectedGraph.Edge<Coordinate>, Coordinate> result = null;
+    for (val root : roots) {
+      val subgraph =
+          direction == Direction.Dependencies
+              ? new SubgraphTransformation<DirectedGraph.Edge<Coordinate>, Coordinate>(root)
+                  .apply(dependencyGraph)
+              : new ReverseSubgraphTransformation<DirectedGraph.Edge<Coordinate>, Coordinate>(root)
+                  .apply(dependencyGraph);
+      if (result == null) {
+        result = subgraph;
+      } else {
+        for (val vertex : subgraph.vertexSet()) {
+          result.add(vertex);
+          for (val neighbor : subgraph.neighbors(vertex, EdgeFilters.acceptAll())) {
+            result.connect(vertex, neighbor.snd, neighbor.fst);
+          }
+        }
+      }
+    }
+    return result == null ? dependencyGraph.createNew() : result;
+  }
+
+  /** the subgraph induced by the roots and their closure--read straight off the index */
+  private Graph<DirectedGraph.Edge<Coordinate>, Coordinate> induced(
+      Set<Coordinate> roots, Direction direction) {
+    val vertices = new LinkedHashSet<Coordinate>(roots);
+    for (val root : roots) {
+      vertices.addAll(
+          direction == Direction.Dependencies
+              ? reachability.getReachableFrom(root)
+              : reachability.getReaching(root));
+    }
+    val result = dependencyGraph.createNew();
+    for (val vertex : vertices) {
+      result.add(vertex);
+      if (!dependencyGraph.containsVertex(vertex)) {
+        continue;
+      }
+      for (val neighbor : dependencyGraph.neighbors(vertex, EdgeFilters.acceptAll())) {
+        if (vertices.contains(neighbor.snd)) {
+          result.connect(vertex, neighbor.snd, neighbor.fst);
+        }
+      }
+    }
+    return result;
+  }
+
+  private void changed() {
+    version.incrementAndGet();
+    synchronized (schedules) {
+      schedules.clear();
+    }
+  }
+
+  private static Map<ScheduleKey, Schedule<DirectedGraph.Edge<Coordinate>, Coordinate>>
+      createScheduleCache() {
+    return new LinkedHashMap<>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(
+          Map.Entry<ScheduleKey, Schedule<DirectedGraph.Edge<Coordinate>, Coordinate>> eldest) {
+        return size() > SCHEDULE_CACHE_SIZE;
+      }
+    };
   }
 
   @Override
@@ -70,85 +282,141 @@ public final class DefaultDependencyGraph implements DependencyGraph, Cloneable
 
   @Override
   public UnsatisfiedDependencySet getUnresolvedDependencies(@NonNull Module module) {
-    val coordinate = module.getCoordinate();
-
-    val dependencies = module.getDependencies();
-
-    val result = new LinkedHashSet<Coordinate>();
-    for (val dependency : dependencies) {
-      val depcoord = dependency.getCoordinate();
-      if (!modules.containsKey(depcoord)) {
-        result.add(depcoord);
-      }
-    }
-    if (result.isEmpty()) {
-      return new UnsatisfiedDependencySet(coordinate, Collections.emptySet());
-    } else {
-      return new UnsatisfiedDependencySet(coordinate, result);
-    }
+    return unsatisfied(module, Collections.emptyMap());
   }
 
   @Override
   public Set<UnsatisfiedDependencySet> getUnresolvedDependencies(Collection<Module> modules) {
-    val prospective = new HashMap<>(this.modules);
-    for (val module : modules) {
-      prospective.put(module.getCoordinate(), module);
-    }
+    val batch = batch(modules);
     val results = new LinkedHashSet<UnsatisfiedDependencySet>();
     for (val module : modules) {
-      val unsatisfied = new LinkedHashSet<Coordinate>();
-      for (val dependency : module.getDependencies()) {
-        val depcoord = dependency.getCoordinate();
-        if (!prospective.containsKey(depcoord)) {
-          unsatisfied.add(depcoord);
-        }
-      }
-
-      if (unsatisfied.isEmpty()) {
-        results.add(new UnsatisfiedDependencySet(module.getCoordinate(), Collections.emptySet()));
-      } else {
-        results.add(new UnsatisfiedDependencySet(module.getCoordinate(), unsatisfied));
-      }
+      results.add(unsatisfied(module, batch));
     }
     return results;
   }
 
   @Override
   public Set<UnsatisfiedDependencySet> addAll(Collection<Module> modules) {
-    val prospective = new HashMap<>(this.modules);
-    for (val module : modules) {
-      prospective.put(module.getCoordinate(), module);
-    }
+    val batch = batch(modules);
     val results = new LinkedHashSet<UnsatisfiedDependencySet>();
+    boolean changed = false;
     for (val module : modules) {
-      val unsatisfied = new LinkedHashSet<Coordinate>();
-      for (val dependency : module.getDependencies()) {
-        val depcoord = dependency.getCoordinate();
-        if (!prospective.containsKey(depcoord)) {
-          unsatisfied.add(depcoord);
-        }
-      }
-      if (unsatisfied.isEmpty()) {
-        results.add(new UnsatisfiedDependencySet(module.getCoordinate(), Collections.emptySet()));
+      val result = unsatisfied(module, batch);
+      results.add(result);
+      if (result.isSatisfied()) {
+        changed = true;
         val coordinate = module.getCoordinate();
-        this.modules.put(coordinate, module);
+        val previous = this.modules.put(coordinate, module);
+        if (previous != null && previous != module) {
+          stateIndex.remove(previous);
+        }
+        stateIndex.add(module);
         dependencyGraph.add(coordinate);
+        if (reachability != null) {
+          reachability.add(coordinate);
+        }
         for (val dep : module.getDependencies()) {
-          dependencyGraph.connect(
-              coordinate, dep.getCoordinate(), DirectedGraph.outgoing(dep.getCoordinate()));
+          connect(coordinate, dep.getCoordinate());
         }
-      } else {
-        results.add(new UnsatisfiedDependencySet(module.getCoordinate(), unsatisfied));
+        reattach(coordinate);
       }
     }
+    if (changed) {
+      changed();
+    }
     return results;
   }
 
   @Override
   public void remove(Module module) {
     val coord = module.getCoordinate();
+    if (modules.containsKey(coord)) {
+      // everything that depended on the module now waits for it
+      for (val dependent : directDependents(coord)) {
+        if (!coord.equals(dependent)) {
+          waitingFor.computeIfAbsent(coord, k -> new LinkedHashSet<>()).add(dependent);
+        }
+      }
+    }
     dependencyGraph.remove(coord);
-    modules.remove(coord);
+    if (reachability != null) {
+      reachability.remove(coord);
+    }
+    val removed = modules.remove(coord);
+    stopWaiting(removed == null ? module : removed);
+    stateIndex.remove(removed == null ? module : removed);
+    changed();
+  }
+
+  /** @return the coordinates that modules in this graph depend on but which aren't present */
+  public Set<Coordinate> getMissing() {
+    return Collections.unmodifiableSet(new LinkedHashSet<>(waitingFor.keySet()));
+  }
+
+  /**
+   * @param missing a coordinate that isn't in this graph
+   * @return the modules in this graph that depend on it
+   */
+  public Set<Coordinate> getWaiting(@NonNull Coordinate missing) {
+    val waiting = waitingFor.get(missing);
+    return waiting == null
+        ? Collections.emptySet()
+        : Collections.unmodifiableSet(new LinkedHashSet<>(waiting));
+  }
+
+  /** only the batch's modules--the graph's own are consulted in place */
+  private static Map<Coordinate, Module> batch(Collection<Module> modules) {
+    val batch = new HashMap<Coordinate, Module>(modules.size() * 2);
+    for (val module : modules) {
+      batch.put(module.getCoordinate(), module);
+    }
+    return batch;
+  }
+
+  private UnsatisfiedDependencySet unsatisfied(Module module, Map<Coordinate, Module> batch) {
+    Set<Coordinate> unsatisfied = null;
+    for (val dependency : module.getDependencies()) {
+      val depcoord = dependency.getCoordinate();
+      if (!(batch.containsKey(depcoord) || modules.containsKey(depcoord))) {
+        if (unsatisfied == null) {
+          unsatisfied = new LinkedHashSet<>();
+        }
+        unsatisfied.add(depcoord);
+      }
+    }
+    return new UnsatisfiedDependencySet(
+        module.getCoordinate(), unsatisfied == null ? Collections.emptySet() : unsatisfied);
+  }
+
+  private void connect(Coordinate dependent, Coordinate dependency) {
+    dependencyGraph.connect(dependent, dependency, DirectedGraph.outgoing(dependency));
+    if (reachability != null) {
+      reachability.connect(dependent, dependency);
+    }
+  }
+
+  /** reconnect the modules that were waiting for a coordinate that just arrived */
+  private void reattach(Coordinate coordinate) {
+    val waiting = waitingFor.remove(coordinate);
+    if (waiting != null) {
+      for (val dependent : waiting) {
+        if (modules.containsKey(dependent)) {
+          connect(dependent, coordinate);
+        }
+      }
+    }
+  }
+
+  /** a removed module no longer waits on anything */
+  private void stopWaiting(Module module) {
+    val coordinate = module.getCoordinate();
+    for (val dependency : module.getDependencies()) {
+      val depcoord = dependency.getCoordinate();
+      val waiting = waitingFor.get(depcoord);
+      if (waiting != null && waiting.remove(coordinate) && waiting.isEmpty()) {
+        waitingFor.remove(depcoord);
+      }
+    }
   }
 
   @Override
@@ -162,10 +430,21 @@ public final class DefaultDependencyGraph implements DependencyGraph, Cloneable
     if (module == null) {
       return Collections.emptySet();
     }
-    val dependents = dependencyGraph.getDependents(coordinate, EdgeFilters.acceptAll());
     val results = new LinkedHashSet<Module>();
-    for (val dependent : dependents) {
-      results.add(modules.get(dependencyGraph.getSource(dependent)));
+    for (val dependent : directDependents(coordinate)) {
+      results.add(modules.get(dependent));
+    }
+    return results;
+  }
+
+  /** the index keeps predecessors; the graph itself has to scan every adjacency list */
+  private Set<Coordinate> directDependents(Coordinate coordinate) {
+    if (reachability != null) {
+      return reachability.getPredecessors(coordinate);
+    }
+    val results = new LinkedHashSet<Coordinate>();
+    for (val edge : dependencyGraph.getDependents(coordinate, EdgeFilters.acceptAll())) {
+      results.add(dependencyGraph.getSource(edge));
     }
     return results;
   }
@@ -206,4 +485,33 @@ public final class DefaultDependencyGraph implements DependencyGraph, Cloneable
   public String toString() {
     return new GraphWriter<DirectedGraph.Edge<Coordinate>, Coordinate>().write(dependencyGraph);
   }
+
+  static final class ScheduleKey {
+    final Set<Coordinate> roots;
+    final Direction direction;
+    final long version;
+
+    ScheduleKey(Set<Coordinate> roots, Direction direction, long version) {
+      this.roots = Collections.unmodifiableSet(new HashSet<>(roots));
+      this.direction = direction;
+      this.version = version;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ScheduleKey)) {
+        return false;
+      }
+      val that = (ScheduleKey) o;
+      return version == that.version && direction == that.direction && roots.equals(that.roots);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(roots, direction, version);
+    }
+  }
 }
@@ -2,10 +2,15 @@ package io.zephyr.kernel.launch;
 
 import io.zephyr.common.io.FilePermissionChecker;
 import io.zephyr.common.io.Files;
+import io.zephyr.common.io.GroupCommitWriter;
 import io.zephyr.common.io.Strings;
 import io.zephyr.kernel.Options;
+import io.zephyr.kernel.concurrency.AsynchronousEventSource;
+import io.zephyr.kernel.concurrency.ModuleThread;
+import io.zephyr.kernel.concurrency.WorkerPool;
 import io.zephyr.kernel.core.AbstractValidatable;
 import io.zephyr.kernel.core.SunshowerKernel;
+import io.zephyr.kernel.core.lifecycle.ShutdownPlanner;
 import io.zephyr.kernel.log.Logging;
 import io.zephyr.kernel.misc.SuppressFBWarnings;
 import java.io.File;
@@ -65,6 +70,166 @@ public class KernelOptions extends AbstractValidatable<KernelOptions>
       type = Integer.class)
   private Integer kernelConcurrency = 2;
 
+  /**
+   * Resize the gyre pool between --concurrency-floor and --concurrency-ceiling threads based on
+   * queue depth, task latency and host CPU utilization, starting from --max-concurrency. Requires
+   * the Executor worker pool
+   */
+  @Getter
+  @Setter
+  @CommandLine.Option(names = {"--adaptive-concurrency"})
+  private boolean adaptiveConcurrency;
+
+  /** Specify the fewest threads an adaptive gyre pool may shrink to */
+  @Getter
+  @Setter
+  @CommandLine.Option(
+      names = {"--concurrency-floor"},
+      defaultValue = "1",
+      type = Integer.class)
+  private Integer concurrencyFloor = 1;
+
+  /**
+   * Specify the most threads an adaptive gyre pool may grow to. Defaults to four threads per
+   * available processor
+   */
+  @Setter
+  @CommandLine.Option(
+      names = {"--concurrency-ceiling"},
+      type = Integer.class)
+  private Integer concurrencyCeiling;
+
+  /**
+   * Specify the worker pool gyre processes run on: Executor (thread pools) or ForkJoin
+   * (work-stealing pools sized by --max-concurrency and --kernel-concurrency)
+   */
+  @Getter
+  @Setter
+  @CommandLine.Option(
+      names = {"--worker-pool"},
+      defaultValue = "Executor",
+      type = WorkerPool.Type.class)
+  private WorkerPool.Type workerPool = WorkerPool.Type.Executor;
+
+  /**
+   * Specify the maximum time (in milliseconds) a kernel state write (plugin descriptors, module
+   * lists) may wait to be committed alongside other writes. Larger values batch more writes into
+   * each sync at the cost of latency; 0 commits each write as soon as possible
+   */
+  @Getter
+  @Setter
+  @CommandLine.Option(
+      names = {"--max-commit-latency"},
+      defaultValue = "5",
+      type = Long.class)
+  private Long maxCommitLatency = GroupCommitWriter.DEFAULT_MAX_COMMIT_LATENCY_MILLIS;
+
+  /**
+   * Specify the maximum number of tasks (service and module events, tracker callbacks) that may be
+   * pending on each plugin's task queue. Rounded up to a power of two
+   */
+  @Getter
+  @Setter
+  @CommandLine.Option(
+      names = {"--module-queue-capacity"},
+      defaultValue = "4096",
+      type = Integer.class)
+  private Integer moduleQueueCapacity = ModuleThread.DEFAULT_CAPACITY;
+
+  /**
+   * Specify what happens when a task is scheduled against a plugin whose task queue is full: Block
+   * (wait for space), Reject (fail the task) or CallerRuns (run the task on the scheduling thread)
+   */
+  @Getter
+  @Setter
+  @CommandLine.Option(
+      names = {"--module-queue-overflow"},
+      defaultValue = "Block",
+      type = ModuleThread.OverflowPolicy.class)
+  private ModuleThread.OverflowPolicy moduleQueueOverflowPolicy = ModuleThread.OverflowPolicy.Block;
+
+  /**
+   * Specify the most plugins that may be stopped at once during kernel shutdown. Defaults to one
+   * per available processor
+   */
+  @Setter
+  @CommandLine.Option(
+      names = {"--shutdown-concurrency"},
+      type = Integer.class)
+  private Integer shutdownConcurrency;
+
+  /**
+   * Specify how long (in milliseconds) each plugin may take to stop during kernel shutdown before
+   * its thread is interrupted
+   */
+  @Getter
+  @Setter
+  @CommandLine.Option(
+      names = {"--plugin-stop-timeout"},
+      defaultValue = "10000",
+      type = Long.class)
+  private Long pluginStopTimeout = ShutdownPlanner.DEFAULT_STOP_TIMEOUT_MILLIS;
+
+  /**
+   * Specify how long (in milliseconds) an interrupted plugin may take to stop during kernel
+   * shutdown before it is force-unloaded
+   */
+  @Getter
+  @Setter
+  @CommandLine.Option(
+      names = {"--plugin-stop-grace"},
+      defaultValue = "2000",
+      type = Long.class)
+  private Long pluginStopGrace = ShutdownPlanner.DEFAULT_GRACE_MILLIS;
+
+  /**
+   * Specify a directory to write a timing profile (and a Chrome trace) of every kernel process to.
+   * Profiling is off unless this is set
+   */
+  @Getter
+  @Setter
+  @CommandLine.Option(names = {"--profile-processes"})
+  private File processProfileDirectory;
+
+  /**
+   * Don't publish the kernel's metrics (install-phase timings and sizes, among others) as MBeans
+   * under <code>io.zephyr:type=Metrics</code>. They're published by default
+   */
+  @Getter
+  @Setter
+  @CommandLine.Option(names = {"--disable-jmx-metrics"})
+  private boolean jmxMetricsDisabled;
+
+  /**
+   * Specify how long (in milliseconds) an event listener may take to handle an event before it's
+   * reported as slow
+   */
+  @Getter
+  @Setter
+  @CommandLine.Option(
+      names = {"--event-listener-budget"},
+      defaultValue = "100",
+      type = Long.class)
+  private Long eventListenerBudget = AsynchronousEventSource.DEFAULT_LISTENER_BUDGET_MILLIS;
+
+  /** Specify how many slow deliveries an event listener may make before it's quarantined */
+  @Getter
+  @Setter
+  @CommandLine.Option(
+      names = {"--event-listener-strikes"},
+      defaultValue = "3",
+      type = Integer.class)
+  private Integer eventListenerStrikes = AsynchronousEventSource.DEFAULT_QUARANTINE_STRIKES;
+
+  /**
+   * Deliver events to repeatedly slow event listeners on an isolated queue, so that they can't
+   * delay other listeners' events. Slow listeners are only reported unless this is set
+   */
+  @Getter
+  @Setter
+  @CommandLine.Option(names = {"--event-listener-quarantine"})
+  private boolean eventListenerQuarantine;
+
   /** Specify logging level. Defaults to Level.WARNING */
   @Getter
   @Setter
@@ -73,8 +238,28 @@ public class KernelOptions extends AbstractValidatable<KernelOptions>
       converter = LogLevelConverter.class)
   private Level logLevel = Level.WARNING;
 
+  /** @return the most threads an adaptive gyre pool may grow to */
+  public Integer getConcurrencyCeiling() {
+    if (concurrencyCeiling == null) {
+      return Math.max(
+          concurrencyFloor == null ? 1 : concurrencyFloor,
+          4 * Runtime.getRuntime().availableProcessors());
+    }
+    return concurrencyCeiling;
+  }
+
+  /** @return the most plugins that may be stopped at once during kernel shutdown */
+  public Integer getShutdownConcurrency() {
+    if (shutdownConcurrency == null) {
+      return Runtime.getRuntime().availableProcessors();
+    }
+    return shutdownConcurrency;
+  }
+
   public KernelOptions() {
     registerStep(KernelOptionsValidations.homeDirectory());
+    registerStep(KernelOptionsValidations.workerPool());
+    registerStep(KernelOptionsValidations.shutdown());
   }
 
   public static File getKernelRootDirectory() throws AccessDeniedException {
@@ -1,6 +1,8 @@
 package io.zephyr.kernel.launch;
 
 import io.zephyr.common.ChainedValidationStep;
+import io.zephyr.kernel.concurrency.WorkerPool;
+import io.zephyr.kernel.core.ValidationErrors;
 import io.zephyr.kernel.core.ValidationStep;
 import io.zephyr.kernel.launch.validations.SystemEnvironmentVariableValidationStep;
 import io.zephyr.kernel.launch.validations.SystemPropertyFileValidationStep;
@@ -18,4 +20,35 @@ public class KernelOptionsValidations {
 
     return result;
   }
+
+  /** adaptive concurrency resizes thread-pool executors: reject it for any other worker pool */
+  public static ValidationStep<KernelOptions> workerPool() {
+    return (validatable, target) -> {
+      if (target.isAdaptiveConcurrency() && target.getWorkerPool() != WorkerPool.Type.Executor) {
+        throw new IllegalArgumentException(
+            "Error: --adaptive-concurrency requires --worker-pool Executor, not "
+                + target.getWorkerPool());
+      }
+      return ValidationErrors.empty();
+    };
+  }
+
+  /**
+   * reject shutdown settings the shutdown planner can't work with now, rather than once the kernel
+   * has begun shutting down. A timeout of 0 would wait on a plugin forever
+   */
+  public static ValidationStep<KernelOptions> shutdown() {
+    return (validatable, target) -> {
+      requirePositive("--shutdown-concurrency", target.getShutdownConcurrency());
+      requirePositive("--plugin-stop-timeout", target.getPluginStopTimeout());
+      requirePositive("--plugin-stop-grace", target.getPluginStopGrace());
+      return ValidationErrors.empty();
+    };
+  }
+
+  private static void requirePositive(String option, Number value) {
+    if (value == null || value.longValue() <= 0) {
+      throw new IllegalArgumentException("Error: " + option + " must be positive, not " + value);
+    }
+  }
 }
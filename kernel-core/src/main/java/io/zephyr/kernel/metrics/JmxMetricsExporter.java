@@ -0,0 +1,223 @@
+package io.zephyr.kernel.metrics;
+
+import io.zephyr.kernel.log.Logging;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * publishes a kernel's metrics as MBeans named <code>io.zephyr:type=Metrics,kernel=[kernel],
+ * name=[metric]</code>. Counters expose <code>Count</code>, gauges <code>Value</code> and
+ * histograms <code>Count, Min, Max, Mean, P50, P90, P99</code> and <code>P999</code>. Attributes
+ * are read from the metric whenever they're requested, so exporting costs nothing until something
+ * looks
+ */
+public final class JmxMetricsExporter implements KernelMetrics.Listener, AutoCloseable {
+
+  static final Logger log = Logging.get(JmxMetricsExporter.class, "Metrics");
+
+  /** the JMX domain metrics are registered under */
+  public static final String DOMAIN = "io.zephyr";
+
+  private final String kernel;
+  private final MBeanServer server;
+  private final KernelMetrics metrics;
+  private final Map<String, ObjectName> registered;
+
+  /**
+   * @param metrics the metrics to export
+   * @param server the server to register them with
+   * @param kernel distinguishes this kernel's metrics from any other kernel's in the same VM
+   */
+  public JmxMetricsExporter(
+      @NonNull KernelMetrics metrics, @NonNull MBeanServer server, @NonNull String kernel) {
+    this.kernel = kernel;
+    this.server = server;
+    this.metrics = metrics;
+    this.registered = new ConcurrentHashMap<>();
+  }
+
+  /** register every existing metric, and every metric created from now on */
+  public void start() {
+    metrics.addListener(this);
+  }
+
+  @Override
+  public void onCreated(Metric metric) {
+    try {
+      val name = nameOf(metric);
+      server.registerMBean(new MetricBean(metric), name);
+      registered.put(metric.getName(), name);
+    } catch (JMException ex) {
+      log.log(Level.WARNING, "metrics.jmx.register.failed", new Object[] {metric.getName(), ex});
+    }
+  }
+
+  @Override
+  public void onRemoved(Metric metric) {
+    val name = registered.remove(metric.getName());
+    if (name != null) {
+      unregister(name);
+    }
+  }
+
+  /** stop exporting and unregister every metric */
+  @Override
+  public void close() {
+    metrics.removeListener(this);
+    for (val name : registered.values()) {
+      unregister(name);
+    }
+    registered.clear();
+  }
+
+  private void unregister(ObjectName name) {
+    try {
+      server.unregisterMBean(name);
+    } catch (JMException ex) {
+      log.log(Level.FINE, "metrics.jmx.unregister.failed", new Object[] {name, ex});
+    }
+  }
+
+  /** @return the name the metric is (or would be) registered under */
+  public ObjectName nameOf(Metric metric) throws JMException {
+    return new ObjectName(
+        DOMAIN
+            + ":type=Metrics,kernel="
+            + quoteIfNecessary(kernel)
+            + ",name="
+            + quoteIfNecessary(metric.getName()));
+  }
+
+  private static String quoteIfNecessary(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      if (",=:\"*?\n".indexOf(value.charAt(i)) >= 0) {
+        return ObjectName.quote(value);
+      }
+    }
+    return value;
+  }
+
+  static final class MetricBean implements DynamicMBean {
+    static final String[] HISTOGRAM_ATTRIBUTES = {
+      "Count", "Min", "Max", "Mean", "P50", "P90", "P99", "P999"
+    };
+
+    private final Metric metric;
+    private final MBeanInfo info;
+
+    MetricBean(Metric metric) {
+      this.metric = metric;
+      this.info = describe(metric);
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+      if (metric instanceof Counter && "Count".equals(attribute)) {
+        return ((Counter) metric).getCount();
+      }
+      if (metric instanceof Gauge && "Value".equals(attribute)) {
+        return ((Gauge) metric).getValue();
+      }
+      if (metric instanceof Histogram) {
+        return read(((Histogram) metric).snapshot(), attribute);
+      }
+      throw new AttributeNotFoundException(attribute);
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+      val result = new AttributeList(attributes.length);
+      val snapshot = metric instanceof Histogram ? ((Histogram) metric).snapshot() : null;
+      for (val attribute : attributes) {
+        try {
+          result.add(
+              new Attribute(
+                  attribute,
+                  snapshot == null ? getAttribute(attribute) : read(snapshot, attribute)));
+        } catch (AttributeNotFoundException ex) {
+          // skipped, per the DynamicMBean contract
+        }
+      }
+      return result;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+      throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+      return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+      throw new UnsupportedOperationException(actionName);
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+      return info;
+    }
+
+    private static Object read(Histogram.Snapshot snapshot, String attribute)
+        throws AttributeNotFoundException {
+      switch (attribute) {
+        case "Count":
+          return snapshot.getCount();
+        case "Min":
+          return snapshot.getMin();
+        case "Max":
+          return snapshot.getMax();
+        case "Mean":
+          return snapshot.getMean();
+        case "P50":
+          return snapshot.getValueAtPercentile(50);
+        case "P90":
+          return snapshot.getValueAtPercentile(90);
+        case "P99":
+          return snapshot.getValueAtPercentile(99);
+        case "P999":
+          return snapshot.getValueAtPercentile(99.9);
+        default:
+          throw new AttributeNotFoundException(attribute);
+      }
+    }
+
+    private static MBeanInfo describe(Metric metric) {
+      final MBeanAttributeInfo[] attributes;
+      if (metric instanceof Histogram) {
+        attributes = new MBeanAttributeInfo[HISTOGRAM_ATTRIBUTES.length];
+        for (int i = 0; i < attributes.length; i++) {
+          val name = HISTOGRAM_ATTRIBUTES[i];
+          attributes[i] = attribute(name, "Mean".equals(name) ? double.class : long.class);
+        }
+      } else {
+        attributes =
+            new MBeanAttributeInfo[] {
+              attribute(metric instanceof Gauge ? "Value" : "Count", long.class)
+            };
+      }
+      return new MBeanInfo(
+          metric.getClass().getName(), metric.getName(), attributes, null, null, null);
+    }
+
+    private static MBeanAttributeInfo attribute(String name, Class<?> type) {
+      return new MBeanAttributeInfo(name, type.getName(), name, true, false, false);
+    }
+  }
+}
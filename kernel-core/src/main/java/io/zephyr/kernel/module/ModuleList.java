@@ -0,0 +1,420 @@
+package io.zephyr.kernel.module;
+
+import io.zephyr.kernel.KernelModuleEntry;
+import io.zephyr.kernel.core.KernelException;
+import io.zephyr.kernel.log.Logging;
+import io.zephyr.kernel.misc.SuppressFBWarnings;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * the kernel module list (<code>droplet://kernel/modules.list</code>). The list is stored in a
+ * versioned binary format and read with a single bulk read:
+ *
+ * <pre>
+ *   header:   magic:int version:int indexed:int appended:int indexOffset:long end:long
+ *   records:  (order:int group:str name:str version:str libraryCount:int library:str*)*
+ *   index:    the offsets (long) of the records above, sorted by group, name and version
+ *   appended: records added since the index was last written, in the order they were added
+ * </pre>
+ *
+ * where <code>str</code> is a length-prefixed UTF-8 string. Membership checks binary-search the
+ * index and scan the append region, which never grows past {@link #MAX_APPENDED} records before the
+ * list is compacted. Appends write their records past <code>end</code> and only then rewrite the
+ * header, so an interrupted append is ignored on the next read.
+ *
+ * <p>Lists in the original line-oriented text format are read as they are, and upgraded by the
+ * first append. The file isn't memory-mapped: a mapping can't be released on demand, and while one
+ * is live Windows won't let the file be replaced
+ */
+@SuppressFBWarnings
+@SuppressWarnings({
+  "PMD.DataflowAnomalyAnalysis",
+  "PMD.AvoidInstantiatingObjectsInLoops",
+  "PMD.AvoidLiteralsInIfCondition"
+})
+public final class ModuleList {
+
+  static final Logger log = Logging.get(ModuleList.class);
+
+  static final int MAGIC = 0x7A6D6C73;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 32;
+  static final int MAX_APPENDED = 64;
+
+  static final Comparator<KernelModuleEntry> KEY_ORDER =
+      Comparator.comparing(KernelModuleEntry::getGroup)
+          .thenComparing(KernelModuleEntry::getName)
+          .thenComparing(KernelModuleEntry::getVersion);
+
+  /** serializes writers across instances: there's one module list per kernel */
+  static final Object lock = new Object();
+
+  private final File file;
+
+  /** null if the file is empty */
+  private ByteBuffer buffer;
+
+  /** true if the file is still in the text format. The buffer holds it as it'll be upgraded */
+  private boolean text;
+
+  private int indexed;
+  private int appended;
+  private long indexOffset;
+  private long end;
+
+  private ModuleList(File file) {
+    this.file = file;
+  }
+
+  /**
+   * open (creating if necessary) a module list. Opening doesn't write to it
+   *
+   * @param fs the kernel filesystem
+   * @param moduleList the name of the module list file
+   * @return the module list
+   */
+  public static ModuleList open(@NonNull FileSystem fs, @NonNull String moduleList) {
+    return open(ModuleListParser.resolveModuleFile(fs, moduleList));
+  }
+
+  public static ModuleList open(@NonNull File file) {
+    synchronized (lock) {
+      val result = new ModuleList(file);
+      try {
+        result.load();
+      } catch (IOException ex) {
+        throw new ModuleListSyntaxException(ex);
+      }
+      return result;
+    }
+  }
+
+  /** @return the number of entries in this list */
+  public int size() {
+    return indexed + appended;
+  }
+
+  /** @return all of the entries in this list in the order they were added */
+  public List<KernelModuleEntry> getEntries() {
+    if (buffer == null) {
+      return new ArrayList<>();
+    }
+    val result = new ArrayList<KernelModuleEntry>(size());
+    val cursor = buffer.duplicate();
+    cursor.position(HEADER_SIZE);
+    for (int i = 0; i < indexed; i++) {
+      result.add(decode(cursor));
+    }
+    cursor.position(appendOffset());
+    for (int i = 0; i < appended; i++) {
+      result.add(decode(cursor));
+    }
+    return result;
+  }
+
+  /**
+   * @param entry the entry to look for. Only its group, name and version are considered
+   * @return true if this list contains the entry
+   */
+  public boolean contains(@NonNull KernelModuleEntry entry) {
+    if (buffer == null) {
+      return false;
+    }
+
+    int low = 0;
+    int high = indexed - 1;
+    val cursor = buffer.duplicate();
+    while (low <= high) {
+      val mid = (low + high) >>> 1;
+      cursor.position((int) buffer.getLong((int) (indexOffset + (long) mid * Long.BYTES)));
+      val comparison = compareKey(cursor, entry);
+      if (comparison < 0) {
+        low = mid + 1;
+      } else if (comparison > 0) {
+        high = mid - 1;
+      } else {
+        return true;
+      }
+    }
+
+    cursor.position(appendOffset());
+    for (int i = 0; i < appended; i++) {
+      if (entry.equals(decode(cursor))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * add entries that aren't already present to this list. All of the new entries are written and
+   * synced together
+   *
+   * @param entries the entries to add
+   * @return the number of entries actually added
+   */
+  public int append(@NonNull Collection<KernelModuleEntry> entries) {
+    synchronized (lock) {
+      try {
+        load();
+        val added = new LinkedHashSet<KernelModuleEntry>(entries.size());
+        for (val entry : entries) {
+          if (!contains(entry)) {
+            added.add(entry);
+          }
+        }
+        if (added.isEmpty()) {
+          return 0;
+        }
+
+        if (buffer == null || text || appended + added.size() > MAX_APPENDED) {
+          val all = getEntries();
+          all.addAll(added);
+          rewrite(all);
+        } else {
+          appendRecords(added);
+        }
+        load();
+        return added.size();
+      } catch (IOException ex) {
+        throw new KernelException(ex);
+      }
+    }
+  }
+
+  private void load() throws IOException {
+    final ByteBuffer content;
+    try (val channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      content = ByteBuffer.allocate(Math.toIntExact(channel.size()));
+      while (content.hasRemaining() && channel.read(content) >= 0) {
+        // read the whole list
+      }
+    }
+    content.flip();
+    text = false;
+    if (!content.hasRemaining()) {
+      buffer = null;
+      indexed = 0;
+      appended = 0;
+      return;
+    }
+    if (content.limit() < HEADER_SIZE || content.getInt(0) != MAGIC) {
+      val entries = new ArrayList<KernelModuleEntry>();
+      ModuleListParser.read(file, entries);
+      val upgraded = encode(entries);
+      readHeader(upgraded, upgraded.limit());
+      text = true;
+      return;
+    }
+    readHeader(content, content.limit());
+  }
+
+  private void readHeader(ByteBuffer content, long size) {
+    val version = content.getInt(4);
+    if (version != VERSION) {
+      throw new ModuleListSyntaxException(
+          String.format("Unsupported module list version %d in %s", version, file));
+    }
+    val indexedCount = content.getInt(8);
+    val appendedCount = content.getInt(12);
+    val index = content.getLong(16);
+    val limit = content.getLong(24);
+    if (indexedCount < 0
+        || appendedCount < 0
+        || index < HEADER_SIZE
+        || index + (long) indexedCount * Long.BYTES > limit
+        || limit > size) {
+      throw new ModuleListSyntaxException(String.format("Corrupt module list header in %s", file));
+    }
+    this.buffer = content;
+    this.indexed = indexedCount;
+    this.appended = appendedCount;
+    this.indexOffset = index;
+    this.end = limit;
+  }
+
+  private int appendOffset() {
+    return (int) (indexOffset + (long) indexed * Long.BYTES);
+  }
+
+  /** writes the records after <code>end</code>, then publishes them by rewriting the header */
+  private void appendRecords(Collection<KernelModuleEntry> entries) throws IOException {
+    val records = new Encoder();
+    for (val entry : entries) {
+      records.write(entry);
+    }
+    val bytes = records.toByteArray();
+    try (val channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+      writeFully(channel, ByteBuffer.wrap(bytes), end);
+      channel.force(false);
+      writeFully(
+          channel, header(indexed, appended + entries.size(), indexOffset, end + bytes.length), 0);
+      channel.force(false);
+    }
+  }
+
+  /** rewrites the whole list, indexing every entry */
+  private void rewrite(Collection<KernelModuleEntry> entries) throws IOException {
+    val image = encode(entries);
+    if (text) {
+      log.log(Level.INFO, "module.list.upgrade", new Object[] {file, image.getInt(8), VERSION});
+    }
+    val target = file.toPath();
+    val temp = target.resolveSibling(file.getName() + ".tmp");
+    try (val channel =
+        FileChannel.open(
+            temp,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      writeFully(channel, image, 0);
+      channel.force(false);
+    }
+    try {
+      Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException ex) {
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /** @return a whole list holding the entries, every one of them indexed */
+  private static ByteBuffer encode(Collection<KernelModuleEntry> entries) throws IOException {
+    val unique = new ArrayList<>(new LinkedHashSet<>(entries));
+    val records = new Encoder();
+    val offsets = new long[unique.size()];
+    for (int i = 0; i < unique.size(); i++) {
+      offsets[i] = HEADER_SIZE + records.size();
+      records.write(unique.get(i));
+    }
+
+    val sorted = new Integer[unique.size()];
+    Arrays.setAll(sorted, i -> i);
+    Arrays.sort(sorted, (lhs, rhs) -> KEY_ORDER.compare(unique.get(lhs), unique.get(rhs)));
+
+    val recordBytes = records.toByteArray();
+    val indexStart = (long) HEADER_SIZE + recordBytes.length;
+    val limit = indexStart + (long) sorted.length * Long.BYTES;
+
+    val image = ByteBuffer.allocate(Math.toIntExact(limit));
+    image.put(header(unique.size(), 0, indexStart, limit));
+    image.put(recordBytes);
+    for (val i : sorted) {
+      image.putLong(offsets[i]);
+    }
+    image.flip();
+    return image;
+  }
+
+  private static ByteBuffer header(int indexed, int appended, long indexOffset, long end) {
+    val header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC).putInt(VERSION).putInt(indexed).putInt(appended);
+    header.putLong(indexOffset).putLong(end);
+    header.flip();
+    return header;
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    var current = position;
+    while (buffer.hasRemaining()) {
+      current += channel.write(buffer, current);
+    }
+  }
+
+  private static int compareKey(ByteBuffer cursor, KernelModuleEntry entry) {
+    cursor.getInt();
+    var result = readString(cursor).compareTo(entry.getGroup());
+    if (result != 0) {
+      return result;
+    }
+    result = readString(cursor).compareTo(entry.getName());
+    if (result != 0) {
+      return result;
+    }
+    return readString(cursor).compareTo(entry.getVersion());
+  }
+
+  private static KernelModuleEntry decode(ByteBuffer cursor) {
+    val order = cursor.getInt();
+    val group = readString(cursor);
+    val name = readString(cursor);
+    val version = readString(cursor);
+    val libraryCount = cursor.getInt();
+    final List<String> libraries;
+    if (libraryCount == 0) {
+      libraries = Collections.emptyList();
+    } else {
+      libraries = new ArrayList<>(libraryCount);
+      for (int i = 0; i < libraryCount; i++) {
+        libraries.add(readString(cursor));
+      }
+    }
+    return new KernelModuleEntry(order, name, group, version, libraries);
+  }
+
+  private static String readString(ByteBuffer cursor) {
+    val length = cursor.getInt();
+    val bytes = new byte[length];
+    cursor.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  static final class Encoder {
+    final ByteArrayOutputStream bytes;
+    final DataOutputStream output;
+
+    Encoder() {
+      bytes = new ByteArrayOutputStream();
+      output = new DataOutputStream(bytes);
+    }
+
+    void write(KernelModuleEntry entry) throws IOException {
+      output.writeInt(entry.getOrder());
+      writeString(entry.getGroup());
+      writeString(entry.getName());
+      writeString(entry.getVersion());
+      val libraries = entry.getLibraryFiles();
+      output.writeInt(libraries.size());
+      for (val library : libraries) {
+        writeString(library);
+      }
+    }
+
+    int size() {
+      return output.size();
+    }
+
+    byte[] toByteArray() throws IOException {
+      output.flush();
+      return bytes.toByteArray();
+    }
+
+    private void writeString(String value) throws IOException {
+      val encoded = value.getBytes(StandardCharsets.UTF_8);
+      output.writeInt(encoded.length);
+      output.write(encoded);
+    }
+  }
+}
@@ -30,13 +30,20 @@ public class ModuleListParser {
   static final String lineSeparator = System.getProperty("line.separator");
   static final int newLineLength = lineSeparator.length();
 
+  /**
+   * read a module list. Reading never writes to it: a list in the text format is upgraded by the
+   * first append
+   *
+   * @param fs the kernel filesystem
+   * @param moduleList the name of the module list file
+   * @return the entries in the list
+   * @see ModuleList
+   */
   public static List<KernelModuleEntry> read(FileSystem fs, String moduleList) {
-    val file = resolveModuleFile(fs, moduleList);
-    val results = new ArrayList<KernelModuleEntry>();
-    read(file, results);
-    return results;
+    return ModuleList.open(fs, moduleList).getEntries();
   }
 
+  /** parses a module list in the original text format */
   @SuppressFBWarnings
   static void read(File file, List<KernelModuleEntry> kernelModuleEntries) {
 
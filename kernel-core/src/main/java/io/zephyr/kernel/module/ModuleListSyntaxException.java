@@ -8,6 +8,10 @@ public class ModuleListSyntaxException extends KernelException {
 
   public ModuleListSyntaxException() {}
 
+  public ModuleListSyntaxException(String message) {
+    super(message);
+  }
+
   public ModuleListSyntaxException(IOException e) {
     super(e);
   }
@@ -0,0 +1,211 @@
+package io.zephyr.kernel.module;
+
+import io.zephyr.kernel.Lifecycle;
+import io.zephyr.kernel.Module;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * indexes modules by lifecycle state, type and coordinate group. State buckets are kept current by
+ * listening to each module's {@link ModuleLifecycle}; modules whose lifecycle can't be observed (or
+ * every module, for a detached index) are tested on demand instead.
+ *
+ * <p>Reads are lock-free and cost O(result); updates are serialized on the index
+ */
+@SuppressWarnings({"PMD.DataflowAnomalyAnalysis", "PMD.AvoidInstantiatingObjectsInLoops"})
+public final class ModuleStateIndex implements ModuleLifecycle.StateListener {
+
+  private final boolean observing;
+  private final Set<Module> modules;
+  private final Set<Module> unobserved;
+  private final Map<Lifecycle.State, Set<Module>> byState;
+  private final Map<Module.Type, Set<Module>> byType;
+  private final ConcurrentMap<String, Set<Module>> byGroup;
+
+  /** create an index that tracks state transitions */
+  public ModuleStateIndex() {
+    this(true);
+  }
+
+  /**
+   * @param observing if false, this index never registers lifecycle listeners and state queries are
+   *     answered by testing each module. Used for short-lived (e.g. prospective) graphs
+   */
+  public ModuleStateIndex(boolean observing) {
+    this.observing = observing;
+    this.modules = ConcurrentHashMap.newKeySet();
+    this.unobserved = ConcurrentHashMap.newKeySet();
+    this.byGroup = new ConcurrentHashMap<>();
+
+    // the maps' structure never changes after construction, so EnumMap is safe to share
+    this.byState = new EnumMap<>(Lifecycle.State.class);
+    for (val state : Lifecycle.State.values()) {
+      byState.put(state, ConcurrentHashMap.newKeySet());
+    }
+    this.byType = new EnumMap<>(Module.Type.class);
+    for (val type : Module.Type.values()) {
+      byType.put(type, ConcurrentHashMap.newKeySet());
+    }
+  }
+
+  public void add(@NonNull Module module) {
+    synchronized (this) {
+      if (!modules.add(module)) {
+        return;
+      }
+      val type = module.getType();
+      if (type != null) {
+        byType.get(type).add(module);
+      }
+      byGroup
+          .computeIfAbsent(module.getCoordinate().getGroup(), k -> ConcurrentHashMap.newKeySet())
+          .add(module);
+
+      val lifecycle = module.getLifecycle();
+      if (observing && lifecycle instanceof ModuleLifecycle) {
+        ((ModuleLifecycle) lifecycle).addStateListener(this);
+        val state = lifecycle.getState();
+        if (state != null) {
+          byState.get(state).add(module);
+        }
+      } else {
+        unobserved.add(module);
+      }
+    }
+  }
+
+  public void addAll(@NonNull Collection<Module> modules) {
+    for (val module : modules) {
+      add(module);
+    }
+  }
+
+  public void remove(@NonNull Module module) {
+    synchronized (this) {
+      if (!modules.remove(module)) {
+        return;
+      }
+      val lifecycle = module.getLifecycle();
+      if (observing && lifecycle instanceof ModuleLifecycle) {
+        ((ModuleLifecycle) lifecycle).removeStateListener(this);
+      }
+      unobserved.remove(module);
+      for (val bucket : byState.values()) {
+        bucket.remove(module);
+      }
+      val type = module.getType();
+      if (type != null) {
+        byType.get(type).remove(module);
+      }
+      val group = module.getCoordinate().getGroup();
+      val members = byGroup.get(group);
+      if (members != null) {
+        members.remove(module);
+        if (members.isEmpty()) {
+          byGroup.remove(group, members);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void onStateChanged(Module module, Lifecycle.State previous, Lifecycle.State current) {
+    synchronized (this) {
+      if (!modules.contains(module) || unobserved.contains(module)) {
+        return;
+      }
+      if (previous != null) {
+        byState.get(previous).remove(module);
+      }
+      if (current != null) {
+        byState.get(current).add(module);
+      }
+    }
+  }
+
+  /** @return the number of indexed modules */
+  public int size() {
+    return modules.size();
+  }
+
+  /** @return every indexed module */
+  public List<Module> getModules() {
+    return new ArrayList<>(modules);
+  }
+
+  /**
+   * @param state the state to look up
+   * @return the modules currently in <code>state</code>
+   */
+  public List<Module> getModules(@NonNull Lifecycle.State state) {
+    return select(ModulePredicates.inState(state));
+  }
+
+  /**
+   * @param filter the filter to apply. {@link ModulePredicates.Indexed} filters are answered from
+   *     the index; anything else is tested against every module
+   * @return the modules matching <code>filter</code>
+   */
+  public List<Module> getModules(@NonNull Predicate<Module> filter) {
+    if (filter instanceof ModulePredicates.Indexed) {
+      return select((ModulePredicates.Indexed) filter);
+    }
+    val result = new ArrayList<Module>();
+    for (val module : modules) {
+      if (filter.test(module)) {
+        result.add(module);
+      }
+    }
+    return result;
+  }
+
+  private List<Module> select(ModulePredicates.Indexed filter) {
+    if (filter.isUnsatisfiable()) {
+      return Collections.emptyList();
+    }
+
+    val stateBucket = filter.getState() == null ? modules : byState.get(filter.getState());
+    val candidates = smallestBucket(filter, stateBucket);
+    val result = new ArrayList<Module>();
+    for (val module : candidates) {
+      if (filter.test(module)) {
+        result.add(module);
+      }
+    }
+
+    // modules we can't observe are in every bucket except the state buckets
+    if (candidates != modules && candidates == stateBucket) {
+      for (val module : unobserved) {
+        if (filter.test(module)) {
+          result.add(module);
+        }
+      }
+    }
+    return result;
+  }
+
+  private Set<Module> smallestBucket(ModulePredicates.Indexed filter, Set<Module> candidates) {
+    var result = candidates;
+    if (filter.getType() != null) {
+      result = smaller(result, byType.get(filter.getType()));
+    }
+    if (filter.getGroup() != null) {
+      result = smaller(result, byGroup.getOrDefault(filter.getGroup(), Collections.emptySet()));
+    }
+    return result;
+  }
+
+  private static Set<Module> smaller(Set<Module> lhs, Set<Module> rhs) {
+    return lhs.size() <= rhs.size() ? lhs : rhs;
+  }
+}
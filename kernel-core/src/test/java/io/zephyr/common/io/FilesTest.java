@@ -0,0 +1,47 @@
+package io.zephyr.common.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.sunshower.test.common.Tests;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("PMD.JUnitAssertionsShouldIncludeMessage")
+class FilesTest {
+
+  @Test
+  void ensureTransferringStreamOnlyWritesBytesRead() throws IOException {
+    val file = new File(Tests.createTemp(), "test.txt");
+    Files.transferTo(file, new ByteArrayInputStream("hello".getBytes(StandardCharsets.UTF_8)));
+    assertEquals("hello", java.nio.file.Files.readString(file.toPath()));
+  }
+
+  @Test
+  void ensurePlacingFileOnSameFileStoreDoesNotCopy() throws IOException {
+    val directory = Tests.createTemp();
+    val source = new File(directory, "source.droplet").toPath();
+    val target = new File(directory, "nested/target.droplet").toPath();
+    java.nio.file.Files.createDirectories(target.getParent());
+    java.nio.file.Files.writeString(source, "droplet");
+
+    val result = Files.place(source, target);
+    assertNotEquals(Files.Placement.COPIED, result);
+    assertEquals("droplet", java.nio.file.Files.readString(target));
+  }
+
+  @Test
+  void ensurePlacingFileReplacesExistingTarget() throws IOException {
+    val directory = Tests.createTemp();
+    val source = new File(directory, "source.droplet").toPath();
+    val target = new File(directory, "target.droplet").toPath();
+    java.nio.file.Files.writeString(source, "new");
+    java.nio.file.Files.writeString(target, "old contents");
+
+    Files.place(source, target);
+    assertEquals("new", java.nio.file.Files.readString(target));
+  }
+}
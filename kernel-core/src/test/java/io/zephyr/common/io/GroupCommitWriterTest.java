@@ -0,0 +1,140 @@
+package io.zephyr.common.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.sunshower.test.common.Tests;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({
+  "PMD.JUnitAssertionsShouldIncludeMessage",
+  "PMD.JUnitTestContainsTooManyAsserts"
+})
+class GroupCommitWriterTest {
+
+  private File directory;
+  private GroupCommitWriter writer;
+
+  @BeforeEach
+  void setUp() {
+    directory = Tests.createTemp();
+    writer = new GroupCommitWriter(50, TimeUnit.MILLISECONDS, 2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    writer.close();
+  }
+
+  @Test
+  void ensureReplaceCreatesFileAndParents() throws Exception {
+    val file = new File(directory, "nested/descriptor.xml").toPath();
+    assertEquals(file, writer.replace(file, bytes("hello")).get());
+    assertEquals("hello", java.nio.file.Files.readString(file));
+  }
+
+  @Test
+  void ensureWritesToSameFileAreAppliedInOrder() throws Exception {
+    val file = new File(directory, "modules.list").toPath();
+    val first = writer.append(file, bytes("a\n"));
+    val second = writer.replace(file, bytes("b\n"));
+    val third = writer.append(file, bytes("c\n"));
+    CompletableFuture.allOf(first, second, third).get();
+    assertEquals("b\nc\n", java.nio.file.Files.readString(file));
+  }
+
+  @Test
+  void ensureAppendsAcrossBatchesAccumulate() throws Exception {
+    val file = new File(directory, "modules.list").toPath();
+    writer.append(file, bytes("a\n")).get();
+    writer.append(file, bytes("b\n")).get();
+    assertEquals("a\nb\n", java.nio.file.Files.readString(file));
+  }
+
+  @Test
+  void ensureManyFilesAreAllWritten() throws Exception {
+    val futures = new ArrayList<CompletableFuture<?>>();
+    for (int i = 0; i < 50; i++) {
+      futures.add(writer.replace(new File(directory, i + ".xml").toPath(), bytes("v" + i)));
+    }
+    writer.flush().get();
+    for (int i = 0; i < 50; i++) {
+      assertTrue(futures.get(i).isDone());
+      assertEquals(
+          "v" + i, java.nio.file.Files.readString(new File(directory, i + ".xml").toPath()));
+    }
+  }
+
+  @Test
+  void ensureFailedContentFailsOnlyItsFile() throws Exception {
+    val good = new File(directory, "good.xml").toPath();
+    val bad = new File(directory, "bad.xml").toPath();
+    val goodWrite = writer.replace(good, bytes("good"));
+    val badWrite =
+        writer.replace(
+            bad,
+            outputStream -> {
+              throw new IllegalStateException("nope");
+            });
+    assertEquals(good, goodWrite.get());
+    assertThrows(ExecutionException.class, badWrite::get);
+  }
+
+  @Test
+  void ensureFailedReplaceLeavesPreviousContents() throws Exception {
+    val file = new File(directory, "descriptor.xml").toPath();
+    writer.replace(file, bytes("before")).get();
+    val failed =
+        writer.replace(
+            file,
+            outputStream -> {
+              outputStream.write('x');
+              outputStream.flush();
+              throw new IllegalStateException("nope");
+            });
+    assertThrows(ExecutionException.class, failed::get);
+    assertEquals("before", java.nio.file.Files.readString(file));
+    assertFalse(new File(directory, "descriptor.xml.tmp").exists());
+  }
+
+  @Test
+  void ensureFlushWaitsOnBatchBeingCommitted() throws Exception {
+    val writing = new CountDownLatch(1);
+    val release = new CountDownLatch(1);
+    val file = new File(directory, "slow.xml").toPath();
+    val write =
+        writer.replace(
+            file,
+            outputStream -> {
+              writing.countDown();
+              release.await();
+              outputStream.write('x');
+            });
+    writing.await();
+    val flushed = writer.flush();
+    assertFalse(flushed.isDone());
+    release.countDown();
+    flushed.get();
+    assertTrue(write.isDone());
+  }
+
+  @Test
+  void ensureClosedWriterRejectsWrites() {
+    writer.close();
+    val file = new File(directory, "closed.xml").toPath();
+    assertThrows(IllegalStateException.class, () -> writer.replace(file, bytes("x")));
+  }
+
+  private static GroupCommitWriter.Content bytes(String value) {
+    return outputStream -> outputStream.write(value.getBytes(StandardCharsets.UTF_8));
+  }
+}
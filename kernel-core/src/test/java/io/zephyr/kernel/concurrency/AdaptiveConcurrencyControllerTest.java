@@ -0,0 +1,148 @@
+package io.zephyr.kernel.concurrency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.zephyr.kernel.metrics.Counter;
+import io.zephyr.kernel.metrics.DefaultKernelMetrics;
+import io.zephyr.kernel.metrics.Gauge;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({
+  "PMD.DoNotUseThreads",
+  "PMD.JUnitTestContainsTooManyAsserts",
+  "PMD.JUnitAssertionsShouldIncludeMessage",
+})
+class AdaptiveConcurrencyControllerTest {
+
+  private double cpu;
+  private CountDownLatch blocker;
+  private ThreadPoolExecutor executor;
+  private AdaptiveConcurrencyController controller;
+
+  @BeforeEach
+  void setUp() {
+    blocker = new CountDownLatch(1);
+    executor = new ThreadPoolExecutor(2, 2, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    controller = new AdaptiveConcurrencyController(1, TimeUnit.HOURS, () -> cpu);
+  }
+
+  @AfterEach
+  void tearDown() {
+    blocker.countDown();
+    executor.shutdownNow();
+  }
+
+  @Test
+  void ensureRegisteringClampsPoolToBounds() {
+    val pool = controller.register("test", executor, 4, 8);
+    assertEquals(4, pool.getSize());
+    assertEquals(4, executor.getCorePoolSize());
+  }
+
+  @Test
+  void ensureQueuedPoolGrowsWhenCpuIsAvailable() {
+    val pool = controller.register("test", executor, 1, 6);
+    saturate(10);
+    cpu = 0.2;
+    controller.sample();
+    assertEquals(AdaptiveConcurrencyController.Action.Grow, pool.getLastDecision().getAction());
+    assertEquals(3, pool.getSize());
+    controller.sample();
+    controller.sample();
+    assertEquals(6, pool.getSize());
+    assertEquals(6, executor.getCorePoolSize());
+    assertEquals(3, pool.getGrows());
+  }
+
+  @Test
+  void ensureQueuedPoolHoldsWhenCpuIsBusy() {
+    val pool = controller.register("test", executor, 1, 6);
+    saturate(10);
+    cpu = 0.8;
+    controller.sample();
+    assertEquals(AdaptiveConcurrencyController.Action.Hold, pool.getLastDecision().getAction());
+    assertEquals(2, pool.getSize());
+  }
+
+  @Test
+  void ensureSaturatedHostShrinksPoolToFloor() {
+    val pool = controller.register("test", executor, 2, 16);
+    controller.register(
+        "other",
+        new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>()),
+        1,
+        1);
+    executor.setMaximumPoolSize(12);
+    executor.setCorePoolSize(12);
+    cpu = 0.99;
+    controller.sample();
+    assertEquals(9, pool.getSize());
+    for (int i = 0; i < 10; i++) {
+      controller.sample();
+    }
+    assertEquals(2, pool.getSize());
+    assertEquals(2, controller.getDecisions().size());
+  }
+
+  @Test
+  void ensureIdlePoolShrinksByOne() {
+    val pool = controller.register("test", executor, 1, 8);
+    executor.setMaximumPoolSize(4);
+    executor.setCorePoolSize(4);
+    cpu = 0.1;
+    controller.sample();
+    assertEquals(AdaptiveConcurrencyController.Action.Shrink, pool.getLastDecision().getAction());
+    assertEquals("idle threads", pool.getLastDecision().getReason());
+    assertEquals(3, pool.getSize());
+  }
+
+  @Test
+  void ensureWrappedTasksFeedLatencySamples() throws Exception {
+    val pool = controller.register("test", executor, 1, 4);
+    executor.submit(pool.wrap(() -> "done")).get(10, TimeUnit.SECONDS);
+    assertEquals(1, pool.tasks.sum());
+  }
+
+  @Test
+  void ensureExportedPoolsPublishSizeAndDecisions() {
+    val metrics = new DefaultKernelMetrics();
+    val pool = controller.register("test", executor, 1, 4);
+    controller.export(metrics);
+    saturate(4);
+    cpu = 0.1;
+    controller.sample();
+
+    assertEquals(pool.getSize(), gauge(metrics, "concurrency.pool.test.size").getValue());
+    assertEquals(1, gauge(metrics, "concurrency.pool.test.grows").getValue());
+    assertEquals(1, counter(metrics, "concurrency.pool.test.decisions.grow").getCount());
+    assertEquals(0, counter(metrics, "concurrency.pool.test.decisions.shrink").getCount());
+  }
+
+  private static Gauge gauge(DefaultKernelMetrics metrics, String name) {
+    return metrics.gauge(name, () -> -1);
+  }
+
+  private static Counter counter(DefaultKernelMetrics metrics, String name) {
+    return metrics.counter(name);
+  }
+
+  private void saturate(int tasks) {
+    for (int i = 0; i < tasks; i++) {
+      executor.execute(
+          () -> {
+            try {
+              blocker.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+              Thread.currentThread().interrupt();
+            }
+          });
+    }
+  }
+}
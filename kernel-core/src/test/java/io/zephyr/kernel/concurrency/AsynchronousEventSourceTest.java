@@ -1,16 +1,26 @@
 package io.zephyr.kernel.concurrency;
 
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 import io.zephyr.kernel.core.KernelEventTypes;
 import io.zephyr.kernel.events.EventListener;
 import io.zephyr.kernel.events.Events;
+import io.zephyr.kernel.metrics.DefaultKernelMetrics;
+import io.zephyr.kernel.metrics.Gauge;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-@SuppressWarnings("PMD.DoNotUseThreads")
+@SuppressWarnings({
+  "PMD.DoNotUseThreads",
+  "PMD.JUnitTestContainsTooManyAsserts",
+  "PMD.JUnitAssertionsShouldIncludeMessage"
+})
 class AsynchronousEventSourceTest {
 
   private ExecutorService executorService;
@@ -22,6 +32,11 @@ class AsynchronousEventSourceTest {
     eventSource = new AsynchronousEventSource(executorService);
   }
 
+  @AfterEach
+  void tearDown() {
+    executorService.shutdownNow();
+  }
+
   @Test
   void ensureExecutorServiceDispatchWorks() {
     try {
@@ -55,4 +70,147 @@ class AsynchronousEventSourceTest {
       eventSource.stop();
     }
   }
+
+  @Test
+  void ensureQueueDepthAndHighWaterMarkAreTracked() throws Exception {
+    val metrics = new DefaultKernelMetrics();
+    eventSource = new AsynchronousEventSource(executorService, metrics, 100, 3, false);
+    val blocker = new CountDownLatch(1);
+    val delivered = new CountDownLatch(5);
+    EventListener<Object> listener =
+        (type, event) -> {
+          await(blocker);
+          delivered.countDown();
+        };
+    try {
+      eventSource.start();
+      eventSource.initialize();
+      eventSource.addEventListener(listener, KernelEventTypes.KERNEL_START_FAILED);
+      for (int i = 0; i < 5; i++) {
+        eventSource.dispatchEvent(KernelEventTypes.KERNEL_START_FAILED, Events.create(null));
+      }
+      assertTrue(eventSource.getHighWaterMark() >= 4);
+      blocker.countDown();
+      assertTrue(delivered.await(10, TimeUnit.SECONDS));
+      assertEquals(0, eventSource.getQueueDepth());
+      assertEquals(eventSource.getHighWaterMark(), gauge(metrics, "events.queue.highwater"));
+    } finally {
+      eventSource.stop();
+    }
+  }
+
+  @Test
+  void ensureRepeatedlySlowListenerIsQuarantined() throws Exception {
+    val metrics = new DefaultKernelMetrics();
+    eventSource = new AsynchronousEventSource(executorService, metrics, 1, 2, true);
+    val blocker = new CountDownLatch(1);
+    val slowCalls = new CountDownLatch(2);
+    EventListener<Object> slow =
+        (type, event) -> {
+          if (slowCalls.getCount() > 0) {
+            await(new CountDownLatch(1), 10);
+            slowCalls.countDown();
+          } else {
+            await(blocker);
+          }
+        };
+    val fastCalls = new CountDownLatch(3);
+    EventListener<Object> fast = (type, event) -> fastCalls.countDown();
+    try {
+      eventSource.start();
+      eventSource.initialize();
+      eventSource.addEventListener(slow, KernelEventTypes.KERNEL_START_FAILED);
+      eventSource.addEventListener(fast, KernelEventTypes.KERNEL_START_FAILED);
+      for (int i = 0; i < 3; i++) {
+        eventSource.dispatchEvent(KernelEventTypes.KERNEL_START_FAILED, Events.create(null));
+      }
+      assertTrue(
+          fastCalls.await(10, TimeUnit.SECONDS),
+          "a quarantined listener must not delay other listeners");
+
+      val statistics =
+          eventSource.getListenerStatistics().stream()
+              .filter(AsynchronousEventSource.ListenerStatistics::isQuarantined)
+              .findFirst()
+              .orElseThrow();
+      assertEquals(String.valueOf(slow), statistics.getListener());
+      assertTrue(statistics.getSlowDeliveries() >= 2);
+      assertEquals(1, metrics.counter("events.listener.quarantined").getCount());
+      assertTrue(metrics.counter("events.listener.slow").getCount() >= 2);
+    } finally {
+      blocker.countDown();
+      eventSource.stop();
+    }
+  }
+
+  @Test
+  void ensureHungListenerIsQuarantinedWithoutHoldingUpOthers() throws Exception {
+    executorService.shutdownNow();
+    executorService = Executors.newCachedThreadPool();
+    val metrics = new DefaultKernelMetrics();
+    eventSource = new AsynchronousEventSource(executorService, metrics, 20, 2, true);
+    val blocker = new CountDownLatch(1);
+    val hungCalls = new CountDownLatch(5);
+    EventListener<Object> hung =
+        (type, event) -> {
+          await(blocker);
+          hungCalls.countDown();
+        };
+    val slowCalls = new CountDownLatch(5);
+    EventListener<Object> slow =
+        (type, event) -> {
+          if (slowCalls.getCount() > 3) {
+            await(new CountDownLatch(1), 25);
+          }
+          slowCalls.countDown();
+        };
+    val fastCalls = new CountDownLatch(5);
+    EventListener<Object> fast = (type, event) -> fastCalls.countDown();
+    try {
+      eventSource.start();
+      eventSource.initialize();
+      eventSource.addEventListener(hung, KernelEventTypes.KERNEL_START_FAILED);
+      eventSource.addEventListener(slow, KernelEventTypes.KERNEL_START_FAILED);
+      eventSource.addEventListener(fast, KernelEventTypes.KERNEL_START_FAILED);
+      for (int i = 0; i < 5; i++) {
+        eventSource.dispatchEvent(KernelEventTypes.KERNEL_START_FAILED, Events.create(null));
+      }
+      assertTrue(fastCalls.await(10, TimeUnit.SECONDS), "a hung listener must not stall dispatch");
+      assertTrue(
+          slowCalls.await(10, TimeUnit.SECONDS),
+          "a hung quarantined listener must not delay other quarantined listeners");
+      assertEquals(1, metrics.counter("events.listener.hung").getCount());
+      assertEquals(2, metrics.counter("events.listener.quarantined").getCount());
+      assertEquals(5, hungCalls.getCount());
+
+      blocker.countDown();
+      assertTrue(
+          hungCalls.await(10, TimeUnit.SECONDS),
+          "a hung listener must get its events once it returns");
+    } finally {
+      blocker.countDown();
+      eventSource.stop();
+    }
+  }
+
+  private static long gauge(DefaultKernelMetrics metrics, String name) {
+    return metrics.getMetrics().stream()
+        .filter(m -> m.getName().equals(name))
+        .map(Gauge.class::cast)
+        .findFirst()
+        .orElseThrow()
+        .getValue();
+  }
+
+  private static void await(CountDownLatch latch) {
+    await(latch, 10_000);
+  }
+
+  private static void await(CountDownLatch latch, long millis) {
+    try {
+      latch.await(millis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
 }
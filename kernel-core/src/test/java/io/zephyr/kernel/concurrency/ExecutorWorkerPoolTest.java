@@ -0,0 +1,71 @@
+package io.zephyr.kernel.concurrency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.zephyr.kernel.metrics.DefaultKernelMetrics;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({
+  "PMD.DoNotUseThreads",
+  "PMD.JUnitAssertionsShouldIncludeMessage",
+})
+class ExecutorWorkerPoolTest {
+
+  private ExecutorWorkerPool pool;
+
+  @BeforeEach
+  void setUp() {
+    pool = ExecutorWorkerPool.adaptive(1, 1, 1, Executors.newSingleThreadExecutor());
+  }
+
+  @AfterEach
+  void tearDown() {
+    pool.close();
+    pool.executorService.shutdownNow();
+    pool.getKernelExecutor().shutdownNow();
+  }
+
+  @Test
+  void ensureTimeWaitingForAdmissionIsNotCountedAsPoolWait() throws Exception {
+    val release = new CountDownLatch(1);
+    val first =
+        pool.submitIoBound(
+            () -> {
+              release.await();
+              return null;
+            });
+    val second = pool.submitIoBound(() -> null);
+    assertEquals(1, pool.getIoLimiter().getPending());
+
+    TimeUnit.MILLISECONDS.sleep(200);
+    release.countDown();
+    first.get();
+    second.get();
+
+    // the sample is recorded just after the task's result is published
+    val controlled = pool.getController().getPools().get(0);
+    for (int i = 0; i < 100 && controlled.tasks.sum() < 2; i++) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+    assertEquals(2, controlled.tasks.sum());
+    assertTrue(
+        controlled.waitNanos.sum() < TimeUnit.MILLISECONDS.toNanos(100),
+        "the second task's 200ms in the limiter was counted as waiting for a gyre thread");
+  }
+
+  @Test
+  void ensureExportPublishesPoolAndLimiterMetrics() {
+    val metrics = new DefaultKernelMetrics();
+    pool.exportMetrics(metrics);
+    assertEquals(
+        pool.getIoLimiter().getLimit(), metrics.gauge("concurrency.io.limit", () -> -1).getValue());
+    assertEquals(1, metrics.gauge("concurrency.pool.gyre.size", () -> -1).getValue());
+    assertEquals(0, metrics.counter("concurrency.pool.gyre.decisions.hold").getCount());
+  }
+}
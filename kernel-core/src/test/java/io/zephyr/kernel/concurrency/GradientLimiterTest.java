@@ -0,0 +1,115 @@
+package io.zephyr.kernel.concurrency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({
+  "PMD.DoNotUseThreads",
+  "PMD.JUnitTestContainsTooManyAsserts",
+  "PMD.JUnitAssertionsShouldIncludeMessage",
+})
+class GradientLimiterTest {
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newCachedThreadPool();
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void ensureTasksOverLimitWaitInLimiter() throws Exception {
+    val limiter = new GradientLimiter(2, 1, 2);
+    val blocker = new CountDownLatch(1);
+    val futures = new ArrayList<CompletableFuture<Integer>>();
+    for (int i = 0; i < 6; i++) {
+      val value = i;
+      futures.add(
+          limiter.submit(
+              () -> {
+                blocker.await(10, TimeUnit.SECONDS);
+                return value;
+              },
+              executor));
+    }
+    assertEquals(2, limiter.getInFlight());
+    assertEquals(4, limiter.getPending());
+
+    blocker.countDown();
+    for (int i = 0; i < 6; i++) {
+      assertEquals(i, futures.get(i).get(10, TimeUnit.SECONDS));
+    }
+    assertEquals(0, limiter.getInFlight());
+    assertEquals(0, limiter.getPending());
+  }
+
+  @Test
+  void ensureConcurrencyNeverExceedsLimit() throws Exception {
+    val limiter = new GradientLimiter(3, 1, 3);
+    val running = new AtomicInteger();
+    val peak = new AtomicInteger();
+    val futures = new ArrayList<CompletableFuture<Object>>();
+    for (int i = 0; i < 50; i++) {
+      futures.add(
+          limiter.submit(
+              () -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(1);
+                running.decrementAndGet();
+                return null;
+              },
+              executor));
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+    assertTrue(peak.get() <= 3);
+  }
+
+  @Test
+  void ensureLimitBacksOffWhenLatencyRises() throws Exception {
+    val limiter = new GradientLimiter(16, 1, 64);
+    for (int i = 0; i < 20; i++) {
+      limiter.submit(() -> null, Runnable::run).get();
+    }
+    val before = limiter.getLimit();
+    for (int i = 0; i < 20; i++) {
+      limiter
+          .submit(
+              () -> {
+                Thread.sleep(5);
+                return null;
+              },
+              Runnable::run)
+          .get();
+    }
+    assertTrue(limiter.getLimit() < before, limiter.getLimit() + " should be < " + before);
+  }
+
+  @Test
+  void ensureFailuresCompleteExceptionallyAndReleasePermits() {
+    val limiter = new GradientLimiter(1, 1, 1);
+    val failed =
+        limiter.submit(
+            () -> {
+              throw new IllegalStateException("nope");
+            },
+            Runnable::run);
+    assertTrue(failed.isCompletedExceptionally());
+    assertEquals(0, limiter.getInFlight());
+  }
+}
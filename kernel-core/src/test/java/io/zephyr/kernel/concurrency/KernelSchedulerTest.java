@@ -1,10 +1,14 @@
 package io.zephyr.kernel.concurrency;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.sunshower.gyre.Scope;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.val;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -83,4 +87,33 @@ class KernelSchedulerTest {
             .create();
     scheduler.submit(proc).get();
   }
+
+  @Test
+  void ensureStoppingClosesPoolAndStartingReopensIt() throws Exception {
+    val pool = new ForkJoinWorkerPool(1, 1);
+    val forkJoin = new KernelScheduler<String>(pool);
+    try {
+      forkJoin.stop();
+      assertTrue(pool.getKernelExecutor().isShutdown());
+
+      forkJoin.start();
+      assertFalse(pool.getKernelExecutor().isShutdown());
+      val ran = new AtomicBoolean();
+      val proc =
+          Tasks.newProcess("restarted")
+              .register(
+                  new Task("a") {
+                    @Override
+                    public TaskValue run(Scope scope) {
+                      ran.set(true);
+                      return null;
+                    }
+                  })
+              .create();
+      forkJoin.submit(proc).get(10, TimeUnit.SECONDS);
+      assertTrue(ran.get());
+    } finally {
+      pool.close();
+    }
+  }
 }
@@ -0,0 +1,272 @@
+package io.zephyr.kernel.concurrency;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.zephyr.kernel.Lifecycle;
+import io.zephyr.kernel.Module;
+import io.zephyr.kernel.core.AbstractModule;
+import io.zephyr.kernel.core.Kernel;
+import io.zephyr.kernel.core.ModuleCoordinate;
+import io.zephyr.kernel.core.ModuleManager;
+import io.zephyr.kernel.metrics.DefaultKernelMetrics;
+import io.zephyr.kernel.metrics.Gauge;
+import java.nio.file.FileSystem;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({
+  "PMD.DoNotUseThreads",
+  "PMD.JUnitTestContainsTooManyAsserts",
+  "PMD.JUnitAssertionsShouldIncludeMessage",
+})
+class ModuleThreadTest {
+
+  private Kernel kernel;
+  private Module module;
+  private ModuleThread thread;
+
+  @BeforeEach
+  void setUp() {
+    kernel = mock(Kernel.class);
+    module = mock(AbstractModule.class);
+    val lifecycle = mock(Lifecycle.class);
+    when(lifecycle.getState()).thenReturn(Lifecycle.State.Active);
+    when(module.getLifecycle()).thenReturn(lifecycle);
+    when(module.getType()).thenReturn(Module.Type.Plugin);
+    when(module.getFileSystem()).thenReturn(mock(FileSystem.class));
+    when(module.getCoordinate()).thenReturn(ModuleCoordinate.create("io.zephyr", "test", "1.0.0"));
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (thread != null) {
+      thread.stop();
+    }
+  }
+
+  @Test
+  void ensureScheduledRunnableCompletesItsFuture() throws Exception {
+    thread = start(16, ModuleThread.OverflowPolicy.Block);
+    val count = new AtomicInteger();
+    thread.schedule(count::incrementAndGet).toCompletableFuture().get(10, TimeUnit.SECONDS);
+    thread
+        .schedule((Runnable) count::incrementAndGet)
+        .toCompletableFuture()
+        .get(10, TimeUnit.SECONDS);
+    assertEquals(2, count.get());
+  }
+
+  @Test
+  void ensureFailingTaskCompletesExceptionallyAndThreadSurvives() throws Exception {
+    thread = start(16, ModuleThread.OverflowPolicy.Block);
+    val failed =
+        thread.schedule(
+            (Runnable)
+                () -> {
+                  throw new IllegalStateException("nope");
+                });
+    val ex =
+        assertThrows(
+            ExecutionException.class, () -> failed.toCompletableFuture().get(10, TimeUnit.SECONDS));
+    assertTrue(ex.getCause() instanceof IllegalStateException);
+    assertEquals("ok", thread.schedule(() -> "ok").toCompletableFuture().get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void ensureTasksRunInOrderAcrossProducers() throws Exception {
+    thread = start(64, ModuleThread.OverflowPolicy.Block);
+    val results = Collections.synchronizedList(new ArrayList<Integer>());
+    val producers = new ArrayList<Thread>();
+    for (int p = 0; p < 4; p++) {
+      val producer = p;
+      producers.add(
+          new Thread(
+              () -> {
+                for (int i = 0; i < 1000; i++) {
+                  val value = producer * 1000 + i;
+                  thread.schedule(() -> results.add(value));
+                }
+              }));
+    }
+    producers.forEach(Thread::start);
+    for (val producer : producers) {
+      producer.join();
+    }
+    thread.schedule(() -> null).toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+    assertEquals(4000, results.size());
+    val last = new int[] {-1, -1, -1, -1};
+    for (val value : results) {
+      val producer = value / 1000;
+      assertTrue(value > last[producer], "per-producer order must be preserved");
+      last[producer] = value;
+    }
+  }
+
+  @Test
+  void ensureFullQueueRejectsWhenConfiguredTo() throws Exception {
+    thread = start(2, ModuleThread.OverflowPolicy.Reject);
+    val blocker = new CountDownLatch(1);
+    thread.schedule(() -> await(blocker));
+    val futures = new ArrayList<java.util.concurrent.CompletableFuture<Void>>();
+    for (int i = 0; i < 8; i++) {
+      futures.add(thread.schedule(() -> {}).toCompletableFuture());
+    }
+    blocker.countDown();
+    val rejected =
+        futures.stream()
+            .filter(f -> f.isCompletedExceptionally())
+            .map(f -> assertThrows(ExecutionException.class, f::get).getCause())
+            .filter(RejectedExecutionException.class::isInstance)
+            .count();
+    assertTrue(rejected > 0);
+  }
+
+  @Test
+  void ensureFullQueueRunsOnCallerWhenConfiguredTo() throws Exception {
+    thread = start(1, ModuleThread.OverflowPolicy.CallerRuns);
+    val blocker = new CountDownLatch(1);
+    thread.schedule(() -> await(blocker));
+    val threads = Collections.synchronizedList(new ArrayList<Thread>());
+    for (int i = 0; i < 4; i++) {
+      thread.schedule(() -> threads.add(Thread.currentThread()));
+    }
+    assertTrue(threads.contains(Thread.currentThread()));
+    blocker.countDown();
+  }
+
+  @Test
+  void ensureStopIsNotStarvedByPendingTasks() throws Exception {
+    thread = start(1024, ModuleThread.OverflowPolicy.Block);
+    val blocker = new CountDownLatch(1);
+    thread.schedule(() -> await(blocker));
+    val pending = new ArrayList<java.util.concurrent.CompletableFuture<Void>>();
+    for (int i = 0; i < 1000; i++) {
+      pending.add(thread.schedule(this::sleep).toCompletableFuture());
+    }
+
+    val stopper = new Thread(thread::stop);
+    stopper.start();
+    while (thread.getOutstandingTasks() <= pending.size()) { // wait for the stop request
+      Thread.onSpinWait();
+    }
+    blocker.countDown();
+    stopper.join(TimeUnit.SECONDS.toMillis(10));
+    assertFalse(stopper.isAlive());
+
+    val cancelled = pending.stream().filter(f -> f.isCancelled()).count();
+    assertTrue(cancelled > 900, "pending tasks should be cancelled, not run");
+    assertThrows(CancellationException.class, () -> pending.get(pending.size() - 1).getNow(null));
+    val late = thread.schedule(() -> {}).toCompletableFuture();
+    assertThrows(ExecutionException.class, late::get);
+    thread = null;
+  }
+
+  @Test
+  void ensureUsageIsAttributedToTheModule() throws Exception {
+    thread = start(16, ModuleThread.OverflowPolicy.Block);
+    val usage = thread.getUsage();
+    assertTrue(usage.isRunning());
+    thread
+        .schedule(
+            () -> {
+              val buffers = new ArrayList<byte[]>();
+              for (int i = 0; i < 64; i++) {
+                buffers.add(new byte[64 * 1024]);
+              }
+              return buffers.size();
+            })
+        .toCompletableFuture()
+        .get(10, TimeUnit.SECONDS);
+    thread.schedule(this::sleep).toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+    assertEquals(0, usage.getQueueDepth());
+
+    thread.stop(); // joins the module thread: every task has been accounted for
+    assertFalse(usage.isRunning());
+    assertEquals(3, usage.getTasksCompleted(), "2 tasks and the stop request");
+    assertEquals(3, usage.getTaskDuration().getCount());
+    assertTrue(usage.getTaskDuration().getMax() >= TimeUnit.MILLISECONDS.toNanos(1));
+    if (usage.getAllocatedBytes() >= 0) {
+      assertTrue(usage.getAllocatedBytes() >= 64 * 64 * 1024, "" + usage.getAllocatedBytes());
+    }
+    val cpu = usage.getCpuTimeNanos();
+    assertTrue(cpu != 0, "final CPU time must be kept once the thread exits");
+    assertEquals(cpu, usage.getCpuTimeNanos());
+    thread = null;
+  }
+
+  @Test
+  void ensureRemovingMetricsDropsEveryModuleGauge() {
+    val metrics = new DefaultKernelMetrics();
+    when(kernel.getMetrics()).thenReturn(metrics);
+    thread = start(16, ModuleThread.OverflowPolicy.Block);
+    assertEquals(ModuleAccount.GAUGES.length, moduleMetrics(metrics));
+
+    thread.stop();
+    thread = null;
+    ModuleThread.removeMetrics(kernel, module.getCoordinate());
+    assertEquals(0, moduleMetrics(metrics));
+  }
+
+  @Test
+  void ensureGaugesReadTheirModuleWithoutScanningEveryModule() throws Exception {
+    val metrics = new DefaultKernelMetrics();
+    val manager = mock(ModuleManager.class);
+    when(kernel.getMetrics()).thenReturn(metrics);
+    when(kernel.getModuleManager()).thenReturn(manager);
+    thread = start(16, ModuleThread.OverflowPolicy.Block);
+    when(manager.getModule(module.getCoordinate())).thenReturn(module);
+    when(module.getTaskQueue()).thenReturn(thread);
+    thread.schedule(() -> {}).toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+    val completed =
+        (Gauge)
+            metrics.getMetrics().stream()
+                .filter(m -> m.getName().equals("module.io.zephyr:test:1.0.0.tasks.completed"))
+                .findFirst()
+                .orElseThrow();
+    assertEquals(thread.getUsage().getTasksCompleted(), completed.getValue());
+    assertTrue(completed.getValue() > 0);
+    verify(kernel, never()).getModuleUsage();
+  }
+
+  private static long moduleMetrics(DefaultKernelMetrics metrics) {
+    return metrics.getMetrics().stream()
+        .filter(m -> m.getName().startsWith("module.io.zephyr:test:1.0.0."))
+        .count();
+  }
+
+  private ModuleThread start(int capacity, ModuleThread.OverflowPolicy policy) {
+    val result = new ModuleThread(module, kernel, capacity, policy);
+    result.start();
+    return result;
+  }
+
+  private void sleep() {
+    await(new CountDownLatch(1), 1);
+  }
+
+  private static void await(CountDownLatch latch) {
+    await(latch, 10_000);
+  }
+
+  private static void await(CountDownLatch latch, long millis) {
+    try {
+      latch.await(millis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package io.zephyr.kernel.concurrency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({
+  "PMD.DoNotUseThreads",
+  "PMD.JUnitTestContainsTooManyAsserts",
+  "PMD.JUnitAssertionsShouldIncludeMessage",
+})
+class MpscRingTest {
+
+  @Test
+  void ensureCapacityIsRoundedToPowerOfTwo() {
+    assertEquals(2, new MpscRing<>(1).capacity());
+    assertEquals(8, new MpscRing<>(5).capacity());
+    assertEquals(8, new MpscRing<>(8).capacity());
+    assertThrows(IllegalArgumentException.class, () -> new MpscRing<>(0));
+  }
+
+  @Test
+  void ensureRingRejectsWhenFullAndWrapsAround() {
+    val ring = new MpscRing<Integer>(4);
+    for (int round = 0; round < 3; round++) {
+      for (int i = 0; i < 4; i++) {
+        assertTrue(ring.offer(i));
+      }
+      assertFalse(ring.offer(4));
+      assertEquals(4, ring.size());
+      for (int i = 0; i < 4; i++) {
+        assertEquals(i, ring.poll());
+      }
+      assertNull(ring.poll());
+      assertTrue(ring.isEmpty());
+    }
+  }
+
+  @Test
+  void ensureConcurrentProducersLoseNothing() throws InterruptedException {
+    val ring = new MpscRing<Integer>(256);
+    val producers = new ArrayList<Thread>();
+    val perProducer = 50_000;
+    for (int p = 0; p < 4; p++) {
+      val base = p * perProducer;
+      producers.add(
+          new Thread(
+              () -> {
+                for (int i = 0; i < perProducer; i++) {
+                  while (!ring.offer(base + i)) {
+                    Thread.onSpinWait();
+                  }
+                }
+              }));
+    }
+    producers.forEach(Thread::start);
+
+    val seen = new boolean[4 * perProducer];
+    val last = new int[] {-1, -1, -1, -1};
+    int received = 0;
+    while (received < seen.length) {
+      val value = ring.poll();
+      if (value == null) {
+        Thread.onSpinWait();
+        continue;
+      }
+      assertFalse(seen[value]);
+      seen[value] = true;
+      val producer = value / perProducer;
+      assertTrue(value > last[producer]);
+      last[producer] = value;
+      received++;
+    }
+    for (val producer : producers) {
+      producer.join();
+    }
+    assertNull(ring.poll());
+  }
+}
@@ -0,0 +1,139 @@
+package io.zephyr.kernel.concurrency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.sunshower.gyre.DirectedGraph;
+import io.sunshower.gyre.Scope;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@SuppressWarnings({
+  "PMD.JUnitTestContainsTooManyAsserts",
+  "PMD.JUnitAssertionsShouldIncludeMessage",
+  "PMD.DoNotUseThreads"
+})
+class ProcessProfilerTest {
+
+  private ExecutorService gyre;
+  private ExecutorService kernel;
+  private TopologyAwareParallelScheduler<String> scheduler;
+
+  @BeforeEach
+  void setUp() {
+    gyre = Executors.newFixedThreadPool(2);
+    kernel = Executors.newFixedThreadPool(1);
+    scheduler = new TopologyAwareParallelScheduler<>(new ExecutorWorkerPool(gyre, kernel));
+  }
+
+  @AfterEach
+  void tearDown() {
+    gyre.shutdownNow();
+    kernel.shutdownNow();
+  }
+
+  @Test
+  void ensureCriticalPathFollowsSlowestTaskOfEachStage() throws Exception {
+    val profile = run(fanIn());
+
+    assertFalse(profile.isFailed());
+    assertEquals(3, profile.getTasks().size());
+    assertEquals(2, profile.getStages().size());
+    assertEquals(
+        List.of("slow", "dependent"),
+        profile.getCriticalPath().stream()
+            .map(ProcessProfile.TaskProfile::getName)
+            .collect(Collectors.toList()));
+
+    val fast = task(profile, "fast");
+    assertFalse(fast.isCritical());
+    assertTrue(fast.getSlackNanos() >= TimeUnit.MILLISECONDS.toNanos(30), profile.toString());
+    assertEquals(0, task(profile, "slow").getSlackNanos());
+    assertEquals("slow", profile.getStages().get(0).getCriticalTask());
+    assertTrue(
+        task(profile, "dependent").getStartNanos() >= task(profile, "slow").getEndNanos(),
+        "dependent must start after its stage");
+    assertTrue(profile.getElapsedNanos() >= profile.getCriticalPathNanos());
+  }
+
+  @Test
+  void ensureExportsCoverEveryTask(@TempDir Path directory) throws Exception {
+    val profile = run(fanIn());
+    val json = profile.toJson();
+    assertTrue(json.contains("\"criticalPath\":[\"slow\",\"dependent\"]"), json);
+
+    val trace = profile.toChromeTrace();
+    assertEquals(3, Pattern.compile("\"ph\":\"X\"").matcher(trace).results().count(), trace);
+    assertTrue(trace.contains("\"cat\":\"critical\""));
+
+    profile.write(directory, "test");
+    assertEquals(json, Files.readString(directory.resolve("test.profile.json")));
+    assertEquals(trace, Files.readString(directory.resolve("test.trace.json")));
+  }
+
+  @Test
+  void ensureFailedTasksAreReported() throws Exception {
+    val graph = new TaskGraph<String>();
+    graph.add(
+        new Task("failing") {
+          @Override
+          public TaskValue run(Scope scope) {
+            throw new TaskException(TaskStatus.UNRECOVERABLE);
+          }
+        });
+    val profile = run(graph);
+    assertTrue(profile.isFailed(), "a failed task must fail the process");
+    assertTrue(task(profile, "failing").isFailed());
+    assertTrue(profile.toJson().contains("\"failed\":true"));
+  }
+
+  private ProcessProfile run(TaskGraph<String> graph) throws Exception {
+    val profiler = new ProcessProfiler<String>("test");
+    scheduler
+        .submit(
+            new DefaultProcess<>("test", false, true, Scope.root(), graph), Scope.root(), profiler)
+        .get(10, TimeUnit.SECONDS);
+    assertTrue(profiler.isComplete());
+    return profiler.getProfile();
+  }
+
+  private static ProcessProfile.TaskProfile task(ProcessProfile profile, String name) {
+    return profile.getTasks().stream()
+        .filter(t -> t.getName().equals(name))
+        .findFirst()
+        .orElseThrow(() -> new AssertionError("no task " + name));
+  }
+
+  /** dependent waits on slow and fast */
+  private static TaskGraph<String> fanIn() {
+    val dependent = named("dependent", 0);
+    val graph = new TaskGraph<String>();
+    graph.connect(dependent, named("slow", 50), DirectedGraph.outgoing("dependent on slow"));
+    graph.connect(dependent, named("fast", 0), DirectedGraph.outgoing("dependent on fast"));
+    return graph;
+  }
+
+  private static Task named(String name, long sleepMillis) {
+    return new Task(name) {
+      @Override
+      public TaskValue run(Scope scope) {
+        try {
+          Thread.sleep(sleepMillis);
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+        return null;
+      }
+    };
+  }
+}
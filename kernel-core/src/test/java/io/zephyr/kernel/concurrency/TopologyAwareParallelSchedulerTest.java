@@ -1,12 +1,16 @@
 package io.zephyr.kernel.concurrency;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.sunshower.gyre.DirectedGraph;
 import io.sunshower.gyre.Scope;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.val;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -90,6 +94,168 @@ class TopologyAwareParallelSchedulerTest {
     assertEquals(results.get(1), "a", "must be second");
   }
 
+  @Test
+  void ensureConcurrentProcessesDoNotHoldKernelThreads() throws Exception {
+    // one kernel thread: a coordinator that waited on its stage would starve the other process
+    val pool =
+        new ExecutorWorkerPool(Executors.newFixedThreadPool(2), Executors.newFixedThreadPool(1));
+    val scheduler = new TopologyAwareParallelScheduler<String>(pool);
+    val latch = new CountDownLatch(1);
+
+    val waiting = new TaskGraph<String>();
+    waiting.add(
+        new Task("waiting") {
+          @Override
+          public TaskValue run(Scope scope) {
+            try {
+              assertTrue(latch.await(10, TimeUnit.SECONDS), "other process must run");
+            } catch (InterruptedException ex) {
+              Thread.currentThread().interrupt();
+            }
+            return null;
+          }
+        });
+    val releasing = new TaskGraph<String>();
+    releasing.add(
+        new Task("releasing") {
+          @Override
+          public TaskValue run(Scope scope) {
+            latch.countDown();
+            return null;
+          }
+        });
+
+    val first = scheduler.submit(scheduleFrom(waiting), scope);
+    val second = scheduler.submit(scheduleFrom(releasing), scope);
+    first.get(10, TimeUnit.SECONDS);
+    second.get(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void ensureAsyncTaskReleasesDependentsOnCompletionWithoutHoldingWorker() throws Exception {
+    // one gyre thread: if the pending task held it, its sibling could never run
+    val pool =
+        new ExecutorWorkerPool(Executors.newFixedThreadPool(1), Executors.newFixedThreadPool(1));
+    val scheduler = new TopologyAwareParallelScheduler<String>(pool);
+    val activation = new CompletableFuture<Void>();
+    val sibling = new CountDownLatch(1);
+    val results = new CopyOnWriteArrayList<String>();
+
+    val g = new TaskGraph<String>();
+    val dependent =
+        new Task("dependent") {
+          @Override
+          public TaskValue run(Scope scope) {
+            results.add(name);
+            return null;
+          }
+        };
+    g.connect(
+        dependent,
+        new Task("activating") {
+          @Override
+          public TaskValue run(Scope scope) {
+            return TaskValue.completingWhen(activation, name);
+          }
+        },
+        DirectedGraph.outgoing("dependent dependsOn activating"));
+    g.connect(
+        dependent,
+        new Task("sibling") {
+          @Override
+          public TaskValue run(Scope scope) {
+            sibling.countDown();
+            return null;
+          }
+        },
+        DirectedGraph.outgoing("dependent dependsOn sibling"));
+
+    val tracker = scheduler.submit(scheduleFrom(g), scope);
+    assertTrue(sibling.await(10, TimeUnit.SECONDS), "sibling must run while activation pends");
+    Thread.sleep(50);
+    assertTrue(results.isEmpty(), "dependent must wait for the activation");
+    assertFalse(tracker.isDone());
+
+    activation.complete(null);
+    tracker.get(10, TimeUnit.SECONDS);
+    assertEquals(List.of("dependent"), results);
+  }
+
+  @Test
+  void ensureEmptyStageStartsBeforeItCompletes() {
+    val events = new ArrayList<Object>();
+    val latch =
+        new NotifyingLatch<String>(
+            (type, event) -> events.add(type), 0, 0, () -> events.add("next"));
+    assertTrue(events.isEmpty(), "an empty stage must not complete before it starts");
+    latch.start();
+    assertEquals(
+        List.of(TaskEvents.TASK_PHASE_STARTING, TaskEvents.TASK_PHASE_COMPLETE, "next"), events);
+  }
+
+  @Test
+  void ensureFailedAsyncTaskStopsProcess() throws Exception {
+    val activation = new CompletableFuture<Void>();
+    val results = new CopyOnWriteArrayList<String>();
+    val g = new TaskGraph<String>();
+    g.connect(
+        new Task("dependent") {
+          @Override
+          public TaskValue run(Scope scope) {
+            results.add(name);
+            return null;
+          }
+        },
+        new Task("activating") {
+          @Override
+          public TaskValue run(Scope scope) {
+            return TaskValue.completingWhen(activation, name);
+          }
+        },
+        DirectedGraph.outgoing("dependent dependsOn activating"));
+
+    val tracker = scheduler.submit(scheduleFrom(g), scope);
+    activation.completeExceptionally(new IllegalStateException("activator failed"));
+    tracker.get(10, TimeUnit.SECONDS);
+    assertTrue(results.isEmpty(), "dependent must not run after a failed activation");
+  }
+
+  @Test
+  void ensureForkJoinPoolRunsManyProcesses() throws Exception {
+    val pool = new ForkJoinWorkerPool(4, 1);
+    try {
+      val scheduler = new TopologyAwareParallelScheduler<String>(pool);
+      val count = new AtomicInteger();
+      val trackers = new ArrayList<TaskTracker<String>>();
+      for (int i = 0; i < 64; i++) {
+        val g = new TaskGraph<String>();
+        g.connect(
+            new Task("a" + i) {
+              @Override
+              public TaskValue run(Scope scope) {
+                count.incrementAndGet();
+                return null;
+              }
+            },
+            new Task("b" + i) {
+              @Override
+              public TaskValue run(Scope scope) {
+                count.incrementAndGet();
+                return null;
+              }
+            },
+            DirectedGraph.incoming("a dependsOn b"));
+        trackers.add(scheduler.submit(scheduleFrom(g), Scope.root()));
+      }
+      for (val tracker : trackers) {
+        tracker.get(10, TimeUnit.SECONDS);
+      }
+      assertEquals(128, count.get());
+    } finally {
+      pool.close();
+    }
+  }
+
   private Process<String> scheduleFrom(TaskGraph<String> graph) {
     return new DefaultProcess<String>("test", false, false, Scope.root(), graph);
   }
@@ -0,0 +1,85 @@
+package io.zephyr.kernel.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({
+  "PMD.JUnitTestContainsTooManyAsserts",
+  "PMD.JUnitAssertionsShouldIncludeMessage"
+})
+class BootTimelineTest {
+
+  @Test
+  void ensureTimelineSurvivesARoundTrip() throws Exception {
+    val timeline = new BootTimeline();
+    try (val span = timeline.span("restore", "hydrate test:a:1.0.0")) {
+      TimeUnit.MILLISECONDS.sleep(2);
+    }
+    timeline.record(
+        "lifecycle", "kernel:lifecycle:classloader", System.nanoTime(), System.nanoTime());
+    assertTrue(timeline.complete());
+    assertFalse(timeline.complete());
+
+    val read = BootTimeline.read(bytes(timeline));
+    assertTrue(read.isComplete());
+    assertEquals(timeline.getElapsedNanos(), read.getElapsedNanos());
+    assertEquals(timeline.getStartedAt(), read.getStartedAt());
+    assertEquals(
+        timeline.getEntries().stream().map(e -> e.getName()).collect(Collectors.toList()),
+        read.getEntries().stream().map(e -> e.getName()).collect(Collectors.toList()));
+    assertTrue(read.getEntries().get(0).getElapsedNanos() >= TimeUnit.MILLISECONDS.toNanos(2));
+  }
+
+  @Test
+  void ensureNothingIsRecordedOnceComplete() {
+    val timeline = new BootTimeline();
+    timeline.complete();
+    timeline.span("plugins", "activate test:a:1.0.0").close();
+    timeline.record("plugins", "classloader test:a:1.0.0", 0, 1);
+    assertTrue(timeline.getEntries().isEmpty());
+  }
+
+  @Test
+  void ensureOnlyNoticeableSlowdownsAreRegressions() throws Exception {
+    val previous = timeline(100, 10, 40);
+    val current = timeline(100, 12, 80);
+    val regressions = current.compareTo(previous);
+    assertEquals(1, regressions.size(), regressions.toString());
+    assertEquals("hydrate test:b:1.0.0", regressions.get(0).getName());
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(80), regressions.get(0).getCurrentNanos());
+    assertTrue(previous.compareTo(current).isEmpty());
+  }
+
+  @Test
+  void ensureGarbageIsRejected() {
+    assertThrows(
+        IOException.class, () -> BootTimeline.read("nope".getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /** a completed timeline of a 100ms boot with two hydrated plugins */
+  private static BootTimeline timeline(long total, long a, long b) throws IOException {
+    val content =
+        String.format(
+            "%s\t0\t%d%nrestore\thydrate test:a:1.0.0\t0\t%d%nrestore\thydrate test:b:1.0.0\t%d"
+                + "\t%d%n",
+            BootTimeline.HEADER, millis(total), millis(a), millis(a), millis(a + b));
+    return BootTimeline.read(content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static long millis(long value) {
+    return TimeUnit.MILLISECONDS.toNanos(value);
+  }
+
+  private static byte[] bytes(BootTimeline timeline) throws IOException {
+    val result = new ByteArrayOutputStream();
+    timeline.write(result);
+    return result.toByteArray();
+  }
+}
@@ -0,0 +1,173 @@
+package io.zephyr.kernel.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.sunshower.kernel.test.MockModule;
+import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.Dependency;
+import io.zephyr.kernel.Module;
+import io.zephyr.kernel.concurrency.Process;
+import io.zephyr.kernel.concurrency.Task;
+import io.zephyr.kernel.dependencies.DefaultDependencyGraph;
+import io.zephyr.kernel.module.ModuleLifecycle;
+import io.zephyr.kernel.module.ModuleLifecycleChangeGroup;
+import io.zephyr.kernel.module.ModuleLifecycleChangeRequest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({
+  "PMD.JUnitTestContainsTooManyAsserts",
+  "PMD.JUnitAssertionsShouldIncludeMessage"
+})
+class DefaultModuleLifecycleStatusChangeGroupTest {
+
+  private Kernel kernel;
+  private ModuleManager manager;
+  private DefaultDependencyGraph graph;
+
+  @BeforeEach
+  void setUp() {
+    kernel = mock(Kernel.class);
+    manager = mock(ModuleManager.class);
+    graph = new DefaultDependencyGraph();
+    when(manager.getDependencyGraph()).thenReturn(graph);
+  }
+
+  @Test
+  void ensureBulkStartPlansEachModuleOnceAlongDependencies() {
+    // a -> b -> d, c -> d
+    graph.addAll(Arrays.asList(module("d"), module("b", "d"), module("a", "b"), module("c", "d")));
+    val process = plan(ModuleLifecycle.Actions.Activate, "a", "c");
+    val tasks = tasks(process.getExecutionGraph().vertexSet());
+
+    assertEquals(4, tasks.size());
+    val execution = process.getExecutionGraph();
+    assertTrue(execution.containsEdge(tasks.get("a"), tasks.get("b")));
+    assertTrue(execution.containsEdge(tasks.get("b"), tasks.get("d")));
+    assertTrue(execution.containsEdge(tasks.get("c"), tasks.get("d")));
+    assertFalse(execution.containsEdge(tasks.get("a"), tasks.get("d")));
+    assertEquals(3, execution.edgeCount());
+  }
+
+  @Test
+  void ensureBulkStopWaitsOnDependents() {
+    graph.addAll(Arrays.asList(module("d"), module("b", "d"), module("a", "b")));
+    val process = plan(ModuleLifecycle.Actions.Stop, "d", "b");
+    val tasks = tasks(process.getExecutionGraph().vertexSet());
+
+    assertEquals(3, tasks.size());
+    val execution = process.getExecutionGraph();
+    assertTrue(execution.containsEdge(tasks.get("d"), tasks.get("b")));
+    assertTrue(execution.containsEdge(tasks.get("b"), tasks.get("a")));
+  }
+
+  @Test
+  void ensureBulkDeleteRemovesEveryStoppedModule() {
+    graph.addAll(Arrays.asList(module("b"), module("a", "b")));
+    val process = plan(ModuleLifecycle.Actions.Delete, "b");
+    val removals =
+        process.getExecutionGraph().vertexSet().stream()
+            .filter(t -> t.getName().startsWith("plugin:remove:"))
+            .count();
+    assertEquals(2, removals);
+  }
+
+  @Test
+  void ensureBulkStartRunsStraightOffMemoizedSchedule() {
+    // a -> b -> d, c -> d
+    graph.addAll(Arrays.asList(module("d"), module("b", "d"), module("a", "b"), module("c", "d")));
+    val process = plan(ModuleLifecycle.Actions.Activate, "a", "c");
+    assertEquals(Arrays.asList(set("d"), set("b", "c"), set("a")), stages(process));
+    assertEquals(1, graph.getCachedScheduleCount());
+  }
+
+  @Test
+  void ensureBulkStopStagesRunDependentsFirst() {
+    graph.addAll(Arrays.asList(module("d"), module("b", "d"), module("a", "b")));
+    val process = plan(ModuleLifecycle.Actions.Stop, "d");
+    assertEquals(Arrays.asList(set("a"), set("b"), set("d")), stages(process));
+  }
+
+  @Test
+  void ensureBulkDeleteRemovesEachModuleAfterItStops() {
+    graph.addAll(Arrays.asList(module("b"), module("a", "b")));
+    val process = plan(ModuleLifecycle.Actions.Delete, "b");
+    val stages = process.getTasks();
+    assertEquals(3, stages.size());
+    for (val node : stages.get(1).getTasks()) {
+      if (node.getValue().getName().startsWith("plugin:remove:")) {
+        assertTrue(node.getValue().getName().endsWith(coordinate("a").toCanonicalForm()));
+        assertEquals(
+            tasks(process.getExecutionGraph().vertexSet()).get("a"),
+            node.getPredecessors().iterator().next().getValue());
+      }
+    }
+  }
+
+  private Process<String> plan(ModuleLifecycle.Actions action, String... names) {
+    val group = new ModuleLifecycleChangeGroup();
+    for (val name : names) {
+      group.addRequest(new ModuleLifecycleChangeRequest(coordinate(name), action));
+    }
+    return new DefaultModuleLifecycleStatusChangeGroup(kernel, manager, group).getProcess();
+  }
+
+  /** task names end with the module's canonical coordinate */
+  private static Map<String, Task> tasks(Set<Task> tasks) {
+    val result = new HashMap<String, Task>();
+    for (val task : tasks) {
+      for (val name : Arrays.asList("a", "b", "c", "d")) {
+        if (task.getName().endsWith(coordinate(name).toCanonicalForm())
+            && !task.getName().startsWith("plugin:remove:")) {
+          result.put(name, task);
+        }
+      }
+    }
+    return result;
+  }
+
+  /** @return the modules each stage stops or starts, without removals */
+  private static List<Set<String>> stages(Process<String> process) {
+    val result = new ArrayList<Set<String>>();
+    for (val stage : process.getTasks()) {
+      val names = new HashSet<String>();
+      for (val node : stage.getTasks()) {
+        val task = node.getValue().getName();
+        for (val name : Arrays.asList("a", "b", "c", "d")) {
+          if (task.endsWith(coordinate(name).toCanonicalForm())
+              && !task.startsWith("plugin:remove:")) {
+            names.add(name);
+          }
+        }
+      }
+      result.add(names);
+    }
+    return result;
+  }
+
+  private static Set<String> set(String... names) {
+    return new HashSet<>(Arrays.asList(names));
+  }
+
+  private static Coordinate coordinate(String name) {
+    return ModuleCoordinate.create("test", name, "1.0.0");
+  }
+
+  private static Module module(String name, String... dependencies) {
+    return new MockModule(
+        coordinate(name),
+        Arrays.stream(dependencies)
+            .map(d -> new Dependency(Dependency.Type.Service, coordinate(d)))
+            .collect(Collectors.toList()));
+  }
+}
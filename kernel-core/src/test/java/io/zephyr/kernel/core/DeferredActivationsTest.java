@@ -0,0 +1,218 @@
+package io.zephyr.kernel.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.zephyr.api.ServiceReference;
+import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.Dependency;
+import io.zephyr.kernel.Lifecycle;
+import io.zephyr.kernel.Module;
+import io.zephyr.kernel.concurrency.ModuleThread;
+import io.zephyr.kernel.concurrency.Scheduler;
+import io.zephyr.kernel.dependencies.DependencyGraph;
+import java.nio.file.FileSystem;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+@SuppressWarnings({
+  "PMD.JUnitTestContainsTooManyAsserts",
+  "PMD.JUnitAssertionsShouldIncludeMessage",
+})
+class DeferredActivationsTest {
+
+  private Kernel kernel;
+  private Module module;
+  private Lifecycle lifecycle;
+  private ModuleManager manager;
+  private ModuleClasspathManager loader;
+  private DeferredActivations activations;
+  private List<ModuleThread> started;
+
+  @BeforeEach
+  void setUp() {
+    kernel = mock(Kernel.class);
+    module = mock(Module.class);
+    lifecycle = mock(Lifecycle.class);
+    loader = mock(ModuleClasspathManager.class);
+    manager = mock(ModuleManager.class);
+    when(kernel.getModuleManager()).thenReturn(manager);
+    when(manager.getModuleLoader()).thenReturn(loader);
+    when(module.getCoordinate()).thenReturn(ModuleCoordinate.create("io.zephyr", "lazy", "1.0.0"));
+    when(module.getLifecycle()).thenReturn(lifecycle);
+    activations = new DeferredActivations();
+    started = new ArrayList<>();
+  }
+
+  @AfterEach
+  void tearDown() {
+    for (val thread : started) {
+      thread.stop();
+    }
+  }
+
+  @Test
+  void ensureActivationParsesCaseInsensitively() {
+    assertEquals(Module.Activation.Lazy, Module.Activation.parse(" LAZY "));
+    assertEquals(Module.Activation.Eager, Module.Activation.parse("eager"));
+    assertThrows(IllegalArgumentException.class, () -> Module.Activation.parse("sometimes"));
+  }
+
+  @Test
+  void ensureDeferringPreparesModuleWithoutActivatingIt() {
+    activations.defer(module, kernel);
+    verify(loader).check(module);
+    verify(lifecycle).setState(Lifecycle.State.Starting);
+    assertTrue(activations.isDeferred(module.getCoordinate()));
+    assertEquals(1, activations.getDeferred().size());
+  }
+
+  @Test
+  void ensureDeferringTwiceIsIdempotent() {
+    activations.defer(module, kernel);
+    activations.defer(module, kernel);
+    verify(lifecycle, times(1)).setState(Lifecycle.State.Starting);
+    assertEquals(1, activations.getDeferred().size());
+  }
+
+  @Test
+  void ensureCancellingReturnsModuleToResolved() {
+    activations.defer(module, kernel);
+    assertTrue(activations.cancel(module.getCoordinate()));
+    verify(lifecycle).setState(Lifecycle.State.Resolved);
+    assertFalse(activations.isDeferred(module.getCoordinate()));
+    assertFalse(activations.cancel(module.getCoordinate()));
+  }
+
+  @Test
+  void ensureActivatingUnknownModuleDoesNothing() {
+    activations.activate(module.getCoordinate());
+    verifyNoInteractions(lifecycle);
+  }
+
+  @Test
+  void ensureActivatingStartsModuleThread() {
+    val lazy = lazyModule("lazy");
+    activations.defer(lazy, kernel);
+    activations.activate(lazy.getCoordinate());
+
+    val thread = startedThread(lazy);
+    assertFalse(thread.isTerminated());
+    assertFalse(activations.isDeferred(lazy.getCoordinate()));
+    verify(lazy.getLifecycle(), never()).setState(Lifecycle.State.Resolved);
+  }
+
+  @Test
+  void ensureActivatingTwiceStartsOneModuleThread() {
+    val lazy = lazyModule("lazy");
+    activations.defer(lazy, kernel);
+    activations.activate(lazy.getCoordinate());
+    activations.activate(lazy.getCoordinate());
+    startedThread(lazy);
+  }
+
+  @Test
+  void ensureDependenciesAreActivatedFirst() {
+    val dependency = lazyModule("dependency");
+    val dependent = lazyModule("dependent");
+    val edge = new Dependency(Dependency.Type.Library, dependency.getCoordinate());
+    when(dependent.getDependencies()).thenReturn(Collections.singleton(edge));
+    activations.defer(dependency, kernel);
+    activations.defer(dependent, kernel);
+
+    activations.activate(dependent.getCoordinate());
+
+    val order = inOrder(dependency, dependent);
+    order.verify((AbstractModule) dependency).setTaskQueue(any(ModuleThread.class));
+    order.verify((AbstractModule) dependent).setTaskQueue(any(ModuleThread.class));
+    startedThread(dependency);
+    startedThread(dependent);
+    assertTrue(activations.getDeferred().isEmpty());
+  }
+
+  @Test
+  void ensureServiceLookupActivatesDeclaredDependencies() {
+    val coordinate = lazyDependencyOf(module);
+    new DefaultPluginContext(module, kernel, null).getReferences(Object.class);
+    verify(manager).activateDeferred(coordinate);
+  }
+
+  @Test
+  void ensureServiceTrackingActivatesDeclaredDependencies() {
+    val coordinate = lazyDependencyOf(module);
+    new DefaultPluginContext(module, kernel, null).trackServices((ServiceReference<?> ref) -> true);
+    verify(manager).activateDeferred(coordinate);
+  }
+
+  @Test
+  void ensureLinkingAgainstDeferredModuleActivatesIt() throws Exception {
+    val lazy = lazyModule("lazy");
+    when(lazy.getActivation()).thenReturn(Module.Activation.Lazy);
+    when(lazy.getLifecycle().getState()).thenReturn(Lifecycle.State.Starting);
+
+    val graph = mock(DependencyGraph.class);
+    when(graph.get(lazy.getCoordinate())).thenReturn(lazy);
+    val executor = mock(ExecutorService.class);
+    doAnswer(
+            invocation -> {
+              invocation.<Runnable>getArgument(0).run();
+              return null;
+            })
+        .when(executor)
+        .execute(any(Runnable.class));
+    val scheduler = mock(Scheduler.class);
+    when(scheduler.getKernelExecutor()).thenReturn(executor);
+    when(kernel.getScheduler()).thenReturn(scheduler);
+
+    val moduleLoader = new KernelModuleLoader(graph, kernel);
+    moduleLoader.install(lazy);
+    moduleLoader.preloadModule(lazy.getCoordinate().toCanonicalForm());
+    verify(manager).activateDeferred(lazy.getCoordinate());
+  }
+
+  @Test
+  void ensureLinkingAgainstActiveModuleDoesNotActivateIt() throws Exception {
+    val eager = lazyModule("eager");
+    val graph = mock(DependencyGraph.class);
+    when(graph.get(eager.getCoordinate())).thenReturn(eager);
+
+    val moduleLoader = new KernelModuleLoader(graph, kernel);
+    moduleLoader.install(eager);
+    moduleLoader.preloadModule(eager.getCoordinate().toCanonicalForm());
+    verify(manager, never()).activateDeferred(any());
+  }
+
+  private Coordinate lazyDependencyOf(Module dependent) {
+    val coordinate = ModuleCoordinate.create("io.zephyr", "provider", "1.0.0");
+    when(dependent.getDependencies())
+        .thenReturn(Collections.singleton(new Dependency(Dependency.Type.Library, coordinate)));
+    return coordinate;
+  }
+
+  /** a plugin whose activator has nothing to do */
+  private Module lazyModule(String name) {
+    val result = mock(AbstractModule.class);
+    val state = mock(Lifecycle.class);
+    when(state.getState()).thenReturn(Lifecycle.State.Active);
+    when(result.getLifecycle()).thenReturn(state);
+    when(result.getType()).thenReturn(Module.Type.Plugin);
+    when(result.getFileSystem()).thenReturn(mock(FileSystem.class));
+    when(result.getCoordinate()).thenReturn(ModuleCoordinate.create("io.zephyr", name, "1.0.0"));
+    return result;
+  }
+
+  private ModuleThread startedThread(Module module) {
+    val captor = ArgumentCaptor.forClass(ModuleThread.class);
+    verify((AbstractModule) module).setTaskQueue(captor.capture());
+    val thread = captor.getValue();
+    started.add(thread);
+    return thread;
+  }
+}
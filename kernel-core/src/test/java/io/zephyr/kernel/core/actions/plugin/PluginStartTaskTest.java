@@ -0,0 +1,59 @@
+package io.zephyr.kernel.core.actions.plugin;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.sunshower.gyre.Scope;
+import io.zephyr.kernel.Lifecycle;
+import io.zephyr.kernel.Module;
+import io.zephyr.kernel.concurrency.ModuleThread;
+import io.zephyr.kernel.core.Kernel;
+import io.zephyr.kernel.core.ModuleCoordinate;
+import io.zephyr.kernel.core.ModuleManager;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("PMD.JUnitAssertionsShouldIncludeMessage")
+class PluginStartTaskTest {
+
+  private Kernel kernel;
+  private Module module;
+  private Lifecycle lifecycle;
+  private PluginStartTask task;
+
+  @BeforeEach
+  void setUp() {
+    kernel = mock(Kernel.class);
+    module = mock(Module.class);
+    lifecycle = mock(Lifecycle.class);
+    val manager = mock(ModuleManager.class);
+    val coordinate = ModuleCoordinate.create("io.zephyr", "started", "1.0.0");
+    when(manager.getModule(coordinate)).thenReturn(module);
+    when(module.getCoordinate()).thenReturn(coordinate);
+    when(module.getLifecycle()).thenReturn(lifecycle);
+    task = new PluginStartTask(coordinate, manager, kernel);
+  }
+
+  @Test
+  void ensureStartingAnActiveModuleKeepsItsModuleThread() {
+    val thread = mock(ModuleThread.class);
+    when(lifecycle.getState()).thenReturn(Lifecycle.State.Active);
+    when(module.getTaskQueue()).thenReturn(thread);
+
+    assertNull(task.run(mock(Scope.class)));
+    verify(thread, never()).startAsync();
+    verifyNoInteractions(kernel);
+  }
+
+  @Test
+  void ensureStartingAModuleThatIsStillStartingKeepsItsModuleThread() {
+    val thread = mock(ModuleThread.class);
+    when(lifecycle.getState()).thenReturn(Lifecycle.State.Starting);
+    when(module.getTaskQueue()).thenReturn(thread);
+
+    assertNull(task.run(mock(Scope.class)));
+    verify(thread, never()).startAsync();
+    verifyNoInteractions(kernel);
+  }
+}
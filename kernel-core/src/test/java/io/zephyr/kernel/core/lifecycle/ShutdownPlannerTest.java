@@ -0,0 +1,184 @@
+package io.zephyr.kernel.core.lifecycle;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.sunshower.kernel.test.MockModule;
+import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.Dependency;
+import io.zephyr.kernel.Module;
+import io.zephyr.kernel.TaskQueue;
+import io.zephyr.kernel.core.ModuleCoordinate;
+import io.zephyr.kernel.core.ModuleManager;
+import io.zephyr.kernel.dependencies.DefaultDependencyGraph;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({
+  "PMD.JUnitTestContainsTooManyAsserts",
+  "PMD.JUnitAssertionsShouldIncludeMessage",
+  "PMD.DoNotUseThreads"
+})
+class ShutdownPlannerTest {
+
+  private ModuleManager manager;
+  private DefaultDependencyGraph graph;
+  private Map<Coordinate, Module> modules;
+  private List<String> stopped;
+  private CountDownLatch never;
+
+  @BeforeEach
+  void setUp() {
+    manager = mock(ModuleManager.class);
+    graph = new DefaultDependencyGraph();
+    modules = new HashMap<>();
+    stopped = Collections.synchronizedList(new ArrayList<>());
+    never = new CountDownLatch(1);
+    when(manager.getDependencyGraph()).thenReturn(graph);
+    when(manager.getModules()).thenAnswer(i -> new ArrayList<>(modules.values()));
+    when(manager.getModule(any())).thenAnswer(i -> modules.get(i.<Coordinate>getArgument(0)));
+  }
+
+  @AfterEach
+  void tearDown() {
+    never.countDown();
+  }
+
+  @Test
+  void ensureDependentsStopInEarlierWaves() {
+    // a -> b -> d, c -> d
+    register("d", this::record);
+    register("b", this::record, "d");
+    register("a", this::record, "b");
+    register("c", this::record, "d");
+    val report = new ShutdownPlanner(manager, 4, 1000, 100).shutdown();
+
+    assertEquals(3, report.getWaves());
+    assertEquals(4, report.count(ShutdownReport.Outcome.Stopped));
+    assertEquals("d", stopped.get(3));
+    assertTrue(stopped.indexOf("a") < stopped.indexOf("b"));
+    val waves =
+        report.getEntries().stream()
+            .collect(Collectors.toMap(e -> e.getCoordinate().getName(), e -> e.getWave()));
+    assertEquals(0, waves.get("a"));
+    assertEquals(2, waves.get("d"));
+  }
+
+  @Test
+  void ensureInterruptibleHangIsInterrupted() {
+    register(
+        "a",
+        name -> {
+          try {
+            never.await();
+          } catch (InterruptedException ex) {
+            stopped.add(name);
+          }
+        });
+    val report = new ShutdownPlanner(manager, 1, 50, 1000).shutdown();
+    assertEquals(ShutdownReport.Outcome.Interrupted, report.getEntries().get(0).getOutcome());
+    assertEquals(Collections.singletonList("a"), stopped);
+  }
+
+  @Test
+  void ensureUninterruptibleHangIsForcedWithoutStallingOthers() {
+    register(
+        "a",
+        name -> {
+          while (never.getCount() > 0) {
+            Thread.onSpinWait();
+          }
+        });
+    register("b", this::record);
+    val report = new ShutdownPlanner(manager, 2, 50, 50).shutdown();
+    assertEquals(1, report.count(ShutdownReport.Outcome.Forced));
+    assertEquals(1, report.count(ShutdownReport.Outcome.Stopped));
+    assertEquals(Collections.singletonList("b"), stopped);
+  }
+
+  @Test
+  void ensureFailuresAndUnstartedPluginsAreReported() {
+    register(
+        "a",
+        name -> {
+          throw new IllegalStateException("nope");
+        });
+    val unstarted = new MockModule(coordinate("b"), Collections.emptyList());
+    graph.add(unstarted);
+    modules.put(unstarted.getCoordinate(), unstarted);
+
+    val report = new ShutdownPlanner(manager, 2, 1000, 100).shutdown();
+    assertEquals(1, report.count(ShutdownReport.Outcome.Failed));
+    assertEquals(1, report.count(ShutdownReport.Outcome.Skipped));
+    assertTrue(report.toString().contains("nope"));
+  }
+
+  @Test
+  void ensureFailureOutsideStopIsReportedAgainstItsPlugin() {
+    register("a", this::record);
+    val broken = mock(Module.class);
+    when(broken.getCoordinate()).thenReturn(coordinate("broken"));
+    when(broken.getTaskQueue()).thenThrow(new IllegalStateException("no queue"));
+    graph.add(new MockModule(coordinate("broken"), Collections.emptyList()));
+    modules.put(coordinate("broken"), broken);
+
+    val report = new ShutdownPlanner(manager, 2, 1000, 100).shutdown();
+    assertEquals(2, report.getEntries().size());
+    assertEquals(1, report.count(ShutdownReport.Outcome.Stopped));
+    val failed =
+        report.getEntries().stream()
+            .filter(e -> e.getOutcome() == ShutdownReport.Outcome.Failed)
+            .findFirst()
+            .orElseThrow();
+    assertEquals(coordinate("broken"), failed.getCoordinate());
+    assertTrue(report.toString().contains("no queue"));
+  }
+
+  @Test
+  void ensureSettingsThatCouldNeverFinishAreRejected() {
+    assertThrows(IllegalArgumentException.class, () -> new ShutdownPlanner(manager, 0, 1, 1));
+    assertThrows(IllegalArgumentException.class, () -> new ShutdownPlanner(manager, 1, 0, 1));
+    assertThrows(IllegalArgumentException.class, () -> new ShutdownPlanner(manager, 1, 1, 0));
+  }
+
+  private void record(String name) {
+    stopped.add(name);
+  }
+
+  private void register(String name, Consumer<String> onStop, String... deps) {
+    val coordinate = coordinate(name);
+    val dependencies =
+        Arrays.stream(deps)
+            .map(d -> new Dependency(Dependency.Type.Service, coordinate(d)))
+            .collect(Collectors.toList());
+    graph.add(new MockModule(coordinate, dependencies));
+
+    val queue = mock(TaskQueue.class);
+    doAnswer(
+            i -> {
+              onStop.accept(name);
+              return null;
+            })
+        .when(queue)
+        .stop();
+    val module = mock(Module.class);
+    when(module.getCoordinate()).thenReturn(coordinate);
+    when(module.getTaskQueue()).thenReturn(queue);
+    modules.put(coordinate, module);
+  }
+
+  private static Coordinate coordinate(String name) {
+    return ModuleCoordinate.create("test", name, "1.0.0");
+  }
+}
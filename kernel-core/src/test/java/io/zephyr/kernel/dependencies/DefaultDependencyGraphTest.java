@@ -8,6 +8,8 @@ import io.zephyr.kernel.Module;
 import io.zephyr.kernel.core.ModuleCoordinate;
 import io.zephyr.kernel.core.SemanticVersion;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.stream.Collectors;
 import lombok.val;
 import org.junit.jupiter.api.BeforeEach;
@@ -163,6 +165,158 @@ class DefaultDependencyGraphTest {
     graph.addAll(Arrays.asList(fst, snd));
   }
 
+  @Test
+  void ensureStructuralChangesBumpVersion() {
+    val g = (DefaultDependencyGraph) graph;
+    val initial = g.getVersion();
+    val a = module("a");
+    g.add(a);
+    assertTrue(g.getVersion() > initial, "adding must bump the version");
+    val added = g.getVersion();
+    g.add(module("c", "missing"));
+    assertEquals(added, g.getVersion(), "an unresolvable module must not bump the version");
+    g.remove(a);
+    assertTrue(g.getVersion() > added, "removing must bump the version");
+  }
+
+  @Test
+  void ensureSchedulesAreMemoizedUntilGraphChanges() {
+    val g = (DefaultDependencyGraph) graph;
+    val a = module("a", "b");
+    val b = module("b");
+    g.addAll(Arrays.asList(b, a));
+    val roots = Collections.singleton(a.getCoordinate());
+
+    val schedule = g.getSchedule(roots, DefaultDependencyGraph.Direction.Dependencies);
+    assertEquals(2, schedule.size());
+    assertSame(schedule, g.getSchedule(roots, DefaultDependencyGraph.Direction.Dependencies));
+    assertNotSame(schedule, g.getSchedule(roots, DefaultDependencyGraph.Direction.Dependents));
+    assertEquals(2, g.getCachedScheduleCount());
+
+    g.add(module("c", "a"));
+    assertEquals(0, g.getCachedScheduleCount());
+    val recomputed = g.getSchedule(roots, DefaultDependencyGraph.Direction.Dependents);
+    assertEquals(2, recomputed.size(), "c now depends on a");
+  }
+
+  @Test
+  void ensureScheduleOverSeveralRootsCoversBoth() {
+    val g = (DefaultDependencyGraph) graph;
+    val a = module("a", "c");
+    val b = module("b", "c");
+    val c = module("c");
+    g.addAll(Arrays.asList(c, a, b));
+    val schedule =
+        g.getSchedule(
+            new HashSet<>(Arrays.asList(a.getCoordinate(), b.getCoordinate())),
+            DefaultDependencyGraph.Direction.Dependencies);
+    assertEquals(2, schedule.size());
+    assertEquals(1, schedule.get(0).size());
+    assertEquals(2, schedule.get(1).size());
+  }
+
+  @Test
+  void ensureRemovingDependencyMarksDependentsAsWaiting() {
+    val g = (DefaultDependencyGraph) graph;
+    val a = module("a", "b");
+    val b = module("b");
+    g.addAll(Arrays.asList(b, a));
+    assertTrue(g.getMissing().isEmpty());
+
+    g.remove(b);
+    assertEquals(Collections.singleton(b.getCoordinate()), g.getMissing());
+    assertEquals(Collections.singleton(a.getCoordinate()), g.getWaiting(b.getCoordinate()));
+    assertFalse(g.getUnresolvedDependencies(a).isSatisfied());
+  }
+
+  @Test
+  void ensureReinstallingDependencyReattachesWaitingDependents() {
+    val g = (DefaultDependencyGraph) graph;
+    val a = module("a", "b");
+    val b = module("b");
+    g.addAll(Arrays.asList(b, a));
+    g.remove(b);
+    g.add(b);
+
+    assertTrue(g.getMissing().isEmpty());
+    assertTrue(g.getWaiting(b.getCoordinate()).isEmpty());
+    assertEquals(Collections.singleton(a), g.getDependents(b.getCoordinate()));
+    assertEquals(Collections.singleton(b), g.getDependencies(a.getCoordinate()));
+  }
+
+  @Test
+  void ensureRemovingWaitingModuleStopsItWaiting() {
+    val g = (DefaultDependencyGraph) graph;
+    val a = module("a", "b");
+    val b = module("b");
+    g.addAll(Arrays.asList(b, a));
+    g.remove(b);
+    g.remove(a);
+    assertTrue(g.getMissing().isEmpty());
+  }
+
+  @Test
+  void ensureTransitiveQueriesAgreeWithAndWithoutIndex() {
+    val indexed = new DefaultDependencyGraph(true);
+    val unindexed = new DefaultDependencyGraph(false);
+    val a = module("a", "b");
+    val b = module("b", "c");
+    val c = module("c");
+    val d = module("d", "c");
+    for (val g : Arrays.asList(indexed, unindexed)) {
+      g.addAll(Arrays.asList(c, b, a, d));
+      assertEquals(
+          new HashSet<>(Arrays.asList(a.getCoordinate(), b.getCoordinate(), d.getCoordinate())),
+          g.getTransitiveDependents(c.getCoordinate()));
+      assertEquals(
+          new HashSet<>(Arrays.asList(b.getCoordinate(), c.getCoordinate())),
+          g.getTransitiveDependencies(a.getCoordinate()));
+      assertEquals(
+          3,
+          g.getSchedule(
+                  Collections.singleton(c.getCoordinate()),
+                  DefaultDependencyGraph.Direction.Dependents)
+              .size());
+    }
+    assertTrue(indexed.isReachabilityIndexed());
+    assertFalse(unindexed.isReachabilityIndexed());
+  }
+
+  @Test
+  void ensureIndexFollowsRemovalAndReinstallation() {
+    val g = (DefaultDependencyGraph) graph;
+    val a = module("a", "b");
+    val b = module("b", "c");
+    val c = module("c");
+    g.addAll(Arrays.asList(c, b, a));
+    g.remove(b);
+    assertTrue(g.getTransitiveDependents(c.getCoordinate()).isEmpty());
+    g.add(b);
+    assertEquals(
+        new HashSet<>(Arrays.asList(a.getCoordinate(), b.getCoordinate())),
+        g.getTransitiveDependents(c.getCoordinate()));
+    assertTrue(g.clone().getTransitiveDependents(c.getCoordinate()).contains(a.getCoordinate()));
+  }
+
+  @Test
+  void ensureClonesSkipTheReachabilityIndexButStillFindCycles() {
+    val g = (DefaultDependencyGraph) graph;
+    val a = module("a", "b");
+    val b = module("b", "c");
+    val c = module("c");
+    g.addAll(Arrays.asList(c, b));
+
+    val prospective = g.clone();
+    assertFalse(prospective.isReachabilityIndexed());
+    prospective.add(a);
+    assertFalse(prospective.computeCycles().isCyclic());
+    assertEquals(
+        new HashSet<>(Arrays.asList(b.getCoordinate(), c.getCoordinate())),
+        prospective.getTransitiveDependencies(a.getCoordinate()));
+    assertTrue(g.isReachabilityIndexed());
+    assertFalse(g.contains(a.getCoordinate()));
+  }
+
   Module module(String gandname, String... deps) {
     return newModule(gandname, gandname, deps);
   }
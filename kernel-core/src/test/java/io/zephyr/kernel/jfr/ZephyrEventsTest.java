@@ -0,0 +1,112 @@
+package io.zephyr.kernel.jfr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.sunshower.gyre.DirectedGraph;
+import io.sunshower.gyre.Scope;
+import io.sunshower.kernel.test.MockModule;
+import io.zephyr.kernel.Lifecycle;
+import io.zephyr.kernel.concurrency.DefaultProcess;
+import io.zephyr.kernel.concurrency.ExecutorWorkerPool;
+import io.zephyr.kernel.concurrency.Task;
+import io.zephyr.kernel.concurrency.TaskGraph;
+import io.zephyr.kernel.concurrency.TopologyAwareParallelScheduler;
+import io.zephyr.kernel.core.ModuleCoordinate;
+import io.zephyr.kernel.module.ModuleLifecycle;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@SuppressWarnings({
+  "PMD.JUnitTestContainsTooManyAsserts",
+  "PMD.JUnitAssertionsShouldIncludeMessage"
+})
+class ZephyrEventsTest {
+
+  @Test
+  void ensureProfileEnablesEveryEvent() throws Exception {
+    val settings = ZephyrEvents.getProfile().getSettings();
+    for (val event : ZephyrEvents.EVENTS) {
+      val name = event.getAnnotation(jdk.jfr.Name.class).value();
+      assertEquals("true", settings.get(name + "#enabled"), name);
+    }
+  }
+
+  @Test
+  void ensureKernelWorkIsRecorded(@TempDir Path directory) throws Exception {
+    val file = directory.resolve("zephyr.jfr");
+    try (val recording = new Recording(ZephyrEvents.getProfile())) {
+      recording.start();
+      runProcess();
+      val module = new MockModule(ModuleCoordinate.create("test", "a", "1.0.0"), List.of());
+      val lifecycle = new ModuleLifecycle(module);
+      lifecycle.setState(Lifecycle.State.Installed);
+      lifecycle.setState(Lifecycle.State.Resolved);
+      recording.stop();
+      recording.dump(file);
+    }
+
+    val coordinate = ModuleCoordinate.create("test", "a", "1.0.0").toCanonicalForm();
+    val events = RecordingFile.readAllEvents(file);
+    val tasks = named(events, "io.zephyr.TaskExecution");
+    assertEquals(
+        List.of("a", "b"),
+        tasks.stream().map(e -> e.getString("task")).sorted().collect(Collectors.toList()));
+    assertEquals(1, named(events, "io.zephyr.ProcessExecution").size());
+
+    val transitions = named(events, "io.zephyr.ModuleStateChange");
+    assertEquals(2, transitions.size());
+    val resolved =
+        transitions.stream().filter(e -> "Resolved".equals(e.getString("state"))).findFirst();
+    assertTrue(resolved.isPresent());
+    assertEquals("Installed", resolved.get().getString("previousState"));
+    assertEquals(coordinate, resolved.get().getString("module"));
+  }
+
+  @Test
+  void ensureTaskEventsAreLeftEmptyWhenNothingIsRecording() {
+    val event = TaskExecutionEvent.start("a", Task.class, 1);
+    assertNull(event.task);
+    assertNull(event.worker);
+    event.complete(0, false);
+  }
+
+  private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+    return events.stream()
+        .filter(e -> e.getEventType().getName().equals(name))
+        .collect(Collectors.toList());
+  }
+
+  private static void runProcess() throws Exception {
+    val gyre = Executors.newFixedThreadPool(2);
+    val kernel = Executors.newFixedThreadPool(1);
+    try {
+      val graph = new TaskGraph<String>();
+      graph.connect(task("a"), task("b"), DirectedGraph.outgoing("a dependsOn b"));
+      new TopologyAwareParallelScheduler<String>(new ExecutorWorkerPool(gyre, kernel))
+          .submit(
+              new DefaultProcess<>("test", false, true, Scope.root(), graph), Scope.root(), null)
+          .get(10, TimeUnit.SECONDS);
+    } finally {
+      gyre.shutdownNow();
+      kernel.shutdownNow();
+    }
+  }
+
+  private static Task task(String name) {
+    return new Task(name) {
+      @Override
+      public TaskValue run(Scope scope) {
+        return null;
+      }
+    };
+  }
+}
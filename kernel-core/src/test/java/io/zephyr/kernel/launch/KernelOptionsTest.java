@@ -3,6 +3,7 @@ package io.zephyr.kernel.launch;
 import static org.junit.jupiter.api.Assertions.*;
 
 import io.zephyr.common.Options;
+import io.zephyr.kernel.concurrency.WorkerPool;
 import io.zephyr.kernel.extensions.EntryPoint;
 import java.io.File;
 import java.nio.file.AccessDeniedException;
@@ -10,6 +11,7 @@ import java.util.EnumMap;
 import java.util.logging.Level;
 import lombok.val;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 @SuppressWarnings("PMD")
 class KernelOptionsTest {
@@ -84,4 +86,37 @@ class KernelOptionsTest {
 
     assertEquals("boop", options.getHomeDirectory().getName(), "Home directory should be settable");
   }
+
+  @Test
+  void ensureAdaptiveConcurrencyIsRejectedForForkJoinPool(@TempDir File home) {
+    val options =
+        parse(home, "--adaptive-concurrency", "--worker-pool", WorkerPool.Type.ForkJoin.name());
+    assertThrows(IllegalArgumentException.class, options::validate);
+  }
+
+  @Test
+  void ensureAdaptiveConcurrencyIsAcceptedForExecutorPool(@TempDir File home) {
+    val options = parse(home, "--adaptive-concurrency");
+    assertDoesNotThrow(options::validate);
+  }
+
+  @Test
+  void ensureNonPositiveShutdownSettingsAreRejected(@TempDir File home) {
+    for (val option :
+        new String[] {"--shutdown-concurrency", "--plugin-stop-timeout", "--plugin-stop-grace"}) {
+      val options = parse(home, option, "0");
+      assertThrows(IllegalArgumentException.class, options::validate, option);
+    }
+    assertDoesNotThrow(parse(home, "--shutdown-concurrency", "2")::validate);
+  }
+
+  private static KernelOptions parse(File home, String... args) {
+    val context = new EnumMap<>(EntryPoint.ContextEntries.class);
+    val all = new String[args.length + 2];
+    all[0] = "-h";
+    all[1] = home.getAbsolutePath();
+    System.arraycopy(args, 0, all, 2, args.length);
+    context.put(EntryPoint.ContextEntries.ARGS, all);
+    return Options.create(KernelOptions::new, context);
+  }
 }
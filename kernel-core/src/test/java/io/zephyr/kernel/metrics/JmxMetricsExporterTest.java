@@ -0,0 +1,81 @@
+package io.zephyr.kernel.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({
+  "PMD.JUnitTestContainsTooManyAsserts",
+  "PMD.JUnitAssertionsShouldIncludeMessage"
+})
+class JmxMetricsExporterTest {
+
+  private MBeanServer server;
+  private KernelMetrics metrics;
+  private JmxMetricsExporter exporter;
+
+  @BeforeEach
+  void setUp() {
+    server = ManagementFactory.getPlatformMBeanServer();
+    metrics = new DefaultKernelMetrics();
+    exporter = new JmxMetricsExporter(metrics, server, "exporter-test");
+  }
+
+  @AfterEach
+  void tearDown() {
+    exporter.close();
+  }
+
+  @Test
+  void ensureMetricsAreExportedWhetherCreatedBeforeOrAfterStart() throws Exception {
+    val before = metrics.counter("install.download.bytes");
+    before.add(1024);
+    exporter.start();
+    val after = metrics.histogram("install.download.duration");
+    after.record(10);
+    after.record(30);
+    metrics.gauge("modules", () -> 7);
+
+    assertEquals(1024L, server.getAttribute(exporter.nameOf(before), "Count"));
+    assertEquals(30L, server.getAttribute(exporter.nameOf(after), "Max"));
+    assertEquals(20d, server.getAttribute(exporter.nameOf(after), "Mean"));
+    assertEquals(
+        2, server.getAttributes(exporter.nameOf(after), new String[] {"P50", "P99"}).size());
+    assertEquals(
+        7L, server.getAttribute(exporter.nameOf(metrics.gauge("modules", () -> 0)), "Value"));
+  }
+
+  @Test
+  void ensureCloseUnregistersEverything() throws Exception {
+    exporter.start();
+    val counter = metrics.counter("install.unpack.entries");
+    assertTrue(server.isRegistered(exporter.nameOf(counter)));
+    exporter.close();
+    assertFalse(server.isRegistered(exporter.nameOf(counter)));
+    metrics.counter("install.transfer.bytes");
+    assertFalse(server.isRegistered(exporter.nameOf(metrics.counter("install.transfer.bytes"))));
+  }
+
+  @Test
+  void ensureRemovedMetricsAreUnregistered() throws Exception {
+    exporter.start();
+    val gauge = metrics.gauge("module.a.queue.depth", () -> 1);
+    assertTrue(server.isRegistered(exporter.nameOf(gauge)));
+    assertTrue(metrics.remove("module.a.queue.depth"));
+    assertFalse(server.isRegistered(exporter.nameOf(gauge)));
+    assertFalse(metrics.remove("module.a.queue.depth"));
+    assertTrue(metrics.getMetrics().isEmpty());
+  }
+
+  @Test
+  void ensureMetricTypesAreNotConfused() {
+    metrics.counter("a");
+    assertThrows(IllegalArgumentException.class, () -> metrics.histogram("a"));
+    assertSame(metrics.counter("a"), metrics.counter("a"));
+  }
+}
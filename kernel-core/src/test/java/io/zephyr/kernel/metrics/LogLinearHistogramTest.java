@@ -0,0 +1,80 @@
+package io.zephyr.kernel.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({
+  "PMD.JUnitTestContainsTooManyAsserts",
+  "PMD.JUnitAssertionsShouldIncludeMessage",
+  "PMD.DoNotUseThreads"
+})
+class LogLinearHistogramTest {
+
+  @Test
+  void ensureBucketsCoverEveryValueInOrder() {
+    assertEquals(LogLinearHistogram.BUCKETS - 1, LogLinearHistogram.bucketOf(Long.MAX_VALUE));
+    int previous = -1;
+    for (long value = 0; value < 1 << 16; value++) {
+      val bucket = LogLinearHistogram.bucketOf(value);
+      assertTrue(bucket == previous || bucket == previous + 1, "value " + value);
+      assertTrue(LogLinearHistogram.highestValueIn(bucket) >= value);
+      previous = bucket;
+    }
+    assertEquals(Long.MAX_VALUE, LogLinearHistogram.highestValueIn(LogLinearHistogram.BUCKETS - 1));
+  }
+
+  @Test
+  void ensurePercentilesAreWithinPrecision() {
+    val histogram = new LogLinearHistogram("test");
+    for (long i = 1; i <= 100_000; i++) {
+      histogram.record(i * 1000);
+    }
+    val snapshot = histogram.snapshot();
+    assertEquals(100_000, snapshot.getCount());
+    assertEquals(1000, snapshot.getMin());
+    assertEquals(100_000_000, snapshot.getMax());
+    assertEquals(50_000_500, snapshot.getMean(), 1);
+    for (val percentile : new double[] {50, 90, 99, 99.9}) {
+      val expected = percentile * 1_000_000;
+      val actual = snapshot.getValueAtPercentile(percentile);
+      assertTrue(Math.abs(actual - expected) / expected < 0.04, percentile + ": " + actual);
+    }
+    assertEquals(100_000_000, snapshot.getValueAtPercentile(100));
+  }
+
+  @Test
+  void ensureEmptyAndNegativeValuesAreHandled() {
+    val histogram = new LogLinearHistogram("test");
+    assertEquals(0, histogram.snapshot().getValueAtPercentile(99));
+    assertEquals(0, histogram.snapshot().getMax());
+    histogram.record(-5);
+    assertEquals(0, histogram.snapshot().getMin());
+    assertEquals(1, histogram.snapshot().getCount());
+  }
+
+  @Test
+  void ensureConcurrentRecordingLosesNothing() throws Exception {
+    val histogram = new LogLinearHistogram("test");
+    val pool = Executors.newFixedThreadPool(4);
+    try {
+      for (int t = 0; t < 4; t++) {
+        pool.submit(
+            () -> {
+              for (long i = 0; i < 25_000; i++) {
+                histogram.record(i);
+              }
+            });
+      }
+    } finally {
+      pool.shutdown();
+      assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+    }
+    val snapshot = histogram.snapshot();
+    assertEquals(100_000, snapshot.getCount());
+    assertEquals(24_999, snapshot.getMax());
+  }
+}
@@ -0,0 +1,127 @@
+package io.zephyr.kernel.module;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.sunshower.test.common.Tests;
+import io.zephyr.kernel.KernelModuleEntry;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({
+  "PMD.AvoidDuplicateLiterals",
+  "PMD.JUnitTestContainsTooManyAsserts",
+  "PMD.JUnitAssertionsShouldIncludeMessage",
+})
+class ModuleListTest {
+
+  private File file;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    file = new File(Tests.createTemp(), "modules.list");
+    assertTrue(file.createNewFile());
+  }
+
+  @Test
+  void ensureEmptyListIsEmpty() {
+    val list = ModuleList.open(file);
+    assertEquals(0, list.size());
+    assertTrue(list.getEntries().isEmpty());
+    assertFalse(list.contains(entry(1, "a")));
+  }
+
+  @Test
+  void ensureAppendedEntriesAreReadInOrder() {
+    val list = ModuleList.open(file);
+    assertEquals(3, list.append(List.of(entry(3, "c"), entry(1, "a"), entry(2, "b"))));
+
+    val entries = ModuleList.open(file).getEntries();
+    assertEquals(List.of("c", "a", "b"), names(entries));
+    assertEquals(List.of("lib/c.jar"), entries.get(0).getLibraryFiles());
+    assertEquals(3, entries.get(0).getOrder());
+  }
+
+  @Test
+  void ensureDuplicateEntriesAreNotAppended() {
+    val list = ModuleList.open(file);
+    list.append(List.of(entry(1, "a"), entry(2, "b")));
+    assertEquals(1, list.append(List.of(entry(1, "a"), entry(3, "c"), entry(3, "c"))));
+    assertEquals(3, ModuleList.open(file).size());
+  }
+
+  @Test
+  void ensureContainsFindsIndexedAndAppendedEntries() {
+    val list = ModuleList.open(file);
+    val indexed = new ArrayList<KernelModuleEntry>();
+    for (int i = 0; i < 100; i++) {
+      indexed.add(entry(i, "indexed-" + i));
+    }
+    list.append(indexed);
+    list.append(List.of(entry(0, "appended")));
+
+    val reopened = ModuleList.open(file);
+    for (int i = 0; i < 100; i++) {
+      assertTrue(reopened.contains(entry(i, "indexed-" + i)));
+    }
+    assertTrue(reopened.contains(entry(0, "appended")));
+    assertFalse(reopened.contains(entry(0, "missing")));
+  }
+
+  @Test
+  void ensureAppendRegionIsCompacted() {
+    val list = ModuleList.open(file);
+    for (int i = 0; i < ModuleList.MAX_APPENDED * 2; i++) {
+      list.append(Collections.singletonList(entry(i, "module-" + i)));
+    }
+    val reopened = ModuleList.open(file);
+    assertEquals(ModuleList.MAX_APPENDED * 2, reopened.size());
+    assertEquals("module-0", reopened.getEntries().get(0).getName());
+    assertTrue(reopened.contains(entry(0, "module-" + (ModuleList.MAX_APPENDED * 2 - 1))));
+  }
+
+  @Test
+  void ensureTextFormatIsReadWithoutWritingIt() throws IOException {
+    val text = "1:io.zephyr:a:1.0.0[lib/a.jar]\n2:io.zephyr:b:1.0.0\n";
+    Files.writeString(file.toPath(), text);
+    val list = ModuleList.open(file);
+    assertEquals(List.of("a", "b"), names(list.getEntries()));
+    assertTrue(list.contains(new KernelModuleEntry(0, "b", "io.zephyr", "1.0.0", List.of())));
+    assertEquals(
+        0, list.append(List.of(new KernelModuleEntry(1, "a", "io.zephyr", "1.0.0", List.of()))));
+    assertEquals(text, Files.readString(file.toPath()));
+  }
+
+  @Test
+  void ensureTextFormatIsUpgradedByFirstAppend() throws IOException {
+    Files.writeString(file.toPath(), "1:io.zephyr:a:1.0.0[lib/a.jar]\n2:io.zephyr:b:1.0.0\n");
+    assertEquals(1, ModuleList.open(file).append(List.of(entry(3, "c"))));
+
+    val header = Files.readAllBytes(file.toPath());
+    assertEquals(ModuleList.MAGIC, ByteBuffer.wrap(header).getInt());
+    val reopened = ModuleList.open(file);
+    assertEquals(List.of("a", "b", "c"), names(reopened.getEntries()));
+    assertEquals(List.of("lib/a.jar"), reopened.getEntries().get(0).getLibraryFiles());
+    assertFalse(new File(file.getParentFile(), "modules.list.tmp").exists());
+  }
+
+  private static KernelModuleEntry entry(int order, String name) {
+    return new KernelModuleEntry(
+        order, name, "io.zephyr", "1.0.0", List.of("lib/" + name + ".jar"));
+  }
+
+  private static List<String> names(List<KernelModuleEntry> entries) {
+    val result = new ArrayList<String>(entries.size());
+    for (val entry : entries) {
+      result.add(entry.getName());
+    }
+    return result;
+  }
+}
@@ -0,0 +1,119 @@
+package io.zephyr.kernel.module;
+
+import static io.zephyr.kernel.module.ModulePredicates.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.sunshower.kernel.test.MockModule;
+import io.zephyr.kernel.Lifecycle;
+import io.zephyr.kernel.Module;
+import io.zephyr.kernel.core.DefaultModule;
+import io.zephyr.kernel.core.ModuleCoordinate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({
+  "PMD.AvoidDuplicateLiterals",
+  "PMD.JUnitTestContainsTooManyAsserts",
+  "PMD.JUnitAssertionsShouldIncludeMessage"
+})
+class ModuleStateIndexTest {
+
+  private ModuleStateIndex index;
+
+  @BeforeEach
+  void setUp() {
+    index = new ModuleStateIndex();
+  }
+
+  @Test
+  void ensureModulesAreIndexedByState() {
+    val a = module("io.zephyr", "a", Module.Type.Plugin, Lifecycle.State.Resolved);
+    val b = module("io.zephyr", "b", Module.Type.Plugin, Lifecycle.State.Active);
+    index.addAll(List.of(a, b));
+    assertEquals(List.of(a), index.getModules(Lifecycle.State.Resolved));
+    assertEquals(List.of(b), index.getModules(Lifecycle.State.Active));
+    assertTrue(index.getModules(Lifecycle.State.Failed).isEmpty());
+  }
+
+  @Test
+  void ensureStateTransitionsUpdateIndex() {
+    val a = module("io.zephyr", "a", Module.Type.Plugin, Lifecycle.State.Resolved);
+    index.add(a);
+    a.getLifecycle().setState(Lifecycle.State.Active);
+    assertTrue(index.getModules(Lifecycle.State.Resolved).isEmpty());
+    assertEquals(List.of(a), index.getModules(Lifecycle.State.Active));
+  }
+
+  @Test
+  void ensureRemovedModulesAreNoLongerTracked() {
+    val a = module("io.zephyr", "a", Module.Type.Plugin, Lifecycle.State.Resolved);
+    index.add(a);
+    index.remove(a);
+    a.getLifecycle().setState(Lifecycle.State.Active);
+    assertTrue(index.getModules(Lifecycle.State.Active).isEmpty());
+    assertEquals(0, index.size());
+  }
+
+  @Test
+  void ensureCombinedPredicatesArePushedDown() {
+    val a = module("io.zephyr", "a", Module.Type.Plugin, Lifecycle.State.Active);
+    val b = module("io.zephyr", "b", Module.Type.KernelModule, Lifecycle.State.Active);
+    val c = module("io.other", "c", Module.Type.Plugin, Lifecycle.State.Active);
+    val d = module("io.zephyr", "d", Module.Type.Plugin, Lifecycle.State.Resolved);
+    index.addAll(List.of(a, b, c, d));
+
+    assertEquals(
+        List.of(a),
+        index.getModules(
+            inState(Lifecycle.State.Active)
+                .and(ofType(Module.Type.Plugin))
+                .and(inGroup("io.zephyr"))));
+    assertEquals(
+        Set.of(a, d),
+        Set.copyOf(index.getModules(inGroup("io.zephyr").and(ofType(Module.Type.Plugin)))));
+    assertEquals(
+        List.of(d),
+        index.getModules(inGroup("io.zephyr").and(m -> m.getCoordinate().getName().equals("d"))));
+  }
+
+  @Test
+  void ensureContradictoryPredicatesMatchNothing() {
+    index.add(module("io.zephyr", "a", Module.Type.Plugin, Lifecycle.State.Active));
+    assertTrue(
+        index
+            .getModules(inState(Lifecycle.State.Active).and(inState(Lifecycle.State.Resolved)))
+            .isEmpty());
+  }
+
+  @Test
+  void ensureArbitraryPredicatesAreApplied() {
+    val a = module("io.zephyr", "a", Module.Type.Plugin, Lifecycle.State.Active);
+    val b = module("io.zephyr", "b", Module.Type.Plugin, Lifecycle.State.Active);
+    index.addAll(List.of(a, b));
+    assertEquals(List.of(b), index.getModules(m -> m.getCoordinate().getName().equals("b")));
+  }
+
+  @Test
+  void ensureModulesWithoutObservableLifecyclesAreStillQueryable() {
+    val mock =
+        new MockModule(ModuleCoordinate.create("io.zephyr", "mock", "1.0.0"), new ArrayList<>());
+    index.add(mock);
+    assertTrue(index.getModules(Lifecycle.State.Active).isEmpty());
+    assertEquals(List.of(mock), index.getModules(inGroup("io.zephyr")));
+  }
+
+  private static DefaultModule module(
+      String group, String name, Module.Type type, Lifecycle.State state) {
+    val module = new DefaultModule();
+    module.setType(type);
+    module.setCoordinate(ModuleCoordinate.create(group, name, "1.0.0"));
+    val lifecycle = new ModuleLifecycle(module);
+    lifecycle.setState(state);
+    module.setLifecycle(lifecycle);
+    return module;
+  }
+}
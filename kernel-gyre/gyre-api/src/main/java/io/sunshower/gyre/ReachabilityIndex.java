@@ -0,0 +1,310 @@
+package io.sunshower.gyre;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * a transitive-closure index over a directed graph. Vertices are numbered densely (numbers are
+ * recycled when vertices are removed) and every vertex keeps bitsets of its direct successors and
+ * predecessors, and of every vertex it reaches and is reached by. Queries cost time proportional to
+ * the size of their answer, rather than a walk over the graph.
+ *
+ * <p>Inserting an edge <code>u -&gt; v</code> unions <code>v</code>'s closure into everything that
+ * reaches <code>u</code> (and vice-versa). Deleting one recomputes the closures of only the
+ * vertices whose reachability could have changed: the ancestors of <code>u</code> and the
+ * descendants of <code>v</code>
+ *
+ * <p>This class is not thread-safe
+ *
+ * @param <V> the vertex type
+ */
+@SuppressWarnings({"PMD.DataflowAnomalyAnalysis", "PMD.AvoidInstantiatingObjectsInLoops"})
+public final class ReachabilityIndex<V> implements Cloneable {
+
+  private final Map<V, Integer> ids;
+  private final List<Node<V>> nodes;
+  private final BitSet free;
+
+  public ReachabilityIndex() {
+    ids = new HashMap<>();
+    nodes = new ArrayList<>();
+    free = new BitSet();
+  }
+
+  private ReachabilityIndex(ReachabilityIndex<V> index) {
+    ids = new HashMap<>(index.ids);
+    nodes = new ArrayList<>(index.nodes.size());
+    for (val node : index.nodes) {
+      nodes.add(node == null ? null : new Node<>(node));
+    }
+    free = (BitSet) index.free.clone();
+  }
+
+  /**
+   * @param graph the graph to index
+   * @param <E> the graph's edge type
+   * @param <V> the graph's vertex type
+   * @return an index over every vertex and edge currently in the graph
+   */
+  public static <E, V> ReachabilityIndex<V> of(@NonNull Graph<E, V> graph) {
+    val result = new ReachabilityIndex<V>();
+    for (val vertex : graph.vertexSet()) {
+      result.add(vertex);
+    }
+    for (val edge : graph.edgeSet()) {
+      result.connect(graph.getSource(edge), graph.getTarget(edge));
+    }
+    return result;
+  }
+
+  /** @return the number of vertices in this index */
+  public int size() {
+    return ids.size();
+  }
+
+  /**
+   * @param vertex the vertex to check
+   * @return true if this index contains the vertex
+   */
+  public boolean contains(V vertex) {
+    return ids.containsKey(vertex);
+  }
+
+  /**
+   * @param vertex the vertex to add
+   * @return true if the vertex was not already present
+   */
+  public boolean add(@NonNull V vertex) {
+    if (ids.containsKey(vertex)) {
+      return false;
+    }
+    id(vertex);
+    return true;
+  }
+
+  /**
+   * add an edge (and its endpoints, if they're absent)
+   *
+   * @param source the edge's source
+   * @param target the edge's target
+   * @return true if the edge was not already present
+   */
+  public boolean connect(@NonNull V source, @NonNull V target) {
+    val u = id(source);
+    val v = id(target);
+    val from = nodes.get(u);
+    if (from.successors.get(v)) {
+      return false;
+    }
+    from.successors.set(v);
+    nodes.get(v).predecessors.set(u);
+
+    if (from.descendants.get(v)) {
+      // v was already reachable from u: no closure changes
+      return true;
+    }
+    val sources = (BitSet) from.ancestors.clone();
+    sources.set(u);
+    val targets = (BitSet) nodes.get(v).descendants.clone();
+    targets.set(v);
+    for (int a = sources.nextSetBit(0); a >= 0; a = sources.nextSetBit(a + 1)) {
+      nodes.get(a).descendants.or(targets);
+    }
+    for (int d = targets.nextSetBit(0); d >= 0; d = targets.nextSetBit(d + 1)) {
+      nodes.get(d).ancestors.or(sources);
+    }
+    return true;
+  }
+
+  /**
+   * remove an edge. The endpoints remain
+   *
+   * @param source the edge's source
+   * @param target the edge's target
+   * @return true if the edge was present
+   */
+  public boolean disconnect(@NonNull V source, @NonNull V target) {
+    val u = ids.get(source);
+    val v = ids.get(target);
+    if (u == null || v == null || !nodes.get(u).successors.get(v)) {
+      return false;
+    }
+    val sources = (BitSet) nodes.get(u).ancestors.clone();
+    sources.set(u);
+    val targets = (BitSet) nodes.get(v).descendants.clone();
+    targets.set(v);
+    nodes.get(u).successors.clear(v);
+    nodes.get(v).predecessors.clear(u);
+    recompute(sources, targets);
+    return true;
+  }
+
+  /**
+   * remove a vertex and every edge incident to it
+   *
+   * @param vertex the vertex to remove
+   * @return true if the vertex was present
+   */
+  public boolean remove(@NonNull V vertex) {
+    val id = ids.remove(vertex);
+    if (id == null) {
+      return false;
+    }
+    val node = nodes.get(id);
+    val sources = node.ancestors;
+    val targets = node.descendants;
+    for (int p = node.predecessors.nextSetBit(0); p >= 0; p = node.predecessors.nextSetBit(p + 1)) {
+      nodes.get(p).successors.clear(id);
+    }
+    for (int s = node.successors.nextSetBit(0); s >= 0; s = node.successors.nextSetBit(s + 1)) {
+      nodes.get(s).predecessors.clear(id);
+    }
+    nodes.set(id, null);
+    free.set(id);
+    sources.clear(id);
+    targets.clear(id);
+    recompute(sources, targets);
+    return true;
+  }
+
+  /**
+   * @param source the source vertex
+   * @param target the target vertex
+   * @return true if there is a (non-empty) path from source to target
+   */
+  public boolean reaches(V source, V target) {
+    val u = ids.get(source);
+    val v = ids.get(target);
+    return u != null && v != null && nodes.get(u).descendants.get(v);
+  }
+
+  /**
+   * @param vertex the vertex
+   * @return the targets of the vertex's edges
+   */
+  public Set<V> getSuccessors(V vertex) {
+    val id = ids.get(vertex);
+    return id == null ? Collections.emptySet() : resolve(nodes.get(id).successors);
+  }
+
+  /**
+   * @param vertex the vertex
+   * @return the sources of the edges into the vertex
+   */
+  public Set<V> getPredecessors(V vertex) {
+    val id = ids.get(vertex);
+    return id == null ? Collections.emptySet() : resolve(nodes.get(id).predecessors);
+  }
+
+  /**
+   * @param vertex the vertex
+   * @return every vertex reachable from the vertex. Contains the vertex only if it's on a cycle
+   */
+  public Set<V> getReachableFrom(V vertex) {
+    val id = ids.get(vertex);
+    return id == null ? Collections.emptySet() : resolve(nodes.get(id).descendants);
+  }
+
+  /**
+   * @param vertex the vertex
+   * @return every vertex the vertex is reachable from. Contains the vertex only if it's on a cycle
+   */
+  public Set<V> getReaching(V vertex) {
+    val id = ids.get(vertex);
+    return id == null ? Collections.emptySet() : resolve(nodes.get(id).ancestors);
+  }
+
+  @Override
+  @SuppressWarnings({"PMD.ProperCloneImplementation", "CloneMethodReturnTypeMustMatchClassName"})
+  public ReachabilityIndex<V> clone() {
+    return new ReachabilityIndex<>(this);
+  }
+
+  private int id(V vertex) {
+    val existing = ids.get(vertex);
+    if (existing != null) {
+      return existing;
+    }
+    val recycled = free.nextSetBit(0);
+    final int id;
+    if (recycled >= 0) {
+      free.clear(recycled);
+      id = recycled;
+      nodes.set(id, new Node<>(vertex));
+    } else {
+      id = nodes.size();
+      nodes.add(new Node<>(vertex));
+    }
+    ids.put(vertex, id);
+    return id;
+  }
+
+  private void recompute(BitSet sources, BitSet targets) {
+    for (int s = sources.nextSetBit(0); s >= 0; s = sources.nextSetBit(s + 1)) {
+      val node = nodes.get(s);
+      node.descendants = closure(s, true);
+    }
+    for (int t = targets.nextSetBit(0); t >= 0; t = targets.nextSetBit(t + 1)) {
+      val node = nodes.get(t);
+      node.ancestors = closure(t, false);
+    }
+  }
+
+  private BitSet closure(int start, boolean forward) {
+    val result = new BitSet();
+    val stack = new ArrayDeque<Integer>();
+    stack.push(start);
+    while (!stack.isEmpty()) {
+      val current = nodes.get(stack.pop());
+      val adjacent = forward ? current.successors : current.predecessors;
+      for (int n = adjacent.nextSetBit(0); n >= 0; n = adjacent.nextSetBit(n + 1)) {
+        if (!result.get(n)) {
+          result.set(n);
+          stack.push(n);
+        }
+      }
+    }
+    return result;
+  }
+
+  private Set<V> resolve(BitSet bits) {
+    val result = new LinkedHashSet<V>(Math.max(16, bits.cardinality() * 2));
+    for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+      result.add(nodes.get(i).value);
+    }
+    return result;
+  }
+
+  static final class Node<V> {
+    final V value;
+    final BitSet successors;
+    final BitSet predecessors;
+    BitSet descendants;
+    BitSet ancestors;
+
+    Node(V value) {
+      this.value = value;
+      this.successors = new BitSet();
+      this.predecessors = new BitSet();
+      this.descendants = new BitSet();
+      this.ancestors = new BitSet();
+    }
+
+    Node(Node<V> node) {
+      this.value = node.value;
+      this.successors = (BitSet) node.successors.clone();
+      this.predecessors = (BitSet) node.predecessors.clone();
+      this.descendants = (BitSet) node.descendants.clone();
+      this.ancestors = (BitSet) node.ancestors.clone();
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package io.sunshower.gyre;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({
+  "PMD.JUnitTestContainsTooManyAsserts",
+  "PMD.JUnitAssertionsShouldIncludeMessage"
+})
+class ReachabilityIndexTest {
+
+  private ReachabilityIndex<String> index;
+
+  @BeforeEach
+  void setUp() {
+    index = new ReachabilityIndex<>();
+  }
+
+  @Test
+  void ensureTransitiveReachabilityIsTracked() {
+    index.connect("a", "b");
+    index.connect("b", "c");
+    index.connect("d", "c");
+    assertEquals(Set.of("b", "c"), index.getReachableFrom("a"));
+    assertEquals(Set.of("a", "b", "d"), index.getReaching("c"));
+    assertTrue(index.reaches("a", "c"));
+    assertFalse(index.reaches("c", "a"));
+    assertEquals(Set.of("b", "d"), index.getPredecessors("c"));
+  }
+
+  @Test
+  void ensureDisconnectingRemovesOnlyLostPaths() {
+    index.connect("a", "b");
+    index.connect("b", "d");
+    index.connect("a", "c");
+    index.connect("c", "d");
+    index.disconnect("b", "d");
+    assertTrue(index.reaches("a", "d"), "a still reaches d through c");
+    assertFalse(index.reaches("b", "d"));
+    assertEquals(Set.of("a", "c"), index.getReaching("d"));
+  }
+
+  @Test
+  void ensureRemovingVertexRemovesPathsThroughIt() {
+    index.connect("a", "b");
+    index.connect("b", "c");
+    index.remove("b");
+    assertFalse(index.contains("b"));
+    assertFalse(index.reaches("a", "c"));
+    assertTrue(index.getReaching("c").isEmpty());
+    index.connect("e", "a");
+    assertEquals(Set.of("e"), index.getReaching("a"));
+  }
+
+  @Test
+  void ensureCyclesReachThemselves() {
+    index.connect("a", "b");
+    index.connect("b", "a");
+    assertTrue(index.reaches("a", "a"));
+    index.disconnect("b", "a");
+    assertFalse(index.reaches("a", "a"));
+  }
+
+  @Test
+  void ensureClonesAreIndependent() {
+    index.connect("a", "b");
+    val clone = index.clone();
+    clone.connect("b", "c");
+    assertFalse(index.contains("c"));
+    assertTrue(clone.reaches("a", "c"));
+  }
+
+  @Test
+  void ensureIndexAgreesWithGraphSearchUnderRandomChurn() {
+    val random = new Random(7);
+    val graph = new AbstractDirectedGraph<String, String>();
+    for (int i = 0; i < 500; i++) {
+      val source = "v" + random.nextInt(20);
+      val target = "v" + random.nextInt(20);
+      if (random.nextInt(4) == 0) {
+        graph.disconnect(source, target);
+        index.disconnect(source, target);
+      } else if (random.nextInt(10) == 0) {
+        graph.remove(source);
+        index.remove(source);
+      } else {
+        graph.connect(source, target, DirectedGraph.outgoing(target));
+        index.connect(source, target);
+      }
+    }
+    for (val vertex : graph.vertexSet()) {
+      assertEquals(reachable(graph, vertex), index.getReachableFrom(vertex), vertex);
+    }
+  }
+
+  private static Set<String> reachable(Graph<DirectedGraph.Edge<String>, String> graph, String v) {
+    val result = new HashSet<String>();
+    val stack = new ArrayDeque<String>();
+    stack.push(v);
+    while (!stack.isEmpty()) {
+      for (val neighbor : graph.neighbors(stack.pop())) {
+        if (result.add(neighbor)) {
+          stack.push(neighbor);
+        }
+      }
+    }
+    return result;
+  }
+}
@@ -1,10 +1,12 @@
 package io.zephyr.kernel.core;
 
 import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.Lifecycle;
 import io.zephyr.kernel.Module;
 import io.zephyr.kernel.ModuleException;
 import io.zephyr.kernel.UnsatisfiedDependencyException;
 import io.zephyr.kernel.dependencies.DependencyGraph;
+import io.zephyr.kernel.jfr.ModuleDefinitionEvent;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -72,8 +74,9 @@ public final class KernelModuleLoader extends ModuleLoader
 
   @Override
   protected org.jboss.modules.Module preloadModule(final String name) throws ModuleLoadException {
-
+    val definition = ModuleDefinitionEvent.start();
     org.jboss.modules.Module result = loadModuleLocal(name);
+    val cached = result != null;
     if (result == null) {
       val loader = moduleLoaders.get(name);
       if (loader == null) {
@@ -86,9 +89,26 @@ public final class KernelModuleLoader extends ModuleLoader
     val classpath = new DefaultModuleClasspath(result, loader);
     target.setModuleLoader(loader);
     target.setModuleClasspath(classpath);
+    definition.complete(target.getCoordinate(), cached);
+    activateIfDeferred(target);
     return result;
   }
 
+  /**
+   * a module linking against a lazily-activated module is its first use. Activation runs on the
+   * kernel executor: we may be inside a class-load here and the activator may load classes
+   */
+  private void activateIfDeferred(Module target) {
+    if (target.getActivation() == Module.Activation.Lazy
+        && target.getLifecycle().getState() == Lifecycle.State.Starting) {
+      val coordinate = target.getCoordinate();
+      kernel
+          .getScheduler()
+          .getKernelExecutor()
+          .execute(() -> kernel.getModuleManager().activateDeferred(coordinate));
+    }
+  }
+
   @Override
   public ModuleClasspath loadModule(Coordinate coordinate) {
     try {
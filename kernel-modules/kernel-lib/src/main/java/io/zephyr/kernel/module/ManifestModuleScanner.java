@@ -79,8 +79,19 @@ public final class ManifestModuleScanner implements ModuleScanner {
     val description = attrs.getValue(ModuleDescriptor.Attributes.DESCRIPTION);
     val coordinate = new ModuleCoordinate(name, group, new SemanticVersion(version));
     val dependencies = parseDependencies(attrs);
+    val activation = attrs.getValue(ModuleDescriptor.Attributes.ACTIVATION);
     return new ModuleDescriptor(
-        source, order, file, type, coordinate, dependencies, Collections.emptyList(), description);
+        source,
+        order,
+        file,
+        type,
+        coordinate,
+        dependencies,
+        Collections.emptyList(),
+        description,
+        activation == null || activation.isBlank()
+            ? Module.Activation.Eager
+            : Module.Activation.parse(activation));
   }
 
   private List<Dependency> parseDependencies(Attributes attrs) throws IOException {
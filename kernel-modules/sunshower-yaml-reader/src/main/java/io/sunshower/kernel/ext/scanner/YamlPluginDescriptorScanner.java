@@ -59,6 +59,7 @@ public class YamlPluginDescriptorScanner implements ModuleScanner {
   static final String DESCRIPTION = "description";
   static final String DEPENDENCIES = "dependencies";
   static final String MODULE_TYPE = "type";
+  static final String ACTIVATION = "activation";
 
   /** dependency constants */
   static final String DEPENDENCY = "dependency";
@@ -142,6 +143,7 @@ public class YamlPluginDescriptorScanner implements ModuleScanner {
     val version = require(pluginDescriptor, VERSION);
     val description = optional(pluginDescriptor, DESCRIPTION);
     var moduleType = optional(pluginDescriptor, MODULE_TYPE);
+    val activation = optional(pluginDescriptor, ACTIVATION);
 
     final Module.Type modType;
     if (moduleType != null) {
@@ -172,7 +174,8 @@ public class YamlPluginDescriptorScanner implements ModuleScanner {
             ModuleCoordinate.create(group, name, version),
             dependencies,
             Collections.emptyList(),
-            description);
+            description,
+            activation == null ? Module.Activation.Eager : Module.Activation.parse(activation));
     return Optional.of(descriptor);
   }
 
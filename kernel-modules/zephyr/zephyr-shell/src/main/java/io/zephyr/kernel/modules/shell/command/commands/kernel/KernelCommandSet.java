@@ -5,7 +5,12 @@ import picocli.CommandLine;
 
 @CommandLine.Command(
     name = "kernel",
-    subcommands = {KernelStartCommand.class, KernelStopCommand.class, KernelRestartCommand.class})
+    subcommands = {
+      KernelStartCommand.class,
+      KernelStopCommand.class,
+      KernelRestartCommand.class,
+      KernelTimelineCommand.class
+    })
 public class KernelCommandSet extends DefaultCommand {
   private static final long serialVersionUID = 8596255314192173338L;
 
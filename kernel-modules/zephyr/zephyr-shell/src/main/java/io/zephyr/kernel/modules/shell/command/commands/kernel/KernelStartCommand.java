@@ -1,6 +1,7 @@
 package io.zephyr.kernel.modules.shell.command.commands.kernel;
 
 import io.zephyr.kernel.concurrency.ExecutorWorkerPool;
+import io.zephyr.kernel.concurrency.ForkJoinWorkerPool;
 import io.zephyr.kernel.concurrency.WorkerPool;
 import io.zephyr.kernel.core.DaggerSunshowerKernelConfiguration;
 import io.zephyr.kernel.core.Kernel;
@@ -45,6 +46,7 @@ public class KernelStartCommand extends DefaultCommand {
     }
 
     val kernelOptions = getKernelOptions(options);
+    kernelOptions.validate();
     Kernel kernel = context.getService(Kernel.class);
 
     if (kernel == null) {
@@ -81,10 +83,22 @@ public class KernelStartCommand extends DefaultCommand {
   }
 
   private WorkerPool createWorkerPool(KernelOptions kernelOptions, CommandContext context) {
+    if (kernelOptions.getWorkerPool() == WorkerPool.Type.ForkJoin) {
+      return new ForkJoinWorkerPool(
+          kernelOptions.getConcurrency(), kernelOptions.getKernelConcurrency());
+    }
     val kernelService =
         (ExecutorService)
             context.getLaunchContext().get(EntryPoint.ContextEntries.KERNEL_EXECUTOR_SERVICE);
 
+    if (kernelOptions.isAdaptiveConcurrency()) {
+      return ExecutorWorkerPool.adaptive(
+          kernelOptions.getConcurrency(),
+          kernelOptions.getConcurrencyFloor(),
+          kernelOptions.getConcurrencyCeiling(),
+          kernelService);
+    }
+
     val gyreService =
         new ThreadPoolExecutor(
             0, kernelOptions.getConcurrency(), 30L, TimeUnit.SECONDS, new LinkedTransferQueue<>());
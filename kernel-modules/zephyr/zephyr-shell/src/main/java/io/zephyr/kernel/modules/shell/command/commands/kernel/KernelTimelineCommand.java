@@ -0,0 +1,69 @@
+package io.zephyr.kernel.modules.shell.command.commands.kernel;
+
+import io.zephyr.kernel.core.BootTimeline;
+import io.zephyr.kernel.core.Kernel;
+import io.zephyr.kernel.core.SunshowerKernel;
+import io.zephyr.kernel.modules.shell.command.DefaultCommand;
+import io.zephyr.kernel.modules.shell.console.CommandContext;
+import io.zephyr.kernel.modules.shell.console.Console;
+import io.zephyr.kernel.modules.shell.console.Result;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import lombok.val;
+import picocli.CommandLine;
+
+/** prints the most recent boot's timeline, and anything that got slower since the boot before */
+@CommandLine.Command(name = "timeline")
+@SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+public class KernelTimelineCommand extends DefaultCommand {
+
+  private static final long serialVersionUID = 2476313940112749025L;
+
+  public KernelTimelineCommand() {
+    super("timeline");
+  }
+
+  @Override
+  public Result execute(CommandContext context) {
+    val kernel = context.getService(Kernel.class);
+    val console = context.getService(Console.class);
+
+    if (kernel == null || kernel.getFileSystem() == null) {
+      console.errorln("Kernel is not running");
+      return Result.failure();
+    }
+
+    try {
+      var timeline =
+          kernel instanceof SunshowerKernel ? ((SunshowerKernel) kernel).getBootTimeline() : null;
+      if (timeline == null) {
+        timeline = read(kernel.getFileSystem().getPath(BootTimeline.FILE));
+      }
+      if (timeline == null) {
+        console.errorln("No boot has been recorded");
+        return Result.failure();
+      }
+      console.successln("%s", timeline);
+
+      val previous = read(kernel.getFileSystem().getPath(BootTimeline.PREVIOUS_FILE));
+      if (previous != null && timeline.isComplete()) {
+        val regressions = timeline.compareTo(previous);
+        if (regressions.isEmpty()) {
+          console.successln("No regressions since the previous boot");
+        }
+        for (val regression : regressions) {
+          console.errorln("regression: %s", regression);
+        }
+      }
+    } catch (IOException ex) {
+      console.errorln("Failed to read boot timeline.  Reason: %s", ex.getMessage());
+      return Result.failure();
+    }
+    return Result.success();
+  }
+
+  private static BootTimeline read(Path file) throws IOException {
+    return Files.exists(file) ? BootTimeline.read(Files.readAllBytes(file)) : null;
+  }
+}
@@ -8,6 +8,7 @@ import picocli.CommandLine;
     subcommands = {
       InstallPluginCommand.class,
       ListPluginCommand.class,
+      PluginUsageCommand.class,
       StartPluginCommand.class,
       StopPluginCommand.class
     })
@@ -0,0 +1,56 @@
+package io.zephyr.kernel.modules.shell.command.commands.plugin;
+
+import io.zephyr.kernel.core.Kernel;
+import io.zephyr.kernel.core.KernelLifecycle;
+import io.zephyr.kernel.metrics.ModuleUsage;
+import io.zephyr.kernel.modules.shell.command.AbstractCommand;
+import io.zephyr.kernel.modules.shell.console.CommandContext;
+import io.zephyr.kernel.modules.shell.console.Console;
+import io.zephyr.kernel.modules.shell.console.Result;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import lombok.val;
+import picocli.CommandLine;
+
+/** lists what each started plugin has cost, busiest first */
+@CommandLine.Command(name = "usage")
+public class PluginUsageCommand extends AbstractCommand {
+  private static final long serialVersionUID = 5310274395410938816L;
+
+  public PluginUsageCommand() {
+    super("usage");
+  }
+
+  @Override
+  public Result execute(CommandContext context) {
+
+    val console = context.getService(Console.class);
+    val kernel = context.getService(Kernel.class);
+
+    if (kernel == null || kernel.getLifecycle().getState() != KernelLifecycle.State.Running) {
+      console.errorln("Kernel is not running");
+      return Result.failure();
+    }
+
+    val usages = new ArrayList<ModuleUsage>(kernel.getModuleUsage());
+    usages.sort(Comparator.comparingLong(ModuleUsage::getCpuTimeNanos).reversed());
+
+    console.successln(
+        "\t%-40s %10s %12s %8s %6s %12s %12s",
+        "plugin", "cpu ms", "allocated KB", "tasks", "queued", "p99 wait us", "p99 run us");
+    for (val usage : usages) {
+      console.successln(
+          "\t%-40s %10d %12d %8d %6d %12d %12d%s",
+          usage.getCoordinate().toCanonicalForm(),
+          TimeUnit.NANOSECONDS.toMillis(usage.getCpuTimeNanos()),
+          usage.getAllocatedBytes() < 0 ? -1 : usage.getAllocatedBytes() / 1024,
+          usage.getTasksCompleted(),
+          usage.getQueueDepth(),
+          TimeUnit.NANOSECONDS.toMicros(usage.getQueueLatency().getValueAtPercentile(99)),
+          TimeUnit.NANOSECONDS.toMicros(usage.getTaskDuration().getValueAtPercentile(99)),
+          usage.isRunning() ? "" : " (stopped)");
+    }
+    return Result.success();
+  }
+}
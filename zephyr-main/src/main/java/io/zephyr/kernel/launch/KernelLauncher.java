@@ -273,6 +273,7 @@ public class KernelLauncher implements EntryPoint, EntryPointRegistry {
     this.context = context;
     context.put(ContextEntries.ENTRY_POINT_REGISTRY, this);
     options = Options.create(KernelOptions::new, context);
+    options.validate();
     KernelLauncher.instance = this;
   }
 